@@ -0,0 +1,46 @@
+package cws.k8s.scheduler.benchmark;
+
+import cws.k8s.scheduler.model.FileHolder;
+import cws.k8s.scheduler.model.InputParam;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.location.hierachy.NoAlignmentFoundException;
+import cws.k8s.scheduler.model.location.hierachy.RealHierarchyFile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selection of the matching locations for every input file of every task.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class GetFilesForTaskBenchmark {
+
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<RealHierarchyFile> files = new ArrayList<>();
+
+    @Setup( Level.Trial )
+    public void setup( Workload workload ) {
+        for ( Task task : workload.taskList ) {
+            for ( InputParam<FileHolder> fileInput : task.getConfig().getInputs().fileInputs ) {
+                tasks.add( task );
+                files.add( (RealHierarchyFile) workload.hierarchyWrapper.getFile( fileInput.value.sourceObj ) );
+            }
+        }
+    }
+
+    @Benchmark
+    public void getFilesForTask( Blackhole blackhole ) throws NoAlignmentFoundException {
+        for ( int i = 0; i < files.size(); i++ ) {
+            blackhole.consume( files.get( i ).getFilesForTask( tasks.get( i ) ) );
+        }
+    }
+
+}
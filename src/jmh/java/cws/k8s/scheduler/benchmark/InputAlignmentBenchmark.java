@@ -0,0 +1,51 @@
+package cws.k8s.scheduler.benchmark;
+
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.scheduler.filealignment.GreedyAlignment;
+import cws.k8s.scheduler.scheduler.filealignment.InputAlignment;
+import cws.k8s.scheduler.scheduler.filealignment.costfunctions.MinSizeCost;
+import cws.k8s.scheduler.util.copying.CurrentlyCopyingOnNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alignment of the inputs of every task to one node, as done for each task and node in phase two and three.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class InputAlignmentBenchmark {
+
+    private InputAlignment inputAlignment;
+    private CurrentlyCopyingOnNode currentlyCopying;
+    private CurrentlyCopyingOnNode currentlyPlanedToCopy;
+
+    @Setup( Level.Trial )
+    public void setup() {
+        inputAlignment = new GreedyAlignment( 0.5, new MinSizeCost( 0 ) );
+        currentlyCopying = new CurrentlyCopyingOnNode();
+        currentlyPlanedToCopy = new CurrentlyCopyingOnNode();
+    }
+
+    @Benchmark
+    public void getInputAlignment( Workload workload, Blackhole blackhole ) {
+        final List<NodeWithAlloc> nodes = workload.cluster.getNodes();
+        for ( int i = 0; i < workload.taskList.size(); i++ ) {
+            final NodeWithAlloc node = nodes.get( i % nodes.size() );
+            blackhole.consume( inputAlignment.getInputAlignment(
+                    workload.taskList.get( i ),
+                    workload.inputs.get( i ),
+                    node,
+                    currentlyCopying,
+                    currentlyPlanedToCopy
+            ) );
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package cws.k8s.scheduler.benchmark;
+
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.scheduler.prioritize.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting of the unscheduled tasks at the beginning of each scheduling round.
+ * The strategy names are the same as for the registration of an execution.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class PrioritizeBenchmark {
+
+    @Param( { "fifo", "rank", "rank_min", "rank_max", "lff", "lff_max", "gs", "gsm", "random", "max", "min" } )
+    private String strategy;
+
+    private Prioritize prioritize;
+
+    @Setup( Level.Trial )
+    public void setup() {
+        prioritize = switch ( strategy ) {
+            case "fifo" -> new FifoPrioritize();
+            case "rank" -> new RankPrioritize();
+            case "rank_min" -> new RankMinPrioritize();
+            case "rank_max" -> new RankMaxPrioritize();
+            case "lff" -> new LeastFinishedFirstPrioritize();
+            case "lff_max" -> new LeastFinishedFirstMaxPrioritize();
+            case "gs" -> new GetSamplesMinPrioritize();
+            case "gsm" -> new GetSamplesMaxPrioritize();
+            case "random" -> new RandomPrioritize();
+            case "max" -> new MaxInputPrioritize();
+            case "min" -> new MinInputPrioritize();
+            default -> throw new IllegalArgumentException( "No Prioritize for: " + strategy );
+        };
+    }
+
+    @Benchmark
+    public List<Task> sortTasks( Workload workload ) {
+        final List<Task> tasks = new ArrayList<>( workload.taskList );
+        prioritize.sortTasks( tasks );
+        return tasks;
+    }
+
+}
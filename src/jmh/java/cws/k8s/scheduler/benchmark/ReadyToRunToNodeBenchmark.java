@@ -0,0 +1,45 @@
+package cws.k8s.scheduler.benchmark;
+
+import cws.k8s.scheduler.scheduler.la2.ready2run.OptimalReadyToRunToNode;
+import cws.k8s.scheduler.util.LogCopyTask;
+import cws.k8s.scheduler.util.NodeTaskLocalFilesAlignment;
+import cws.k8s.scheduler.util.score.FileSizeRankScore;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase one of the scheduling: the CP-SAT model for tasks that have all data on a node.
+ * With maxVariables 0 only the greedy plan is created.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ReadyToRunToNodeBenchmark {
+
+    @Param( { "5000", "0" } )
+    private int maxVariables;
+
+    private OptimalReadyToRunToNode readyToRunToNode;
+
+    @Setup( Level.Trial )
+    public void setup() {
+        readyToRunToNode = new OptimalReadyToRunToNode( OptimalReadyToRunToNode.DEFAULT_MAX_TIME_IN_SECONDS, 0, maxVariables );
+        readyToRunToNode.init( new FileSizeRankScore() );
+        readyToRunToNode.setLogger( Mockito.mock( LogCopyTask.class, Mockito.withSettings().stubOnly() ) );
+    }
+
+    @Benchmark
+    public List<NodeTaskLocalFilesAlignment> createAlignmentForTasksWithAllDataOnNode( Workload workload ) {
+        return readyToRunToNode.createAlignmentForTasksWithAllDataOnNode(
+                workload.tasksWithAllData,
+                workload.cluster.getAvailableByNode()
+        );
+    }
+
+}
@@ -0,0 +1,198 @@
+package cws.k8s.scheduler.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cws.k8s.scheduler.client.CWSKubernetesClient;
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.InputEdge;
+import cws.k8s.scheduler.dag.Origin;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.dag.Vertex;
+import cws.k8s.scheduler.model.*;
+import cws.k8s.scheduler.model.location.NodeLocation;
+import cws.k8s.scheduler.model.location.hierachy.HierarchyWrapper;
+import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
+import io.fabric8.kubernetes.api.model.Node;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodList;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import lombok.Getter;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Synthetic cluster and workload for the benchmarks.
+ * The Kubernetes client is a mock, only the nodes are served from memory.
+ * All data is generated from a seed, so that runs with the same parameters are comparable.
+ */
+@Getter
+public class SyntheticCluster {
+
+    public static final String WORK_DIR = "/benchmark/work";
+    public static final int PROCESSES = 10;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private final List<NodeWithAlloc> nodes;
+    private final CWSKubernetesClient client;
+    private final Random random;
+
+    public SyntheticCluster( int nodeCount, long seed ) {
+        this.random = new Random( seed );
+        final List<NodeWithAlloc> createdNodes = new ArrayList<>( nodeCount );
+        for ( int i = 0; i < nodeCount; i++ ) {
+            createdNodes.add( createNode( "node-" + i, "32", "128Gi" ) );
+        }
+        this.nodes = Collections.unmodifiableList( createdNodes );
+        this.client = stub( CWSKubernetesClient.class );
+        final MixedOperation<Pod, PodList, PodResource> pods = stub( MixedOperation.class );
+        final NonNamespaceOperation<Pod, PodList, PodResource> podsInNamespace = stub( NonNamespaceOperation.class );
+        when( client.pods() ).thenReturn( pods );
+        when( pods.inNamespace( anyString() ) ).thenReturn( podsInNamespace );
+        when( podsInNamespace.inform( any() ) ).thenReturn( stub( SharedIndexInformer.class ) );
+        when( client.getAllNodes() ).thenAnswer( invocation -> new ArrayList<>( nodes ) );
+        when( client.getNumberOfNodes() ).thenReturn( nodeCount );
+        for ( NodeWithAlloc node : nodes ) {
+            when( client.getNodeByName( node.getName() ) ).thenReturn( node );
+        }
+    }
+
+    /**
+     * Stub only, otherwise the mock records every invocation and the heap grows over the iterations
+     */
+    @SuppressWarnings( "unchecked" )
+    private static <T> T stub( Class<?> type ) {
+        return (T) Mockito.mock( type, Mockito.withSettings().stubOnly() );
+    }
+
+    public static NodeWithAlloc createNode( String name, String cpu, String memory ) {
+        final Node node = new NodeBuilder()
+                .withApiVersion( "v1" )
+                .withKind( "Node" )
+                .withNewMetadata().withName( name ).endMetadata()
+                .withNewSpec().endSpec()
+                .withNewStatus()
+                .addToAllocatable( "cpu", new Quantity( cpu ) )
+                .addToAllocatable( "memory", new Quantity( memory ) )
+                .addNewCondition().withType( "Ready" ).withStatus( "True" ).endCondition()
+                .endStatus()
+                .build();
+        return new NodeWithAlloc( node, null );
+    }
+
+    public SchedulerConfig createSchedulerConfig() {
+        final Map<String, Object> config = new HashMap<>();
+        config.put( "dns", "http://localhost:8080/" );
+        config.put( "copyStrategy", "ftp" );
+        config.put( "workDir", WORK_DIR );
+        config.put( "traceEnabled", false );
+        return MAPPER.convertValue( config, SchedulerConfig.class );
+    }
+
+    /**
+     * @return a new mutable map, alignments subtract the resources of the assigned tasks
+     */
+    public Map<NodeWithAlloc, Requirements> getAvailableByNode() {
+        final Map<NodeWithAlloc, Requirements> availableByNode = new HashMap<>();
+        for ( NodeWithAlloc node : nodes ) {
+            availableByNode.put( node, node.getAvailableResources() );
+        }
+        return availableByNode;
+    }
+
+    /**
+     * Registers a chain of {@link #PROCESSES} processes in the DAG.
+     */
+    public static void registerProcesses( DAG dag ) {
+        final List<Vertex> vertices = new ArrayList<>( PROCESSES + 1 );
+        final List<InputEdge> edges = new ArrayList<>( PROCESSES );
+        vertices.add( new Origin( "origin", 0 ) );
+        for ( int i = 1; i <= PROCESSES; i++ ) {
+            vertices.add( new Process( processName( i ), i ) );
+            edges.add( new InputEdge( i, i - 1, i ) );
+        }
+        dag.registerBulk( vertices, edges );
+    }
+
+    private static String processName( int uid ) {
+        return "process-" + uid;
+    }
+
+    /**
+     * Creates tasks that read the outputs of tasks of an earlier process.
+     * All inputs of a task are on one home node, some of them are replicated to a second node.
+     * The processes have to be registered with {@link #registerProcesses(DAG)} first.
+     * @param hierarchyWrapper the outputs are registered here
+     */
+    public List<Task> createTasks( DAG dag, HierarchyWrapper hierarchyWrapper, int taskCount, int filesPerTask ) {
+        final List<Task> tasks = new ArrayList<>( taskCount );
+        for ( int i = 0; i < taskCount; i++ ) {
+            final int process = 2 + random.nextInt( PROCESSES - 1 );
+            final Task producer = createTask( dag, process - 1 - random.nextInt( process - 1 ), "producer-" + i );
+            final Task task = createTask( dag, process, "task-" + i );
+            final String producerDir = producer.getConfig().getWorkDir();
+            final NodeLocation home = NodeLocation.getLocation( nodes.get( random.nextInt( nodes.size() ) ).getName() );
+            for ( int j = 0; j < filesPerTask; j++ ) {
+                final String path = producerDir + "/file-" + j + ".txt";
+                final long size = 1024L * 1024 + random.nextInt( 1024 ) * 1024L * 1024;
+                hierarchyWrapper.addFile( path, false, new LocationWrapper( home, 1, size, producer ) );
+                if ( nodes.size() > 1 && random.nextInt( 10 ) < 3 ) {
+                    final NodeLocation replica = NodeLocation.getLocation( nodes.get( random.nextInt( nodes.size() ) ).getName() );
+                    hierarchyWrapper.addFile( path, false, new LocationWrapper( replica, 2, size, producer ) );
+                }
+                task.getConfig().getInputs().fileInputs.add( new InputParam<>( "in", new FileHolder( null, path, null ) ) );
+            }
+            tasks.add( task );
+        }
+        return tasks;
+    }
+
+    private Task createTask( DAG dag, int process, String name ) {
+        final Map<String, Object> config = new HashMap<>();
+        config.put( "task", processName( process ) );
+        config.put( "name", name );
+        config.put( "runName", name );
+        config.put( "workDir", createWorkDir() );
+        config.put( "cpus", 1 + random.nextInt( 4 ) );
+        config.put( "memoryInBytes", ( 1 + random.nextInt( 8 ) ) * GB );
+        config.put( "inputs", Map.of( "fileInputs", new ArrayList<>() ) );
+        final TaskConfig taskConfig = MAPPER.convertValue( config, TaskConfig.class );
+        final Task task = new Task( taskConfig, dag );
+        task.setPod( createPod( taskConfig ) );
+        return task;
+    }
+
+    private static PodWithAge createPod( TaskConfig config ) {
+        final Pod pod = new PodBuilder()
+                .withNewMetadata().withName( config.getRunName() ).withNamespace( "default" ).endMetadata()
+                .withNewSpec()
+                .addNewContainer()
+                .withNewResources()
+                .addToRequests( "cpu", new Quantity( String.valueOf( config.getCpus() ) ) )
+                .addToRequests( "memory", new Quantity( String.valueOf( config.getMemoryInBytes() ) ) )
+                .endResources()
+                .endContainer()
+                .endSpec()
+                .build();
+        return new PodWithAge( pod );
+    }
+
+    /**
+     * Same layout as the Nextflow work directory: two hex chars and the remaining 30 chars of the hash
+     */
+    private String createWorkDir() {
+        final String hash = String.format( "%016x%016x", random.nextLong(), random.nextLong() );
+        return WORK_DIR + "/" + hash.substring( 0, 2 ) + "/" + hash.substring( 2 );
+    }
+}
@@ -0,0 +1,115 @@
+package cws.k8s.scheduler.benchmark;
+
+import cws.k8s.scheduler.util.IndexedHeap;
+import cws.k8s.scheduler.util.SortedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of the copy-task planning phases: take the best candidate, and either drop it
+ * or move on to its next best node, which makes it worse and reinserts it.
+ * Candidates have one cost per node, like a TaskStat has one entry per node.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TaskStatQueueBenchmark {
+
+    private static final int NODES = 10;
+
+    @Param( { "1000", "10000", "30000" } )
+    private int candidates;
+
+    private List<Candidate> workload;
+
+    private static class Candidate implements Comparable<Candidate> {
+
+        private final long[] costs;
+        private int index = 0;
+
+        Candidate( long[] costs ) {
+            this.costs = costs;
+        }
+
+        boolean increaseIndexToCompare() {
+            if ( index + 1 < costs.length ) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo( Candidate o ) {
+            return Long.compare( costs[index], o.costs[o.index] );
+        }
+
+    }
+
+    @Setup( Level.Invocation )
+    public void setup() {
+        final Random random = new Random( 42 );
+        workload = new ArrayList<>( candidates );
+        for ( int i = 0; i < candidates; i++ ) {
+            final long[] costs = new long[NODES];
+            for ( int j = 0; j < NODES; j++ ) {
+                costs[j] = random.nextInt( 1_000_000 );
+            }
+            Arrays.sort( costs );
+            workload.add( new Candidate( costs ) );
+        }
+    }
+
+    /**
+     * Every third candidate cannot be placed on its current node
+     */
+    private static boolean cannotAdd( Candidate candidate ) {
+        return candidate.costs[candidate.index] % 3 == 0;
+    }
+
+    @Benchmark
+    public int sortedList() {
+        final SortedList<Candidate> stats = new SortedList<>( workload );
+        int planned = 0;
+        while ( !stats.isEmpty() ) {
+            final Candidate poll = stats.poll();
+            if ( cannotAdd( poll ) ) {
+                if ( poll.increaseIndexToCompare() ) {
+                    stats.add( poll );
+                }
+            } else {
+                planned++;
+            }
+        }
+        return planned;
+    }
+
+    @Benchmark
+    public int indexedHeap() {
+        final IndexedHeap<Candidate> stats = new IndexedHeap<>( workload );
+        int planned = 0;
+        while ( !stats.isEmpty() ) {
+            final Candidate poll = stats.peek();
+            if ( cannotAdd( poll ) ) {
+                if ( poll.increaseIndexToCompare() ) {
+                    stats.update( poll );
+                } else {
+                    stats.poll();
+                }
+            } else {
+                planned++;
+                stats.poll();
+            }
+        }
+        return planned;
+    }
+
+}
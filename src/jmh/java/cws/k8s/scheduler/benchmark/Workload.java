@@ -0,0 +1,67 @@
+package cws.k8s.scheduler.benchmark;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.model.InputFileCollector;
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.location.hierachy.HierarchyWrapper;
+import cws.k8s.scheduler.model.location.hierachy.NoAlignmentFoundException;
+import cws.k8s.scheduler.model.taskinputs.TaskInputs;
+import cws.k8s.scheduler.scheduler.data.TaskInputsNodes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tasks with their inputs on a {@link SyntheticCluster}, shared by the benchmarks of single scheduling steps.
+ */
+@State( Scope.Benchmark )
+public class Workload {
+
+    @Param( { "100", "1000" } )
+    public int tasks;
+
+    @Param( { "10", "50" } )
+    public int nodes;
+
+    @Param( { "10", "100" } )
+    public int filesPerTask;
+
+    public SyntheticCluster cluster;
+    public DAG dag;
+    public HierarchyWrapper hierarchyWrapper;
+    public List<Task> taskList;
+    public List<TaskInputs> inputs;
+
+    /**
+     * Tasks that have all data on at least one node, as passed to the phase one of the scheduling
+     */
+    public List<TaskInputsNodes> tasksWithAllData;
+
+    @Setup( Level.Trial )
+    public void setup() throws NoAlignmentFoundException {
+        cluster = new SyntheticCluster( nodes, 42 );
+        dag = new DAG();
+        SyntheticCluster.registerProcesses( dag );
+        hierarchyWrapper = new HierarchyWrapper( SyntheticCluster.WORK_DIR );
+        taskList = Collections.unmodifiableList( cluster.createTasks( dag, hierarchyWrapper, tasks, filesPerTask ) );
+
+        final InputFileCollector inputFileCollector = new InputFileCollector( hierarchyWrapper );
+        inputs = new ArrayList<>( tasks );
+        tasksWithAllData = new ArrayList<>( tasks );
+        for ( Task task : taskList ) {
+            final TaskInputs inputsOfTask = inputFileCollector.getInputsOfTask( task, nodes );
+            inputs.add( inputsOfTask );
+            final List<NodeWithAlloc> nodesWithAllData = new ArrayList<>();
+            for ( NodeWithAlloc node : cluster.getNodes() ) {
+                if ( inputsOfTask.allFilesAreOnLocationAndNotOverwritten( node.getNodeLocation(), Collections.emptySet() ) ) {
+                    nodesWithAllData.add( node );
+                }
+            }
+            tasksWithAllData.add( new TaskInputsNodes( task, nodesWithAllData, inputsOfTask ) );
+        }
+    }
+
+}
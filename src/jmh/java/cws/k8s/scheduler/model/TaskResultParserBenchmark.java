@@ -0,0 +1,90 @@
+package cws.k8s.scheduler.model;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.dag.Vertex;
+import cws.k8s.scheduler.model.location.NodeLocation;
+import cws.k8s.scheduler.model.outfiles.OutputFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parsing of the .command.infiles and .command.outfiles of a finished task,
+ * compared to the former String based implementation.
+ */
+@org.openjdk.jmh.annotations.State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TaskResultParserBenchmark {
+
+    @Param( { "1000", "100000" } )
+    private int files;
+
+    @Param( { "false", "true" } )
+    private boolean onlyUpdated;
+
+    private Path workdir;
+    private Task task;
+    private final NodeLocation location = NodeLocation.getLocation( "node-0" );
+
+    @Setup( Level.Trial )
+    public void setup() throws IOException {
+        final DAG dag = new DAG();
+        dag.registerVertices( List.<Vertex>of( new Process( "P1", 1 ) ) );
+        task = new Task( new TaskConfig( "P1" ), dag );
+
+        workdir = Files.createTempDirectory( "results" );
+        final Random random = new Random( 42 );
+        final long initialDate = 1658328555702440734L;
+        final String root = "/localdata/localwork/30/adb97e8cffa8a086608565fb4c4ea9/";
+        try ( BufferedWriter infiles = Files.newBufferedWriter( workdir.resolve( ".command.infiles" ) );
+              BufferedWriter outfiles = Files.newBufferedWriter( workdir.resolve( ".command.outfiles" ) ) ) {
+            infiles.write( initialDate + "\n" );
+            infiles.write( "/localdata/localwork/scratch/nxf.QqsTpl7jcy/;1;;4096;directory\n" );
+            outfiles.write( root + "\n" );
+            for ( int i = 0; i < files; i++ ) {
+                final String virtualPath = "in/" + i + "/file-" + i + ".txt";
+                final String realPath = random.nextBoolean() ? "" : "/pvcdata/work/stage/" + i + ".txt";
+                infiles.write( virtualPath + ";1;" + realPath + ";" + random.nextInt( 1000 ) + ";regular file\n" );
+                final long modified = initialDate + random.nextInt( 2000 ) - 1000;
+                if ( random.nextBoolean() ) {
+                    outfiles.write( root + virtualPath + ";1;" + realPath + ";" + random.nextInt( 1000 ) + ";regular file;-;" + modified + ";" + modified + "\n" );
+                }
+                outfiles.write( root + "out/" + i + ";1;;" + random.nextInt( 1000 ) + ";regular file;-;" + modified + ";" + modified + "\n" );
+            }
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws IOException {
+        try ( Stream<Path> paths = Files.walk( workdir ) ) {
+            for ( Path path : paths.sorted( Comparator.reverseOrder() ).toList() ) {
+                Files.delete( path );
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<OutputFile> byteLevel() {
+        return new TaskResultParser().getNewAndUpdatedFiles( workdir, location, onlyUpdated, task );
+    }
+
+    @Benchmark
+    public Set<OutputFile> lineBased() {
+        return new LineBasedTaskResultParser().getNewAndUpdatedFiles( workdir, location, onlyUpdated, task );
+    }
+
+}
@@ -0,0 +1,75 @@
+package cws.k8s.scheduler.scheduler;
+
+import cws.k8s.scheduler.benchmark.SyntheticCluster;
+import cws.k8s.scheduler.model.ScheduleObject;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.scheduler.filealignment.GreedyAlignment;
+import cws.k8s.scheduler.scheduler.filealignment.costfunctions.MinSizeCost;
+import cws.k8s.scheduler.scheduler.la2.ready2run.OptimalReadyToRunToNode;
+import cws.k8s.scheduler.util.NodeTaskFilesAlignment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One scheduling round of the {@link LocationAwareSchedulerV2}: phase one assigns tasks that have all data on a node,
+ * phase two and three plan copy tasks. Copy tasks are not started.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class LocationAwareSchedulerV2Benchmark {
+
+    @Param( { "100", "1000" } )
+    private int tasks;
+
+    @Param( { "10", "50" } )
+    private int nodes;
+
+    @Param( { "10", "100" } )
+    private int filesPerTask;
+
+    private SyntheticCluster cluster;
+    private LocationAwareSchedulerV2 scheduler;
+    private List<Task> unscheduledTasks;
+
+    @Setup( Level.Trial )
+    public void setup() {
+        cluster = new SyntheticCluster( nodes, 42 );
+        scheduler = new LocationAwareSchedulerV2(
+                "benchmark",
+                cluster.getClient(),
+                "default",
+                cluster.createSchedulerConfig(),
+                new GreedyAlignment( 0.5, new MinSizeCost( 0 ) ),
+                new OptimalReadyToRunToNode()
+        ) {
+            @Override
+            void startCopyTask( NodeTaskFilesAlignment nodeTaskFilesAlignment ) {
+                // only the planning is measured
+            }
+        };
+        SyntheticCluster.registerProcesses( scheduler.getDag() );
+        unscheduledTasks = cluster.createTasks( scheduler.getDag(), scheduler.hierarchyWrapper, tasks, filesPerTask );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Benchmark
+    public ScheduleObject getTaskNodeAlignment() {
+        return scheduler.getTaskNodeAlignment( unscheduledTasks, cluster.getAvailableByNode() );
+    }
+
+    @Benchmark
+    public void postScheduling() {
+        scheduler.postScheduling( unscheduledTasks, cluster.getAvailableByNode() );
+    }
+
+}
@@ -1,13 +1,16 @@
 package cws.k8s.scheduler.client;
 
+import cws.k8s.scheduler.model.NodeCapacityTable;
 import cws.k8s.scheduler.model.NodeWithAlloc;
 import cws.k8s.scheduler.model.PodWithAge;
+import cws.k8s.scheduler.model.Requirements;
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.util.MyExecListner;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.*;
 import io.fabric8.kubernetes.client.dsl.*;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.ByteArrayOutputStream;
@@ -22,12 +25,16 @@ public class CWSKubernetesClient {
 
     private final Map<String, NodeWithAlloc> nodeHolder= new HashMap<>();
     private final List<Informable> informables = new LinkedList<>();
+    @Getter
+    private final NodeCapacityTable capacityTable = new NodeCapacityTable();
 
     public CWSKubernetesClient() {
         KubernetesClientBuilder builder = new KubernetesClientBuilder();
         this.client = builder.build();
         for( Node node : this.nodes().list().getItems() ){
-            nodeHolder.put( node.getMetadata().getName(), new NodeWithAlloc(node,this) );
+            final NodeWithAlloc nodeWithAlloc = new NodeWithAlloc( node, this );
+            nodeHolder.put( node.getMetadata().getName(), nodeWithAlloc );
+            capacityTable.addNode( nodeWithAlloc );
         }
         this.pods().inAnyNamespace().watch( new PodWatcher( this ) );
         this.nodes().watch( new NodeWatcher( this ) );
@@ -74,10 +81,10 @@ public class CWSKubernetesClient {
         }
     }
 
-    private void informAllInformable(){
+    private void informAllNodeResourcesChanged( NodeWithAlloc node ){
         synchronized ( informables ){
             for (Informable informable : informables ) {
-                informable.informResourceChange();
+                informable.nodeResourcesChanged( node );
             }
         }
     }
@@ -136,6 +143,10 @@ public class CWSKubernetesClient {
         }
     }
 
+    public NodeWithAlloc getNodeByName( String name ){
+        return nodeHolder.get( name );
+    }
+
     public List<NodeWithAlloc> getAllNodes(){
         return new ArrayList<>(this.nodeHolder.values());
     }
@@ -184,7 +195,7 @@ public class CWSKubernetesClient {
         final ExecWatch exec = this.pods()
                 .inNamespace( namespace )
                 .withName( podName )
-                .writingOutput( out )
+                .writingOutput( listener.wrapOutput( out ) )
                 .writingError( error )
                 .usingListener( listener )
                 .exec( command );
@@ -219,6 +230,7 @@ public class CWSKubernetesClient {
                         if ( ! kubernetesClient.nodeHolder.containsKey( node.getMetadata().getName() ) ){
                             processedNode = new NodeWithAlloc(node,kubernetesClient);
                             kubernetesClient.nodeHolder.put( node.getMetadata().getName(), processedNode );
+                            kubernetesClient.capacityTable.addNode( processedNode );
                             change = true;
                         }
                     }
@@ -231,6 +243,7 @@ public class CWSKubernetesClient {
                     synchronized ( kubernetesClient.nodeHolder ){
                         if ( kubernetesClient.nodeHolder.containsKey( node.getMetadata().getName() ) ){
                             processedNode  = kubernetesClient.nodeHolder.remove( node.getMetadata().getName() );
+                            kubernetesClient.capacityTable.removeNode( processedNode );
                             change = true;
                         }
                     }
@@ -282,7 +295,7 @@ public class CWSKubernetesClient {
                         //Delete Pod in any case
                         if ( node.removePod( pod ) ){
                             log.info("Pod has released its resources: {}", pod.getMetadata().getName());
-                            kubernetesClient.informAllInformable();
+                            kubernetesClient.informAllNodeResourcesChanged( node );
                         }
                         break;
                     default: log.warn("No implementation for {}", action);
@@ -322,18 +335,18 @@ public class CWSKubernetesClient {
     }
 
     /**
-     * It will create a patch for the memory limits and request values and submit it
-     * to the cluster.
+     * It will create a patch for the memory limits and request values and the cpu request and submit it
+     * to the cluster. Only the resources that were scaled are changed.
      * Moreover, it updates the task with the new pod.
      *
      * @param t          the task to be patched
      * @return false if patching failed because of InPlacePodVerticalScaling
      */
-    public boolean patchTaskMemory( Task t ) {
+    public boolean patchTaskRequirements( Task t ) {
         try {
-            final String valueAsString = t.getPlanedRequirements().getRam()
-                    .divide( BigDecimal.valueOf( 1024L * 1024L ) )
-                    .setScale( 0, RoundingMode.CEILING ).toPlainString() + "Mi";
+            final Requirements planed = t.getPlanedRequirements();
+            final boolean memoryScaled = planed.getRam().compareTo( t.getOriginalMemoryRequest() ) != 0;
+            final boolean cpuScaled = planed.getCpu().compareTo( t.getOriginalCpuRequest() ) != 0;
             final PodWithAge pod = t.getPod();
             String namespace = pod.getMetadata().getNamespace();
             String podname = pod.getName();
@@ -341,23 +354,38 @@ public class CWSKubernetesClient {
                     .inNamespace( namespace )
                     .withName( podname );
             Container container = podResource.get().getSpec().getContainers().get(0); // Assuming only one container
-            Container modifiedContainer = new ContainerBuilder(container)
-                    .editOrNewResources()
-                    .removeFromLimits( "memory" )
-                    .removeFromRequests( "memory" )
-                    .addToLimits("memory", new Quantity(valueAsString))
-                    .addToRequests("memory", new Quantity(valueAsString))
-                    .endResources()
-                    .build();
+            final ContainerBuilder containerBuilder = new ContainerBuilder( container );
+            final PodBuilder podBuilder = new PodBuilder( podResource.get() );
+            if ( memoryScaled ) {
+                final String valueAsString = planed.getRam()
+                        .divide( BigDecimal.valueOf( 1024L * 1024L ) )
+                        .setScale( 0, RoundingMode.CEILING ).toPlainString() + "Mi";
+                containerBuilder
+                        .editOrNewResources()
+                        .removeFromLimits( "memory" )
+                        .removeFromRequests( "memory" )
+                        .addToLimits("memory", new Quantity(valueAsString))
+                        .addToRequests("memory", new Quantity(valueAsString))
+                        .endResources();
+                podBuilder.editOrNewMetadata().addToLabels( "commonworkflowscheduler/memoryscaled", "true" ).endMetadata();
+            }
+            if ( cpuScaled ) {
+                // the request is never raised above the original one, so a cpu limit stays valid,
+                // tasks whose cpu limit equals the request are not scaled to keep the QoS class
+                containerBuilder
+                        .editOrNewResources()
+                        .removeFromRequests( "cpu" )
+                        .addToRequests( "cpu", new Quantity( planed.getCpuInMilli() + "m" ) )
+                        .endResources();
+                podBuilder.editOrNewMetadata().addToLabels( "commonworkflowscheduler/cpuscaled", "true" ).endMetadata();
+            }
+            Container modifiedContainer = containerBuilder.build();
 
-            Pod modifiedPod = new PodBuilder( podResource.get() )
+            Pod modifiedPod = podBuilder
                     .editOrNewSpec()
                     .removeFromContainers( container )
                     .addToContainers(modifiedContainer)
                     .endSpec()
-                    .editOrNewMetadata()
-                    .addToLabels( "commonworkflowscheduler/memoryscaled", "true" )
-                    .endMetadata()
                     .build();
 
             t.setPod( new PodWithAge( modifiedPod ) );
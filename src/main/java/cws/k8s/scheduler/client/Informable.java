@@ -8,5 +8,13 @@ public interface Informable {
     void newNode( NodeWithAlloc node );
     void removedNode( NodeWithAlloc node );
 
+    /**
+     * Called if resources on a specific node were released
+     * @param node the node with changed capacity
+     */
+    default void nodeResourcesChanged( NodeWithAlloc node ) {
+        informResourceChange();
+    }
+
 
 }
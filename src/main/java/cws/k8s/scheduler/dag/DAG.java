@@ -1,14 +1,13 @@
 package cws.k8s.scheduler.dag;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 public class DAG {
 
     private final Map<Integer, Vertex> vertices = new HashMap<>();
     private final Map<Integer, Edge> edges = new HashMap<>();
     private final Map<String, Process> processes = new HashMap<>();
+    private final ReachabilityIndex reachabilityIndex = new ReachabilityIndex();
 
     /**
      * not private for testing
@@ -29,12 +28,21 @@ public class DAG {
         return process;
     }
 
+    /**
+     * Answers in O(1) using the bitsets of the processes.
+     * @return true if b depends on data created by a
+     */
+    public boolean isAncestor( Process a, Process b ){
+        return b.hasAncestor( a );
+    }
+
     public void registerVertices( List<Vertex> vertices ){
         for (Vertex vertex : vertices) {
             synchronized ( this.vertices ) {
                 this.vertices.put( vertex.getUid(), vertex );
             }
             if ( vertex.getType() == Type.PROCESS ) {
+                reachabilityIndex.register( (Process) vertex );
                 synchronized ( this.processes ) {
                     this.processes.put( vertex.getLabel(), (Process) vertex );
                 }
@@ -55,6 +63,135 @@ public class DAG {
         }
     }
 
+    /**
+     * Registers many vertices and edges at once, e.g., the whole workflow at the start of an execution.
+     * Other than {@link #registerEdges(List)}, relations are not propagated edge by edge.
+     * Instead, ancestors, descendants and ranks are computed once in topological order.
+     * The request is validated first, if it is invalid, e.g., contains a cycle, the DAG is not changed.
+     */
+    public void registerBulk( List<Vertex> vertices, List<InputEdge> edges ){
+        synchronized ( this.vertices ) {
+            final Map<Integer, Vertex> newVertices = new HashMap<>( vertices.size() * 2 );
+            for (Vertex vertex : vertices) {
+                newVertices.put( vertex.getUid(), vertex );
+            }
+            final List<Edge> newEdges = new ArrayList<>( edges.size() );
+            final Map<Vertex, List<Edge>> newOutbound = new HashMap<>();
+            for (InputEdge edge : edges) {
+                final Vertex from = newVertices.containsKey( edge.getFrom() ) ? newVertices.get( edge.getFrom() ) : getByUid( edge.getFrom() );
+                final Vertex to = newVertices.containsKey( edge.getTo() ) ? newVertices.get( edge.getTo() ) : getByUid( edge.getTo() );
+                final Edge edgeNew = new Edge( edge.getUid(), edge.getLabel(), from, to );
+                if ( to.getType() == Type.ORIGIN ) {
+                    throw new IllegalStateException( "Cannot add an Edge(uid: " + edgeNew.getUid() + "; "  + edge.getFrom() + " -> " + edge.getTo() + ") inbound to an Origin" );
+                }
+                newEdges.add( edgeNew );
+                newOutbound.computeIfAbsent( from, v -> new ArrayList<>() ).add( edgeNew );
+            }
+            final Map<Integer, Vertex> allVertices = new HashMap<>( this.vertices );
+            allVertices.putAll( newVertices );
+            topologicalOrder( allVertices.values(), newOutbound );
+
+            registerVertices( vertices );
+            synchronized ( this.edges ) {
+                for (Edge edge : newEdges) {
+                    this.edges.put( edge.getUid(), edge );
+                }
+            }
+            for (Edge edge : newEdges) {
+                edge.getFrom().out.add( edge );
+                edge.getTo().in.add( edge );
+            }
+            recomputeRelations();
+        }
+    }
+
+    /**
+     * Computes ancestors and descendants of all processes with one bitset union per edge.
+     * The rank of a vertex is the highest rank of its successors, incremented by one for processes.
+     */
+    private void recomputeRelations(){
+        final List<Vertex> order = topologicalOrder();
+        final Map<Vertex, BitSet> ancestors = new HashMap<>( order.size() * 2 );
+        for (Vertex vertex : order) {
+            final BitSet bits = new BitSet();
+            for (Edge edge : vertex.in) {
+                final Vertex from = edge.getFrom();
+                bits.or( ancestors.get( from ) );
+                if ( from.getType() == Type.PROCESS ) {
+                    bits.set( ((Process) from).getDenseId() );
+                }
+            }
+            ancestors.put( vertex, bits );
+        }
+        final Map<Vertex, BitSet> descendants = new HashMap<>( order.size() * 2 );
+        for (int i = order.size() - 1; i >= 0; i--) {
+            final Vertex vertex = order.get( i );
+            final BitSet bits = new BitSet();
+            int rank = 0;
+            for (Edge edge : vertex.out) {
+                final Vertex to = edge.getTo();
+                bits.or( descendants.get( to ) );
+                if ( to.getType() == Type.PROCESS ) {
+                    bits.set( ((Process) to).getDenseId() );
+                }
+                rank = Math.max( rank, to.incRank( to.getRank() ) );
+            }
+            descendants.put( vertex, bits );
+            vertex.setRank( rank );
+            if ( vertex.getType() == Type.PROCESS ) {
+                ((Process) vertex).setRelations( ancestors.get( vertex ), bits );
+            }
+        }
+    }
+
+    /**
+     * Kahn's algorithm over all registered vertices
+     */
+    private List<Vertex> topologicalOrder(){
+        return topologicalOrder( this.vertices.values(), Map.of() );
+    }
+
+    /**
+     * Kahn's algorithm over the vertices with their registered edges plus the additional ones
+     * @param additionalOutbound edges that are not registered yet, by their source
+     */
+    private List<Vertex> topologicalOrder( Collection<Vertex> vertices, Map<Vertex, List<Edge>> additionalOutbound ){
+        final Map<Vertex, Integer> inDegree = new HashMap<>( vertices.size() * 2 );
+        for (Vertex vertex : vertices) {
+            inDegree.merge( vertex, vertex.in.size(), Integer::sum );
+        }
+        for (List<Edge> outbound : additionalOutbound.values()) {
+            for (Edge edge : outbound) {
+                inDegree.merge( edge.getTo(), 1, Integer::sum );
+            }
+        }
+        final Deque<Vertex> ready = new ArrayDeque<>();
+        for (Vertex vertex : vertices) {
+            if ( inDegree.get( vertex ) == 0 ) {
+                ready.add( vertex );
+            }
+        }
+        final List<Vertex> order = new ArrayList<>( vertices.size() );
+        while ( !ready.isEmpty() ) {
+            final Vertex vertex = ready.poll();
+            order.add( vertex );
+            for (Edge edge : vertex.out) {
+                if ( inDegree.merge( edge.getTo(), -1, Integer::sum ) == 0 ) {
+                    ready.add( edge.getTo() );
+                }
+            }
+            for (Edge edge : additionalOutbound.getOrDefault( vertex, List.of() )) {
+                if ( inDegree.merge( edge.getTo(), -1, Integer::sum ) == 0 ) {
+                    ready.add( edge.getTo() );
+                }
+            }
+        }
+        if ( order.size() != vertices.size() ) {
+            throw new IllegalStateException( "The DAG contains a cycle, sorted " + order.size() + " of " + vertices.size() + " vertices" );
+        }
+        return order;
+    }
+
     /**
      * This method removes vertices from the DAG plus the edges.
      */
@@ -66,6 +203,9 @@ public class DAG {
                     processes.remove(remove.getLabel());
                 }
                 remove.deleteItself();
+                if ( remove.getType() == Type.PROCESS ) {
+                    reachabilityIndex.unregister( (Process) remove );
+                }
                 synchronized ( this.edges ) {
                     for (Edge edge : remove.getIn()) {
                         this.edges.remove(edge.getUid());
@@ -0,0 +1,16 @@
+package cws.k8s.scheduler.dag;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+@NoArgsConstructor(force = true, access = AccessLevel.PRIVATE)
+public class InputDAG {
+
+    private final List<Vertex> vertices;
+    private final List<InputEdge> edges;
+
+}
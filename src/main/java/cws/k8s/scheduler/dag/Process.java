@@ -1,5 +1,6 @@
 package cws.k8s.scheduler.dag;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -8,9 +9,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class Process extends Vertex {
 
+    /**
+     * Bits are the dense ids of the {@link ReachabilityIndex} of the DAG this process is registered in
+     */
+    private final BitSet descendants = new BitSet();
+    private final BitSet ancestors = new BitSet();
 
-    private final Set<Process> descendants;
-    private final Set<Process> ancestors;
+    private ReachabilityIndex index = null;
+    private int denseId = -1;
 
     private AtomicInteger successfullyFinished = new AtomicInteger(0);
     private AtomicInteger failed = new AtomicInteger(0);
@@ -27,15 +33,35 @@ public class Process extends Vertex {
         failed.incrementAndGet();
     }
 
+    void assignIndex( ReachabilityIndex index, int denseId ) {
+        this.index = index;
+        this.denseId = denseId;
+    }
+
+    ReachabilityIndex getIndex() {
+        return index;
+    }
+
+    int getDenseId() {
+        if ( index == null ) {
+            throw new IllegalStateException( "Process " + getUid() + " is not registered in a DAG" );
+        }
+        return denseId;
+    }
+
     void addDescendant( Process p ) {
         synchronized (descendants) {
-            descendants.add( p );
+            descendants.set( p.getDenseId() );
         }
     }
 
     void addDescendant( Collection<Process> p ) {
+        addDescendant( ReachabilityIndex.toBits( p ) );
+    }
+
+    void addDescendant( BitSet p ) {
         synchronized (descendants) {
-            descendants.addAll( p );
+            descendants.or( p );
         }
     }
 
@@ -45,13 +71,13 @@ public class Process extends Vertex {
             for (Process p : pp) {
                 boolean found = false;
                 for (Edge edge : out) {
-                    if ( edge != e && (edge.getTo().getDescendants().contains( p ) || edge.getTo() == p )) {
+                    if ( edge != e && (edge.getTo() == p || edge.getTo().hasDescendant( p ) )) {
                         found = true;
                         break;
                     }
                 }
                 if ( !found ) {
-                    descendants.remove( p );
+                    descendants.clear( p.getDenseId() );
                     toRemove.add( p );
                 }
             }
@@ -65,13 +91,17 @@ public class Process extends Vertex {
 
     void addAncestor( Process p ) {
         synchronized (ancestors) {
-            ancestors.add( p );
+            ancestors.set( p.getDenseId() );
         }
     }
 
     void addAncestor( Collection<Process> p ) {
+        addAncestor( ReachabilityIndex.toBits( p ) );
+    }
+
+    void addAncestor( BitSet p ) {
         synchronized (ancestors) {
-            ancestors.addAll( p );
+            ancestors.or( p );
         }
     }
 
@@ -81,13 +111,13 @@ public class Process extends Vertex {
             for (Process p : pp) {
                 boolean found = false;
                 for (Edge edge : in) {
-                    if ( edge != e && (edge.getFrom().getAncestors().contains( p ) || edge.getFrom() == p) ) {
+                    if ( edge != e && (edge.getFrom() == p || edge.getFrom().hasAncestor( p )) ) {
                         found = true;
                         break;
                     }
                 }
                 if ( !found ) {
-                    ancestors.remove( p );
+                    ancestors.clear( p.getDenseId() );
                     toRemove.add( p );
                 }
             }
@@ -97,13 +127,25 @@ public class Process extends Vertex {
         }
     }
 
+    /**
+     * Replaces all relations, used if the DAG computes the closure for many vertices at once
+     */
+    void setRelations( BitSet ancestors, BitSet descendants ) {
+        synchronized (this.ancestors) {
+            this.ancestors.clear();
+            this.ancestors.or( ancestors );
+        }
+        synchronized (this.descendants) {
+            this.descendants.clear();
+            this.descendants.or( descendants );
+        }
+    }
+
     /**
      * Only public for tests
      */
     public Process(String label, int uid) {
         super(label, uid);
-        descendants = new HashSet<>();
-        ancestors = new HashSet<>();
     }
 
     @Override
@@ -112,11 +154,49 @@ public class Process extends Vertex {
     }
 
     public Set<Process> getDescendants() {
-        return new HashSet<>( descendants );
+        return index == null ? new HashSet<>() : index.toSet( getDescendantBits() );
     }
 
     public Set<Process> getAncestors() {
-        return new HashSet<>( ancestors );
+        return index == null ? new HashSet<>() : index.toSet( getAncestorBits() );
+    }
+
+    /**
+     * O(1) check without copying the descendants
+     */
+    @Override
+    public boolean hasDescendant( Process p ) {
+        if ( p.index != index || index == null ) {
+            return false;
+        }
+        synchronized (descendants) {
+            return descendants.get( p.denseId );
+        }
+    }
+
+    /**
+     * O(1) check without copying the ancestors
+     */
+    @Override
+    public boolean hasAncestor( Process p ) {
+        if ( p.index != index || index == null ) {
+            return false;
+        }
+        synchronized (ancestors) {
+            return ancestors.get( p.denseId );
+        }
+    }
+
+    BitSet getDescendantBits() {
+        synchronized (descendants) {
+            return (BitSet) descendants.clone();
+        }
+    }
+
+    BitSet getAncestorBits() {
+        synchronized (ancestors) {
+            return (BitSet) ancestors.clone();
+        }
     }
 
     public void addInbound( Edge e ) {
@@ -133,11 +213,9 @@ public class Process extends Vertex {
             ((Process) from).addDescendant( this );
         }
 
-        final Set<Process> descendantsCopy = this.getDescendants();
-        fromAncestors.forEach( v -> {
-            v.addDescendant( descendantsCopy );
-            v.addDescendant( this );
-        });
+        final BitSet descendantsCopy = this.getDescendantBits();
+        descendantsCopy.set( getDenseId() );
+        fromAncestors.forEach( v -> v.addDescendant( descendantsCopy ) );
     }
 
     public void addOutbound( Edge e ) {
@@ -154,11 +232,9 @@ public class Process extends Vertex {
             ((Process)to).addAncestor( this );
         }
 
-        final Set<Process> ancestorsCopy = this.getAncestors();
-        toDescendants.forEach( v -> {
-            v.addAncestor( ancestorsCopy );
-            v.addAncestor( this );
-        });
+        final BitSet ancestorsCopy = this.getAncestorBits();
+        ancestorsCopy.set( getDenseId() );
+        toDescendants.forEach( v -> v.addAncestor( ancestorsCopy ) );
 
         final int rank = e.getTo().getRank();
         informNewDescendent( rank + 1 );
@@ -0,0 +1,65 @@
+package cws.k8s.scheduler.dag;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Assigns dense ids to all processes of a DAG.
+ * Processes store their ancestors and descendants as bitsets over these ids,
+ * so that reachability can be answered in O(1) without copying sets.
+ */
+class ReachabilityIndex {
+
+    private final List<Process> processes = new ArrayList<>();
+
+    /**
+     * Ids are not reused, removed processes have no relations left and only leave a gap.
+     */
+    synchronized void register( Process process ) {
+        if ( process.getIndex() == this ) {
+            return;
+        }
+        if ( process.getIndex() != null ) {
+            throw new IllegalStateException( "Process " + process.getUid() + " is already registered in another DAG" );
+        }
+        process.assignIndex( this, processes.size() );
+        processes.add( process );
+    }
+
+    synchronized void unregister( Process process ) {
+        if ( process.getIndex() == this ) {
+            processes.set( process.getDenseId(), null );
+        }
+    }
+
+    synchronized Process get( int denseId ) {
+        return processes.get( denseId );
+    }
+
+    synchronized int size() {
+        return processes.size();
+    }
+
+    synchronized Set<Process> toSet( BitSet bits ) {
+        final Set<Process> result = new HashSet<>( Math.max( 16, bits.cardinality() * 2 ) );
+        for ( int i = bits.nextSetBit( 0 ); i >= 0; i = bits.nextSetBit( i + 1 ) ) {
+            final Process process = processes.get( i );
+            if ( process != null ) {
+                result.add( process );
+            }
+        }
+        return result;
+    }
+
+    static BitSet toBits( Iterable<Process> processes ) {
+        final BitSet bits = new BitSet();
+        for ( Process process : processes ) {
+            bits.set( process.getDenseId() );
+        }
+        return bits;
+    }
+
+}
@@ -89,6 +89,14 @@ public abstract class Vertex {
 
     public abstract Set<Process> getAncestors();
 
+    public boolean hasDescendant( Process p ) {
+        return getDescendants().contains( p );
+    }
+
+    public boolean hasAncestor( Process p ) {
+        return getAncestors().contains( p );
+    }
+
     abstract void removeAncestor( Edge edge, Collection<Process> p );
 
     private String collectionToString( Collection<Process> v ){
@@ -17,7 +17,7 @@ public class ImmutableRequirements extends Requirements {
     }
 
     public ImmutableRequirements( Requirements requirements ){
-        super( requirements.getCpu(), requirements.getRam() );
+        super( requirements.getCpuInMilli(), requirements.getRamInBytes() );
     }
 
     @Override
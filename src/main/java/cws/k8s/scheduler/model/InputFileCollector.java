@@ -6,29 +6,68 @@ import cws.k8s.scheduler.model.taskinputs.PathFileLocationTriple;
 import cws.k8s.scheduler.model.taskinputs.SymlinkInput;
 import cws.k8s.scheduler.model.taskinputs.TaskInputs;
 import cws.k8s.scheduler.util.Tuple;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
 import java.util.*;
 
 @Slf4j
-@RequiredArgsConstructor
 public class InputFileCollector {
 
     private final HierarchyWrapper hierarchyWrapper;
+    private final MatchingLocationsMemo matchingLocationsMemo = new MatchingLocationsMemo();
+    /**
+     * Null if the inputs are resolved again for every call
+     */
+    private final TaskInputsCache taskInputsCache;
 
-    private void processNext(
+    public InputFileCollector( HierarchyWrapper hierarchyWrapper ) {
+        this( hierarchyWrapper, false );
+    }
+
+    /**
+     * @param cacheInputs keep the inputs of a task until one of its files changed, the inputs of a task must not change
+     */
+    public InputFileCollector( HierarchyWrapper hierarchyWrapper, boolean cacheInputs ) {
+        this.hierarchyWrapper = hierarchyWrapper;
+        this.taskInputsCache = cacheInputs ? new TaskInputsCache() : null;
+    }
+
+    /**
+     * Locations of files are looked up again for the next tasks,
+     * cached inputs of tasks whose files changed are dropped.
+     */
+    public void newRound() {
+        matchingLocationsMemo.newRound();
+        if ( taskInputsCache != null ) {
+            taskInputsCache.invalidateChanged( hierarchyWrapper.getStructureVersion() );
+        }
+    }
+
+    /**
+     * The task is not waiting anymore, its inputs are not needed any longer
+     */
+    public void forget( Task task ) {
+        if ( taskInputsCache != null ) {
+            taskInputsCache.remove( task );
+        }
+    }
+
+    /**
+     * @return true if the result depends on the content of folders, symlinks or missing files
+     */
+    private boolean processNext(
             final LinkedList<Tuple<HierarchyFile, Path>> toProcess,
             final List<SymlinkInput> symlinks,
             final List<PathFileLocationTriple> files,
             final Set<Location> excludedLocations,
+            final Map<RealHierarchyFile, Long> changeCounts,
             final Task task
     ) throws NoAlignmentFoundException {
         final Tuple<HierarchyFile, Path> tuple = toProcess.removeLast();
         final HierarchyFile file = tuple.getA();
         if( file == null ) {
-            return;
+            return true;
         }
         final Path path = tuple.getB();
         if ( file.isSymlink() ){
@@ -44,7 +83,9 @@ public class InputFileCollector {
             final RealHierarchyFile realFile = (RealHierarchyFile) file;
             realFile.requestedByTask();
             try {
-                final RealHierarchyFile.MatchingLocationsPair filesForTask = realFile.getFilesForTask(task);
+                final long changeCount = realFile.getChangeCount();
+                changeCounts.merge( realFile, changeCount, Math::min );
+                final RealHierarchyFile.MatchingLocationsPair filesForTask = matchingLocationsMemo.getFilesForTask( realFile, changeCount, task );
                 if ( filesForTask.getExcludedNodes() != null ) {
                     excludedLocations.addAll(filesForTask.getExcludedNodes());
                 }
@@ -53,27 +94,43 @@ public class InputFileCollector {
                 log.error( "No alignment for task: " + task.getConfig().getName() + " path: " + path, e );
                 throw e;
             }
+            return false;
         }
+        return true;
     }
 
     public TaskInputs getInputsOfTask( Task task, int numberNode ) throws NoAlignmentFoundException {
 
+        final long structureVersion = hierarchyWrapper.getStructureVersion();
+        if ( taskInputsCache != null ) {
+            final TaskInputs cached = taskInputsCache.get( task, structureVersion );
+            if ( cached != null ) {
+                return cached;
+            }
+        }
+
         final List<InputParam<FileHolder>> fileInputs = task.getConfig().getInputs().fileInputs;
         final LinkedList<Tuple<HierarchyFile,Path>> toProcess = filterFilesToProcess( fileInputs );
 
         final List<SymlinkInput> symlinks = new ArrayList<>( fileInputs.size() );
         final List<PathFileLocationTriple> files = new ArrayList<>( fileInputs.size() );
         final Set<Location> excludedLocations = new HashSet<>();
+        final Map<RealHierarchyFile, Long> changeCounts = new HashMap<>();
+        boolean dependsOnStructure = false;
 
         while ( !toProcess.isEmpty() && excludedLocations.size() < numberNode ){
-            processNext( toProcess, symlinks, files, excludedLocations, task );
+            dependsOnStructure |= processNext( toProcess, symlinks, files, excludedLocations, changeCounts, task );
         }
 
         if( excludedLocations.size() == numberNode ) {
             return null;
         }
 
-        return new TaskInputs( symlinks, files, excludedLocations );
+        final TaskInputs inputs = new TaskInputs( symlinks, files, excludedLocations );
+        if ( taskInputsCache != null ) {
+            taskInputsCache.put( task, inputs, changeCounts, dependsOnStructure ? structureVersion : -1 );
+        }
+        return inputs;
 
     }
 
@@ -0,0 +1,51 @@
+package cws.k8s.scheduler.model;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable view of the available resources per node at a specific version of the {@link NodeCapacityTable}.
+ */
+public class NodeCapacitySnapshot {
+
+    @Getter
+    private final long version;
+
+    private final Map<NodeWithAlloc, Requirements> availableByNode;
+
+    NodeCapacitySnapshot( long version, Map<NodeWithAlloc, Requirements> availableByNode ) {
+        this.version = version;
+        this.availableByNode = Collections.unmodifiableMap( availableByNode );
+    }
+
+    /**
+     * @return the available resources of the node, null if the node was not ready
+     */
+    public Requirements getAvailable( NodeWithAlloc node ) {
+        return availableByNode.get( node );
+    }
+
+    public Map<NodeWithAlloc, Requirements> getAvailableByNode() {
+        return availableByNode;
+    }
+
+    /**
+     * Schedulers reserve resources while planning, therefore they need a mutable copy.
+     * @return a new map with mutable requirements
+     */
+    public Map<NodeWithAlloc, Requirements> toMutableMap() {
+        final Map<NodeWithAlloc, Requirements> result = new HashMap<>( availableByNode.size() * 2 );
+        for ( Map.Entry<NodeWithAlloc, Requirements> entry : availableByNode.entrySet() ) {
+            result.put( entry.getKey(), entry.getValue().clone() );
+        }
+        return result;
+    }
+
+    public int size() {
+        return availableByNode.size();
+    }
+
+}
@@ -0,0 +1,72 @@
+package cws.k8s.scheduler.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the available resources of all nodes.
+ * Nodes report every change of their capacity, which increases the version of this table.
+ * Snapshots are only rebuilt if the version changed since the last snapshot was taken.
+ */
+@Slf4j
+public class NodeCapacityTable {
+
+    private final Map<String, NodeWithAlloc> nodes = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong( 0 );
+    private volatile NodeCapacitySnapshot snapshot = null;
+
+    public void addNode( NodeWithAlloc node ) {
+        node.setCapacityTable( this );
+        nodes.put( node.getName(), node );
+        capacityChanged();
+    }
+
+    public void removeNode( NodeWithAlloc node ) {
+        if ( nodes.remove( node.getName() ) != null ) {
+            node.setCapacityTable( null );
+            capacityChanged();
+        }
+    }
+
+    /**
+     * Called by the nodes, whenever pods were added or removed or the node itself changed.
+     */
+    void capacityChanged() {
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @return an immutable view of the available resources on all ready nodes
+     */
+    public NodeCapacitySnapshot getSnapshot() {
+        final NodeCapacitySnapshot current = snapshot;
+        // read the version before building, so that concurrent changes lead to a rebuild next time
+        final long currentVersion = version.get();
+        if ( current != null && current.getVersion() == currentVersion ) {
+            return current;
+        }
+        final Map<NodeWithAlloc, Requirements> availableByNode = new HashMap<>( nodes.size() * 2 );
+        for ( NodeWithAlloc node : nodes.values() ) {
+            if ( node.isReady() ) {
+                availableByNode.put( node, new ImmutableRequirements( node.getAvailableResources() ) );
+            }
+        }
+        final NodeCapacitySnapshot newSnapshot = new NodeCapacitySnapshot( currentVersion, availableByNode );
+        snapshot = newSnapshot;
+        return newSnapshot;
+    }
+
+    public List<NodeWithAlloc> getNodes() {
+        return List.copyOf( nodes.values() );
+    }
+
+}
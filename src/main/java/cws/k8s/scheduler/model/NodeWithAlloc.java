@@ -7,6 +7,7 @@ import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.Quantity;
 import io.fabric8.kubernetes.client.readiness.Readiness;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -25,6 +26,15 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
 
     private final Map<String, Requirements> assignedPods;
 
+    /**
+     * Sum of all assignedPods, maintained on every change
+     */
+    @Getter(AccessLevel.NONE)
+    private final Requirements requestedResources;
+
+    @Getter(AccessLevel.NONE)
+    private transient NodeCapacityTable capacityTable = null;
+
     private final List<PodWithAge> startingTaskCopyingData = new LinkedList<>();
 
     @Getter
@@ -34,6 +44,7 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
         this.kubernetesClient = null;
         this.maxResources = null;
         this.assignedPods = null;
+        this.requestedResources = null;
         this.nodeLocation = null;
         this.setMetadata( new ObjectMeta() );
         this.getMetadata().setName( name );
@@ -46,6 +57,7 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
         setNodeData( node, true );
 
         assignedPods = new HashMap<>();
+        requestedResources = new Requirements();
 
         this.nodeLocation = NodeLocation.getLocation( node );
 
@@ -54,6 +66,18 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
 
     public void update( Node node ) {
         setNodeData( node, false );
+        informCapacityChanged();
+    }
+
+    void setCapacityTable( NodeCapacityTable capacityTable ) {
+        this.capacityTable = capacityTable;
+    }
+
+    private void informCapacityChanged() {
+        final NodeCapacityTable table = capacityTable;
+        if ( table != null ) {
+            table.capacityChanged();
+        }
     }
 
     /**
@@ -94,8 +118,8 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
         }
 
         if ( isCreate
-                || !Quantity.getAmountInBytes(node.getStatus().getAllocatable().get("cpu")).equals(  maxResources.getCpu() )
-                || !Quantity.getAmountInBytes(node.getStatus().getAllocatable().get("memory")).equals(  maxResources.getRam() ) ) {
+                || Quantity.getAmountInBytes(node.getStatus().getAllocatable().get("cpu")).compareTo(  maxResources.getCpu() ) != 0
+                || Quantity.getAmountInBytes(node.getStatus().getAllocatable().get("memory")).compareTo(  maxResources.getRam() ) != 0 ) {
             if ( !isCreate) log.info( "Updating max resources for node {} from {} to {}", this.getName(), maxResources, node.getStatus().getAllocatable());
             BigDecimal maxCpu = Quantity.getAmountInBytes( this.getStatus().getAllocatable().get( "cpu" ) );
             BigDecimal maxRam = Quantity.getAmountInBytes( this.getStatus().getAllocatable().get( "memory" ) );
@@ -106,8 +130,13 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
     public void addPod( PodWithAge pod ) {
         Requirements request = pod.getRequest();
         synchronized (assignedPods) {
-            assignedPods.put( getPodInternalId( pod ) , request );
+            final Requirements old = assignedPods.put( getPodInternalId( pod ), request );
+            if ( old != null ) {
+                requestedResources.subFromThis( old );
+            }
+            requestedResources.addToThis( request );
         }
+        informCapacityChanged();
     }
 
     private String getPodInternalId( Pod pod ) {
@@ -128,9 +157,16 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
     }
 
     public boolean removePod( Pod pod ){
+        final Requirements removed;
         synchronized (assignedPods) {
-            return assignedPods.remove( getPodInternalId( pod ) ) != null;
+            removed = assignedPods.remove( getPodInternalId( pod ) );
+            if ( removed == null ) {
+                return false;
+            }
+            requestedResources.subFromThis( removed );
         }
+        informCapacityChanged();
+        return true;
     }
 
     public void startingTaskCopyingDataFinished( Task task ) {
@@ -150,22 +186,20 @@ public class NodeWithAlloc extends Node implements Comparable<NodeWithAlloc> {
      * @return max(Requested by all and currently used )
      */
     public Requirements getRequestedResources(){
-        final Requirements requestedByPods;
         synchronized (assignedPods) {
-            requestedByPods = assignedPods.values().stream()
-                    .reduce(new Requirements(), Requirements::addToThis);
+            return requestedResources.clone();
         }
-        return requestedByPods;
     }
 
     public Requirements getAvailableResources(){
-        return maxResources.sub(getRequestedResources());
+        final Requirements available = maxResources.clone();
+        synchronized (assignedPods) {
+            return available.subFromThis( requestedResources );
+        }
     }
 
     public boolean canSchedule( final Requirements request ){
-        Requirements availableResources = getAvailableResources();
-        return request.getCpu().compareTo(availableResources.getCpu()) <= 0
-                && request.getRam().compareTo(availableResources.getRam()) <= 0;
+        return getAvailableResources().higherOrEquals( request );
     }
 
     public String getName(){
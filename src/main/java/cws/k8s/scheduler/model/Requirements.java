@@ -4,23 +4,31 @@ import lombok.Getter;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 import static cws.k8s.scheduler.util.Formater.formatBytes;
 
+/**
+ * Resource vector used throughout scheduling.
+ * CPU is stored as milli-cores and RAM as bytes in primitive longs, so the arithmetic in the scheduling loop does not allocate.
+ * BigDecimal values are only converted when talking to Kubernetes.
+ */
 public class Requirements implements Serializable, Cloneable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+
+    private static final long MILLI = 1000;
 
     public static final Requirements ZERO = new Requirements();
 
     @Getter
-    private BigDecimal cpu;
+    private long cpuInMilli;
     @Getter
-    private BigDecimal ram;
+    private long ramInBytes;
 
     public Requirements( BigDecimal cpu, BigDecimal ram ) {
-        this.cpu = cpu == null ? BigDecimal.ZERO : cpu;
-        this.ram = ram == null ? BigDecimal.ZERO : ram;
+        this.cpuInMilli = toMilli( cpu );
+        this.ramInBytes = toBytes( ram );
     }
 
     /**
@@ -29,73 +37,107 @@ public class Requirements implements Serializable, Cloneable {
      * @param ram
      */
     public Requirements( int cpu, int ram ) {
-        this.cpu = BigDecimal.valueOf(cpu);
-        this.ram = BigDecimal.valueOf(ram);
+        this.cpuInMilli = cpu * MILLI;
+        this.ramInBytes = ram;
     }
 
     public Requirements(){
-        this( BigDecimal.ZERO, BigDecimal.ZERO );
+        this( 0L, 0L );
+    }
+
+    protected Requirements( long cpuInMilli, long ramInBytes ) {
+        this.cpuInMilli = cpuInMilli;
+        this.ramInBytes = ramInBytes;
+    }
+
+    /**
+     * @param cpuInMilli cpu in milli-cores
+     * @param ramInBytes ram in bytes
+     */
+    public static Requirements of( long cpuInMilli, long ramInBytes ) {
+        return new Requirements( cpuInMilli, ramInBytes );
+    }
+
+    /**
+     * Kubernetes does not allow a finer granularity than milli-cores, round up to not underestimate requests.
+     */
+    private static long toMilli( BigDecimal cpu ) {
+        return cpu == null ? 0 : cpu.movePointRight( 3 ).setScale( 0, RoundingMode.CEILING ).longValueExact();
+    }
+
+    private static long toBytes( BigDecimal ram ) {
+        return ram == null ? 0 : ram.setScale( 0, RoundingMode.CEILING ).longValueExact();
+    }
+
+    public BigDecimal getCpu() {
+        return cpuInMilli % MILLI == 0
+                ? BigDecimal.valueOf( cpuInMilli / MILLI )
+                : BigDecimal.valueOf( cpuInMilli, 3 ).stripTrailingZeros();
+    }
+
+    public BigDecimal getRam() {
+        return BigDecimal.valueOf( ramInBytes );
     }
 
     public Requirements addToThis( Requirements requirements ){
-        this.cpu = this.cpu.add(requirements.cpu);
-        this.ram = this.ram.add(requirements.ram);
+        this.cpuInMilli += requirements.cpuInMilli;
+        this.ramInBytes += requirements.ramInBytes;
         return this;
     }
 
     public Requirements add( Requirements requirements ){
         return new Requirements(
-                this.cpu.add(requirements.cpu),
-                this.ram.add(requirements.ram)
+                this.cpuInMilli + requirements.cpuInMilli,
+                this.ramInBytes + requirements.ramInBytes
         );
     }
 
     public Requirements addRAMtoThis( BigDecimal ram ){
-        this.ram = this.ram.add( ram );
+        this.ramInBytes += toBytes( ram );
         return this;
     }
 
     public Requirements addCPUtoThis( BigDecimal cpu ){
-        this.cpu = this.cpu.add( cpu );
+        this.cpuInMilli += toMilli( cpu );
         return this;
     }
 
     public Requirements subFromThis( Requirements requirements ){
-        this.cpu = this.cpu.subtract(requirements.getCpu());
-        this.ram = this.ram.subtract(requirements.getRam());
+        this.cpuInMilli -= requirements.cpuInMilli;
+        this.ramInBytes -= requirements.ramInBytes;
         return this;
     }
 
     public Requirements sub( Requirements requirements ){
         return new Requirements(
-                this.cpu.subtract(requirements.getCpu()),
-                this.ram.subtract(requirements.getRam())
+                this.cpuInMilli - requirements.cpuInMilli,
+                this.ramInBytes - requirements.ramInBytes
         );
     }
 
     public Requirements multiply( BigDecimal factor ){
         return new Requirements(
-                this.cpu.multiply(factor),
-                this.ram.multiply(factor)
+                getCpu().multiply(factor),
+                getRam().multiply(factor)
         );
     }
 
     public Requirements multiplyToThis( BigDecimal factor ){
-        this.cpu = this.cpu.multiply(factor);
-        this.ram = this.ram.multiply(factor);
+        this.cpuInMilli = toMilli( getCpu().multiply(factor) );
+        this.ramInBytes = toBytes( getRam().multiply(factor) );
         return this;
     }
 
     public boolean higherOrEquals( Requirements requirements ){
-        return this.cpu.compareTo( requirements.cpu ) >= 0
-                && this.ram.compareTo( requirements.ram ) >= 0;
+        return this.cpuInMilli >= requirements.cpuInMilli
+                && this.ramInBytes >= requirements.ramInBytes;
     }
 
     @Override
     public String toString() {
         return "Requirements{" +
-                "cpu=" + cpu +
-                ", ram=" + formatBytes( ram.longValue() )  +
+                "cpu=" + getCpu() +
+                ", ram=" + formatBytes( ramInBytes )  +
                 '}';
     }
 
@@ -104,14 +146,13 @@ public class Requirements implements Serializable, Cloneable {
         if ( this == o ) return true;
         if ( !(o instanceof Requirements that) ) return false;
 
-        if ( getCpu() != null ? !getCpu().equals( that.getCpu() ) : that.getCpu() != null ) return false;
-        return getRam() != null ? getRam().equals( that.getRam() ) : that.getRam() == null;
+        return cpuInMilli == that.cpuInMilli && ramInBytes == that.ramInBytes;
     }
 
     @Override
     public int hashCode() {
-        int result = getCpu() != null ? getCpu().hashCode() : 0;
-        result = 31 * result + (getRam() != null ? getRam().hashCode() : 0);
+        int result = Long.hashCode( cpuInMilli );
+        result = 31 * result + Long.hashCode( ramInBytes );
         return result;
     }
 
@@ -121,22 +162,22 @@ public class Requirements implements Serializable, Cloneable {
      */
     @Override
     public Requirements clone() {
-        return new Requirements( this.cpu, this.ram );
+        return new Requirements( this.cpuInMilli, this.ramInBytes );
     }
 
     public boolean smaller( Requirements request ) {
-        return this.cpu.compareTo( request.cpu ) < 0
-                && this.ram.compareTo( request.ram ) < 0;
+        return this.cpuInMilli < request.cpuInMilli
+                && this.ramInBytes < request.ramInBytes;
     }
 
     public boolean smallerEquals( Requirements request ) {
-        return this.cpu.compareTo( request.cpu ) <= 0
-                && this.ram.compareTo( request.ram ) <= 0;
+        return this.cpuInMilli <= request.cpuInMilli
+                && this.ramInBytes <= request.ramInBytes;
     }
 
     public boolean atLeastOneBigger( Requirements request ) {
-        return this.cpu.compareTo( request.cpu ) > 0
-                || this.ram.compareTo( request.ram ) > 0;
+        return this.cpuInMilli > request.cpuInMilli
+                || this.ramInBytes > request.ramInBytes;
     }
 
 }
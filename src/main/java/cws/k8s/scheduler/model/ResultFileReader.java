@@ -0,0 +1,279 @@
+package cws.k8s.scheduler.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the semicolon separated .command.infiles and .command.outfiles line by line on byte level.
+ * Fields are only referenced by their offsets, strings are created on demand.
+ * Trailing empty fields are dropped, the same as {@link String#split(String)} does.
+ */
+class ResultFileReader {
+
+    /**
+     * Larger files are memory mapped instead of read into the heap
+     */
+    static final long MAP_THRESHOLD = 16L * 1024 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position = 0;
+
+    private int[] fieldStart = new int[8];
+    private int[] fieldEnd = new int[8];
+    private int fields = 0;
+
+    private int lineStart = 0;
+    private int lineEnd = 0;
+
+    private byte[] scratch = new byte[256];
+
+    ResultFileReader( ByteBuffer buffer ) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    static ResultFileReader open( Path file ) throws IOException {
+        try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            final long size = channel.size();
+            if ( size > Integer.MAX_VALUE ) {
+                throw new IOException( "File " + file + " is too large: " + size + " bytes" );
+            }
+            if ( size > MAP_THRESHOLD ) {
+                return new ResultFileReader( channel.map( FileChannel.MapMode.READ_ONLY, 0, size ) );
+            }
+            final ByteBuffer heapBuffer = ByteBuffer.allocate( (int) size );
+            while ( heapBuffer.hasRemaining() && channel.read( heapBuffer ) >= 0 ) {
+                // read until the buffer is full or the end of the file is reached
+            }
+            heapBuffer.flip();
+            return new ResultFileReader( heapBuffer );
+        }
+    }
+
+    /**
+     * Moves to the next line and splits it into fields
+     * @return false if there is no line left
+     */
+    boolean nextLine() {
+        if ( position >= limit ) {
+            return false;
+        }
+        lineStart = position;
+        fields = 0;
+        int start = position;
+        int i = position;
+        for ( ; i < limit; i++ ) {
+            final byte b = buffer.get( i );
+            if ( b == '\n' ) {
+                break;
+            }
+            if ( b == ';' ) {
+                addField( start, i );
+                start = i + 1;
+            }
+        }
+        position = i + 1;
+        int end = i;
+        if ( end > lineStart && buffer.get( end - 1 ) == '\r' ) {
+            end--;
+        }
+        lineEnd = end;
+        addField( start, Math.max( start, end ) );
+        while ( fields > 0 && fieldStart[fields - 1] == fieldEnd[fields - 1] ) {
+            fields--;
+        }
+        return true;
+    }
+
+    private void addField( int start, int end ) {
+        if ( fields == fieldStart.length ) {
+            fieldStart = Arrays.copyOf( fieldStart, fields * 2 );
+            fieldEnd = Arrays.copyOf( fieldEnd, fields * 2 );
+        }
+        fieldStart[fields] = start;
+        fieldEnd[fields] = end;
+        fields++;
+    }
+
+    int fieldCount() {
+        return fields;
+    }
+
+    int start( int field ) {
+        return fieldStart[field];
+    }
+
+    int end( int field ) {
+        return fieldEnd[field];
+    }
+
+    int lineStart() {
+        return lineStart;
+    }
+
+    int lineEnd() {
+        return lineEnd;
+    }
+
+    boolean isEmpty( int field ) {
+        return field >= fields || fieldStart[field] == fieldEnd[field];
+    }
+
+    boolean equals( int field, byte[] value ) {
+        if ( field >= fields || fieldEnd[field] - fieldStart[field] != value.length ) {
+            return false;
+        }
+        final int start = fieldStart[field];
+        for ( int i = 0; i < value.length; i++ ) {
+            if ( buffer.get( start + i ) != value[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long parseLong( int field ) {
+        return parseLong( fieldStart[field], fieldEnd[field] );
+    }
+
+    /**
+     * Same as {@link Long#parseLong(String)} for the bytes in the range
+     */
+    long parseLong( int start, int end ) {
+        if ( start >= end ) {
+            throw new NumberFormatException( "Empty field" );
+        }
+        final boolean negative = buffer.get( start ) == '-';
+        int i = negative ? start + 1 : start;
+        if ( i == end ) {
+            throw new NumberFormatException( "For input string: \"" + getString( start, end ) + "\"" );
+        }
+        long result = 0;
+        for ( ; i < end; i++ ) {
+            final int digit = buffer.get( i ) - '0';
+            if ( digit < 0 || digit > 9 ) {
+                throw new NumberFormatException( "For input string: \"" + getString( start, end ) + "\"" );
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    String getString( int field ) {
+        return getString( fieldStart[field], fieldEnd[field] );
+    }
+
+    String getString( int start, int end ) {
+        final int length = end - start;
+        if ( buffer.hasArray() ) {
+            return new String( buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8 );
+        }
+        if ( scratch.length < length ) {
+            scratch = new byte[Math.max( length, scratch.length * 2 )];
+        }
+        buffer.get( start, scratch, 0, length );
+        return new String( scratch, 0, length, StandardCharsets.UTF_8 );
+    }
+
+    int hash( int start, int end ) {
+        int h = 1;
+        for ( int i = start; i < end; i++ ) {
+            h = 31 * h + buffer.get( i );
+        }
+        return h ^ (h >>> 16);
+    }
+
+    boolean regionEquals( int start, int end, ResultFileReader other, int otherStart, int otherEnd ) {
+        if ( end - start != otherEnd - otherStart ) {
+            return false;
+        }
+        for ( int i = 0; i < end - start; i++ ) {
+            if ( buffer.get( start + i ) != other.buffer.get( otherStart + i ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set of byte ranges of one file, stores offsets instead of strings.
+     */
+    static class RegionSet {
+
+        private final ResultFileReader reader;
+        /**
+         * start in the upper bits and length + 1 in the lower bits, 0 marks an empty slot
+         */
+        private long[] regions = new long[64];
+        private int size = 0;
+
+        RegionSet( ResultFileReader reader ) {
+            this.reader = reader;
+        }
+
+        void add( int start, int end ) {
+            if ( (size + 1) * 4 >= regions.length * 3 ) {
+                resize();
+            }
+            final int slot = findSlot( reader, start, end );
+            if ( regions[slot] == 0 ) {
+                regions[slot] = encode( start, end );
+                size++;
+            }
+        }
+
+        /**
+         * @param other reader of the bytes to search for
+         */
+        boolean contains( ResultFileReader other, int start, int end ) {
+            return regions[findSlot( other, start, end )] != 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int findSlot( ResultFileReader other, int start, int end ) {
+            final int mask = regions.length - 1;
+            int slot = other.hash( start, end ) & mask;
+            while ( regions[slot] != 0 ) {
+                final long region = regions[slot];
+                final int regionStart = (int) (region >>> 32);
+                final int regionEnd = regionStart + (int) region - 1;
+                if ( reader.regionEquals( regionStart, regionEnd, other, start, end ) ) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            final long[] old = regions;
+            regions = new long[old.length * 2];
+            final int mask = regions.length - 1;
+            for ( long region : old ) {
+                if ( region != 0 ) {
+                    final int start = (int) (region >>> 32);
+                    int slot = reader.hash( start, start + (int) region - 1 ) & mask;
+                    while ( regions[slot] != 0 ) {
+                        slot = (slot + 1) & mask;
+                    }
+                    regions[slot] = region;
+                }
+            }
+        }
+
+        private static long encode( int start, int end ) {
+            return ((long) start << 32) | (end - start + 1);
+        }
+
+    }
+
+}
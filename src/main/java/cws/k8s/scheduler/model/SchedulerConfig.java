@@ -33,6 +33,24 @@ public class SchedulerConfig {
     public final String memoryPredictor;
     public final Long maxMemory;
     public final Long minMemory;
+    public final String cpuPredictor;
+    public final Double maxCpu;
+    public final Double minCpu;
+
+    public final Boolean incrementalScheduling;
+    public final Integer fullReplanIntervalInSeconds;
+
+    public final Double solverMaxTimeInSeconds;
+    public final Integer solverWorkers;
+    public final Integer solverMaxVariables;
+
+    public final Integer planningShards;
+    public final String shardLabel;
+
+    public final Integer bindingThreads;
+    public final Boolean cacheTaskInputs;
+    public final Integer fileWriterCapacity;
+    public final Integer ftpConnectionsPerDaemon;
 
     @ToString
     public static class LocalClaim {
@@ -6,6 +6,7 @@ import cws.k8s.scheduler.model.cluster.OutputFiles;
 import cws.k8s.scheduler.model.location.hierachy.HierarchyWrapper;
 import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
 import cws.k8s.scheduler.model.tracing.TraceRecord;
+import cws.k8s.scheduler.util.AsyncFileWriter;
 import cws.k8s.scheduler.util.Batch;
 import cws.k8s.scheduler.util.copying.CurrentlyCopyingOnNode;
 import lombok.Getter;
@@ -69,7 +70,7 @@ public class Task {
 
     private final Requirements oldRequirements;
 
-    private Requirements planedRequirements;
+    private volatile Requirements planedRequirements;
 
     @Getter
     private long memoryPredictionVersion = -1;
@@ -131,13 +132,12 @@ public class Task {
         return getExitCode() == 0;
     }
 
-    public void writeTrace(){
-        try {
-            final String tracePath = getWorkingDir() + '/' + ".command.scheduler.trace";
-            traceRecord.writeRecord(tracePath);
-        } catch ( Exception e ){
-            log.warn( "Cannot write trace of task: " + this.getConfig().getName(), e );
-        }
+    /**
+     * The trace is written later by the writer with the values of now
+     */
+    public void writeTrace( AsyncFileWriter writer ){
+        final String tracePath = getWorkingDir() + '/' + ".command.scheduler.trace";
+        writer.write( tracePath, traceRecord.toTrace() );
     }
 
     public void setPod(PodWithAge pod) {
@@ -203,19 +203,23 @@ public class Task {
     }
 
     public long getNewMemoryRequest(){
-        return getPlanedRequirements().getRam().longValue();
+        return planedRequirements.getRamInBytes();
     }
 
     public BigDecimal getOriginalMemoryRequest(){
         return oldRequirements.getRam();
     }
 
-    public void setPlannedMemoryInBytes( long memory, long version ){
-        planedRequirements = new Requirements( planedRequirements.getCpu(), BigDecimal.valueOf(memory) );
+    public BigDecimal getOriginalCpuRequest(){
+        return oldRequirements.getCpu();
+    }
+
+    public synchronized void setPlannedMemoryInBytes( long memory, long version ){
+        planedRequirements = Requirements.of( planedRequirements.getCpuInMilli(), memory );
         memoryPredictionVersion = version;
     }
 
-    public void setPlanedCpuInCores( double cpu, long version ){
+    public synchronized void setPlanedCpuInCores( double cpu, long version ){
         planedRequirements = new Requirements( BigDecimal.valueOf(cpu), planedRequirements.getRam() );
         cpuPredictionVersion = version;
     }
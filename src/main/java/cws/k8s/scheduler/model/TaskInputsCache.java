@@ -0,0 +1,120 @@
+package cws.k8s.scheduler.model;
+
+import cws.k8s.scheduler.model.location.hierachy.RealHierarchyFile;
+import cws.k8s.scheduler.model.taskinputs.TaskInputs;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the inputs of waiting tasks between scheduling rounds.
+ * A reverse index from each file to the tasks using it allows to only drop the inputs of tasks whose files changed,
+ * either their locations or which of the locations are in use.
+ * Inputs that were resolved via folders, symlinks or missing files are dropped whenever files or symlinks were added.
+ * A hit is validated against the files of the task, as their usage changes within a round when other tasks are scheduled.
+ */
+class TaskInputsCache {
+
+    private static final long NO_STRUCTURE = -1;
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final TaskInputs inputs;
+        private final Map<RealHierarchyFile, Long> changeCounts;
+        /**
+         * Version of the hierarchy the inputs were resolved in, {@link #NO_STRUCTURE} if it does not matter
+         */
+        private final long structureVersion;
+    }
+
+    /**
+     * Oldest {@link RealHierarchyFile#getChangeCount()} of the file any of the tasks has seen
+     */
+    private static class Users {
+        private long changeCount;
+        private final Set<Task> tasks = ConcurrentHashMap.newKeySet();
+
+        Users( long changeCount ) {
+            this.changeCount = changeCount;
+        }
+    }
+
+    private final Map<Task, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<RealHierarchyFile, Users> usersByFile = new ConcurrentHashMap<>();
+
+    /**
+     * @param structureVersion the current version of the hierarchy
+     * @return null if nothing is cached or one of the files changed since the inputs were resolved
+     */
+    TaskInputs get( Task task, long structureVersion ) {
+        final Entry entry = entries.get( task );
+        if ( entry == null ) {
+            return null;
+        }
+        if ( entry.structureVersion != NO_STRUCTURE && entry.structureVersion != structureVersion ) {
+            remove( task );
+            return null;
+        }
+        for ( Map.Entry<RealHierarchyFile, Long> changeCount : entry.changeCounts.entrySet() ) {
+            if ( changeCount.getKey().getChangeCount() != changeCount.getValue() ) {
+                remove( task );
+                return null;
+            }
+        }
+        return entry.inputs;
+    }
+
+    /**
+     * @param changeCounts the {@link RealHierarchyFile#getChangeCount()} of each file, read before the file was evaluated
+     * @param structureVersion the version of the hierarchy, if the inputs depend on folders, symlinks or missing files, otherwise negative
+     */
+    void put( Task task, TaskInputs inputs, Map<RealHierarchyFile, Long> changeCounts, long structureVersion ) {
+        remove( task );
+        for ( Map.Entry<RealHierarchyFile, Long> changeCount : changeCounts.entrySet() ) {
+            usersByFile.compute( changeCount.getKey(), ( file, users ) -> {
+                if ( users == null ) {
+                    users = new Users( changeCount.getValue() );
+                } else {
+                    users.changeCount = Math.min( users.changeCount, changeCount.getValue() );
+                }
+                users.tasks.add( task );
+                return users;
+            } );
+        }
+        entries.put( task, new Entry( inputs, changeCounts, structureVersion < 0 ? NO_STRUCTURE : structureVersion ) );
+    }
+
+    void remove( Task task ) {
+        final Entry entry = entries.remove( task );
+        if ( entry == null ) {
+            return;
+        }
+        for ( RealHierarchyFile file : entry.changeCounts.keySet() ) {
+            usersByFile.computeIfPresent( file, ( f, users ) -> {
+                users.tasks.remove( task );
+                return users.tasks.isEmpty() ? null : users;
+            } );
+        }
+    }
+
+    /**
+     * Drops the inputs of all tasks that use a file that changed since
+     * @param structureVersion the current version of the hierarchy
+     */
+    void invalidateChanged( long structureVersion ) {
+        for ( Map.Entry<RealHierarchyFile, Users> users : usersByFile.entrySet() ) {
+            if ( users.getKey().getChangeCount() != users.getValue().changeCount ) {
+                users.getValue().tasks.forEach( this::remove );
+            }
+        }
+        for ( Map.Entry<Task, Entry> entry : entries.entrySet() ) {
+            final long version = entry.getValue().structureVersion;
+            if ( version != NO_STRUCTURE && version != structureVersion ) {
+                remove( entry.getKey() );
+            }
+        }
+    }
+
+}
@@ -12,5 +12,9 @@ public class TaskMetrics {
     private final long peakVmem;
     private final long peakRss;
     private final long realtime;
+    /**
+     * Average CPU usage in percent of one core, e.g. 250 for two and a half cores, 0 if unknown
+     */
+    private final double pcpu;
 
 }
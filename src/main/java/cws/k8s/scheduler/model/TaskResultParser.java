@@ -7,16 +7,12 @@ import cws.k8s.scheduler.model.outfiles.PathLocationWrapperPair;
 import cws.k8s.scheduler.model.outfiles.SymlinkOutput;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashSet;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.stream.Stream;
 
 @Slf4j
 public class TaskResultParser {
@@ -29,98 +25,89 @@ public class TaskResultParser {
     static final int CREATION_DATE = 5;
     static final int ACCESS_DATE = 6;
     static final int MODIFICATION_DATE = 7;
+    /**
+     * Field of the infiles that is checked for directories
+     */
+    static final int FILE_TYPE_INPUT = 3;
 
-    public String getIndex( File file, int index ){
-        try ( Scanner sc  = new Scanner( file ) ) {
-            int i = 0;
-            while( sc.hasNext() && i++ < index ) {
-                sc.nextLine();
-            }
-            if ( sc.hasNext() ) {
-                return sc.nextLine();
-            }
-        } catch (FileNotFoundException e) {
-            log.error( "Cannot read " + file, e);
-        }
-        return null;
-    }
+    private static final byte[] NOT_EXISTING = { '0' };
+    private static final byte[] DIRECTORY = "directory".getBytes( StandardCharsets.US_ASCII );
 
-    private String getRootDir( File file, int index ){
-        String data = getIndex( file, index );
-        if ( data == null ) {
-            return null;
-        }
-        return data.split(";")[0];
+    interface RegionConsumer {
+        void accept( int start, int end );
     }
 
-    private Long getDateDir(File file ){
-        String data = getIndex( file, 0 );
-        if ( data == null ) {
-            return null;
+    /**
+     * Reads the inputs of the task, starting after the header lines.
+     * Passes the byte ranges of all input paths that are not directories to the consumer.
+     */
+    void readInputs( ResultFileReader in, RegionConsumer inputs ){
+        while ( in.nextLine() ) {
+            if ( in.fieldCount() <= FILE_TYPE_INPUT ) {
+                continue;
+            }
+            if ( in.equals( FILE_EXISTS, NOT_EXISTING ) || in.equals( FILE_TYPE_INPUT, DIRECTORY ) ) {
+                continue;
+            }
+            final int pathField = in.isEmpty( REAL_PATH ) ? VIRTUAL_PATH : REAL_PATH;
+            inputs.accept( in.start( pathField ), in.end( pathField ) );
         }
-        return Long.parseLong( data );
     }
 
-    public void processInput( Stream<String> in, final Set<String> inputdata ){
-        in.skip( 2 )
-                .forEach( line -> {
-                    String[] data = line.split(";");
-                    if( data[ FILE_EXISTS ].equals("0") ) {
-                        return;
-                    }
-                    if ( data[ 3 ].equals("directory") ) {
-                       return;
-                    }
-                    String path = data[ REAL_PATH ].equals("") ? data[ VIRTUAL_PATH ]  : data[ REAL_PATH ];
-                    inputdata.add( path );
-                });
-    }
-
-    private Set<OutputFile> processOutput(
-            final Stream<String> out,
-            final Set<String> inputdata,
+    private Set<OutputFile> readOutputs(
+            final ResultFileReader out,
+            final ResultFileReader.RegionSet inputs,
             final Location location,
             final boolean onlyUpdated,
             final Task finishedTask,
-            final String outputRootDir,
-            final long initailDate
-            ){
+            final int outputRootDirLength,
+            final long initialDate
+    ){
         final Set<OutputFile> newOrUpdated = new HashSet<>();
-        out.skip( 1 )
-                .forEach( line -> {
-                    String[] data = line.split(";");
-                    if( data[ FILE_EXISTS ].equals("0") && data.length != 8 ) {
-                        return;
-                    }
-                    boolean isSymlink = !data[ REAL_PATH ].equals("");
-                    String path = isSymlink ? data[ REAL_PATH ] : data[ VIRTUAL_PATH ];
-                    String modificationDate = data[ MODIFICATION_DATE ];
-                    if ( "directory".equals( data[ FILE_TYPE ] ) ) {
-                        return;
-                    }
-                    String lockupPath = isSymlink ? path : path.substring( outputRootDir.length() );
-                    long modificationDateNano = Long.parseLong( modificationDate );
-                    if ( ( !inputdata.contains(lockupPath) && !onlyUpdated )
-                            ||
-                            modificationDateNano > initailDate )
-                    {
-                        final LocationWrapper locationWrapper = new LocationWrapper(
-                                location,
-                                modificationDateNano / (int) 1.0E6,
-                                Long.parseLong(data[ SIZE ]),
-                                finishedTask
-                        );
-                        newOrUpdated.add( new PathLocationWrapperPair( Paths.get(path), locationWrapper ) );
-                    }
-                    if( isSymlink ){
-                        newOrUpdated.add( new SymlinkOutput( data[ VIRTUAL_PATH ], path ));
-                    }
-                });
+        while ( out.nextLine() ) {
+            if ( out.fieldCount() <= MODIFICATION_DATE || out.equals( FILE_TYPE, DIRECTORY ) ) {
+                continue;
+            }
+            final boolean isSymlink = !out.isEmpty( REAL_PATH );
+            final int pathField = isSymlink ? REAL_PATH : VIRTUAL_PATH;
+            final int lookupStart = isSymlink ? out.start( REAL_PATH ) : out.start( VIRTUAL_PATH ) + outputRootDirLength;
+            if ( lookupStart > out.end( pathField ) ) {
+                continue;
+            }
+            final long modificationDateNano = out.parseLong( MODIFICATION_DATE );
+            final boolean newOrUpdatedFile = ( !onlyUpdated && !inputs.contains( out, lookupStart, out.end( pathField ) ) )
+                    || modificationDateNano > initialDate;
+            if ( !newOrUpdatedFile && !isSymlink ) {
+                continue;
+            }
+            final String path = out.getString( pathField );
+            if ( newOrUpdatedFile ) {
+                final LocationWrapper locationWrapper = new LocationWrapper(
+                        location,
+                        modificationDateNano / 1_000_000,
+                        out.parseLong( SIZE ),
+                        finishedTask
+                );
+                newOrUpdated.add( new PathLocationWrapperPair( Paths.get( path ), locationWrapper ) );
+            }
+            if( isSymlink ){
+                newOrUpdated.add( new SymlinkOutput( out.getString( VIRTUAL_PATH ), path ) );
+            }
+        }
         return newOrUpdated;
     }
 
+    private ResultFileReader openOrNull( Path file ){
+        try {
+            return ResultFileReader.open( file );
+        } catch ( IOException e ) {
+            log.error( "Cannot read " + file, e );
+            return null;
+        }
+    }
+
     /**
-     *
+     * Both files are read once on byte level, only reported files are converted into strings.
      * @param workdir
      * @param location
      * @param onlyUpdated
@@ -141,36 +128,32 @@ public class TaskResultParser {
             return new HashSet<>();
         }
 
-        final String taskRootDir = getRootDir( infile.toFile(), 1 );
-        if( taskRootDir == null
+        final ResultFileReader in = openOrNull( infile );
+        // first line: start date, second line: task root dir
+        final boolean hasInitialDate = in != null && in.nextLine();
+        final int initialDateStart = hasInitialDate ? in.lineStart() : 0;
+        final int initialDateEnd = hasInitialDate ? in.lineEnd() : 0;
+        final boolean hasTaskRootDir = hasInitialDate && in.nextLine();
+        if( !hasTaskRootDir
                 && (finishedTask.getInputFiles() == null || finishedTask.getInputFiles().isEmpty()) ) {
             throw new IllegalStateException("taskRootDir is null");
         }
 
-
-        final String outputRootDir = getRootDir( outfile.toFile(), 0 );
+        final ResultFileReader out = openOrNull( outfile );
         //No outputs defined / found
-        if( outputRootDir == null ) {
+        if( out == null || !out.nextLine() ) {
             return new HashSet<>();
         }
+        final int outputRootDirLength = out.fieldCount() == 0 ? 0 : out.end( VIRTUAL_PATH ) - out.start( VIRTUAL_PATH );
 
-        final Set<String> inputdata = new HashSet<>();
-
-
-        try (
-                Stream<String> in = Files.lines(infile);
-                Stream<String> out = Files.lines(outfile)
-        ) {
-
-            processInput( in, inputdata );
-            log.trace( "{}", inputdata );
-            final Long initialDate = getDateDir( infile.toFile() );
-            return processOutput( out, inputdata, location, onlyUpdated, finishedTask, outputRootDir, initialDate );
-
-        } catch (IOException e) {
-            log.error( "Cannot read in/outfile in workdir: " + workdir, e);
+        if ( in == null ) {
+            return new HashSet<>();
         }
-        return new HashSet<>();
+
+        final ResultFileReader.RegionSet inputs = new ResultFileReader.RegionSet( in );
+        readInputs( in, inputs::add );
+        final long initialDate = in.parseLong( initialDateStart, initialDateEnd );
+        return readOutputs( out, inputs, location, onlyUpdated, finishedTask, outputRootDirLength, initialDate );
 
     }
 
@@ -95,6 +95,22 @@ public abstract class GroupCluster {
         }
     }
 
+    /**
+     * This method is called when a task that was assigned to a node could not be started there.
+     * It undoes {@link #taskWasAssignedToNode(Task)}, the task is registered again by {@link #tasksBecameAvailable(List)}.
+     * @param task the task that is not assigned to its node anymore
+     */
+    public void taskSchedulingFailed( Task task ) {
+        synchronized ( this ) {
+            scheduledTasks.remove( task );
+            if ( task.getOutLabel() != null ) {
+                for ( String label : task.getOutLabel() ) {
+                    countPerLabel.get( label ).removeRunningTask( task );
+                }
+            }
+        }
+    }
+
     /**
      * This method is called when a task has finished and output data can be considered.
      * @param tasks the tasks that have finished
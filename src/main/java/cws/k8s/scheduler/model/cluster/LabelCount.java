@@ -132,6 +132,26 @@ public class LabelCount {
         runningTasks.add( task );
     }
 
+    /**
+     * Undo {@link #makeTaskRunning(Task)} if the task could not be started on its node.
+     * The task is not added to the waiting tasks again, this is done by {@link #addWaitingTask(Task)}.
+     * @param task the task that is not running
+     */
+    public void removeRunningTask( Task task ) {
+        final boolean remove = runningTasks.remove( task );
+        if ( !remove ) {
+            throw new IllegalStateException( "Task " + task + " was not in running tasks" );
+        }
+        final TasksOnNodeWrapper tasksOnNodeWrapper = nodeToShare.get( task.getNode() );
+        runningOrfinishedOnNodes.remove( tasksOnNodeWrapper );
+        tasksOnNodeWrapper.removeRunningTask();
+        if ( tasksOnNodeWrapper.getShare() == 0 ) {
+            nodeToShare.remove( task.getNode() );
+        } else {
+            runningOrfinishedOnNodes.add( tasksOnNodeWrapper );
+        }
+    }
+
     /**
      * Make a task finished, the task needs to have this label, however the label is not checked
      * adds the task to {@link #taskHasDataOnNode}, to mark that the output data is on the node
@@ -27,4 +27,8 @@ public class TasksOnNodeWrapper implements Comparable<TasksOnNodeWrapper> {
     public void addRunningTask() {
         share++;
     }
+
+    public void removeRunningTask() {
+        share--;
+    }
 }
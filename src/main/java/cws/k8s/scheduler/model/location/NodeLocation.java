@@ -1,23 +1,33 @@
 package cws.k8s.scheduler.model.location;
 
 import io.fabric8.kubernetes.api.model.Node;
-import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-@RequiredArgsConstructor( access = AccessLevel.PRIVATE )
 public class NodeLocation extends Location {
 
     private static final long serialVersionUID = 1L;
 
     private static final ConcurrentMap< String, NodeLocation > locationHolder = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger( 0 );
 
     @Getter
     private final String identifier;
 
+    /**
+     * Small consecutive number, used as index into bitsets over the nodes
+     */
+    @Getter
+    private final int id;
+
+    private NodeLocation( String identifier ) {
+        this.identifier = identifier;
+        this.id = nextId.getAndIncrement();
+    }
+
     public static NodeLocation getLocation( Node node ){
         return getLocation( node.getMetadata().getName() );
     }
@@ -28,8 +38,7 @@ public class NodeLocation extends Location {
         }
         final NodeLocation nodeLocation = locationHolder.get(node);
         if ( nodeLocation == null ){
-            locationHolder.putIfAbsent( node, new NodeLocation( node ) );
-            return locationHolder.get( node );
+            return locationHolder.computeIfAbsent( node, NodeLocation::new );
         }
         return nodeLocation;
     }
@@ -7,14 +7,33 @@ import lombok.extern.slf4j.Slf4j;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Children are stored in an open addressed table with linear probing.
+ * Changes are synchronized on the folder, lookups do not lock: a slot's file is set before its name,
+ * and a resized table is only published once it is complete.
+ * The names of the files Nextflow creates in every task directory are interned.
+ * Lookups accept a region of a path string, so that no substring or {@link Path} has to be created.
+ */
 @Slf4j
 @NoArgsConstructor(access = AccessLevel.PACKAGE)
 public class Folder extends HierarchyFile {
 
-    private final ConcurrentMap<String, HierarchyFile> children = new ConcurrentHashMap<>();
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static class Table {
+        private final AtomicReferenceArray<String> names;
+        private final AtomicReferenceArray<HierarchyFile> files;
+
+        Table( int capacity ) {
+            names = new AtomicReferenceArray<>( capacity );
+            files = new AtomicReferenceArray<>( capacity );
+        }
+    }
+
+    private volatile Table table = new Table( INITIAL_CAPACITY );
+    private int size = 0;
 
     @Override
     public boolean isDirectory() {
@@ -27,7 +46,18 @@ public class Folder extends HierarchyFile {
     }
 
     public HierarchyFile get(String name ){
-        return children.get( name );
+        return get( name, 0, name.length() );
+    }
+
+    /**
+     * @param path string containing the name
+     * @param start first index of the name in path
+     * @param end index after the last character of the name
+     */
+    HierarchyFile get( String path, int start, int end ){
+        final Table current = table;
+        final int slot = findSlot( current, path, start, end );
+        return current.files.get( slot );
     }
 
     /**
@@ -36,9 +66,16 @@ public class Folder extends HierarchyFile {
      * @return the file with the name, or the new created folder
      */
     public Folder getOrCreateFolder(String name ){
-        final HierarchyFile file = children.get(name);
+        return getOrCreateFolder( name, 0, name.length() );
+    }
+
+    synchronized Folder getOrCreateFolder( String path, int start, int end ){
+        final int slot = findSlot( table, path, start, end );
+        final HierarchyFile file = table.files.get( slot );
         if( file == null || !file.isDirectory() ){
-            return (Folder) children.compute( name, (key,value) -> (value == null || !value.isDirectory()) ? new Folder() : value );
+            final Folder folder = new Folder();
+            put( slot, path, start, end, folder );
+            return folder;
         }
         return (Folder) file;
     }
@@ -50,35 +87,124 @@ public class Folder extends HierarchyFile {
     }
 
     private void getAllChildren(final Map<Path, AbstractHierarchyFile> result, Path currentPath ){
-        for (Map.Entry<String, HierarchyFile> entry : children.entrySet()) {
-            Path resolve = currentPath.resolve(entry.getKey());
-            if ( !entry.getValue().isSymlink() && entry.getValue().isDirectory() ){
-                final Folder value = (Folder) entry.getValue();
-                value.getAllChildren( result, resolve );
+        final Table current = table;
+        for ( int i = 0; i < current.names.length(); i++ ) {
+            final String name = current.names.get( i );
+            if ( name == null ) {
+                continue;
+            }
+            Path resolve = currentPath.resolve( name );
+            final HierarchyFile file = current.files.get( i );
+            if ( !file.isSymlink() && file.isDirectory() ){
+                ((Folder) file).getAllChildren( result, resolve );
             } else {
-                result.put( resolve, (AbstractHierarchyFile) entry.getValue());
+                result.put( resolve, (AbstractHierarchyFile) file );
             }
         }
     }
 
     public LocationWrapper addOrUpdateFile(final String name, boolean overwrite, final LocationWrapper location ) {
-        final RealHierarchyFile file = (RealHierarchyFile) children.compute( name, (k, v) -> {
-            if (v == null || v.isDirectory() || v.isSymlink() ) {
-                return new RealHierarchyFile( location );
+        return addOrUpdateFile( name, 0, name.length(), overwrite, location );
+    }
+
+    LocationWrapper addOrUpdateFile( String path, int start, int end, boolean overwrite, final LocationWrapper location ) {
+        final RealHierarchyFile file;
+        synchronized ( this ) {
+            final int slot = findSlot( table, path, start, end );
+            final HierarchyFile v = table.files.get( slot );
+            if ( v == null || v.isDirectory() || v.isSymlink() ) {
+                file = new RealHierarchyFile( location );
+                put( slot, path, start, end, file );
+            } else {
+                file = (RealHierarchyFile) v;
             }
-            return v;
-        } );
+        }
         return file.addOrUpdateLocation( overwrite, location );
     }
 
     public boolean addSymlink( final String name, final Path dst ){
-        children.compute( name, (k,v) -> {
-            if ( v == null || !v.isSymlink() || !((LinkHierarchyFile) v).getDst().equals(dst) ) {
-                return new LinkHierarchyFile( dst );
-            }
-            return v;
-        } );
+        return addSymlink( name, 0, name.length(), dst );
+    }
+
+    synchronized boolean addSymlink( String path, int start, int end, final Path dst ){
+        final int slot = findSlot( table, path, start, end );
+        final HierarchyFile v = table.files.get( slot );
+        if ( v == null || !v.isSymlink() || !((LinkHierarchyFile) v).getDst().equals(dst) ) {
+            put( slot, path, start, end, new LinkHierarchyFile( dst ) );
+        }
         return true;
     }
 
+    /**
+     * Same as {@link String#hashCode()} of the substring
+     */
+    static int hash( String path, int start, int end ) {
+        int h = 0;
+        for ( int i = start; i < end; i++ ) {
+            h = 31 * h + path.charAt( i );
+        }
+        return h;
+    }
+
+    private static int spread( int h ) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the slot containing the name, or the empty slot where it has to be inserted
+     */
+    private static int findSlot( Table table, String path, int start, int end ) {
+        final int length = end - start;
+        final int mask = table.names.length() - 1;
+        int slot = spread( hash( path, start, end ) ) & mask;
+        while ( true ) {
+            final String name = table.names.get( slot );
+            if ( name == null || ( name.length() == length && name.regionMatches( 0, path, start, length ) ) ) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Only called while holding the lock
+     */
+    private void put( int slot, String path, int start, int end, HierarchyFile file ) {
+        final Table current = table;
+        current.files.set( slot, file );
+        if ( current.names.get( slot ) != null ) {
+            return;
+        }
+        current.names.set( slot, name( path, start, end ) );
+        // keep the load factor below 0.75
+        if ( ++size * 4 >= current.names.length() * 3 ) {
+            resize( current );
+        }
+    }
+
+    /**
+     * Names like .command.sh exist in every task directory, other names are mostly unique and not interned
+     */
+    static String name( String path, int start, int end ) {
+        final String name = path.substring( start, end );
+        return name.startsWith( ".command." ) || name.equals( ".exitcode" ) ? name.intern() : name;
+    }
+
+    private void resize( Table old ) {
+        final Table resized = new Table( old.names.length() * 2 );
+        final int mask = resized.names.length() - 1;
+        for ( int i = 0; i < old.names.length(); i++ ) {
+            final String name = old.names.get( i );
+            if ( name != null ) {
+                int slot = spread( name.hashCode() ) & mask;
+                while ( resized.names.get( slot ) != null ) {
+                    slot = (slot + 1) & mask;
+                }
+                resized.files.set( slot, old.files.get( i ) );
+                resized.names.set( slot, name );
+            }
+        }
+        table = resized;
+    }
+
 }
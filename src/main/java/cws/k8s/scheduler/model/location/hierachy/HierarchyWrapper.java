@@ -4,45 +4,115 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 public class HierarchyWrapper {
 
     private final Path workdir;
 
-    private final ConcurrentMap<String, Folder> workDirs = new ConcurrentHashMap<>(2);
+    /**
+     * The normalized workdir with a trailing slash, all paths in scope start with it
+     */
+    private final String workdirPrefix;
+
+    /**
+     * Task directories are nested by the first two characters of the hash and the rest of the hash
+     */
+    private final Folder workDirs = new Folder();
+
+    /**
+     * Incremented whenever files or symlinks are added, the content of folders may have changed
+     */
+    private final AtomicLong structureVersion = new AtomicLong();
 
     public HierarchyWrapper( String workdir ) {
         if ( workdir == null ) {
             throw new IllegalArgumentException( "Workdir is not defined" );
         }
         this.workdir = Paths.get( workdir ).normalize();
+        final String workdirString = this.workdir.toString();
+        this.workdirPrefix = workdirString.endsWith( "/" ) ? workdirString : workdirString + "/";
     }
 
-    private Path relativize( Path path ){
-        return workdir.relativize( path ).normalize();
+    /**
+     * Most paths are already normalized, only normalize the others.
+     * @return the normalized absolute path or null if the path is not within the workdir
+     */
+    private String toPathInWorkdir( String path ){
+        if ( !isNormalized( path ) ) {
+            path = Paths.get( path ).normalize().toString();
+        }
+        return path.startsWith( workdirPrefix ) ? path : null;
     }
 
-    private Folder getWorkdir( Iterator<Path> iterator, boolean create ){
-        if(!iterator.hasNext()) {
-            return null;
+    /**
+     * @return true if the path is absolute and does not contain empty, "." or ".." segments
+     */
+    static boolean isNormalized( String path ){
+        if ( path.isEmpty() || path.charAt( 0 ) != '/' ) {
+            return false;
+        }
+        int segmentStart = 1;
+        for ( int i = 1; i <= path.length(); i++ ) {
+            if ( i == path.length() || path.charAt( i ) == '/' ) {
+                final int length = i - segmentStart;
+                if ( length == 0 ) {
+                    return path.length() == 1;
+                }
+                if ( path.charAt( segmentStart ) == '.'
+                        && ( length == 1 || ( length == 2 && path.charAt( segmentStart + 1 ) == '.' ) ) ) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return true;
+    }
+
+    private static int segmentEnd( String path, int start ){
+        final int end = path.indexOf( '/', start );
+        return end < 0 ? path.length() : end;
+    }
+
+    /**
+     * @param firstEnd end of the first segment after the workdir
+     * @param secondEnd end of the second segment after the workdir
+     */
+    private Folder getWorkdir( String path, int firstEnd, int secondEnd, boolean create ){
+        final int start = workdirPrefix.length();
+        if ( create ) {
+            return workDirs.getOrCreateFolder( path, start, firstEnd )
+                    .getOrCreateFolder( path, firstEnd + 1, secondEnd );
         }
-        final String hash1 = iterator.next().toString();
-        if(!iterator.hasNext()) {
+        final HierarchyFile hash1 = workDirs.get( path, start, firstEnd );
+        return hash1 == null ? null : (Folder) ((Folder) hash1).get( path, firstEnd + 1, secondEnd );
+    }
+
+    /**
+     * @param path normalized path within the workdir
+     * @return the file or folder, null if it does not exist or the path points into the upper two levels of the workdir
+     */
+    private HierarchyFile lookup( String path ){
+        final int firstEnd = segmentEnd( path, workdirPrefix.length() );
+        if ( firstEnd == path.length() ) {
             return null;
         }
-        final String hash2 = iterator.next().toString();
-        final String key = hash1 + hash2;
-        final Folder folder = workDirs.get( key );
-        if( create && folder == null ){
-            workDirs.putIfAbsent( key, new Folder());
-            return workDirs.get( key );
+        int end = segmentEnd( path, firstEnd + 1 );
+        HierarchyFile current = getWorkdir( path, firstEnd, end, false );
+        while ( current != null && end < path.length() ) {
+            if ( !current.isDirectory() ) {
+                return null;
+            }
+            final int start = end + 1;
+            end = segmentEnd( path, start );
+            current = ((Folder) current).get( path, start, end );
         }
-        return folder;
+        return current;
     }
 
     /**
@@ -51,21 +121,12 @@ public class HierarchyWrapper {
      * @return Null if folder is empty, or not found
      */
     public Map<Path, AbstractHierarchyFile> getAllFilesInDir(final Path path ){
-        final Path relativePath = relativize( path );
-        Iterator<Path> iterator = relativePath.iterator();
-        HierarchyFile current = getWorkdir( iterator, false );
-        if( current == null ) {
+        final String pathInWorkdir = toPathInWorkdir( path.toString() );
+        if ( pathInWorkdir == null ) {
             return null;
         }
-        while(iterator.hasNext()){
-            Path p = iterator.next();
-            if ( current != null && current.isDirectory() ){
-                current = ((Folder) current).get( p.toString() );
-            } else {
-                return null;
-            }
-        }
-        if( current.isDirectory() ) {
+        final HierarchyFile current = lookup( pathInWorkdir );
+        if( current != null && current.isDirectory() ) {
             return ((Folder) current).getAllChildren( path.normalize() );
         } else {
             return null;
@@ -79,55 +140,131 @@ public class HierarchyWrapper {
      * @return null if file can not be created
      */
     public LocationWrapper addFile(final Path path, final LocationWrapper location ){
-        return addFile( path, false, location );
+        return addFile( path.toString(), false, location );
     }
 
     public LocationWrapper addFile(final Path path, boolean overwrite, final LocationWrapper location ){
+        return addFile( path.toString(), overwrite, location );
+    }
 
-        final Folder folderToInsert = findFolderToInsert(path);
+    /**
+     * Same as {@link #addFile(Path, boolean, LocationWrapper)} without creating a {@link Path}
+     */
+    public LocationWrapper addFile(final String path, boolean overwrite, final LocationWrapper location ){
+
+        final String pathInWorkdir = toPathInWorkdir( path );
+        final Folder folderToInsert = pathInWorkdir == null ? null : findFolderToInsert( pathInWorkdir );
 
         if( folderToInsert == null ) {
             return null;
         } else {
-            return folderToInsert.addOrUpdateFile( path.getFileName().toString(), overwrite, location );
+            final int nameStart = pathInWorkdir.lastIndexOf( '/' ) + 1;
+            try {
+                return folderToInsert.addOrUpdateFile( pathInWorkdir, nameStart, pathInWorkdir.length(), overwrite, location );
+            } finally {
+                structureVersion.incrementAndGet();
+            }
+        }
+
+    }
+
+    /**
+     * Adds many files at once. Files are sorted by their folder, so that each folder is only resolved once.
+     * @param paths files to add (absolute paths)
+     * @param locations location for the file with the same index, files with a null location are skipped
+     * @return the location wrapper per file in the order of the input, null if the file could not be created
+     */
+    public List<LocationWrapper> addFiles( final List<String> paths, boolean overwrite, final List<LocationWrapper> locations ){
+        if ( paths.size() != locations.size() ) {
+            throw new IllegalArgumentException( "Got " + paths.size() + " paths but " + locations.size() + " locations" );
+        }
+        final String[] pathsInWorkdir = new String[paths.size()];
+        final int[] nameStarts = new int[paths.size()];
+        final List<Integer> toAdd = new ArrayList<>( paths.size() );
+        int i = 0;
+        for ( String path : paths ) {
+            final String pathInWorkdir = path == null ? null : toPathInWorkdir( path );
+            if ( pathInWorkdir != null && locations.get( i ) != null ) {
+                pathsInWorkdir[i] = pathInWorkdir;
+                nameStarts[i] = pathInWorkdir.lastIndexOf( '/' ) + 1;
+                toAdd.add( i );
+            }
+            i++;
         }
+        toAdd.sort( (a, b) -> compareFolders( pathsInWorkdir[a], nameStarts[a] - 1, pathsInWorkdir[b], nameStarts[b] - 1 ) );
 
+        final LocationWrapper[] result = new LocationWrapper[paths.size()];
+        Folder folder = null;
+        int previous = -1;
+        for ( int index : toAdd ) {
+            final String path = pathsInWorkdir[index];
+            if ( previous == -1 || compareFolders( pathsInWorkdir[previous], nameStarts[previous] - 1, path, nameStarts[index] - 1 ) != 0 ) {
+                folder = findFolderToInsert( path );
+            }
+            previous = index;
+            if ( folder != null ) {
+                result[index] = folder.addOrUpdateFile( path, nameStarts[index], path.length(), overwrite, locations.get( index ) );
+            }
+        }
+        structureVersion.incrementAndGet();
+        return Arrays.asList( result );
+    }
+
+    /**
+     * Compares the folder part of two paths without creating substrings
+     */
+    private static int compareFolders( String a, int aEnd, String b, int bEnd ){
+        final int length = Math.min( aEnd, bEnd );
+        for ( int i = 0; i < length; i++ ) {
+            final int diff = a.charAt( i ) - b.charAt( i );
+            if ( diff != 0 ) {
+                return diff;
+            }
+        }
+        return aEnd - bEnd;
     }
 
     public boolean addSymlink( final Path src, final Path dst ){
 
-        final Folder folderToInsert = findFolderToInsert( src );
+        final String pathInWorkdir = toPathInWorkdir( src.toString() );
+        final Folder folderToInsert = pathInWorkdir == null ? null : findFolderToInsert( pathInWorkdir );
 
         if( folderToInsert == null ) {
             return false;
         } else {
-            return folderToInsert.addSymlink( src.getFileName().toString(), dst );
+            final int nameStart = pathInWorkdir.lastIndexOf( '/' ) + 1;
+            try {
+                return folderToInsert.addSymlink( pathInWorkdir, nameStart, pathInWorkdir.length(), dst );
+            } finally {
+                structureVersion.incrementAndGet();
+            }
         }
 
     }
 
-    private Folder findFolderToInsert( final Path path ){
-        final Path relativePath = relativize( path );
-        if (relativePath.startsWith("..")){
+    /**
+     * @param path normalized path within the workdir
+     * @return the folder containing the file, all missing folders are created
+     */
+    private Folder findFolderToInsert( final String path ){
+        final int firstEnd = segmentEnd( path, workdirPrefix.length() );
+        if ( firstEnd == path.length() ) {
             return null;
         }
-        Iterator<Path> iterator = relativePath.iterator();
-        Folder current = getWorkdir( iterator, true );
-        if( current == null ) {
+        int end = segmentEnd( path, firstEnd + 1 );
+        if ( end == path.length() ) {
+            //This would add a file in working hierarchy
             return null;
         }
-        while(iterator.hasNext()) {
-            Path p = iterator.next();
-            if( iterator.hasNext() ){
-                //folder
-                current = current.getOrCreateFolder( p.toString() );
-            } else {
-                //file
-                return current;
-            }
+        Folder current = getWorkdir( path, firstEnd, end, true );
+        int start = end + 1;
+        end = segmentEnd( path, start );
+        while ( end < path.length() ) {
+            current = current.getOrCreateFolder( path, start, end );
+            start = end + 1;
+            end = segmentEnd( path, start );
         }
-        //This would add a file in working hierarchy
-        return null;
+        return current;
     }
 
     /**
@@ -136,31 +273,19 @@ public class HierarchyWrapper {
      * @return File or null if file does not exist
      */
     public HierarchyFile getFile(Path path ){
-        final Path relativePath = relativize( path );
-        if (relativePath.startsWith("..")){
-            return null;
-        }
-        Iterator<Path> iterator = relativePath.iterator();
-        Folder current = getWorkdir( iterator, false );
-        if( current == null ) {
-            return null;
-        }
-        if( !iterator.hasNext() ) {
-            return current;
-        }
-        while( iterator.hasNext() ) {
-            Path p = iterator.next();
-            final HierarchyFile file = current.get( p.toString() );
-            if( iterator.hasNext() && file.isDirectory() ){
-                //folder
-                current = (Folder) file;
-            } else if ( !iterator.hasNext() ) {
-                return file;
-            } else {
-                break;
-            }
-        }
-        return null;
+        return getFile( path.toString() );
+    }
+
+    /**
+     * Same as {@link #getFile(Path)} without creating a {@link Path}
+     */
+    public HierarchyFile getFile( String path ){
+        final String pathInWorkdir = toPathInWorkdir( path );
+        return pathInWorkdir == null ? null : lookup( pathInWorkdir );
+    }
+
+    public long getStructureVersion() {
+        return structureVersion.get();
     }
 
     public boolean isInScope( Path path ){
@@ -22,6 +22,10 @@ public class LocationWrapper {
     //Deactivated if file was maybe not copied completely or if one file was changed by the workflow engine.
     private boolean active = true;
     private int inUse = 0;
+    /**
+     * Incremented whenever the location starts or stops being in use
+     */
+    private volatile int usageChanges = 0;
 
     public LocationWrapper(Location location, long timestamp, long sizeInBytes) {
         this( location, timestamp, sizeInBytes ,null);
@@ -62,7 +66,9 @@ public class LocationWrapper {
      */
     public void use(){
         synchronized ( this ) {
-            inUse++;
+            if ( inUse++ == 0 ) {
+                usageChanges++;
+            }
         }
     }
 
@@ -71,7 +77,9 @@ public class LocationWrapper {
      */
     public void free(){
         synchronized ( this ) {
-            inUse--;
+            if ( --inUse == 0 ) {
+                usageChanges++;
+            }
         }
     }
 
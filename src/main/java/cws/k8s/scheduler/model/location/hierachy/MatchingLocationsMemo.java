@@ -0,0 +1,55 @@
+package cws.k8s.scheduler.model.location.hierachy;
+
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.Task;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches {@link RealHierarchyFile#getFilesForTask(Task)} for one scheduling round.
+ * The result only depends on the locations of the file and the process of the task,
+ * so all tasks of one process share it until the file changes.
+ * A location that starts or stops being in use also counts as a change, see {@link RealHierarchyFile#getChangeCount()}.
+ * The cached results are shared and must not be modified.
+ */
+public class MatchingLocationsMemo {
+
+    private volatile Map<Key, RealHierarchyFile.MatchingLocationsPair> cache = new ConcurrentHashMap<>();
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final RealHierarchyFile file;
+        private final long changeCount;
+        private final Process process;
+    }
+
+    /**
+     * Drops all cached results
+     */
+    public void newRound() {
+        cache = new ConcurrentHashMap<>();
+    }
+
+    public RealHierarchyFile.MatchingLocationsPair getFilesForTask( RealHierarchyFile file, Task task ) throws NoAlignmentFoundException {
+        return getFilesForTask( file, file.getChangeCount(), task );
+    }
+
+    /**
+     * @param changeCount the {@link RealHierarchyFile#getChangeCount()} of the file, read before
+     */
+    public RealHierarchyFile.MatchingLocationsPair getFilesForTask( RealHierarchyFile file, long changeCount, Task task ) throws NoAlignmentFoundException {
+        final Map<Key, RealHierarchyFile.MatchingLocationsPair> current = cache;
+        final Key key = new Key( file, changeCount, task.getProcess() );
+        RealHierarchyFile.MatchingLocationsPair result = current.get( key );
+        if ( result == null ) {
+            result = file.getFilesForTask( task );
+            current.put( key, result );
+        }
+        return result;
+    }
+
+}
@@ -19,6 +19,11 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
     private LocationWrapper[] locations;
     static final String LOCATION_IS_NULL = "location is null";
     private boolean wasRequestedByTask = false;
+    /**
+     * Incremented whenever the locations of this file change
+     */
+    @Getter
+    private volatile long version = 0;
 
     public RealHierarchyFile( LocationWrapper location ) {
         if ( location == null ) {
@@ -47,6 +52,7 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
                     locationWrapper.deactivate();
                 }
             }
+            version++;
         }
     }
 
@@ -55,26 +61,31 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
             throw new IllegalArgumentException( LOCATION_IS_NULL );
         }
         synchronized ( this ){
-            LocationWrapper locationWrapperToUpdate = null;
-            for (LocationWrapper locationWrapper : locations) {
-                if ( location.getLocation().equals( locationWrapper.getLocation() ) ) {
-                    locationWrapperToUpdate = locationWrapper;
-                    if ( overwrite || location.getTimestamp() > locationWrapper.getTimestamp() ) {
-                        locationWrapperToUpdate.update( location );
+            try {
+                LocationWrapper locationWrapperToUpdate = null;
+                for (LocationWrapper locationWrapper : locations) {
+                    if ( location.getLocation().equals( locationWrapper.getLocation() ) ) {
+                        locationWrapperToUpdate = locationWrapper;
+                        if ( overwrite || location.getTimestamp() > locationWrapper.getTimestamp() ) {
+                            locationWrapperToUpdate.update( location );
+                        }
+                        if ( !overwrite ) {
+                            return locationWrapperToUpdate;
+                        }
+                    } else if ( overwrite ){
+                        locationWrapper.deactivate();
                     }
-                    if ( !overwrite ) {
-                        return locationWrapperToUpdate;
-                    }
-                } else if ( overwrite ){
-                    locationWrapper.deactivate();
                 }
+                if ( overwrite && locationWrapperToUpdate != null ) {
+                    return locationWrapperToUpdate;
+                }
+                final LocationWrapper[] newLocation = Arrays.copyOf(locations, locations.length + 1);
+                newLocation[ locations.length ] = location;
+                locations = newLocation;
+            } finally {
+                //Increment after the change, results computed before are not reused
+                version++;
             }
-            if ( overwrite && locationWrapperToUpdate != null ) {
-                return locationWrapperToUpdate;
-            }
-            final LocationWrapper[] newLocation = Arrays.copyOf(locations, locations.length + 1);
-            newLocation[ locations.length ] = location;
-            locations = newLocation;
         }
         return location;
     }
@@ -150,19 +161,15 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
     private void addToAncestors(LinkedList<LocationWrapper> ancestors, LocationWrapper location, Process locationProcess) {
         //Add location to list if it could be the last version
         final Iterator<LocationWrapper > iterator = ancestors.iterator();
-        Set<Process> locationAncestors = null;
         while (iterator.hasNext()) {
             final LocationWrapper next = iterator.next();
             final Process currentProcess = next.getCreatedByTask().getProcess();
             if (locationProcess == currentProcess) {
                 break;
             } else {
-                if( locationAncestors == null ) {
-                    locationAncestors = locationProcess.getAncestors();
-                }
-                if ( locationAncestors.contains(currentProcess) ) {
+                if ( locationProcess.hasAncestor(currentProcess) ) {
                     iterator.remove();
-                } else if (locationProcess.getDescendants().contains(currentProcess)) {
+                } else if (locationProcess.hasDescendant(currentProcess)) {
                     return;
                 }
             }
@@ -192,8 +199,6 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
         LinkedList<LocationWrapper> initial = null;
 
         final Process taskProcess = task.getProcess();
-        final Set<Process> taskAncestors = taskProcess.getAncestors();
-        final Set<Process> taskDescendants = taskProcess.getDescendants();
 
         Set<Location> inUse = null;
 
@@ -221,7 +226,7 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
                 //Location was created by the same process == does definitely fit.
             {
                 current = addAndCreateList( current, location );
-            } else if ( taskAncestors.contains(locationProcess) ) {
+            } else if ( taskProcess.hasAncestor(locationProcess) ) {
                 // location is a direct ancestor
                 if ( ancestors == null ) {
                     ancestors = new LinkedList<>();
@@ -230,7 +235,7 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
                     addToAncestors( ancestors, location, locationProcess );
                 }
             }
-            else if ( taskDescendants.contains(locationProcess) )
+            else if ( taskProcess.hasDescendant(locationProcess) )
                 // location is a direct descendant
             {
                 descendants = addAndCreateList( descendants, location );
@@ -287,6 +292,17 @@ public class RealHierarchyFile extends AbstractHierarchyFile {
         }
     }
 
+    /**
+     * Increases whenever the locations change or one of them starts or stops being in use
+     */
+    public long getChangeCount() {
+        long changes = version;
+        for ( LocationWrapper location : locations ) {
+            changes += location.getUsageChanges();
+        }
+        return changes;
+    }
+
     public LocationWrapper getLastUpdate( LocationType type ){
         LocationWrapper lastLocation = null;
         for (LocationWrapper location : locations) {
@@ -1,6 +1,7 @@
 package cws.k8s.scheduler.model.taskinputs;
 
 import cws.k8s.scheduler.model.location.Location;
+import cws.k8s.scheduler.model.location.NodeLocation;
 import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
 import cws.k8s.scheduler.model.location.hierachy.RealHierarchyFile;
 import lombok.EqualsAndHashCode;
@@ -8,9 +9,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
 import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.List;
 
-@ToString( exclude = "file" )
+@ToString( exclude = { "file", "nodes" } )
 @EqualsAndHashCode
 @RequiredArgsConstructor
 public class PathFileLocationTriple implements Input {
@@ -19,6 +21,11 @@ public class PathFileLocationTriple implements Input {
     public final RealHierarchyFile file;
     public final List<LocationWrapper> locations;
     private long size = -1;
+    /**
+     * Ids of the nodes holding one of the locations, created on first use
+     */
+    @EqualsAndHashCode.Exclude
+    private volatile BitSet nodes = null;
 
     public long getSizeInBytes() {
         if ( this.size != -1 ) {
@@ -55,6 +62,9 @@ public class PathFileLocationTriple implements Input {
     }
 
     public boolean locatedOnLocation(Location loc){
+        if ( loc instanceof NodeLocation ) {
+            return getNodes().get( ((NodeLocation) loc).getId() );
+        }
         for (LocationWrapper location : locations) {
             if ( location.getLocation() == loc ) {
                 return true;
@@ -63,4 +73,21 @@ public class PathFileLocationTriple implements Input {
         return false;
     }
 
+    /**
+     * @return the ids of all nodes this file is located on, must not be modified
+     */
+    BitSet getNodes() {
+        BitSet result = nodes;
+        if ( result == null ) {
+            result = new BitSet();
+            for ( LocationWrapper location : locations ) {
+                if ( location.getLocation() instanceof NodeLocation ) {
+                    result.set( ((NodeLocation) location.getLocation()).getId() );
+                }
+            }
+            nodes = result;
+        }
+        return result;
+    }
+
 }
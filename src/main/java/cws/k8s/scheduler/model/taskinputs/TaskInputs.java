@@ -1,6 +1,7 @@
 package cws.k8s.scheduler.model.taskinputs;
 
 import cws.k8s.scheduler.model.location.Location;
+import cws.k8s.scheduler.model.location.NodeLocation;
 import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
 import cws.k8s.scheduler.util.TaskNodeStats;
 import cws.k8s.scheduler.util.Tuple;
@@ -11,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -28,6 +30,87 @@ public class TaskInputs {
 
     private boolean sorted = false;
 
+    /**
+     * Created on first use, the files and their locations do not change
+     */
+    @ToString.Exclude
+    private volatile NodeIndex nodeIndex = null;
+
+    /**
+     * Which nodes hold which data, indexed by {@link NodeLocation#getId()}
+     */
+    private static class NodeIndex {
+
+        /**
+         * Nodes holding all files
+         */
+        private final BitSet allFiles;
+        /**
+         * Sum of {@link PathFileLocationTriple#getSizeInBytes()} of the files on each node
+         */
+        private final long[] bytes;
+        /**
+         * Sum of {@link PathFileLocationTriple#getMinSizeInBytes()} of the files on each node
+         */
+        private final long[] minBytes;
+        private final long totalMinBytes;
+
+        private NodeIndex( List<PathFileLocationTriple> files ) {
+            BitSet all = null;
+            int length = 0;
+            for ( PathFileLocationTriple file : files ) {
+                final BitSet nodes = file.getNodes();
+                length = Math.max( length, nodes.length() );
+                if ( all == null ) {
+                    all = (BitSet) nodes.clone();
+                } else {
+                    all.and( nodes );
+                }
+            }
+            bytes = new long[length];
+            minBytes = new long[length];
+            long total = 0;
+            for ( PathFileLocationTriple file : files ) {
+                if ( file.locations.isEmpty() ) {
+                    continue;
+                }
+                final long size = file.getSizeInBytes();
+                final long minSize = file.getMinSizeInBytes();
+                total += minSize;
+                final BitSet nodes = file.getNodes();
+                for ( int id = nodes.nextSetBit( 0 ); id >= 0; id = nodes.nextSetBit( id + 1 ) ) {
+                    bytes[id] += size;
+                    minBytes[id] += minSize;
+                }
+            }
+            this.allFiles = all;
+            this.totalMinBytes = total;
+        }
+
+        private boolean allFilesOn( int id ) {
+            //no files at all
+            return allFiles == null || allFiles.get( id );
+        }
+
+        private long bytesOn( int id ) {
+            return id < bytes.length ? bytes[id] : 0;
+        }
+
+        private long minBytesOn( int id ) {
+            return id < minBytes.length ? minBytes[id] : 0;
+        }
+
+    }
+
+    private NodeIndex getNodeIndex() {
+        NodeIndex result = nodeIndex;
+        if ( result == null ) {
+            result = new NodeIndex( files );
+            nodeIndex = result;
+        }
+        return result;
+    }
+
     public boolean canRunOnLoc( Location loc ) {
         return !excludedNodes.contains( loc );
     }
@@ -37,6 +120,14 @@ public class TaskInputs {
     }
 
     public boolean allFilesAreOnLocationAndNotOverwritten( Location loc, Set<String> pathCurrentlyCopying ){
+        if ( loc instanceof NodeLocation ) {
+            if ( !getNodeIndex().allFilesOn( ((NodeLocation) loc).getId() ) ) {
+                return false;
+            }
+            if ( pathCurrentlyCopying == null || pathCurrentlyCopying.isEmpty() ) {
+                return true;
+            }
+        }
         for (PathFileLocationTriple file : files) {
             if ( !file.locatedOnLocation(loc) || (pathCurrentlyCopying != null && pathCurrentlyCopying.contains(file.path.toString())) ) {
                 return false;
@@ -61,6 +152,11 @@ public class TaskInputs {
      * @return boolean: true if all files are on location, Long: data on location
      */
     public Tuple<Boolean,Long> calculateDataOnNodeAdditionalInfo( Location loc ) {
+        if ( loc instanceof NodeLocation ) {
+            final NodeIndex index = getNodeIndex();
+            final int id = ((NodeLocation) loc).getId();
+            return new Tuple<>( index.allFilesOn( id ), index.bytesOn( id ) );
+        }
         long size = 0;
         boolean allOnNode = true;
         for ( PathFileLocationTriple fileLocation : files ) {
@@ -81,11 +177,23 @@ public class TaskInputs {
         long sizeRemaining = 0;
         long sizeCurrentlyCopying = 0;
         long sizeOnNode = 0;
+        final boolean indexed = loc instanceof NodeLocation;
+        if ( indexed ) {
+            final NodeIndex index = getNodeIndex();
+            final int id = ((NodeLocation) loc).getId();
+            sizeOnNode = index.minBytesOn( id );
+            //Nothing to check for the missing files
+            if ( index.allFilesOn( id ) || currentlyCopying.isEmpty() ) {
+                return new TaskNodeStats( index.totalMinBytes - sizeOnNode, 0, sizeOnNode );
+            }
+        }
         for ( PathFileLocationTriple fileLocation : files ) {
             final long minSizeInBytes = fileLocation.getMinSizeInBytes();
             //Is the file already on the node?
             if ( fileLocation.locatedOnLocation(loc) ) {
-                sizeOnNode += minSizeInBytes;
+                if ( !indexed ) {
+                    sizeOnNode += minSizeInBytes;
+                }
             } else {
                 //is the file currently copying?
                 final CopySource copySource = currentlyCopying.getCopySource( fileLocation.path.toString() );
@@ -3,9 +3,6 @@ package cws.k8s.scheduler.model.tracing;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -127,53 +124,54 @@ public class TraceRecord {
         this.schedulerTimeDeltaPhaseThree.add( schedulerTimeDeltaPhaseThree );
     }
 
-    public void writeRecord( String tracePath ) throws IOException {
-
-        try ( BufferedWriter bw = new BufferedWriter( new FileWriter( tracePath ) ) ) {
-            bw.write("nextflow.scheduler.trace/v1\n");
-            writeValue("scheduler_files_bytes", schedulerFilesBytes, bw);
-            writeValue("scheduler_files_node_bytes", schedulerFilesNodeBytes, bw);
-            writeValue("scheduler_files_node_other_task_bytes", schedulerFilesNodeOtherTaskBytes, bw);
-            writeValue("scheduler_files", schedulerFiles, bw);
-            writeValue("scheduler_files_node", schedulerFilesNode, bw);
-            writeValue("scheduler_files_node_other_task", schedulerFilesNodeOtherTask, bw);
-            writeValue("scheduler_depending_task", schedulerDependingTask, bw);
-            writeValue("scheduler_time_in_queue", schedulerTimeInQueue, bw);
-            writeValue("scheduler_place_in_queue", schedulerPlaceInQueue, bw);
-            writeValue("scheduler_location_count", schedulerLocationCount, bw);
-            writeValue("scheduler_nodes_tried", schedulerNodesTried, bw);
-            writeValue("scheduler_nodes_cost", schedulerNodesCost, bw);
-            writeValue("scheduler_could_stop_fetching", schedulerCouldStopFetching, bw);
-            writeValue("scheduler_best_cost", schedulerBestCost, bw);
-            writeValue("scheduler_tried_to_schedule", schedulerTriedToSchedule, bw);
-            writeValue("scheduler_nodes_to_copy_from", schedulerNodesToCopyFrom, bw);
-            writeValue("scheduler_time_to_schedule", schedulerTimeToSchedule, bw);
-            writeValue("scheduler_no_alignment_found", schedulerNoAlignmentFound, bw);
-            writeValue("scheduler_delta_schedule_submitted", schedulerDeltaScheduleSubmitted, bw);
-            writeValue("scheduler_delta_schedule_alignment", schedulerDeltaScheduleAlignment, bw);
-            writeValue("scheduler_batch_id", schedulerBatchId, bw);
-            writeValue("scheduler_delta_batch_start_submitted", schedulerDeltaBatchStartSubmitted, bw);
-            writeValue("scheduler_delta_batch_start_received", schedulerDeltaBatchStartReceived, bw);
-            writeValue("scheduler_delta_batch_closed_batch_end", schedulerDeltaBatchClosedBatchEnd, bw);
-            writeValue("scheduler_delta_submitted_batch_end", schedulerDeltaSubmittedBatchEnd, bw);
-            writeValue("scheduler_time_delta_phase_three", schedulerTimeDeltaPhaseThree, bw);
-            writeValue("scheduler_copy_tasks", schedulerCopyTasks, bw);
-        }
-
+    /**
+     * @return the content of the trace file with the current values
+     */
+    public String toTrace() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("nextflow.scheduler.trace/v1\n");
+        writeValue("scheduler_files_bytes", schedulerFilesBytes, sb);
+        writeValue("scheduler_files_node_bytes", schedulerFilesNodeBytes, sb);
+        writeValue("scheduler_files_node_other_task_bytes", schedulerFilesNodeOtherTaskBytes, sb);
+        writeValue("scheduler_files", schedulerFiles, sb);
+        writeValue("scheduler_files_node", schedulerFilesNode, sb);
+        writeValue("scheduler_files_node_other_task", schedulerFilesNodeOtherTask, sb);
+        writeValue("scheduler_depending_task", schedulerDependingTask, sb);
+        writeValue("scheduler_time_in_queue", schedulerTimeInQueue, sb);
+        writeValue("scheduler_place_in_queue", schedulerPlaceInQueue, sb);
+        writeValue("scheduler_location_count", schedulerLocationCount, sb);
+        writeValue("scheduler_nodes_tried", schedulerNodesTried, sb);
+        writeValue("scheduler_nodes_cost", schedulerNodesCost, sb);
+        writeValue("scheduler_could_stop_fetching", schedulerCouldStopFetching, sb);
+        writeValue("scheduler_best_cost", schedulerBestCost, sb);
+        writeValue("scheduler_tried_to_schedule", schedulerTriedToSchedule, sb);
+        writeValue("scheduler_nodes_to_copy_from", schedulerNodesToCopyFrom, sb);
+        writeValue("scheduler_time_to_schedule", schedulerTimeToSchedule, sb);
+        writeValue("scheduler_no_alignment_found", schedulerNoAlignmentFound, sb);
+        writeValue("scheduler_delta_schedule_submitted", schedulerDeltaScheduleSubmitted, sb);
+        writeValue("scheduler_delta_schedule_alignment", schedulerDeltaScheduleAlignment, sb);
+        writeValue("scheduler_batch_id", schedulerBatchId, sb);
+        writeValue("scheduler_delta_batch_start_submitted", schedulerDeltaBatchStartSubmitted, sb);
+        writeValue("scheduler_delta_batch_start_received", schedulerDeltaBatchStartReceived, sb);
+        writeValue("scheduler_delta_batch_closed_batch_end", schedulerDeltaBatchClosedBatchEnd, sb);
+        writeValue("scheduler_delta_submitted_batch_end", schedulerDeltaSubmittedBatchEnd, sb);
+        writeValue("scheduler_time_delta_phase_three", schedulerTimeDeltaPhaseThree, sb);
+        writeValue("scheduler_copy_tasks", schedulerCopyTasks, sb);
+        return sb.toString();
     }
 
-    private <T extends Number> void writeValue( String name, T value, BufferedWriter bw ) throws IOException {
+    private <T extends Number> void writeValue( String name, T value, StringBuilder sb ) {
         if ( value != null ) {
-            bw.write( name + '=' + value + '\n' );
+            sb.append( name ).append( '=' ).append( value ).append( '\n' );
         }
     }
 
-    private void writeValue( String name, List<? extends Number> value, BufferedWriter bw ) throws IOException {
+    private void writeValue( String name, List<? extends Number> value, StringBuilder sb ) {
         if ( value != null ) {
             final String collect = value.stream()
                     .map( x -> x==null ? "null" : x.toString() )
                     .collect(Collectors.joining(";"));
-            bw.write( name + "=\"" + collect + "\"\n" );
+            sb.append( name ).append( "=\"" ).append( collect ).append( "\"\n" );
         }
     }
 
@@ -0,0 +1,169 @@
+package cws.k8s.scheduler.prediction;
+
+import cws.k8s.scheduler.model.SchedulerConfig;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskMetrics;
+import cws.k8s.scheduler.prediction.extractor.CpuExtractor;
+import cws.k8s.scheduler.prediction.extractor.InputExtractor;
+import cws.k8s.scheduler.prediction.predictor.ConstantNumberPredictor;
+import cws.k8s.scheduler.prediction.predictor.LinearPredictorSquaredLoss;
+import cws.k8s.scheduler.prediction.predictor.MeanPredictor;
+import cws.k8s.scheduler.prediction.predictor.PolynomialPredictor;
+import io.fabric8.kubernetes.api.builder.Builder;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.ResourceRequirements;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Learns how many cores the tasks of a process use and lowers the CPU request of the waiting tasks accordingly.
+ * The predictor is set with cpuPredictor in the SchedulerConfig, e.g. "mean-offset=var", like the memory predictor.
+ * Requests are never raised above the original request and are clamped by minCpu and maxCpu.
+ * Tasks whose CPU limit equals the request are not scaled.
+ */
+@Slf4j
+public class CpuScaler extends TaskScaler {
+
+    /**
+     * Kubernetes does not allow a finer granularity than milli-cores
+     */
+    private static final double MILLI = 1000;
+
+    private final Double lowestCpuRequest;
+    private final Double maximumCpuRequest;
+
+    private final Builder<Predictor> predictorBuilder;
+
+    public CpuScaler( SchedulerConfig config ) {
+        String predictorString = config.cpuPredictor;
+        String parameterString = null;
+        if ( predictorString.contains( "-" ) ) {
+            parameterString = predictorString.substring( predictorString.indexOf( "-" ) + 1 );
+            predictorString = predictorString.substring( 0, predictorString.indexOf( "-" ) );
+        }
+        final Map<String, String> cpuPredictorParameter = parsePredictorParams( parameterString );
+        this.predictorBuilder = applyOffset( applyPredictor( predictorString ), cpuPredictorParameter.remove( "offset" ) );
+        if ( !cpuPredictorParameter.isEmpty() ) {
+            log.warn( "unrecognized cpuPredictorParameter: " + cpuPredictorParameter );
+        }
+        lowestCpuRequest = config.minCpu;
+        maximumCpuRequest = config.maxCpu;
+        log.info( "CpuScaler initialized with minCpu: {}, maxCpu: {}", lowestCpuRequest, maximumCpuRequest );
+    }
+
+    /**
+     * Only predictors that do not assume a unit of the output are supported
+     */
+    private Builder<Predictor> applyPredictor( String predictorString ) {
+        final InputExtractor inputExtractor = new InputExtractor();
+        final CpuExtractor outputExtractor = new CpuExtractor();
+        if ( predictorString.equalsIgnoreCase( "linear" ) || predictorString.equalsIgnoreCase( "lr" ) ) {
+            log.debug( "using LinearPredictor" );
+            return () -> new LinearPredictorSquaredLoss( inputExtractor, outputExtractor );
+        } else if ( predictorString.equalsIgnoreCase( "mean" ) ) {
+            log.debug( "using MeanPredictor" );
+            return () -> new MeanPredictor( outputExtractor );
+        } else if ( predictorString.toLowerCase().startsWith( "const" ) ) {
+            final String substring = predictorString.substring( "const".length() );
+            final double value = substring.isEmpty() ? 1 : Double.parseDouble( substring );
+            log.debug( "using ConstantPredictor with value: {}", value );
+            return () -> new ConstantNumberPredictor( outputExtractor, value );
+        } else if ( predictorString.toLowerCase().startsWith( "poly" ) ) {
+            final String substring = predictorString.substring( "poly".length() );
+            final int value = substring.isEmpty() ? 2 : Integer.parseInt( substring );
+            log.debug( "using PolyPredictor with value: {}", value );
+            return () -> new PolynomialPredictor( inputExtractor, outputExtractor, value );
+        } else {
+            throw new IllegalArgumentException( "unrecognized cpuPredictorString: " + predictorString );
+        }
+    }
+
+    @Override
+    protected boolean isValid( Task task ) {
+        final TaskMetrics taskMetrics = task.getTaskMetrics();
+        return taskMetrics != null
+                // not reported by older clients and not measurable for very short tasks
+                && taskMetrics.getPcpu() > 0
+                && taskMetrics.getRealtime() >= 0;
+    }
+
+    @Override
+    protected boolean applyToThisTask( Task task ) {
+        if ( task.getConfig().getRepetition() > 0 ) {
+            log.debug( "task {} is a repetition, not changing it", task.getConfig().getName() );
+            return false;
+        }
+        if ( task.getOriginalCpuRequest().compareTo( BigDecimal.ZERO ) == 0 ) {
+            log.debug( "task {} had no prior cpu request", task.getConfig().getName() );
+            return false;
+        }
+        if ( cpuLimitEqualsRequest( task.getPod() ) ) {
+            log.debug( "task {} has a cpu limit equal to its request, not changing it", task.getConfig().getName() );
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * An in-place resize must not change the QoS class of the pod.
+     * Lowering only the request of such a container would turn a Guaranteed pod into a Burstable one.
+     */
+    static boolean cpuLimitEqualsRequest( Pod pod ) {
+        if ( pod == null || pod.getSpec() == null ) {
+            return false;
+        }
+        for ( Container container : pod.getSpec().getContainers() ) {
+            final ResourceRequirements resources = container.getResources();
+            if ( resources == null || resources.getLimits() == null || resources.getLimits().get( "cpu" ) == null ) {
+                continue;
+            }
+            final Quantity request = resources.getRequests() == null ? null : resources.getRequests().get( "cpu" );
+            //Without a request, Kubernetes uses the limit as request
+            if ( request == null || Quantity.getAmountInBytes( resources.getLimits().get( "cpu" ) )
+                    .compareTo( Quantity.getAmountInBytes( request ) ) == 0 ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void scaleTask( Task task, Double prediction, long predictorVersion ) {
+        if ( prediction == null || prediction.isNaN() ) {
+            return;
+        }
+        double cores = prediction;
+        log.debug( "predictor proposes {} cores for task {}", cores, task.getConfig().getName() );
+        final double originalRequest = task.getOriginalCpuRequest().doubleValue();
+        if ( lowestCpuRequest != null && cores < lowestCpuRequest ) {
+            cores = lowestCpuRequest;
+        } else if ( maximumCpuRequest != null && cores > maximumCpuRequest ) {
+            cores = maximumCpuRequest;
+        }
+        if ( cores > originalRequest ) {
+            cores = originalRequest;
+        }
+        cores = roundUpToMilliCores( Math.max( cores, 1 / MILLI ) );
+        log.info( "resizing {} to {} cores", task.getConfig().getName(), cores );
+        task.setPlanedCpuInCores( cores, predictorVersion );
+    }
+
+    static double roundUpToMilliCores( double cores ) {
+        return Math.ceil( cores * MILLI - 1e-9 ) / MILLI;
+    }
+
+    @Override
+    protected Predictor createPredictor( String taskName ) {
+        return predictorBuilder.build();
+    }
+
+    @Override
+    protected long getTaskVersionForPredictor( Task task ) {
+        return task.getCpuPredictionVersion();
+    }
+
+}
@@ -5,12 +5,10 @@ import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.model.TaskMetrics;
 import cws.k8s.scheduler.prediction.extractor.InputExtractor;
 import cws.k8s.scheduler.prediction.extractor.MemoryExtractor;
-import cws.k8s.scheduler.prediction.offset.MaxOffset;
-import cws.k8s.scheduler.prediction.offset.PercentileOffset;
-import cws.k8s.scheduler.prediction.offset.StandardDeviationOffset;
-import cws.k8s.scheduler.prediction.offset.VarianceOffset;
 import cws.k8s.scheduler.prediction.predictor.*;
+import cws.k8s.scheduler.util.SchedulerMetrics;
 import io.fabric8.kubernetes.api.builder.Builder;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
@@ -26,6 +24,9 @@ public class MemoryScaler extends TaskScaler {
 
     private final Builder<Predictor> predictorBuilder;
 
+    @Setter
+    private SchedulerMetrics metrics = SchedulerMetrics.noop();
+
     /**
      * Create a new TaskScaler instance. The memory predictor to be used is
      * determined as follows:
@@ -51,7 +52,8 @@ public class MemoryScaler extends TaskScaler {
         }
         memoryPredictorParameter = parsePredictorParams( parameterString );
 
-        Builder<Predictor> cBuilder = applyPredictor( predictorString );
+        final String refitInterval = memoryPredictorParameter.remove( "refit" );
+        Builder<Predictor> cBuilder = applyPredictor( predictorString, refitInterval == null ? 1 : Integer.parseInt( refitInterval ) );
 
         cBuilder = applyOffset( cBuilder, memoryPredictorParameter.remove( "offset" ) );
 
@@ -66,36 +68,15 @@ public class MemoryScaler extends TaskScaler {
         log.info( "MemoryScaler initialized with minMemory: {}, maxMemory: {}", formatBytes(LOWEST_MEMORY_REQUEST), formatBytes(MAXIMUM_MEMORY_REQUEST) );
     }
 
-    private Builder<Predictor> applyOffset( final Builder<Predictor> builder, final String offsetValue ) {
-        if ( offsetValue != null ) {
-            if ( offsetValue.endsWith( "percentile" ) ) {
-                final String substring = offsetValue.substring( 0, offsetValue.length() - "percentile".length() );
-                int percentile = Integer.parseInt( substring );
-                return () -> new PercentileOffset( builder.build(), percentile );
-            } else if ( offsetValue.equals( "max" ) ) {
-                return () -> new MaxOffset( builder.build() );
-            } else if ( offsetValue.equals( "none" ) ) {
-                return builder;
-            } else if ( offsetValue.equals( "var" ) ) {
-                return () -> new VarianceOffset( builder.build() );
-            } else if ( offsetValue.endsWith( "std" ) ) {
-                final String substring = offsetValue.substring( 0, offsetValue.length() - "std".length() );
-                double factor = substring.isEmpty() ? 1 : Double.parseDouble( substring );
-                return () -> new StandardDeviationOffset( factor, builder.build() );
-            } else {
-                throw new IllegalArgumentException("unrecognized offset parameter: " + offsetValue );
-            }
-        } else {
-            return () -> new MaxOffset( builder.build() );
-        }
-    }
-
-    private Builder<Predictor> applyPredictor( String predictorString ) {
+    /**
+     * @param refitInterval number of new tasks after which predictors with an asymmetric loss are optimized again
+     */
+    private Builder<Predictor> applyPredictor( String predictorString, int refitInterval ) {
         final InputExtractor inputExtractor = new InputExtractor();
         final MemoryExtractor outputExtractor = new MemoryExtractor();
         if ( predictorString.equalsIgnoreCase( "linear2" ) || predictorString.equalsIgnoreCase( "lr2" ) ) {
             log.debug( "using LinearPredictor2" );
-            return () -> new LinearPredictorCustomLoss( inputExtractor, outputExtractor );
+            return () -> new LinearPredictorCustomLoss( inputExtractor, outputExtractor, LinearPredictorCustomLoss.DEFAULT_WEIGHT_OVERPREDICTION, refitInterval );
         } if ( predictorString.equalsIgnoreCase( "linear" ) || predictorString.equalsIgnoreCase( "lr" ) ) {
             log.debug( "using LinearPredictor" );
             return () -> new LinearPredictorSquaredLoss( inputExtractor, outputExtractor );
@@ -106,9 +87,9 @@ public class MemoryScaler extends TaskScaler {
             log.debug( "using Ponder" );
             if( predictorString.charAt( predictorString.length() - 1 ) == ')' && predictorString.charAt( 6 ) == '(' ) {
                 final String substring = predictorString.substring( 7, predictorString.length() - 1 );
-                return () -> new PonderPredictor( new LinearPredictorCustomLoss( inputExtractor, outputExtractor ), Integer.parseInt( substring ));
+                return () -> new PonderPredictor( new LinearPredictorCustomLoss( inputExtractor, outputExtractor, LinearPredictorCustomLoss.DEFAULT_WEIGHT_OVERPREDICTION, refitInterval ), Integer.parseInt( substring ));
             } else {
-                return () -> new PonderPredictor( new LinearPredictorCustomLoss( inputExtractor, outputExtractor ) );
+                return () -> new PonderPredictor( new LinearPredictorCustomLoss( inputExtractor, outputExtractor, LinearPredictorCustomLoss.DEFAULT_WEIGHT_OVERPREDICTION, refitInterval ) );
             }
         } else if ( predictorString.toLowerCase().startsWith( "const" ) ) {
             final String substring = predictorString.substring( "const".length() );
@@ -125,6 +106,17 @@ public class MemoryScaler extends TaskScaler {
         }
     }
 
+    /**
+     * Records the error of the prediction, if the task was scaled
+     */
+    @Override
+    public void afterTaskFinished( Task task ) {
+        if ( active && task.getMemoryPredictionVersion() >= 0 && isValid( task ) ) {
+            metrics.recordMemoryPrediction( task.getPlanedRequirements().getRam().longValue(), task.getTaskMetrics().getPeakRss() );
+        }
+        super.afterTaskFinished( task );
+    }
+
     @Override
     protected boolean isValid( Task task ) {
         final TaskMetrics taskMetrics = task.getTaskMetrics();
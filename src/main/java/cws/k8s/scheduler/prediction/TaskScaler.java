@@ -18,6 +18,11 @@
 package cws.k8s.scheduler.prediction;
 
 import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.prediction.offset.MaxOffset;
+import cws.k8s.scheduler.prediction.offset.PercentileOffset;
+import cws.k8s.scheduler.prediction.offset.StandardDeviationOffset;
+import cws.k8s.scheduler.prediction.offset.VarianceOffset;
+import io.fabric8.kubernetes.api.builder.Builder;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
@@ -126,5 +131,32 @@ public abstract class TaskScaler {
         }
         return params;
     }
-    
+
+    /**
+     * Wraps the predictor with the offset given by the "offset" parameter, by default the maximal residual
+     */
+    protected Builder<Predictor> applyOffset( final Builder<Predictor> builder, final String offsetValue ) {
+        if ( offsetValue != null ) {
+            if ( offsetValue.endsWith( "percentile" ) ) {
+                final String substring = offsetValue.substring( 0, offsetValue.length() - "percentile".length() );
+                int percentile = Integer.parseInt( substring );
+                return () -> new PercentileOffset( builder.build(), percentile );
+            } else if ( offsetValue.equals( "max" ) ) {
+                return () -> new MaxOffset( builder.build() );
+            } else if ( offsetValue.equals( "none" ) ) {
+                return builder;
+            } else if ( offsetValue.equals( "var" ) ) {
+                return () -> new VarianceOffset( builder.build() );
+            } else if ( offsetValue.endsWith( "std" ) ) {
+                final String substring = offsetValue.substring( 0, offsetValue.length() - "std".length() );
+                double factor = substring.isEmpty() ? 1 : Double.parseDouble( substring );
+                return () -> new StandardDeviationOffset( factor, builder.build() );
+            } else {
+                throw new IllegalArgumentException("unrecognized offset parameter: " + offsetValue );
+            }
+        } else {
+            return () -> new MaxOffset( builder.build() );
+        }
+    }
+
 }
@@ -0,0 +1,15 @@
+package cws.k8s.scheduler.prediction.extractor;
+
+import cws.k8s.scheduler.model.Task;
+
+/**
+ * Number of cores a task used on average
+ */
+public class CpuExtractor implements VariableExtractor {
+
+    @Override
+    public double extractVariable( Task task ) {
+        return task.getTaskMetrics().getPcpu() / 100;
+    }
+
+}
@@ -7,10 +7,29 @@ import java.util.List;
 
 public class MaxOffset extends OffsetApplier {
 
+    private double maxResidual = 0;
+
     public MaxOffset( Predictor predictor ) {
         super( predictor );
     }
 
+    @Override
+    protected void addResidual( double residual ) {
+        if ( residual > maxResidual ) {
+            maxResidual = residual;
+        }
+    }
+
+    @Override
+    protected void clearResiduals() {
+        maxResidual = 0;
+    }
+
+    @Override
+    protected double getOffset() {
+        return maxResidual;
+    }
+
     @Override
     protected double getOffset( List<Task> observedTasks ) {
         double maxDiff = 0;
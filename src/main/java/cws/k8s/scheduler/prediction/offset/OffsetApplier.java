@@ -16,15 +16,40 @@ public abstract class OffsetApplier implements Predictor {
     private final Predictor predictor;
     @Getter(AccessLevel.PROTECTED)
     private final List<Task> observedTasks = new LinkedList<>();
-    private Double recentOffset = null;
+    /**
+     * Number of observed tasks at which all residuals are evaluated again with the current model
+     */
+    private int reevaluateAt = 1;
 
 
+    /**
+     * The residual of the task is taken from the prediction before the task is learned.
+     * Whenever the number of observed tasks doubled, all residuals are evaluated again with the current model,
+     * so residuals of early models do not stay forever and the offset can shrink again.
+     * At least half of the residuals are in-sample, adding a task stays constant time amortized.
+     */
     @Override
     public void addTask( Task t ) {
         synchronized ( observedTasks ) {
+            final Double prediction = predictor.queryPrediction( t );
             predictor.addTask( t );
             observedTasks.add( t );
-            recentOffset = null;
+            if ( observedTasks.size() >= reevaluateAt ) {
+                reevaluateResiduals();
+                reevaluateAt = 2 * observedTasks.size();
+            } else if ( prediction != null ) {
+                addResidual( getDependentValue( t ) - prediction );
+            }
+        }
+    }
+
+    private void reevaluateResiduals() {
+        clearResiduals();
+        for ( Task observedTask : observedTasks ) {
+            final Double prediction = predictor.queryPrediction( observedTask );
+            if ( prediction != null ) {
+                addResidual( getDependentValue( observedTask ) - prediction );
+            }
         }
     }
 
@@ -42,10 +67,7 @@ public abstract class OffsetApplier implements Predictor {
     }
 
     protected double determineOffset() {
-        if ( recentOffset == null ) {
-            recentOffset = getOffset( observedTasks );
-        }
-        return recentOffset;
+        return getOffset();
     }
 
     /**
@@ -58,7 +80,25 @@ public abstract class OffsetApplier implements Predictor {
     }
 
     /**
-     * Get the offset to be applied to the prediction
+     * Add the difference between the observed value of a finished task and its prediction
+     * @param residual the observed value minus the prediction
+     */
+    protected abstract void addResidual( double residual );
+
+    /**
+     * Drop all residuals added so far, they are added again for the current model
+     */
+    protected abstract void clearResiduals();
+
+    /**
+     * Get the offset to be applied to the prediction, derived from all residuals added so far
+     * @return the offset
+     */
+    protected abstract double getOffset();
+
+    /**
+     * Get the offset for the given tasks, evaluated with the current model.
+     * This queries the predictor for every task.
      * @return the offset
      */
     protected abstract double getOffset( List<Task> observedTasks );
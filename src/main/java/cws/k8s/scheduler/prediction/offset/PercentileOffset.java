@@ -2,6 +2,7 @@ package cws.k8s.scheduler.prediction.offset;
 
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.prediction.Predictor;
+import cws.k8s.scheduler.prediction.statistics.P2Quantile;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 
 import java.util.List;
@@ -10,6 +11,7 @@ public class PercentileOffset extends OffsetApplier {
 
     private final Percentile percentile = new Percentile();
     private final double percentileValue;
+    private P2Quantile residuals;
 
     public PercentileOffset( Predictor predictor, double percentileValue ) {
         super( predictor );
@@ -20,6 +22,22 @@ public class PercentileOffset extends OffsetApplier {
             throw new AssertionError( "Percentile value must be less than 100" );
         }
         this.percentileValue = percentileValue;
+        this.residuals = new P2Quantile( percentileValue );
+    }
+
+    @Override
+    protected void addResidual( double residual ) {
+        residuals.add( residual );
+    }
+
+    @Override
+    protected void clearResiduals() {
+        residuals = new P2Quantile( percentileValue );
+    }
+
+    @Override
+    protected double getOffset() {
+        return residuals.getCount() == 0 ? 0 : Math.max( 0, residuals.getValue() );
     }
 
     @Override
@@ -14,6 +14,11 @@ public class StandardDeviationOffset extends VarianceOffset {
         this.factor = factor;
     }
 
+    @Override
+    protected double getOffset() {
+        return factor * Math.sqrt( super.getOffset() );
+    }
+
     @Override
     public double getOffset( List<Task> observedTasks ) {
         final double offset = super.getOffset( observedTasks );
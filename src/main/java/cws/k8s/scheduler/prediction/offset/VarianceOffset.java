@@ -2,15 +2,33 @@ package cws.k8s.scheduler.prediction.offset;
 
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.prediction.Predictor;
+import cws.k8s.scheduler.prediction.statistics.WeightedVariance;
 
 import java.util.List;
 
 public class VarianceOffset extends OffsetApplier {
 
+    private WeightedVariance residuals = new WeightedVariance();
+
     public VarianceOffset( Predictor predictor ) {
         super( predictor );
     }
 
+    @Override
+    protected void addResidual( double residual ) {
+        residuals.add( residual );
+    }
+
+    @Override
+    protected void clearResiduals() {
+        residuals = new WeightedVariance();
+    }
+
+    @Override
+    protected double getOffset() {
+        return residuals.getVariance();
+    }
+
     @Override
     protected double getOffset( List<Task> observedTasks ) {
         double[] observedValues = new double[observedTasks.size()];
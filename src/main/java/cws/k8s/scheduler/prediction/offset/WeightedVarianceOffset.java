@@ -2,6 +2,7 @@ package cws.k8s.scheduler.prediction.offset;
 
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.prediction.Predictor;
+import cws.k8s.scheduler.prediction.statistics.DistanceWeightedVariance;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Arrays;
@@ -11,11 +12,41 @@ import java.util.List;
 public class WeightedVarianceOffset {
 
     private final Predictor predictor;
+    private DistanceWeightedVariance residuals = new DistanceWeightedVariance();
 
     public WeightedVarianceOffset( Predictor predictor ) {
         this.predictor = predictor;
     }
 
+    /**
+     * Add the difference between the observed value of a finished task and its prediction,
+     * the caller has to synchronize
+     * @param independentValue the independent value of the task
+     * @param residual the observed value minus the prediction
+     */
+    protected void addResidual( double independentValue, double residual ) {
+        residuals.add( independentValue, residual );
+    }
+
+    /**
+     * Drop all residuals added so far, the caller has to synchronize
+     */
+    protected void clearResiduals() {
+        residuals = new DistanceWeightedVariance();
+    }
+
+    /**
+     * Get the offset for the given value from all residuals added so far,
+     * weighted like {@link #getOffset(List, double)}, the caller has to synchronize
+     * @param value, values further away from the value will have a lower weight
+     * @return the weighted variance of the residuals
+     */
+    protected double getOffset( double value ) {
+        final double variance = residuals.getVariance( value );
+        log.info( "Variance: " + variance );
+        return variance;
+    }
+
     /**
      * Get the offset for the given value
      * @param observedTasks
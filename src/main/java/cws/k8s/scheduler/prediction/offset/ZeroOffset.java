@@ -11,6 +11,21 @@ public class ZeroOffset extends OffsetApplier {
         super( predictor );
     }
 
+    @Override
+    protected void addResidual( double residual ) {
+        // the offset is always zero
+    }
+
+    @Override
+    protected void clearResiduals() {
+        // the offset is always zero
+    }
+
+    @Override
+    protected double getOffset() {
+        return 0;
+    }
+
     @Override
     protected double getOffset( List<Task> observedTasks ) {
         return 0;
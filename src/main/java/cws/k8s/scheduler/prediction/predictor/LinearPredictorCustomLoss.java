@@ -3,7 +3,10 @@ package cws.k8s.scheduler.prediction.predictor;
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.prediction.extractor.VariableExtractor;
 import cws.k8s.scheduler.prediction.predictor.loss.UnequalLossFunction;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.exception.TooManyEvaluationsException;
 import org.apache.commons.math3.optim.InitialGuess;
 import org.apache.commons.math3.optim.MaxEval;
 import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
@@ -23,18 +26,37 @@ public class LinearPredictorCustomLoss implements LinearPredictor {
     private final UnequalLossFunction unequalLossFunction;
     private double[] optimizedParameters = null;
     private final SimpleRegression regression = new SimpleRegression();
+    /**
+     * Number of new samples after which the parameters are optimized again
+     */
+    private final int refitInterval;
+    private int samplesSinceFit = 0;
 
+    public static final double DEFAULT_WEIGHT_OVERPREDICTION = 0.02;
     private static final int BYTES_IN_GB = 1024 * 1024 * 1024;
+    /**
+     * Evaluations of the loss function per fit, each evaluation iterates over all samples.
+     * As each fit continues from the previous parameters, the budget is only exhausted if the data changed a lot.
+     */
+    private static final int MAX_EVALUATIONS = 2_000;
 
 
-    public LinearPredictorCustomLoss( VariableExtractor inputExtractor, VariableExtractor outputExtractor, double weightOverprediction ) {
+    public LinearPredictorCustomLoss( VariableExtractor inputExtractor, VariableExtractor outputExtractor, double weightOverprediction, int refitInterval ) {
+        if ( refitInterval < 1 ) {
+            throw new IllegalArgumentException( "refitInterval must be at least 1" );
+        }
         this.inputExtractor = inputExtractor;
         this.outputExtractor = outputExtractor;
+        this.refitInterval = refitInterval;
         unequalLossFunction = new UnequalLossFunction(weightOverprediction);
     }
 
+    public LinearPredictorCustomLoss( VariableExtractor inputExtractor, VariableExtractor outputExtractor, double weightOverprediction ) {
+        this( inputExtractor, outputExtractor, weightOverprediction, 1 );
+    }
+
     public LinearPredictorCustomLoss( VariableExtractor inputExtractor, VariableExtractor outputExtractor ) {
-        this( inputExtractor, outputExtractor, 0.02 );
+        this( inputExtractor, outputExtractor, DEFAULT_WEIGHT_OVERPREDICTION );
     }
 
 
@@ -48,7 +70,7 @@ public class LinearPredictorCustomLoss implements LinearPredictor {
         synchronized ( unequalLossFunction ) {
             version.incrementAndGet();
             unequalLossFunction.addPoint( input, output );
-            optimizedParameters = null;
+            samplesSinceFit++;
             regression.addData( input, output );
         }
     }
@@ -59,17 +81,9 @@ public class LinearPredictorCustomLoss implements LinearPredictor {
             if ( !unequalLossFunction.canTrain() ) {
                 return null;
             }
-            if ( optimizedParameters == null ) {
-                SimplexOptimizer optimizer = new SimplexOptimizer(1e-30, 1e-50);
-                double[] startPoint = { regression.getIntercept(), regression.getSlope() }; // Initial guess for the parameters
-                NelderMeadSimplex simplex = new NelderMeadSimplex(startPoint.length);
-                optimizedParameters = optimizer.optimize(
-                        MaxEval.unlimited(),
-                        new ObjectiveFunction(unequalLossFunction),
-                        GoalType.MINIMIZE,
-                        new InitialGuess(startPoint),
-                        simplex
-                ).getPoint();
+            if ( optimizedParameters == null || samplesSinceFit >= refitInterval ) {
+                optimizedParameters = fit();
+                samplesSinceFit = 0;
             }
             final double x = inputExtractor.extractVariable( task ) / BYTES_IN_GB;
             final double prediction = optimizedParameters[0] + x * optimizedParameters[1];
@@ -77,6 +91,53 @@ public class LinearPredictorCustomLoss implements LinearPredictor {
         }
     }
 
+    /**
+     * Starts from the previous parameters, or from the least squares solution for the first fit.
+     * @return the best parameters found within {@link #MAX_EVALUATIONS}
+     */
+    private double[] fit() {
+        final double[] startPoint = optimizedParameters == null
+                ? new double[]{ regression.getIntercept(), regression.getSlope() }
+                : optimizedParameters;
+        final BestPoint objective = new BestPoint( unequalLossFunction );
+        SimplexOptimizer optimizer = new SimplexOptimizer(1e-30, 1e-50);
+        NelderMeadSimplex simplex = new NelderMeadSimplex(startPoint.length);
+        try {
+            return optimizer.optimize(
+                    new MaxEval( MAX_EVALUATIONS ),
+                    new ObjectiveFunction( objective ),
+                    GoalType.MINIMIZE,
+                    new InitialGuess( startPoint ),
+                    simplex
+            ).getPoint();
+        } catch ( TooManyEvaluationsException e ) {
+            log.debug( "Loss not converged after {} evaluations, using the best parameters found", MAX_EVALUATIONS );
+            return objective.best;
+        }
+    }
+
+    /**
+     * Remembers the best parameters evaluated, so an interrupted optimization still has a result
+     */
+    @RequiredArgsConstructor
+    private static class BestPoint implements MultivariateFunction {
+
+        private final MultivariateFunction function;
+        private double[] best;
+        private double bestValue = Double.POSITIVE_INFINITY;
+
+        @Override
+        public double value( double[] point ) {
+            final double value = function.value( point );
+            if ( best == null || value < bestValue ) {
+                best = point.clone();
+                bestValue = value;
+            }
+            return value;
+        }
+
+    }
+
     @Override
     public double getDependentValue( Task task ) {
         return outputExtractor.extractVariable( task );
@@ -25,6 +25,7 @@ public class MeanPredictor implements Predictor {
         synchronized ( this ) {
             version.incrementAndGet();
             mean = ( mean * count + output ) / ( count + 1 );
+            count++;
         }
     }
 
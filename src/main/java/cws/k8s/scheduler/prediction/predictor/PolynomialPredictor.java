@@ -8,13 +8,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.math3.exception.NoDataException;
 import org.apache.commons.math3.exception.NullArgumentException;
 import org.apache.commons.math3.exception.util.LocalizedFormats;
-import org.apache.commons.math3.linear.SingularMatrixException;
-import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.DecompositionSolver;
+import org.apache.commons.math3.linear.LUDecomposition;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Least squares fit of a polynomial, updated with each task by recursive least squares.
+ * Until enough different inputs were observed, the samples are kept and fitted at once.
+ * Afterwards, each sample updates the coefficients and the inverse of the normal matrix in O(degree²),
+ * which gives the same result as fitting all samples again.
+ * Inputs are centered and scaled by the first fit to keep the powers of the input well-conditioned.
+ */
 @RequiredArgsConstructor
 @Slf4j
 public class PolynomialPredictor implements Predictor {
@@ -22,11 +31,20 @@ public class PolynomialPredictor implements Predictor {
     private final AtomicLong version = new AtomicLong( 0 );
     private final VariableExtractor inputExtractor;
     private final VariableExtractor outputExtractor;
-    private final OLSMultipleLinearRegression fitter = new OLSMultipleLinearRegression();
-    private final List<double[]> observationsX = new ArrayList<>();
-    private final List<Double> observationsY = new ArrayList<>();
+    private final List<double[]> pendingObservations = new ArrayList<>();
     private final int polynomialDegree;
-    private double[] fitted;
+    /**
+     * Inverse of the normal matrix in the scaled basis, null until the first fit
+     */
+    private double[][] inverse;
+    private volatile Fit fit;
+
+    @RequiredArgsConstructor
+    private static class Fit {
+        private final double shift;
+        private final double scale;
+        private final double[] coefficients;
+    }
 
     @Override
     public void addTask( Task t ) {
@@ -35,54 +53,113 @@ public class PolynomialPredictor implements Predictor {
         }
         double input = inputExtractor.extractVariable( t );
         double output = outputExtractor.extractVariable( t );
-        synchronized ( fitter ) {
-            addPoint( input, output );
-            if ( observationsX.size() <= polynomialDegree  ) {
-                return;
-            }
-            try {
-                fitter.newSampleData( constructY(), constructX() );
-                final double[] fittedValues = fitter.estimateRegressionParameters();
+        synchronized ( pendingObservations ) {
+            if ( fit == null ) {
+                pendingObservations.add( new double[]{ input, output } );
+                if ( pendingObservations.size() > polynomialDegree && initialFit() ) {
+                    pendingObservations.clear();
+                    version.incrementAndGet();
+                }
+            } else {
+                update( input, output );
                 version.incrementAndGet();
-                fitted = fittedValues;
-            } catch ( SingularMatrixException ignored ){}
+            }
         }
     }
 
-    private void addPoint( double x, double y ) {
-        double[] xNew = new double[polynomialDegree];
-        xNew[0] = x;
-        for ( int j = 1; j < polynomialDegree; j++ ) {
-            xNew[j] = Math.pow( x, j + 1d );
+    private double[] basis( double x, double shift, double scale ) {
+        final double[] phi = new double[polynomialDegree + 1];
+        final double t = ( x - shift ) / scale;
+        phi[0] = 1;
+        for ( int j = 1; j <= polynomialDegree; j++ ) {
+            phi[j] = phi[j - 1] * t;
         }
-        observationsX.add( xNew );
-        observationsY.add( y );
+        return phi;
     }
 
-    private double[][] constructX(){
-        double[][] x = new double[observationsX.size()][];
-        int i = 0;
-        for ( double[] doubles : observationsX ) {
-            x[i++] = doubles;
+    /**
+     * Solves the normal equations for all pending observations
+     * @return false if the observations do not determine the polynomial yet
+     */
+    private boolean initialFit() {
+        double shift = 0;
+        for ( double[] observation : pendingObservations ) {
+            shift += observation[0];
+        }
+        shift /= pendingObservations.size();
+        double scale = 0;
+        for ( double[] observation : pendingObservations ) {
+            scale = Math.max( scale, Math.abs( observation[0] - shift ) );
+        }
+        if ( scale == 0 ) {
+            return false;
+        }
+        final int p = polynomialDegree + 1;
+        final double[][] normal = new double[p][p];
+        final double[] moments = new double[p];
+        for ( double[] observation : pendingObservations ) {
+            final double[] phi = basis( observation[0], shift, scale );
+            for ( int i = 0; i < p; i++ ) {
+                moments[i] += phi[i] * observation[1];
+                for ( int j = 0; j < p; j++ ) {
+                    normal[i][j] += phi[i] * phi[j];
+                }
+            }
         }
-        return x;
+        final DecompositionSolver solver = new LUDecomposition( new Array2DRowRealMatrix( normal, false ) ).getSolver();
+        if ( !solver.isNonSingular() ) {
+            return false;
+        }
+        inverse = solver.getInverse().getData();
+        fit = new Fit( shift, scale, solver.solve( new ArrayRealVector( moments, false ) ).toArray() );
+        return true;
     }
 
-    private double[] constructY(){
-        double[] y = new double[observationsY.size()];
-        int i = 0;
-        for ( Double aDouble : observationsY ) {
-            y[i++] = aDouble;
+    /**
+     * Sherman-Morrison update of the inverse and the coefficients with one observation
+     */
+    private void update( double x, double y ) {
+        final Fit current = fit;
+        final double[] phi = basis( x, current.shift, current.scale );
+        final int p = phi.length;
+        final double[] inverseTimesPhi = new double[p];
+        double denominator = 1;
+        for ( int i = 0; i < p; i++ ) {
+            for ( int j = 0; j < p; j++ ) {
+                inverseTimesPhi[i] += inverse[i][j] * phi[j];
+            }
+            denominator += phi[i] * inverseTimesPhi[i];
+        }
+        double error = y;
+        for ( int i = 0; i < p; i++ ) {
+            error -= phi[i] * current.coefficients[i];
+        }
+        final double[] coefficients = new double[p];
+        for ( int i = 0; i < p; i++ ) {
+            final double gain = inverseTimesPhi[i] / denominator;
+            coefficients[i] = current.coefficients[i] + gain * error;
+            for ( int j = 0; j < p; j++ ) {
+                inverse[i][j] -= gain * inverseTimesPhi[j];
+            }
+        }
+        // keep the inverse symmetric against rounding errors
+        for ( int i = 0; i < p; i++ ) {
+            for ( int j = i + 1; j < p; j++ ) {
+                final double mean = ( inverse[i][j] + inverse[j][i] ) / 2;
+                inverse[i][j] = mean;
+                inverse[j][i] = mean;
+            }
         }
-        return y;
+        fit = new Fit( current.shift, current.scale, coefficients );
     }
 
     @Override
     public Double queryPrediction( Task task ) {
-        if ( fitted == null ) {
+        final Fit current = fit;
+        if ( current == null ) {
             return null;
         }
-        return evaluate( fitted, inputExtractor.extractVariable( task ) );
+        return evaluate( current.coefficients, ( inputExtractor.extractVariable( task ) - current.shift ) / current.scale );
     }
 
     @Override
@@ -7,7 +7,7 @@ import cws.k8s.scheduler.util.Formater;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -30,8 +30,18 @@ public class PonderPredictor extends WeightedVarianceOffset implements Predictor
     private long fixedOffset = 1024L * 1024L * 128L;
 
     private final Task[] firstTasks;
-
-    private final List<Task> observedTasks = new LinkedList<>();
+    /**
+     * All learned tasks, their residuals are evaluated with the current model
+     */
+    private final List<Task> observedTasks = new ArrayList<>();
+    /**
+     * Number of observed tasks whose residual was added since the last rebuild
+     */
+    private int evaluatedResiduals = 0;
+    /**
+     * Number of observed tasks at which all residuals are evaluated again with the current model
+     */
+    private int reevaluateAt = 1;
 
     public PonderPredictor( LinearPredictor predictor ) {
         this( predictor, 5 );
@@ -69,11 +79,11 @@ public class PonderPredictor extends WeightedVarianceOffset implements Predictor
                 minX = input;
             }
             n++;
+            observedTasks.add( t );
             linearPredictor.addTask( t );
             if ( n >= 2 ){
                 r = linearPredictor.getR();
             }
-            observedTasks.add( t );
         }
     }
 
@@ -162,7 +172,31 @@ public class PonderPredictor extends WeightedVarianceOffset implements Predictor
     }
 
     private double determineOffset( double independentValue ) {
-        return getOffset( observedTasks, independentValue );
+        updateResiduals();
+        return getOffset( independentValue );
+    }
+
+    /**
+     * Residuals are only evaluated when a prediction is made, the model is fitted for it anyway,
+     * so learning a task does not fit the model.
+     * Tasks learned since the last evaluation get their residual from the current model.
+     * Whenever the number of observed tasks doubled, all residuals are evaluated again with the current model,
+     * so residuals of early models do not stay forever. This stays constant time per task amortized.
+     */
+    private void updateResiduals() {
+        if ( observedTasks.size() >= reevaluateAt ) {
+            clearResiduals();
+            evaluatedResiduals = 0;
+            reevaluateAt = 2 * observedTasks.size();
+        }
+        for ( ; evaluatedResiduals < observedTasks.size(); evaluatedResiduals++ ) {
+            final Task observedTask = observedTasks.get( evaluatedResiduals );
+            final Double prediction = linearPredictor.queryPrediction( observedTask );
+            if ( prediction == null ) {
+                return;
+            }
+            addResidual( getIndependentValue( observedTask ), getDependentValue( observedTask ) - prediction );
+        }
     }
 
 }
@@ -3,12 +3,17 @@ package cws.k8s.scheduler.prediction.predictor.loss;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.math3.analysis.MultivariateFunction;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 @RequiredArgsConstructor
 public class UnequalLossFunction implements MultivariateFunction {
-    private final ArrayList<Double> x = new ArrayList<>();
-    private final ArrayList<Double> y = new ArrayList<>();
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private int size = 0;
+    /**
+     * Whether there are at least two different x values
+     */
+    private boolean differentX = false;
 
     /**
      * Lambda parameter for the loss function to penalize overpredictions less
@@ -16,23 +21,29 @@ public class UnequalLossFunction implements MultivariateFunction {
     private final double lambda;
 
     public void addPoint(double x, double y) {
-        this.x.add( x );
-        this.y.add( y );
+        if ( size == this.x.length ) {
+            this.x = Arrays.copyOf( this.x, size * 2 );
+            this.y = Arrays.copyOf( this.y, size * 2 );
+        }
+        if ( size > 0 && x != this.x[0] ) {
+            differentX = true;
+        }
+        this.x[size] = x;
+        this.y[size++] = y;
     }
 
     @Override
     public double value(double[] parameters) {
         double cLoss = 0.0;
-        for (int i = 0; i < x.size(); i++) {
+        for (int i = 0; i < size; i++) {
             cLoss += getLoss( parameters, i );
         }
         return cLoss;
     }
 
     private double getLoss( double[] parameters, int i ) {
-        final Double x1 = x.get( i );
-        double predicted = parameters[0] + x1 * parameters[1];
-        double error = y.get( i ) - predicted;
+        double predicted = parameters[0] + x[i] * parameters[1];
+        double error = y[i] - predicted;
         double loss;
         if (error > 0) {
             loss = error * error; // Penalize underpredictions more
@@ -43,19 +54,10 @@ public class UnequalLossFunction implements MultivariateFunction {
     }
 
     public boolean canTrain(){
-        if (x.size() < 2) {
-            return false;
-        }
-        double x0 = x.get(0);
-        for (int i = 1; i < x.size(); i++) {
-            if (x.get(i) != x0) {
-                return true;
-            }
-        }
-        return false;
+        return differentX;
     }
 
     public String toString() {
-        return "x = " + x + "\n" + "y = " + y + "\n";
+        return "x = " + Arrays.toString( Arrays.copyOf( x, size ) ) + "\n" + "y = " + Arrays.toString( Arrays.copyOf( y, size ) ) + "\n";
     }
-}
\ No newline at end of file
+}
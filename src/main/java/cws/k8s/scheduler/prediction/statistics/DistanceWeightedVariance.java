@@ -0,0 +1,159 @@
+package cws.k8s.scheduler.prediction.statistics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Weighted sample variance of residuals, where the weight of each residual depends on the distance
+ * of its independent value to the value in question:
+ * {@code 1 - |x - value| / maxDistance + max(1 - n / 10, 0) / 100}.
+ * Instead of weighting all residuals for each value, the residuals are kept sorted by their independent value
+ * together with prefix sums of their moments, so the variance for a value is found with a binary search.
+ * New residuals are merged in on the next query.
+ * Not thread safe.
+ */
+public class DistanceWeightedVariance {
+
+    private static final int X = 0;
+    private static final int R = 1;
+    private static final int XR = 2;
+    private static final int RR = 3;
+    private static final int XRR = 4;
+    private static final int SUMS = 5;
+
+    /**
+     * All values are stored relative to the first one to keep the sums small
+     */
+    private double shiftX = Double.NaN;
+    private double shiftR = Double.NaN;
+
+    private double[] xs = new double[0];
+    private double[] rs = new double[0];
+    /**
+     * prefixSums[k][i] is the sum over the first i residuals
+     */
+    private double[][] prefixSums = new double[SUMS][1];
+    private double sumXX = 0;
+
+    private double[] pendingX = new double[16];
+    private double[] pendingR = new double[16];
+    private int pending = 0;
+
+    public void add( double independentValue, double residual ) {
+        if ( Double.isNaN( shiftX ) ) {
+            shiftX = independentValue;
+            shiftR = residual;
+        }
+        if ( pending == pendingX.length ) {
+            pendingX = Arrays.copyOf( pendingX, pending * 2 );
+            pendingR = Arrays.copyOf( pendingR, pending * 2 );
+        }
+        pendingX[pending] = independentValue - shiftX;
+        pendingR[pending++] = residual - shiftR;
+    }
+
+    public int getCount() {
+        return xs.length + pending;
+    }
+
+    private void merge() {
+        if ( pending == 0 ) {
+            return;
+        }
+        final Integer[] order = IntStream.range( 0, pending ).boxed().toArray( Integer[]::new );
+        Arrays.sort( order, Comparator.comparingDouble( i -> pendingX[i] ) );
+        final int n = xs.length + pending;
+        final double[] newXs = new double[n];
+        final double[] newRs = new double[n];
+        int old = 0;
+        int next = 0;
+        for ( int i = 0; i < n; i++ ) {
+            if ( next == pending || ( old < xs.length && xs[old] <= pendingX[order[next]] ) ) {
+                newXs[i] = xs[old];
+                newRs[i] = rs[old++];
+            } else {
+                newXs[i] = pendingX[order[next]];
+                newRs[i] = pendingR[order[next++]];
+            }
+        }
+        xs = newXs;
+        rs = newRs;
+        pending = 0;
+        prefixSums = new double[SUMS][n + 1];
+        sumXX = 0;
+        for ( int i = 0; i < n; i++ ) {
+            final double x = xs[i];
+            final double r = rs[i];
+            prefixSums[X][i + 1] = prefixSums[X][i] + x;
+            prefixSums[R][i + 1] = prefixSums[R][i] + r;
+            prefixSums[XR][i + 1] = prefixSums[XR][i] + x * r;
+            prefixSums[RR][i + 1] = prefixSums[RR][i] + r * r;
+            prefixSums[XRR][i + 1] = prefixSums[XRR][i] + x * r * r;
+            sumXX += x * x;
+        }
+    }
+
+    /**
+     * @return the number of residuals with an independent value less than or equal to the value
+     */
+    private int countUpTo( double value ) {
+        int low = 0;
+        int high = xs.length;
+        while ( low < high ) {
+            final int mid = ( low + high ) >>> 1;
+            if ( xs[mid] <= value ) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sum of |x - value| * moment over all residuals
+     */
+    private double distanceSum( int moment, int momentTimesX, int split, double value ) {
+        final int n = xs.length;
+        final double[] withoutX = prefixSums[moment];
+        final double[] withX = prefixSums[momentTimesX];
+        final double below = value * withoutX[split] - withX[split];
+        final double above = ( withX[n] - withX[split] ) - value * ( withoutX[n] - withoutX[split] );
+        return below + above;
+    }
+
+    /**
+     * @param value the independent value to weight the residuals for
+     * @return the weighted sample variance of the residuals, 0 for less than two residuals
+     */
+    public double getVariance( double value ) {
+        merge();
+        final int n = xs.length;
+        if ( n <= 1 ) {
+            return 0;
+        }
+        final double v = value - shiftX;
+        final double sumR = prefixSums[R][n];
+        final double sumRR = prefixSums[RR][n];
+        final double maxDistance = Math.max( Math.abs( xs[0] - v ), Math.abs( xs[n - 1] - v ) );
+        if ( maxDistance == 0 ) {
+            return ( sumRR - sumR * sumR / n ) / ( n - 1 );
+        }
+
+        final double c = 1 + Math.max( 1 - ( n / 10.0 ), 0 ) / 100;
+        final int split = countUpTo( v );
+        final double distances = split * v - prefixSums[X][split] + ( prefixSums[X][n] - prefixSums[X][split] ) - ( n - split ) * v;
+        final double squaredDistances = sumXX - 2 * v * prefixSums[X][n] + n * v * v;
+
+        final double v1 = c * n - distances / maxDistance;
+        final double v2 = c * c * n - 2 * c * distances / maxDistance + squaredDistances / ( maxDistance * maxDistance );
+        if ( v1 <= 1e-9 * c * n ) {
+            throw new IllegalArgumentException( "Sum of weights cannot be zero" );
+        }
+        final double weightedR = c * sumR - distanceSum( R, XR, split, v ) / maxDistance;
+        final double weightedRR = c * sumRR - distanceSum( RR, XRR, split, v ) / maxDistance;
+        return ( weightedRR - weightedR * weightedR / v1 ) / ( v1 - v2 / v1 );
+    }
+
+}
@@ -0,0 +1,122 @@
+package cws.k8s.scheduler.prediction.statistics;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a percentile of a stream of values with five markers, without keeping the values.
+ * Uses the P² algorithm of Jain and Chlamtac (1985).
+ * Up to five values, the percentile is exact and estimated like
+ * {@link org.apache.commons.math3.stat.descriptive.rank.Percentile} does by default.
+ * Not thread safe.
+ */
+public class P2Quantile {
+
+    private static final int MARKERS = 5;
+
+    private final double percentile;
+    private final double p;
+    private final double[] heights = new double[MARKERS];
+    private final double[] positions = new double[MARKERS];
+    private final double[] desiredPositions = new double[MARKERS];
+    private final double[] increments;
+    @Getter
+    private long count = 0;
+
+    /**
+     * @param percentile the percentile to estimate, between 0 and 100
+     */
+    public P2Quantile( double percentile ) {
+        if ( percentile < 0 || percentile > 100 ) {
+            throw new IllegalArgumentException( "Percentile must be between 0 and 100" );
+        }
+        this.percentile = percentile;
+        this.p = percentile / 100;
+        this.increments = new double[]{ 0, p / 2, p, ( 1 + p ) / 2, 1 };
+    }
+
+    public void add( double value ) {
+        if ( count < MARKERS ) {
+            heights[(int) count++] = value;
+            if ( count == MARKERS ) {
+                Arrays.sort( heights );
+                for ( int i = 0; i < MARKERS; i++ ) {
+                    positions[i] = i;
+                    desiredPositions[i] = 4 * increments[i];
+                }
+            }
+            return;
+        }
+        count++;
+        final int cell;
+        if ( value < heights[0] ) {
+            heights[0] = value;
+            cell = 0;
+        } else if ( value >= heights[4] ) {
+            heights[4] = value;
+            cell = 3;
+        } else {
+            int i = 1;
+            while ( value >= heights[i] ) {
+                i++;
+            }
+            cell = i - 1;
+        }
+        for ( int i = cell + 1; i < MARKERS; i++ ) {
+            positions[i]++;
+        }
+        for ( int i = 0; i < MARKERS; i++ ) {
+            desiredPositions[i] += increments[i];
+        }
+        for ( int i = 1; i < MARKERS - 1; i++ ) {
+            adjust( i );
+        }
+    }
+
+    private void adjust( int i ) {
+        final double d = desiredPositions[i] - positions[i];
+        if ( ( d >= 1 && positions[i + 1] - positions[i] > 1 ) || ( d <= -1 && positions[i - 1] - positions[i] < -1 ) ) {
+            final int sign = d > 0 ? 1 : -1;
+            final double parabolic = parabolic( i, sign );
+            if ( heights[i - 1] < parabolic && parabolic < heights[i + 1] ) {
+                heights[i] = parabolic;
+            } else {
+                heights[i] = heights[i] + sign * ( heights[i + sign] - heights[i] ) / ( positions[i + sign] - positions[i] );
+            }
+            positions[i] += sign;
+        }
+    }
+
+    private double parabolic( int i, int sign ) {
+        return heights[i] + sign / ( positions[i + 1] - positions[i - 1] ) * (
+                ( positions[i] - positions[i - 1] + sign ) * ( heights[i + 1] - heights[i] ) / ( positions[i + 1] - positions[i] )
+                + ( positions[i + 1] - positions[i] - sign ) * ( heights[i] - heights[i - 1] ) / ( positions[i] - positions[i - 1] )
+        );
+    }
+
+    /**
+     * @return the estimated percentile, NaN if no value was added
+     */
+    public double getValue() {
+        if ( count == 0 ) {
+            return Double.NaN;
+        }
+        if ( count > MARKERS ) {
+            return p == 0 ? heights[0] : heights[2];
+        }
+        final int n = (int) count;
+        final double[] sorted = Arrays.copyOf( heights, n );
+        Arrays.sort( sorted );
+        final double position = percentile * ( n + 1 ) / 100;
+        if ( position < 1 ) {
+            return sorted[0];
+        }
+        if ( position >= n ) {
+            return sorted[n - 1];
+        }
+        final int lower = (int) Math.floor( position );
+        return sorted[lower - 1] + ( position - lower ) * ( sorted[lower] - sorted[lower - 1] );
+    }
+
+}
@@ -0,0 +1,51 @@
+package cws.k8s.scheduler.prediction.statistics;
+
+import lombok.Getter;
+
+/**
+ * Weighted mean and variance that are updated with every value, without keeping the values.
+ * Uses the incremental algorithm of West (1979), a weighted form of Welford's algorithm.
+ * The variance is the weighted sample variance with reliability weights,
+ * with all weights being 1 it is the sample variance.
+ * Not thread safe.
+ */
+public class WeightedVariance {
+
+    @Getter
+    private long count = 0;
+    @Getter
+    private double mean = 0;
+    private double weightSum = 0;
+    private double squaredWeightSum = 0;
+    private double squaredDifferences = 0;
+
+    public void add( double value ) {
+        add( value, 1 );
+    }
+
+    public void add( double value, double weight ) {
+        if ( weight < 0 ) {
+            throw new IllegalArgumentException( "Weight cannot be negative" );
+        }
+        if ( weight == 0 ) {
+            return;
+        }
+        count++;
+        weightSum += weight;
+        squaredWeightSum += weight * weight;
+        final double delta = value - mean;
+        mean += ( weight / weightSum ) * delta;
+        squaredDifferences += weight * delta * ( value - mean );
+    }
+
+    /**
+     * @return the weighted sample variance, 0 for less than two values
+     */
+    public double getVariance() {
+        if ( count <= 1 ) {
+            return 0;
+        }
+        return squaredDifferences / ( weightSum - squaredWeightSum / weightSum );
+    }
+
+}
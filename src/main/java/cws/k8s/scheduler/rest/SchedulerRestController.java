@@ -2,12 +2,14 @@ package cws.k8s.scheduler.rest;
 
 import cws.k8s.scheduler.client.CWSKubernetesClient;
 import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.InputDAG;
 import cws.k8s.scheduler.dag.InputEdge;
 import cws.k8s.scheduler.dag.Vertex;
 import cws.k8s.scheduler.model.SchedulerConfig;
 import cws.k8s.scheduler.model.TaskConfig;
 import cws.k8s.scheduler.model.TaskMetrics;
 import cws.k8s.scheduler.rest.exceptions.NotARealFileException;
+import cws.k8s.scheduler.rest.response.addfile.AddFileResponse;
 import cws.k8s.scheduler.rest.response.getfile.FileResponse;
 import cws.k8s.scheduler.scheduler.*;
 import cws.k8s.scheduler.scheduler.filealignment.GreedyAlignment;
@@ -81,6 +83,14 @@ public class SchedulerRestController {
         return new ResponseEntity<>( "There is no scheduler for " + execution, HttpStatus.BAD_REQUEST );
     }
 
+    private OptimalReadyToRunToNode createReadyToRunToNode( SchedulerConfig config ) {
+        return new OptimalReadyToRunToNode(
+                config.solverMaxTimeInSeconds == null ? OptimalReadyToRunToNode.DEFAULT_MAX_TIME_IN_SECONDS : config.solverMaxTimeInSeconds,
+                config.solverWorkers == null ? 0 : config.solverWorkers,
+                config.solverMaxVariables == null ? OptimalReadyToRunToNode.DEFAULT_MAX_VARIABLES : config.solverMaxVariables
+        );
+    }
+
     @Operation(summary = "Register a new execution")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Execution successfully registered",
@@ -123,6 +133,31 @@ public class SchedulerRestController {
             }
         }
 
+        if ( ( config.solverMaxTimeInSeconds != null && config.solverMaxTimeInSeconds <= 0 )
+                || ( config.solverWorkers != null && config.solverWorkers < 0 )
+                || ( config.solverMaxVariables != null && config.solverMaxVariables < 0 ) ) {
+            log.warn( "Register execution: {} - Invalid solver limits: {}s, {} workers, {} variables", execution,
+                    config.solverMaxTimeInSeconds, config.solverWorkers, config.solverMaxVariables );
+            return new ResponseEntity<>( "solverMaxTimeInSeconds must be positive, solverWorkers and solverMaxVariables must not be negative", HttpStatus.BAD_REQUEST );
+        }
+
+        if ( ( config.planningShards != null && config.planningShards < 1 )
+                || ( config.shardLabel != null && config.shardLabel.isBlank() ) ) {
+            log.warn( "Register execution: {} - Invalid sharding: {} shards, label '{}'", execution,
+                    config.planningShards, config.shardLabel );
+            return new ResponseEntity<>( "planningShards must be positive, shardLabel must not be blank", HttpStatus.BAD_REQUEST );
+        }
+
+        if ( config.fileWriterCapacity != null && config.fileWriterCapacity < 1 ) {
+            log.warn( "Register execution: {} - Invalid fileWriterCapacity: {}", execution, config.fileWriterCapacity );
+            return new ResponseEntity<>( "fileWriterCapacity must be positive", HttpStatus.BAD_REQUEST );
+        }
+
+        if ( config.ftpConnectionsPerDaemon != null && config.ftpConnectionsPerDaemon < 1 ) {
+            log.warn( "Register execution: {} - Invalid ftpConnectionsPerDaemon: {}", execution, config.ftpConnectionsPerDaemon );
+            return new ResponseEntity<>( "ftpConnectionsPerDaemon must be positive", HttpStatus.BAD_REQUEST );
+        }
+
         switch ( strategy.toLowerCase() ){
             case "wow" :
                 if ( !config.locationAware ) {
@@ -132,7 +167,7 @@ public class SchedulerRestController {
                 if ( costFunction == null ) {
                     costFunction = new MinSizeCost( 0 );
                 }
-                scheduler = new LocationAwareSchedulerV2( execution, client, namespace, config, new GreedyAlignment( 0.5, costFunction ), new OptimalReadyToRunToNode() );
+                scheduler = new LocationAwareSchedulerV2( execution, client, namespace, config, new GreedyAlignment( 0.5, costFunction ), createReadyToRunToNode( config ) );
                 break;
             case "wowgroup" :
                 if ( !config.locationAware ) {
@@ -142,7 +177,7 @@ public class SchedulerRestController {
                 if ( costFunction == null ) {
                     costFunction = new MinSizeCost( 0 );
                 }
-                scheduler = new LocationAwareSchedulerGroups( execution, client, namespace, config, new GreedyAlignment( 0.5, costFunction ), new OptimalReadyToRunToNode() );
+                scheduler = new LocationAwareSchedulerGroups( execution, client, namespace, config, new GreedyAlignment( 0.5, costFunction ), createReadyToRunToNode( config ) );
                 break;
             default: {
                 final String[] split = strategy.split( "-" );
@@ -458,6 +493,59 @@ public class SchedulerRestController {
 
     }
 
+    @Operation(summary = "Register locations of many files at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result per file, in the order of the request",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Method not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "No scheduler found for this execution or the request is empty",
+                    content = @Content) })
+    @PostMapping("/v1/file/{execution}/locations/{method}")
+    ResponseEntity<? extends Object> changeLocationForFiles( @PathVariable String method, @PathVariable String execution, @RequestBody List<PathAttributes> files ) {
+        return changeLocationForFiles( method, execution, null, files );
+    }
+
+    /**
+     * Same as {@link #changeLocationForFile(String, String, String, PathAttributes)} for many files in one request.
+     * Entries without a path are reported as failed.
+     */
+    @Operation(summary = "Register locations of many files on a node at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result per file, in the order of the request",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Method not found",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "No scheduler found for this execution or the request is empty",
+                    content = @Content) })
+    @PostMapping("/v1/file/{execution}/locations/{method}/{node}")
+    ResponseEntity<? extends Object> changeLocationForFiles( @PathVariable String method, @PathVariable String execution, @PathVariable String node, @RequestBody List<PathAttributes> files ) {
+
+        if ( files == null ) {
+            return new ResponseEntity<>( "No files given", HttpStatus.BAD_REQUEST );
+        }
+
+        log.info( "Change file locations request: {} {} {} files", method, execution, files.size() );
+
+        final Scheduler scheduler = schedulerHolder.get( execution );
+        if ( !(scheduler instanceof SchedulerWithDaemonSet) ) {
+            log.info( "No scheduler for: " + execution );
+            return noSchedulerFor( execution );
+        }
+
+        if ( !method.equals("add") && !method.equals("overwrite") ) {
+            log.info("Method not found: " + method);
+            return new ResponseEntity<>( "Method not found: " + method , HttpStatus.NOT_FOUND );
+        }
+
+        boolean overwrite = method.equals("overwrite");
+
+        final List<AddFileResponse> responses = ((SchedulerWithDaemonSet) scheduler).addFiles( files, overwrite, node );
+
+        return new ResponseEntity<>( responses, HttpStatus.OK );
+
+    }
+
     @GetMapping ("/health")
     ResponseEntity<Object> checkHealth() {
         return new ResponseEntity<>( HttpStatus.OK );
@@ -485,6 +573,35 @@ public class SchedulerRestController {
 
     }
 
+    @Operation(summary = "Register DAG vertices and edges at once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Vertices and edges successfully registered",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "No scheduler found for this execution or the DAG is invalid, nothing was registered",
+                    content = @Content) })
+    @PostMapping("/v1/scheduler/{execution}/DAG")
+    ResponseEntity<String> addDAG( @PathVariable String execution, @RequestBody InputDAG inputDAG ) {
+
+        log.trace( "submit DAG: {}", inputDAG );
+
+        final Scheduler scheduler = schedulerHolder.get( execution );
+        if ( scheduler == null ) {
+            return noSchedulerFor( execution );
+        }
+
+        final List<Vertex> vertices = inputDAG.getVertices() == null ? List.of() : inputDAG.getVertices();
+        final List<InputEdge> edges = inputDAG.getEdges() == null ? List.of() : inputDAG.getEdges();
+        try {
+            scheduler.getDag().registerBulk( vertices, edges );
+        } catch ( IllegalStateException e ) {
+            log.warn( "Cannot register DAG for {}: {}", execution, e.getMessage() );
+            return new ResponseEntity<>( e.getMessage(), HttpStatus.BAD_REQUEST );
+        }
+
+        return new ResponseEntity<>( HttpStatus.OK );
+
+    }
+
     @Operation(summary = "Delete DAG vertices")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Vertices successfully removed",
@@ -0,0 +1,26 @@
+package cws.k8s.scheduler.rest.response.addfile;
+
+import lombok.ToString;
+
+@ToString
+public class AddFileResponse {
+
+    public final String path;
+    public final boolean added;
+    public final String error;
+
+    private AddFileResponse( String path, boolean added, String error ) {
+        this.path = path;
+        this.added = added;
+        this.error = error;
+    }
+
+    public static AddFileResponse added( String path ) {
+        return new AddFileResponse( path, true, null );
+    }
+
+    public static AddFileResponse failed( String path, String error ) {
+        return new AddFileResponse( path, false, error );
+    }
+
+}
@@ -38,6 +38,12 @@ public class LocationAwareSchedulerGroups extends LocationAwareSchedulerV2 {
         groupCluster.taskWasAssignedToNode( task );
     }
 
+    @Override
+    void taskSchedulingFailed( Task task ) {
+        super.taskSchedulingFailed( task );
+        groupCluster.taskSchedulingFailed( task );
+    }
+
     @Override
     int terminateTasks( List<Task> finishedTasks ) {
         final int terminatedTasks = super.terminateTasks( finishedTasks );
@@ -21,6 +21,7 @@ import cws.k8s.scheduler.scheduler.la2.ready2run.ReadyToRunToNode;
 import cws.k8s.scheduler.scheduler.schedulingstrategy.InputEntry;
 import cws.k8s.scheduler.scheduler.schedulingstrategy.Inputs;
 import cws.k8s.scheduler.util.*;
+import cws.k8s.scheduler.util.copying.CopySource;
 import cws.k8s.scheduler.util.copying.CurrentlyCopying;
 import cws.k8s.scheduler.util.copying.CurrentlyCopyingOnNode;
 import cws.k8s.scheduler.util.score.FileSizeRankScore;
@@ -32,7 +33,6 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -47,7 +47,7 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
     @Getter(AccessLevel.PACKAGE)
     private final int maxWaitingCopyTasksPerNode;
 
-    private final LogCopyTask logCopyTask = new LogCopyTask();
+    private final LogCopyTask logCopyTask = new LogCopyTask( fileWriter );
 
     private final ReadyToRunToNode readyToRunToNode;
 
@@ -119,6 +119,7 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
             this.readyToRunToNode.init( calculateScore );
         }
         readyToRunToNode.setLogger( logCopyTask );
+        readyToRunToNode.setMetrics( metrics );
         this.copyRunner = new ShellCopy( client, this, logCopyTask );
         this.copySameTaskInParallel = 2;
         this.capacityAvailableToNode = new SimpleCapacityAvailableToNode( getCurrentlyCopying(), inputAlignment, this.copySameTaskInParallel );
@@ -132,24 +133,13 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
             final List<Task> unscheduledTasks,
             final Map<NodeWithAlloc, Requirements> availableByNode
     ){
+        final Map<NodeLocation, CurrentlyCopyingOnNode> currentlyCopying = getCurrentlyCopying().snapshot();
         final List<TaskInputsNodes> tasksAndData = unscheduledTasks
                 .parallelStream()
                 .map( task -> {
                     final TaskInputs inputsOfTask = extractInputsOfData( task );
                     if ( inputsOfTask == null ) return null;
-                    //all nodes that contain all files
-                    final List<NodeWithAlloc> nodesWithAllData = availableByNode
-                            .keySet()
-                            .stream()
-                            .filter( node -> {
-                                final CurrentlyCopyingOnNode copyingFilesToNode = getCurrentlyCopying().get( node.getNodeLocation() );
-                                return inputsOfTask.canRunOnLoc( node.getNodeLocation() )
-                                        //Affinities are correct and the node can run new pods
-                                        && canSchedulePodOnNode( task, node )
-                                        //All files are on the node and no copy task is overwriting them
-                                        && inputsOfTask.allFilesAreOnLocationAndNotOverwritten( node.getNodeLocation(), copyingFilesToNode.getAllFilesCurrentlyCopying() );
-                            } )
-                            .collect( Collectors.toList() );
+                    final List<NodeWithAlloc> nodesWithAllData = getNodesWithAllData( task, inputsOfTask, availableByNode.keySet(), currentlyCopying );
                     return new TaskInputsNodes( task, nodesWithAllData, inputsOfTask );
                 } )
                 .filter( Objects::nonNull )
@@ -166,6 +156,48 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
         return scheduleObject;
     }
 
+    /**
+     * @return all nodes that contain all files
+     */
+    private List<NodeWithAlloc> getNodesWithAllData(
+            Task task,
+            TaskInputs inputsOfTask,
+            Collection<NodeWithAlloc> nodes,
+            Map<NodeLocation, CurrentlyCopyingOnNode> currentlyCopying
+    ) {
+        return nodes
+                .stream()
+                .filter( node -> {
+                    final CurrentlyCopyingOnNode copyingFilesToNode = currentlyCopying.getOrDefault( node.getNodeLocation(), CurrentlyCopyingOnNode.EMPTY );
+                    return inputsOfTask.canRunOnLoc( node.getNodeLocation() )
+                            //Affinities are correct and the node can run new pods
+                            && canSchedulePodOnNode( task, node )
+                            //All files are on the node and no copy task is overwriting them
+                            && inputsOfTask.allFilesAreOnLocationAndNotOverwritten( node.getNodeLocation(), copyingFilesToNode.getAllFilesCurrentlyCopying() );
+                } )
+                .collect( Collectors.toList() );
+    }
+
+    /**
+     * Phase one only places tasks on nodes with all their data, so these tasks are sent to the shards of these nodes
+     */
+    @Override
+    Collection<NodeWithAlloc> getNodesWithAllData( Task task, Set<NodeWithAlloc> nodes ) {
+        final TaskInputs inputsOfTask = extractInputsOfData( task );
+        if ( inputsOfTask == null ) {
+            return Collections.emptyList();
+        }
+        return getNodesWithAllData( task, inputsOfTask, nodes, getCurrentlyCopying().snapshot() );
+    }
+
+    /**
+     * Tasks with all data on a node only read the shared state, the solver keeps its hints per node
+     */
+    @Override
+    boolean supportsShardedPlanning() {
+        return true;
+    }
+
     @Override
     void postScheduling( List<Task> unscheduledTasks, final Map<NodeWithAlloc, Requirements> availableByNode ) {
         long start = System.currentTimeMillis();
@@ -176,13 +208,14 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
         Map< NodeWithAlloc, List<Task> > readyTasksPerNode = new ConcurrentHashMap<>();
         synchronized ( copyLock ) {
             final TaskStats taskStats = new TaskStats();
+            final Map<NodeLocation, CurrentlyCopyingOnNode> currentlyCopying = getCurrentlyCopying().snapshot();
             //Calculate the stats of available data for each task and node.
             unscheduledTasks
                     .parallelStream()
                     .map( task -> {
                         final TaskInputs inputsOfTask = extractInputsOfData( task );
                         if ( inputsOfTask == null ) return null;
-                        return getDataOnNode( task, inputsOfTask, allNodes, readyTasksPerNode );
+                        return getDataOnNode( task, inputsOfTask, allNodes, currentlyCopying, readyTasksPerNode );
                     } )
                     .filter( Objects::nonNull )
                     .filter( TaskStat::canStartSomewhere )
@@ -237,6 +270,8 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
         reserveCopyTask( copyTask );
         try {
             copyRunner.startCopyTasks( copyTask, nodeTaskFilesAlignment );
+            metrics.registerCopyTasksOnNode( copyTask.getNodeLocation(), getCurrentlyCopying() );
+            metrics.copyPlanned( bytesToCopy( copyTask ) );
         } catch ( Exception e ) {
             log.error( "Could not start copy task", e );
             undoReserveCopyTask( copyTask );
@@ -275,14 +310,53 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
     public void copyTaskFinished( CopyTask copyTask, boolean success ) {
         synchronized ( copyLock ) {
             freeLocations( copyTask.getAllLocationWrapper() );
+            final List<TaskInputFileLocationWrapper> remainingFiles = copyTask.finishRemainingFiles();
             if( success ){
-                    copyTask.getInputFiles().parallelStream().forEach( TaskInputFileLocationWrapper::success );
+                    remainingFiles.parallelStream().forEach( TaskInputFileLocationWrapper::success );
+                    metrics.copyFinished( bytesToCopy( copyTask ) );
                     removeFromCopyingToNode( copyTask.getTask(), copyTask.getNodeLocation(), copyTask.getFilesForCurrentNode() );
             } else {
                     removeFromCopyingToNode( copyTask.getTask(), copyTask.getNodeLocation(), copyTask.getFilesForCurrentNode() );
                     handleProblematicCopy( copyTask );
             }
         }
+        copyFinished( copyTask.getTask(), client.getNodeByName( copyTask.getNodeLocation().getIdentifier() ) );
+    }
+
+    /**
+     * Called while a copy task is still running, once files arrived on the target node.
+     * Tasks that only wait for these files can start before the whole copy task finished.
+     * The scheduling loop is informed once for all files.
+     * @param paths the paths of the copied files
+     */
+    public void copyTaskFilesFinished( CopyTask copyTask, List<String> paths ) {
+        boolean anyFinished = false;
+        synchronized ( copyLock ) {
+            for ( String path : paths ) {
+                final TaskInputFileLocationWrapper inputFile = copyTask.fileFinished( path );
+                if ( inputFile == null ) {
+                    continue;
+                }
+                inputFile.success();
+                final CopySource copySource = copyTask.getFilesForCurrentNode().getCopySource( path );
+                if ( copySource != null ) {
+                    getCurrentlyCopying().remove( copyTask.getNodeLocation(), path, copySource );
+                }
+                log.debug( "File {} of {} arrived on {}", path, copyTask.getTask().getConfig().getName(), copyTask.getNodeLocation() );
+                anyFinished = true;
+            }
+        }
+        if ( anyFinished ) {
+            copyFinished( copyTask.getTask(), client.getNodeByName( copyTask.getNodeLocation().getIdentifier() ) );
+        }
+    }
+
+    private static long bytesToCopy( CopyTask copyTask ) {
+        long bytes = 0;
+        for ( TaskInputFileLocationWrapper inputFile : copyTask.getInputFiles() ) {
+            bytes += inputFile.getWrapper().getSizeInBytes();
+        }
+        return bytes;
     }
 
     private void handleProblematicCopy( CopyTask copyTask ){
@@ -291,15 +365,13 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
             Map<String,TaskInputFileLocationWrapper> wrapperByPath = new HashMap<>();
             copyTask.getInputFiles().forEach( x -> wrapperByPath.put( x.getPath(), x ));
             log.info( "Get daemon on node {}; daemons: {}", copyTask.getNodeLocation().getIdentifier(), daemonHolder );
-            final InputStream inputStream = getConnection( getDaemonIpOnNode(copyTask.getNodeLocation().getIdentifier())).retrieveFileStream(file);
-            if (inputStream == null) {
+            final List<String> lines = readFileFromDaemon( getDaemonIpOnNode(copyTask.getNodeLocation().getIdentifier()), file );
+            if (lines == null) {
                 //Init has not even started
                 return;
             }
-            Scanner scanner = new Scanner(inputStream);
             Set<String> openedFiles = new HashSet<>();
-            while( scanner.hasNext() ){
-                String line = scanner.nextLine();
+            for ( String line : lines ) {
                 if ( line.startsWith( "S-" ) ){
                     openedFiles.add( line.substring( 2 ) );
                 } else if ( line.startsWith( "F-" ) ){
@@ -387,15 +459,15 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
      * @param task
      * @param inputsOfTask
      * @param allNodes
+     * @param currentlyCopying snapshot of the files copied to each node
      * @param readyTasksPerNode
      * @return A wrapper containing the remaining data on each node, the nodes where all data is available, the inputs and the task.
      */
-    private TaskStat getDataOnNode( Task task, TaskInputs inputsOfTask, List<NodeWithAlloc> allNodes, Map<NodeWithAlloc, List<Task>> readyTasksPerNode ) {
+    private TaskStat getDataOnNode( Task task, TaskInputs inputsOfTask, List<NodeWithAlloc> allNodes, Map<NodeLocation, CurrentlyCopyingOnNode> currentlyCopying, Map<NodeWithAlloc, List<Task>> readyTasksPerNode ) {
         TaskStat taskStats = new TaskStat( task, inputsOfTask );
-        final CurrentlyCopying currentlyCopying = getCurrentlyCopying();
         for ( NodeWithAlloc node : allNodes ) {
             if ( inputsOfTask.canRunOnLoc( node.getNodeLocation() ) && node.affinitiesMatch( task.getPod() ) ) {
-                final CurrentlyCopyingOnNode currentlyCopyingOnNode = currentlyCopying.get( node.getNodeLocation() );
+                final CurrentlyCopyingOnNode currentlyCopyingOnNode = currentlyCopying.getOrDefault( node.getNodeLocation(), CurrentlyCopyingOnNode.EMPTY );
                 final TaskNodeStats taskNodeStats = inputsOfTask.calculateMissingData( node.getNodeLocation(), currentlyCopyingOnNode );
                 if ( taskNodeStats != null ) {
                     taskStats.add( node, taskNodeStats );
@@ -415,6 +487,14 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
     @Override
     boolean assignTaskToNode( NodeTaskAlignment alignment ) {
         final NodeTaskLocalFilesAlignment nodeTaskFilesAlignment = (NodeTaskLocalFilesAlignment) alignment;
+        alignment.task.setInputFiles( nodeTaskFilesAlignment.locationWrappers );
+        useLocations( nodeTaskFilesAlignment.locationWrappers );
+        return super.assignTaskToNode( alignment );
+    }
+
+    @Override
+    void bindTaskToNode( NodeTaskAlignment alignment ) {
+        final NodeTaskLocalFilesAlignment nodeTaskFilesAlignment = (NodeTaskLocalFilesAlignment) alignment;
 
         if ( !nodeTaskFilesAlignment.symlinks.isEmpty() ) {
             try ( BufferedWriter writer = new BufferedWriter( new FileWriter( alignment.task.getWorkingDir() + '/' + ".command.symlinks" ) ) ) {
@@ -437,17 +517,9 @@ public class LocationAwareSchedulerV2 extends SchedulerWithDaemonSet {
             }
         }
 
-        alignment.task.setInputFiles( nodeTaskFilesAlignment.locationWrappers );
-        useLocations( nodeTaskFilesAlignment.locationWrappers );
-
-        return super.assignTaskToNode( alignment );
+        super.bindTaskToNode( alignment );
     }
 
-    @Override
-    public void close() {
-        logCopyTask.close();
-        super.close();
-    }
 
     @Override
     Task createTask( TaskConfig conf ){
@@ -0,0 +1,154 @@
+package cws.k8s.scheduler.scheduler;
+
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Requirements;
+import cws.k8s.scheduler.model.Task;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Partitions the nodes into shards that are planned independently of each other.
+ * Nodes are either grouped by the value of a label or by a consistent hash of their location,
+ * so adding or removing a node does not move the other nodes to another shard.
+ * Each task is planned in exactly one shard per round, which shard rotates with the rounds.
+ * Tasks with located inputs stay within the shards that hold their data.
+ */
+class NodeSharding {
+
+    private static final int VIRTUAL_NODES = 64;
+    /**
+     * Shard for nodes without the label
+     */
+    static final String NO_LABEL = "";
+
+    private final String label;
+    private final TreeMap<Integer, Integer> ring = new TreeMap<>();
+
+    /**
+     * @param shards number of shards if nodes are assigned by hash
+     * @param label if not null, nodes with the same value for this label form a shard
+     */
+    NodeSharding( int shards, String label ) {
+        if ( shards < 1 ) {
+            throw new IllegalArgumentException( "shards must be positive: " + shards );
+        }
+        this.label = label;
+        for ( int shard = 0; shard < shards; shard++ ) {
+            for ( int v = 0; v < VIRTUAL_NODES; v++ ) {
+                ring.put( mix( ( "shard-" + shard + "#" + v ).hashCode() ), shard );
+            }
+        }
+    }
+
+    String shardOf( NodeWithAlloc node ) {
+        if ( label != null ) {
+            final Map<String, String> labels = node.getMetadata().getLabels();
+            final String value = labels == null ? null : labels.get( label );
+            return value == null ? NO_LABEL : value;
+        }
+        final Map.Entry<Integer, Integer> entry = ring.ceilingEntry( mix( node.getNodeLocation().getIdentifier().hashCode() ) );
+        return "shard-" + ( entry == null ? ring.firstEntry() : entry ).getValue();
+    }
+
+    /**
+     * @return the available resources of each shard, sorted by the shard name
+     */
+    List<Map<NodeWithAlloc, Requirements>> splitNodes( Map<NodeWithAlloc, Requirements> availableByNode ) {
+        final Map<String, Map<NodeWithAlloc, Requirements>> byShard = new TreeMap<>();
+        for ( Map.Entry<NodeWithAlloc, Requirements> entry : availableByNode.entrySet() ) {
+            byShard.computeIfAbsent( shardOf( entry.getKey() ), shard -> new HashMap<>() )
+                    .put( entry.getKey(), entry.getValue() );
+        }
+        return new ArrayList<>( byShard.values() );
+    }
+
+    /**
+     * Tasks are spread by their id, the offset rotates with the round.
+     * A task with located inputs only goes to the shards with a node that holds all of its data and rotates among those.
+     * Other tasks only go to a shard where at least one node has enough resources, if there is one.
+     * The order of the tasks is kept within each shard.
+     * @param nodesWithData the nodes that hold all inputs of a task, empty if the task has no located inputs
+     */
+    List<List<Task>> splitTasks(
+            List<Task> tasks,
+            List<Map<NodeWithAlloc, Requirements>> nodeShards,
+            int round,
+            Function<Task, Collection<NodeWithAlloc>> nodesWithData
+    ) {
+        final int count = nodeShards.size();
+        if ( count == 0 ) {
+            return Collections.emptyList();
+        }
+        final List<Requirements> maxAvailable = new ArrayList<>( count );
+        final List<List<Task>> result = new ArrayList<>( count );
+        final Map<NodeWithAlloc, Integer> shardOfNode = new HashMap<>();
+        for ( Map<NodeWithAlloc, Requirements> shard : nodeShards ) {
+            long cpu = 0;
+            long ram = 0;
+            for ( Map.Entry<NodeWithAlloc, Requirements> entry : shard.entrySet() ) {
+                cpu = Math.max( cpu, entry.getValue().getCpuInMilli() );
+                ram = Math.max( ram, entry.getValue().getRamInBytes() );
+                shardOfNode.put( entry.getKey(), result.size() );
+            }
+            maxAvailable.add( Requirements.of( cpu, ram ) );
+            result.add( new ArrayList<>() );
+        }
+        for ( Task task : tasks ) {
+            final int offset = mix( task.getId() ) + round;
+            final List<Integer> withData = shardsWithData( nodesWithData.apply( task ), shardOfNode );
+            final int shard;
+            if ( withData.isEmpty() ) {
+                shard = shardWithResources( task, maxAvailable, Math.floorMod( offset, count ) );
+            } else {
+                shard = withData.get( Math.floorMod( offset, withData.size() ) );
+            }
+            result.get( shard ).add( task );
+        }
+        return result;
+    }
+
+    /**
+     * @return the sorted indexes of the shards that contain at least one of the nodes
+     */
+    private static List<Integer> shardsWithData( Collection<NodeWithAlloc> nodes, Map<NodeWithAlloc, Integer> shardOfNode ) {
+        if ( nodes == null || nodes.isEmpty() ) {
+            return Collections.emptyList();
+        }
+        final SortedSet<Integer> shards = new TreeSet<>();
+        for ( NodeWithAlloc node : nodes ) {
+            final Integer shard = shardOfNode.get( node );
+            if ( shard != null ) {
+                shards.add( shard );
+            }
+        }
+        return new ArrayList<>( shards );
+    }
+
+    /**
+     * @return the first shard from start on where the largest node fits the task, start if there is none
+     */
+    private static int shardWithResources( Task task, List<Requirements> maxAvailable, int start ) {
+        final int count = maxAvailable.size();
+        for ( int i = 0; i < count; i++ ) {
+            final int candidate = ( start + i ) % count;
+            if ( maxAvailable.get( candidate ).higherOrEquals( task.getPlanedRequirements() ) ) {
+                return candidate;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads similar hash codes over the ring
+     */
+    private static int mix( int h ) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
@@ -5,14 +5,18 @@ import cws.k8s.scheduler.client.CannotPatchException;
 import cws.k8s.scheduler.client.Informable;
 import cws.k8s.scheduler.dag.DAG;
 import cws.k8s.scheduler.model.*;
+import cws.k8s.scheduler.prediction.CpuScaler;
 import cws.k8s.scheduler.prediction.MemoryScaler;
 import cws.k8s.scheduler.prediction.TaskScaler;
+import cws.k8s.scheduler.util.AsyncFileWriter;
 import cws.k8s.scheduler.util.Batch;
 import cws.k8s.scheduler.util.NodeTaskAlignment;
+import cws.k8s.scheduler.util.SchedulerMetrics;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
 import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.micrometer.core.instrument.Metrics;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
@@ -22,6 +26,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 
 @Slf4j
 public abstract class Scheduler implements Informable {
@@ -51,10 +56,27 @@ public abstract class Scheduler implements Informable {
     private final SharedIndexInformer<Pod> podHandler;
     private final TaskprocessingThread schedulingThread;
     private final TaskprocessingThread finishThread;
+    /**
+     * Null if all nodes are planned at once
+     */
+    private final NodeSharding sharding;
+    private final ExecutorService planningPool;
+    private int planningRound = 0;
+    /**
+     * Null if pods are bound on the scheduling thread
+     */
+    private final ExecutorService bindingPool;
+    private static final int BINDINGS_QUEUED_PER_THREAD = 50;
 
     final boolean traceEnabled;
 
-    // TaskScaler will observe tasks and modify their memory assignments
+    final SchedulerMetrics metrics;
+    /**
+     * Writes traces and logs, so the scheduling threads do not wait for the file system
+     */
+    final AsyncFileWriter fileWriter;
+
+    // TaskScaler will observe tasks and modify their memory and cpu assignments
     final List<TaskScaler> taskScaler = new LinkedList<>();
 
     Scheduler(String execution, CWSKubernetesClient client, String namespace, SchedulerConfig config){
@@ -66,10 +88,42 @@ public abstract class Scheduler implements Informable {
         this.dns = config.dns.endsWith( "/" ) ? config.dns : config.dns + "/";
         this.dag = new DAG();
         this.traceEnabled = config.traceEnabled;
+        this.metrics = new SchedulerMetrics( Metrics.globalRegistry, execution );
+        metrics.registerQueue( "unscheduled", unscheduledTasks );
+        metrics.registerQueue( "unfinished", unfinishedTasks );
+        this.fileWriter = new AsyncFileWriter( execution,
+                config.fileWriterCapacity == null ? AsyncFileWriter.DEFAULT_CAPACITY : config.fileWriterCapacity, metrics );
+
+        if ( config.planningShards != null && config.planningShards > 1 ) {
+            log.info( "Plan {} shards in parallel, nodes are assigned by {}", config.planningShards,
+                    config.shardLabel == null ? "hash" : "label " + config.shardLabel );
+            sharding = new NodeSharding( config.planningShards, config.shardLabel );
+            planningPool = Executors.newFixedThreadPool( config.planningShards );
+        } else {
+            sharding = null;
+            planningPool = null;
+        }
+
+        if ( config.bindingThreads != null && config.bindingThreads > 0 ) {
+            final int threads = config.bindingThreads;
+            log.info( "Bind pods asynchronously with {} threads", threads );
+            //If the queue is full, the scheduling thread binds the pod itself
+            bindingPool = new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>( threads * BINDINGS_QUEUED_PER_THREAD ),
+                    new ThreadPoolExecutor.CallerRunsPolicy() );
+        } else {
+            bindingPool = null;
+        }
 
         PodHandler handler = new PodHandler(this );
 
-        schedulingThread = new TaskprocessingThread( unscheduledTasks, this::schedule );
+        if ( config.incrementalScheduling != null && config.incrementalScheduling ) {
+            final long fullReplanInterval = config.fullReplanIntervalInSeconds == null ? 60 : config.fullReplanIntervalInSeconds;
+            log.info( "Use incremental scheduling with a full re-plan every {} seconds", fullReplanInterval );
+            schedulingThread = new TaskprocessingThread( unscheduledTasks, this::timedSchedule, this::getAffectedTasks, fullReplanInterval * 1000 );
+        } else {
+            schedulingThread = new TaskprocessingThread( unscheduledTasks, this::timedSchedule );
+        }
         schedulingThread.start();
 
         finishThread = new TaskprocessingThread(unfinishedTasks, this::terminateTasks );
@@ -85,15 +139,29 @@ public abstract class Scheduler implements Informable {
         if ( StringUtils.hasText(config.memoryPredictor) ) {
             if ( client.inPlacePodVerticalScalingActive() ) {
                 // create a new TaskScaler for each Scheduler instance
-                taskScaler.add( new MemoryScaler( config ) );
+                final MemoryScaler memoryScaler = new MemoryScaler( config );
+                memoryScaler.setMetrics( metrics );
+                taskScaler.add( memoryScaler );
             } else {
                 log.warn( "InPlacePodVerticalScaling is not active. MemoryScaler will not be used." );
             }
         }
+
+        if ( StringUtils.hasText(config.cpuPredictor) ) {
+            if ( client.inPlacePodVerticalScalingActive() ) {
+                taskScaler.add( new CpuScaler( config ) );
+            } else {
+                log.warn( "InPlacePodVerticalScaling is not active. CpuScaler will not be used." );
+            }
+        }
     }
 
     /* Abstract methods */
 
+    private int timedSchedule( final List<Task> unscheduledTasks ) {
+        return metrics.recordSchedulingRound( () -> schedule( unscheduledTasks ) );
+    }
+
     /**
      * @return the number of unscheduled Tasks
      */
@@ -109,7 +177,74 @@ public abstract class Scheduler implements Informable {
             taskScaler.parallelStream().forEach( x -> x.beforeTasksScheduled( unscheduledTasks ) );
         }
 
-        final ScheduleObject scheduleObject = getTaskNodeAlignment(unscheduledTasks, getAvailableByNode( true ));
+        final Map<NodeWithAlloc, Requirements> availableByNode = getAvailableByNode( true );
+        final List<ScheduleObject> plans = sharding != null && supportsShardedPlanning()
+                ? getShardedTaskNodeAlignment( unscheduledTasks, availableByNode )
+                : List.of( getTaskNodeAlignment( unscheduledTasks, availableByNode ) );
+
+        int planned = 0;
+        int notScheduled = 0;
+        boolean aborted = false;
+        for ( ScheduleObject scheduleObject : plans ) {
+            final SubmitResult result = submit( scheduleObject, unscheduledTasksCopy );
+            if ( result == null ) {
+                return -1;
+            }
+            planned += scheduleObject.getTaskAlignments().size();
+            notScheduled += result.notScheduled;
+            aborted |= result.aborted;
+        }
+        if ( aborted ) {
+            return notScheduled;
+        }
+        //Use instance object that does not contain yet scheduled tasks
+        postScheduling( getWaitingTasks( unscheduledTasks, unscheduledTasksCopy ), getAvailableByNode( false ) );
+        return unscheduledTasks.size() - planned + notScheduled;
+    }
+
+    /**
+     * An incremental round only plans the affected tasks, but {@link #postScheduling(List, Map)} has to see the whole queue,
+     * otherwise tasks that were not affected would never get their data copied before the next full replan.
+     * @param roundTasks the tasks passed to this round
+     * @param notScheduled the tasks of this round that were not scheduled
+     * @return all tasks that are still waiting, in queue order
+     */
+    private List<Task> getWaitingTasks( List<Task> roundTasks, List<Task> notScheduled ) {
+        if ( schedulingThread == null || !schedulingThread.isIncremental() ) {
+            return notScheduled;
+        }
+        final Set<Task> scheduled = new HashSet<>( roundTasks );
+        notScheduled.forEach( scheduled::remove );
+        final List<Task> waiting;
+        synchronized ( unscheduledTasks ) {
+            waiting = new LinkedList<>( unscheduledTasks );
+        }
+        waiting.removeAll( scheduled );
+        return waiting;
+    }
+
+    /**
+     * The result of a plan that was submitted
+     */
+    private static class SubmitResult {
+        /**
+         * The remaining plan was dropped, post scheduling is skipped in this round
+         */
+        private final boolean aborted;
+        private final int notScheduled;
+
+        SubmitResult( boolean aborted, int notScheduled ) {
+            this.aborted = aborted;
+            this.notScheduled = notScheduled;
+        }
+    }
+
+    /**
+     * Checks if the plan is still possible and assigns the tasks to their nodes.
+     * @param unscheduledTasksCopy scheduled tasks are removed
+     * @return null if the scheduler was closed
+     */
+    private SubmitResult submit( ScheduleObject scheduleObject, List<Task> unscheduledTasksCopy ) {
         final List<NodeTaskAlignment> taskNodeAlignment = scheduleObject.getTaskAlignments();
 
         //check if still possible...
@@ -118,7 +253,7 @@ public abstract class Scheduler implements Informable {
             if (!possible) {
                 log.info("The whole scheduling plan is not possible anymore.");
                 informOtherResourceChange();
-                return taskNodeAlignment.size();
+                return new SubmitResult( true, taskNodeAlignment.size() );
             }
         }
 
@@ -127,32 +262,93 @@ public abstract class Scheduler implements Informable {
         for (NodeTaskAlignment nodeTaskAlignment : taskNodeAlignment) {
             try {
                 if (isClose()) {
-                    return -1;
+                    return null;
                 }
                 if ( !assignTaskToNode( nodeTaskAlignment ) ){
                     if ( scheduleObject.isStopSubmitIfOneFails() ) {
-                        return taskNodeAlignment.size() - scheduled;
+                        return new SubmitResult( true, taskNodeAlignment.size() - scheduled );
                     }
                     failure++;
                     continue;
                 }
+                if ( bindingPool == null ) {
+                    bindTaskToNode( nodeTaskAlignment );
+                }
             } catch ( Exception e ){
                 log.info( "Could not schedule task: {} undo all", nodeTaskAlignment.task.getConfig().getRunName() );
                 e.printStackTrace();
                 undoTaskScheduling( nodeTaskAlignment.task );
                 //If the task failed because scaling is impossible, the schedule plan is not valid anymore
                 if ( scheduleObject.isStopSubmitIfOneFails() || e instanceof CannotPatchException ) {
-                    return taskNodeAlignment.size() - scheduled;
+                    return new SubmitResult( true, taskNodeAlignment.size() - scheduled );
                 }
                 continue;
             }
             taskWasScheduled(nodeTaskAlignment.task);
+            if ( bindingPool != null ) {
+                //Only after taskWasScheduled, a failed binding puts the task back into the queue
+                bindingPool.execute( () -> bindAsync( nodeTaskAlignment ) );
+            }
             unscheduledTasksCopy.remove( nodeTaskAlignment.task );
             scheduled++;
         }
-        //Use instance object that does not contain yet scheduled tasks
-        postScheduling( unscheduledTasksCopy, getAvailableByNode( false ) );
-        return unscheduledTasks.size() - taskNodeAlignment.size() + failure;
+        return new SubmitResult( false, failure );
+    }
+
+    /**
+     * Plans each shard of nodes in parallel, every task is planned in one shard only.
+     * The shards reserve resources on their own copy of the capacity, so they do not see each other.
+     * Their plans are validated and submitted one after another, a plan that became impossible
+     * in the meantime is dropped without affecting the other shards.
+     */
+    private List<ScheduleObject> getShardedTaskNodeAlignment(
+            final List<Task> unscheduledTasks,
+            final Map<NodeWithAlloc, Requirements> availableByNode
+    ) {
+        final List<Map<NodeWithAlloc, Requirements>> nodeShards = sharding.splitNodes( availableByNode );
+        final List<List<Task>> taskShards = sharding.splitTasks(
+                unscheduledTasks,
+                nodeShards,
+                planningRound++,
+                task -> getNodesWithAllData( task, availableByNode.keySet() )
+        );
+        final List<Future<ScheduleObject>> futures = new ArrayList<>( nodeShards.size() );
+        for ( int i = 0; i < nodeShards.size(); i++ ) {
+            final List<Task> tasks = taskShards.get( i );
+            final Map<NodeWithAlloc, Requirements> nodes = nodeShards.get( i );
+            if ( !tasks.isEmpty() ) {
+                futures.add( planningPool.submit( () -> getTaskNodeAlignment( tasks, nodes ) ) );
+            }
+        }
+        final List<ScheduleObject> plans = new ArrayList<>( futures.size() );
+        for ( Future<ScheduleObject> future : futures ) {
+            try {
+                plans.add( future.get() );
+            } catch ( ExecutionException e ) {
+                log.error( "Could not plan shard", e.getCause() );
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                futures.forEach( f -> f.cancel( true ) );
+                return plans;
+            }
+        }
+        return plans;
+    }
+
+    /**
+     * Schedulers whose getTaskNodeAlignment can be called concurrently for disjoint tasks and nodes
+     */
+    boolean supportsShardedPlanning() {
+        return false;
+    }
+
+    /**
+     * Used to keep tasks in the shards that hold their data if planning is sharded.
+     * @param nodes the nodes that are considered in this round
+     * @return the nodes that hold all inputs of the task, empty if the task has no located inputs
+     */
+    Collection<NodeWithAlloc> getNodesWithAllData( Task task, Set<NodeWithAlloc> nodes ) {
+        return Collections.emptyList();
     }
 
     /**
@@ -260,7 +456,7 @@ public abstract class Scheduler implements Informable {
             synchronized (unscheduledTasks){
                 unscheduledTasks.add( task );
                 tasksWhereAddedToQueue( List.of(task) );
-                unscheduledTasks.notifyAll();
+                schedulingThread.informEvent( SchedulingEvent.taskAdded( task ) );
                 synchronized ( upcomingTasks ){
                     upcomingTasks.remove( task );
                 }
@@ -283,7 +479,7 @@ public abstract class Scheduler implements Informable {
                 final List<Task> tasksToScheduleAndDestroy = batch.getTasksToScheduleAndDestroy();
                 unscheduledTasks.addAll(tasksToScheduleAndDestroy);
                 tasksWhereAddedToQueue( tasksToScheduleAndDestroy );
-                unscheduledTasks.notifyAll();
+                tasksToScheduleAndDestroy.forEach( x -> schedulingThread.informEvent( SchedulingEvent.taskAdded( x ) ) );
                 synchronized ( upcomingTasks ){
                     tasksToScheduleAndDestroy.forEach(upcomingTasks::remove);
                 }
@@ -314,9 +510,20 @@ public abstract class Scheduler implements Informable {
         task.getState().setState( State.PREPARED );
     }
 
+    /**
+     * This method is called if a scheduled task could not be bound to its node and undoes {@link #taskWasScheduled(Task)}.
+     * It is called before {@link #undoTaskScheduling(Task)}, so the task is still assigned to the node.
+     * Afterward, the task is added to the queue again.
+     * @param task the task that could not be bound
+     */
+    void taskSchedulingFailed( Task task ) {
+        task.getState().setState( State.UNSCHEDULED );
+    }
+
     public void markPodAsDeleted( PodWithAge pod ) {
         final Task task = changeStateOfTask(pod, State.DELETED);
         task.setPod( pod );
+        schedulingThread.informEvent( SchedulingEvent.taskRemoved( task ) );
     }
 
     Task createTask( TaskConfig conf ){
@@ -416,15 +623,90 @@ public abstract class Scheduler implements Informable {
     }
 
     public void newNode(NodeWithAlloc node) {
-        informResourceChange();
+        nodeResourcesChanged( node );
     }
 
-    public void removedNode(NodeWithAlloc node) {}
+    @Override
+    public void nodeResourcesChanged( NodeWithAlloc node ) {
+        if ( schedulingThread.isIncremental() ) {
+            schedulingThread.informEvent( SchedulingEvent.nodeCapacityChanged( node ) );
+        } else {
+            informResourceChange();
+        }
+    }
+
+    /**
+     * Inform the scheduling loop that data was copied for a task.
+     * @param task the task the data was copied for
+     * @param node the node the data was copied to, null if unknown
+     */
+    void copyFinished( Task task, NodeWithAlloc node ) {
+        if ( schedulingThread.isIncremental() ) {
+            schedulingThread.informEvent( SchedulingEvent.copyFinished( task, node ) );
+        } else {
+            informResourceChange();
+        }
+    }
+
+    /**
+     * Determines which unscheduled tasks have to be re-evaluated after the given events.
+     * Tasks are affected if they were added or if they could now be placed on a node with changed capacity.
+     * Other nodes did not change, so the remaining tasks still cannot be placed.
+     * @param events the events received since the last scheduling round, in order
+     * @return the tasks to re-evaluate
+     */
+    Set<Task> getAffectedTasks( Collection<SchedulingEvent> events ) {
+        final Set<Task> affected = new HashSet<>();
+        final Set<Task> removed = new HashSet<>();
+        final Set<NodeWithAlloc> changedNodes = new HashSet<>();
+        for ( SchedulingEvent event : events ) {
+            switch ( event.getType() ) {
+                case TASK_ADDED:
+                    affected.add( event.getTask() );
+                    removed.remove( event.getTask() );
+                    break;
+                case TASK_REMOVED:
+                    removed.add( event.getTask() );
+                    break;
+                case COPY_FINISHED:
+                    affected.add( event.getTask() );
+                    // copying reserved capacity on the node
+                    addChangedNode( changedNodes, event );
+                    break;
+                case NODE_CAPACITY_CHANGED:
+                    addChangedNode( changedNodes, event );
+                    break;
+                default: log.warn( "No implementation for {}", event.getType() );
+            }
+        }
+        if ( !changedNodes.isEmpty() ) {
+            final List<Task> waiting;
+            synchronized ( unscheduledTasks ) {
+                waiting = new ArrayList<>( unscheduledTasks );
+            }
+            final NodeCapacitySnapshot snapshot = client.getCapacityTable().getSnapshot();
+            for ( NodeWithAlloc node : changedNodes ) {
+                //null if the node is not ready
+                final Requirements available = snapshot.getAvailable( node );
+                for ( Task task : waiting ) {
+                    if ( !affected.contains( task ) && canScheduleTaskOnNode( available, task, node ) ) {
+                        affected.add( task );
+                    }
+                }
+            }
+        }
+        affected.removeAll( removed );
+        return affected;
+    }
 
-    List<NodeWithAlloc> getNodeList(){
-        return client.getAllNodes();
+    private static void addChangedNode( Set<NodeWithAlloc> changedNodes, SchedulingEvent event ) {
+        if ( event.getNode() != null ) {
+            changedNodes.add( event.getNode() );
+        }
     }
 
+    public void removedNode(NodeWithAlloc node) {}
+
     /**
      * You may extend this method
      */
@@ -436,8 +718,32 @@ public abstract class Scheduler implements Informable {
         client.assignPodToNode( pod, alignment.node.getMetadata().getName() );
     }
 
+    /**
+     * Reserves the resources of the node for the task.
+     * The pod is bound afterward by {@link #bindTaskToNode(NodeTaskAlignment)}.
+     */
     boolean assignTaskToNode( NodeTaskAlignment alignment ){
 
+        //Replaces the pod of the task, so it has to happen before the reservation
+        if ( alignment.task.requirementsChanged() ){
+            client.patchTaskRequirements( alignment.task );
+        }
+
+        alignment.task.setNode( alignment.node );
+
+        final PodWithAge pod = alignment.task.getPod();
+
+        alignment.node.addPod( pod );
+
+        return true;
+    }
+
+    /**
+     * Writes the files for the working directory and binds the pod to the node.
+     * Runs on the binding pool if bindingThreads are configured.
+     */
+    void bindTaskToNode( NodeTaskAlignment alignment ){
+
         final File nodeFile = new File(alignment.task.getWorkingDir() + '/' + ".command.node");
 
         try(BufferedWriter printWriter = new BufferedWriter( new FileWriter( nodeFile ))){
@@ -447,16 +753,8 @@ public abstract class Scheduler implements Informable {
             log.error( "Cannot write " + nodeFile, e);
         }
 
-        if ( alignment.task.requirementsChanged() ){
-            client.patchTaskMemory( alignment.task );
-        }
-
-        alignment.task.setNode( alignment.node );
-
         final PodWithAge pod = alignment.task.getPod();
 
-        alignment.node.addPod( pod );
-
         log.info ( "Assign pod: " + pod.getMetadata().getName() + " to node: " + alignment.node.getMetadata().getName() );
 
         assignPodToNode( pod, alignment );
@@ -467,10 +765,32 @@ public abstract class Scheduler implements Informable {
         alignment.task.submitted();
         if( traceEnabled ) {
             alignment.task.getTraceRecord().submitted();
-            alignment.task.writeTrace();
+            alignment.task.writeTrace( fileWriter );
         }
+    }
 
-        return true;
+    /**
+     * If the binding fails, the reserved resources are released and the task is scheduled again
+     */
+    private void bindAsync( NodeTaskAlignment alignment ) {
+        if ( isClose() ) {
+            return;
+        }
+        try {
+            bindTaskToNode( alignment );
+        } catch ( Exception e ) {
+            final Task task = alignment.task;
+            log.error( "Could not bind task: {} to node: {}", task.getConfig().getRunName(), alignment.node.getName(), e );
+            alignment.node.removePod( task.getPod() );
+            taskSchedulingFailed( task );
+            undoTaskScheduling( task );
+            synchronized ( unscheduledTasks ) {
+                unscheduledTasks.add( task );
+                tasksWhereAddedToQueue( List.of( task ) );
+                schedulingThread.informEvent( SchedulingEvent.taskAdded( task ) );
+            }
+            informResourceChange();
+        }
     }
 
     /* Helper */
@@ -542,26 +862,18 @@ public abstract class Scheduler implements Informable {
         return t;
     }
 
+    /**
+     * @return a mutable copy of the current capacity snapshot, only containing ready nodes
+     */
     Map<NodeWithAlloc, Requirements> getAvailableByNode( boolean logging ){
-        Map<NodeWithAlloc, Requirements> availableByNode = new HashMap<>();
-        final List<String> logInfo;
-        if ( logging ){
-            logInfo = new LinkedList<>();
-            logInfo.add("------------------------------------");
-        } else {
-            logInfo = null;
-        }
-        for (NodeWithAlloc item : getNodeList()) {
-            if ( !item.isReady() ) {
-                continue;
-            }
-            final Requirements availableResources = item.getAvailableResources();
-            availableByNode.put(item, availableResources);
-            if ( logging ){
-                logInfo.add("Node: " + item.getName() + " " + availableResources);
-            }
-        }
+        final NodeCapacitySnapshot snapshot = client.getCapacityTable().getSnapshot();
+        final Map<NodeWithAlloc, Requirements> availableByNode = snapshot.toMutableMap();
         if ( logging ) {
+            final List<String> logInfo = new LinkedList<>();
+            logInfo.add("------------------------------------ capacity version " + snapshot.getVersion());
+            for ( Map.Entry<NodeWithAlloc, Requirements> entry : availableByNode.entrySet() ) {
+                logInfo.add("Node: " + entry.getKey().getName() + " " + entry.getValue());
+            }
             logInfo.add("------------------------------------");
             log.info(String.join("\n", logInfo));
         }
@@ -592,6 +904,14 @@ public abstract class Scheduler implements Informable {
         podHandler.close();
         schedulingThread.interrupt();
         finishThread.interrupt();
+        if ( planningPool != null ) {
+            planningPool.shutdownNow();
+        }
+        if ( bindingPool != null ) {
+            bindingPool.shutdownNow();
+        }
+        fileWriter.close();
+        metrics.close();
         this.close = true;
     }
 
@@ -610,6 +930,7 @@ public abstract class Scheduler implements Informable {
             if (!scheduler.name.equals(pod.getSpec().getSchedulerName())) {
                 return;
             }
+            scheduler.metrics.recordPodEvent( pod );
 
             PodWithAge pwa = new PodWithAge(pod);
             if (pod.getMetadata().getLabels() != null) {
@@ -11,9 +11,12 @@ import cws.k8s.scheduler.model.outfiles.PathLocationWrapperPair;
 import cws.k8s.scheduler.model.outfiles.SymlinkOutput;
 import cws.k8s.scheduler.model.taskinputs.SymlinkInput;
 import cws.k8s.scheduler.model.taskinputs.TaskInputs;
+import cws.k8s.scheduler.rest.PathAttributes;
 import cws.k8s.scheduler.rest.exceptions.NotARealFileException;
+import cws.k8s.scheduler.rest.response.addfile.AddFileResponse;
 import cws.k8s.scheduler.rest.response.getfile.FileResponse;
 import cws.k8s.scheduler.util.DaemonHolder;
+import cws.k8s.scheduler.util.FtpConnectionPool;
 import cws.k8s.scheduler.util.NodeTaskAlignment;
 import cws.k8s.scheduler.util.NodeTaskFilesAlignment;
 import cws.k8s.scheduler.util.copying.CurrentlyCopying;
@@ -27,8 +30,10 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ftp.FTPClient;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -38,6 +43,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public abstract class SchedulerWithDaemonSet extends Scheduler {
 
+    private static final int FTP_TIMEOUT_MILLIS = 10_000;
+
     @Getter(AccessLevel.PROTECTED)
     final DaemonHolder daemonHolder = new DaemonHolder();
     @Getter
@@ -46,6 +53,7 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
     private final InputFileCollector inputFileCollector;
     private final ConcurrentHashMap<Long, LocationWrapper> requestedLocations = new ConcurrentHashMap<>();
     final String localWorkDir;
+    private final FtpConnectionPool ftpConnections;
 
     /**
      * Which node is currently copying files from which node
@@ -56,11 +64,39 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
     SchedulerWithDaemonSet( String execution, CWSKubernetesClient client, String namespace, SchedulerConfig config) {
         super(execution, client, namespace, config);
         this.hierarchyWrapper = new HierarchyWrapper( config.workDir );
-        this.inputFileCollector = new InputFileCollector( hierarchyWrapper );
+        this.inputFileCollector = new InputFileCollector( hierarchyWrapper, config.cacheTaskInputs == null || config.cacheTaskInputs );
         if ( config.copyStrategy == null ) {
             throw new IllegalArgumentException( "Copy strategy is null" );
         }
         this.localWorkDir = config.workDir;
+        this.ftpConnections = new FtpConnectionPool(
+                config.ftpConnectionsPerDaemon == null ? FtpConnectionPool.DEFAULT_CONNECTIONS_PER_DAEMON : config.ftpConnectionsPerDaemon,
+                FtpConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS,
+                this::connect );
+    }
+
+    @Override
+    public int schedule( final List<Task> unscheduledTasks ) {
+        inputFileCollector.newRound();
+        return super.schedule( unscheduledTasks );
+    }
+
+    @Override
+    void taskWasScheduled( Task task ) {
+        super.taskWasScheduled( task );
+        inputFileCollector.forget( task );
+    }
+
+    @Override
+    void taskSchedulingFailed( Task task ) {
+        super.taskSchedulingFailed( task );
+        inputFileCollector.forget( task );
+    }
+
+    @Override
+    public void close() {
+        ftpConnections.close();
+        super.close();
     }
 
     public String getDaemonIpOnNode( String node ){
@@ -134,14 +170,18 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
                                 finishedTask
                         );
                         final Set<PathLocationWrapperPair> outputFiles = new HashSet<>();
+                        final List<String> paths = new ArrayList<>( newAndUpdatedFiles.size() );
+                        final List<LocationWrapper> locations = new ArrayList<>( newAndUpdatedFiles.size() );
                         for (OutputFile newAndUpdatedFile : newAndUpdatedFiles) {
                             if( newAndUpdatedFile instanceof PathLocationWrapperPair ) {
-                                hierarchyWrapper.addFile(
-                                        newAndUpdatedFile.getPath(),
-                                        ((PathLocationWrapperPair) newAndUpdatedFile).getLocationWrapper()
-                                );
+                                paths.add( newAndUpdatedFile.getPath().toString() );
+                                locations.add( ((PathLocationWrapperPair) newAndUpdatedFile).getLocationWrapper() );
                                 outputFiles.add( (PathLocationWrapperPair) newAndUpdatedFile );
-                            } else if ( newAndUpdatedFile instanceof SymlinkOutput ){
+                            }
+                        }
+                        hierarchyWrapper.addFiles( paths, false, locations );
+                        for (OutputFile newAndUpdatedFile : newAndUpdatedFiles) {
+                            if ( newAndUpdatedFile instanceof SymlinkOutput ){
                                 hierarchyWrapper.addSymlink(
                                         newAndUpdatedFile.getPath(),
                                         ((SymlinkOutput) newAndUpdatedFile).getDst()
@@ -253,7 +293,49 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
             locationWrapper = new LocationWrapper( location, timestamp, size );
         }
 
-        hierarchyWrapper.addFile( Paths.get( path ), overwrite, locationWrapper );
+        hierarchyWrapper.addFile( path, overwrite, locationWrapper );
+    }
+
+    /**
+     * Register many local files at once
+     * @return one response per file in the order of the request
+     */
+    public List<AddFileResponse> addFiles( List<PathAttributes> files, boolean overwrite, String node ){
+        final NodeLocation location = NodeLocation.getLocation( node == null ? workflowEngineNode : node );
+
+        final List<String> paths = new ArrayList<>( files.size() );
+        final List<LocationWrapper> locationWrappers = new ArrayList<>( files.size() );
+        for ( PathAttributes file : files ) {
+            if ( file == null || file.getPath() == null ) {
+                paths.add( null );
+                locationWrappers.add( null );
+                continue;
+            }
+            paths.add( file.getPath() );
+            if( !overwrite && file.getLocationWrapperID() != -1 ){
+                final LocationWrapper requested = requestedLocations.get( file.getLocationWrapperID() );
+                locationWrappers.add( requested == null ? null : requested.getCopyOf( location ) );
+            } else {
+                locationWrappers.add( new LocationWrapper( location, file.getTimestamp(), file.getSize() ) );
+            }
+        }
+
+        final List<LocationWrapper> added = hierarchyWrapper.addFiles( paths, overwrite, locationWrappers );
+
+        final List<AddFileResponse> responses = new ArrayList<>( files.size() );
+        for ( int i = 0; i < files.size(); i++ ) {
+            final String path = paths.get( i );
+            if ( added.get( i ) != null ) {
+                responses.add( AddFileResponse.added( path ) );
+            } else if ( path == null ) {
+                responses.add( AddFileResponse.failed( null, "Path is missing" ) );
+            } else if ( locationWrappers.get( i ) == null ) {
+                responses.add( AddFileResponse.failed( path, "Unknown locationWrapperID: " + files.get( i ).getLocationWrapperID() ) );
+            } else {
+                responses.add( AddFileResponse.failed( path, "Path is not within a task directory" ) );
+            }
+        }
+        return responses;
     }
 
     private void handleProblematicInit( Task task ){
@@ -262,15 +344,13 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
             Map<String,TaskInputFileLocationWrapper> wrapperByPath = new HashMap<>();
             task.getCopiedFiles().forEach( x -> wrapperByPath.put( x.getPath(), x ));
             log.info( "Get daemon on node {}; daemons: {}", task.getNode().getNodeLocation().getIdentifier(), daemonHolder );
-            final InputStream inputStream = getConnection( getDaemonIpOnNode(task.getNode().getNodeLocation().getIdentifier())).retrieveFileStream(file);
-            if (inputStream == null) {
+            final List<String> lines = readFileFromDaemon( getDaemonIpOnNode(task.getNode().getNodeLocation().getIdentifier()), file );
+            if (lines == null) {
                 //Init has not even started
                 return;
             }
-            Scanner scanner = new Scanner(inputStream);
             Set<String> openedFiles = new HashSet<>();
-            while( scanner.hasNext() ){
-                String line = scanner.nextLine();
+            for ( String line : lines ) {
                 if ( line.startsWith( "S-" ) ){
                     openedFiles.add( line.substring( 2 ) );
                 } else if ( line.startsWith( "F-" ) ){
@@ -288,18 +368,49 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
         }
     }
 
-    FTPClient getConnection( String daemon ){
+    /**
+     * Reads a file via a pooled FTP connection to the daemon
+     * @return the lines of the file or null if it does not exist
+     */
+    List<String> readFileFromDaemon( String daemon, String file ) throws IOException {
+        final FTPClient client = ftpConnections.borrow( daemon );
+        try {
+            final List<String> lines;
+            try ( InputStream inputStream = client.retrieveFileStream( file ) ) {
+                if ( inputStream == null ) {
+                    ftpConnections.release( daemon, client );
+                    return null;
+                }
+                lines = new BufferedReader( new InputStreamReader( inputStream ) ).lines().toList();
+            }
+            if ( !client.completePendingCommand() ) {
+                throw new IOException( "Transfer of " + file + " from " + daemon + " failed: " + client.getReplyString() );
+            }
+            ftpConnections.release( daemon, client );
+            return lines;
+        } catch ( IOException | RuntimeException e ) {
+            ftpConnections.invalidate( daemon, client );
+            throw e;
+        }
+    }
+
+    private FTPClient connect( String daemon ) throws IOException {
         int trial = 0;
         while ( true ) {
+            FTPClient f = new FTPClient();
             try {
-                FTPClient f = new FTPClient();
+                f.setConnectTimeout( FTP_TIMEOUT_MILLIS );
+                f.setDefaultTimeout( FTP_TIMEOUT_MILLIS );
                 f.connect(daemon);
                 f.login("ftp", "nextflowClient");
                 f.enterLocalPassiveMode();
                 return f;
             } catch ( IOException e ) {
+                if ( f.isConnected() ) {
+                    f.disconnect();
+                }
                 if ( trial > 5 ) {
-                    throw new RuntimeException(e);
+                    throw e;
                 }
                 log.error("Cannot create FTP client: {}", daemon);
                 try {
@@ -338,7 +449,7 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
     public void taskHasFinishedCopyTask( String name ){
         final Task task = tasksByPodName.get( name );
         task.getNode().startingTaskCopyingDataFinished( task );
-        informResourceChange();
+        nodeResourcesChanged( task.getNode() );
     }
 
     /**
@@ -372,15 +483,21 @@ public abstract class SchedulerWithDaemonSet extends Scheduler {
                 synchronized ( daemonHolder ) {
                     final String podName = pod.getMetadata().getName();
                     final boolean podIsCurrentDaemon = pod.getStatus().getPodIP() != null && pod.getStatus().getPodIP().equals(daemonHolder.getDaemonIp(nodeName));
+                    final String currentIp = daemonHolder.getDaemonIp(nodeName);
                     if ( action == Watcher.Action.DELETED ) {
                         if (podIsCurrentDaemon) {
                             daemonHolder.removeDaemon(nodeName);
+                            ftpConnections.removeDaemon( currentIp );
                         }
                     } else if ( pod.getStatus().getPhase().equals("Running") ) {
                         daemonHolder.addDaemon( nodeName, podName, pod.getStatus().getPodIP() );
+                        if ( currentIp != null && !podIsCurrentDaemon ) {
+                            ftpConnections.removeDaemon( currentIp );
+                        }
                         informResourceChange();
                     } else if ( podIsCurrentDaemon ) {
                         daemonHolder.removeDaemon(nodeName);
+                        ftpConnections.removeDaemon( currentIp );
                         if( !pod.getStatus().getPhase().equals("Failed") ){
                             log.info( "Unexpected phase {} for daemon: {}", pod.getStatus().getPhase(), podName );
                         }
@@ -0,0 +1,60 @@
+package cws.k8s.scheduler.scheduler;
+
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Task;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A delta that is consumed by the {@link TaskprocessingThread} in incremental mode.
+ * Instead of re-planning the whole queue, only tasks affected by the received events are re-evaluated.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class SchedulingEvent {
+
+    public enum Type {
+        TASK_ADDED,
+        TASK_REMOVED,
+        NODE_CAPACITY_CHANGED,
+        COPY_FINISHED
+    }
+
+    private final Type type;
+    private final Task task;
+    private final NodeWithAlloc node;
+
+    public static SchedulingEvent taskAdded( Task task ) {
+        return new SchedulingEvent( Type.TASK_ADDED, task, null );
+    }
+
+    public static SchedulingEvent taskRemoved( Task task ) {
+        return new SchedulingEvent( Type.TASK_REMOVED, task, null );
+    }
+
+    /**
+     * @param node the node with changed capacity, null if it is unknown which nodes changed
+     */
+    public static SchedulingEvent nodeCapacityChanged( NodeWithAlloc node ) {
+        return new SchedulingEvent( Type.NODE_CAPACITY_CHANGED, null, node );
+    }
+
+    /**
+     * @param task the task the data was copied for
+     * @param node the node the data was copied to, null if unknown
+     */
+    public static SchedulingEvent copyFinished( Task task, NodeWithAlloc node ) {
+        return new SchedulingEvent( Type.COPY_FINISHED, task, node );
+    }
+
+    /**
+     * If we do not know which node changed, we cannot tell which tasks are affected.
+     */
+    boolean requiresFullReplan() {
+        return type == Type.NODE_CAPACITY_CHANGED && node == null;
+    }
+
+}
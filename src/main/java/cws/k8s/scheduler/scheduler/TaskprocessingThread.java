@@ -1,43 +1,105 @@
 package cws.k8s.scheduler.scheduler;
 
 import cws.k8s.scheduler.model.Task;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 
 @Slf4j
-@RequiredArgsConstructor
 public class TaskprocessingThread extends Thread {
 
     private final List<Task> unprocessedTasks;
     private final Function<List<Task>, Integer> function;
 
+    /**
+     * Maps the received events to the tasks that have to be re-evaluated.
+     * If null, every wakeup processes all tasks.
+     */
+    private final Function<Collection<SchedulingEvent>, Set<Task>> affectedTasks;
+    private final long fullReplanIntervalInMillis;
+    private final Queue<SchedulingEvent> events = new ConcurrentLinkedQueue<>();
+    private long lastFullReplan = 0;
+
     private boolean otherResourceChange = false;
 
+    public TaskprocessingThread( List<Task> unprocessedTasks, Function<List<Task>, Integer> function ) {
+        this( unprocessedTasks, function, null, 0 );
+    }
+
+    /**
+     * Creates a thread that works incrementally: only tasks affected by the received {@link SchedulingEvent}s are passed to the function.
+     * All tasks are passed if an unspecific resource change was reported or the last full run is longer ago than fullReplanIntervalInMillis.
+     */
+    public TaskprocessingThread(
+            List<Task> unprocessedTasks,
+            Function<List<Task>, Integer> function,
+            Function<Collection<SchedulingEvent>, Set<Task>> affectedTasks,
+            long fullReplanIntervalInMillis
+    ) {
+        this.unprocessedTasks = unprocessedTasks;
+        this.function = function;
+        this.affectedTasks = affectedTasks;
+        this.fullReplanIntervalInMillis = fullReplanIntervalInMillis;
+    }
+
+    public boolean isIncremental() {
+        return affectedTasks != null;
+    }
+
     public void otherResourceChange() {
         otherResourceChange = true;
     }
 
+    /**
+     * Wakes up the thread. In incremental mode, the event is used to determine the tasks to process.
+     */
+    public void informEvent( SchedulingEvent event ) {
+        if ( isIncremental() ) {
+            if ( event.requiresFullReplan() ) {
+                otherResourceChange();
+            } else {
+                events.add( event );
+            }
+        }
+        synchronized ( unprocessedTasks ) {
+            unprocessedTasks.notifyAll();
+        }
+    }
+
     @Override
     public void run() {
         int unscheduled = 0;
         while(!Thread.interrupted()){
             try{
                 LinkedList<Task> tasks;
+                boolean fullReplan;
                 synchronized (unprocessedTasks) {
                     do {
-                        if ( !otherResourceChange && unscheduled == unprocessedTasks.size()) {
+                        if ( !otherResourceChange && !hasNewWork( unscheduled ) ) {
                             unprocessedTasks.wait( 10000 );
                         }
                         if( Thread.interrupted() ) {
                             return;
                         }
+                        fullReplan = otherResourceChange;
                         otherResourceChange = false;
+                        if ( unprocessedTasks.isEmpty() ) {
+                            //Nothing to re-evaluate
+                            events.clear();
+                        }
                     } while ( unprocessedTasks.isEmpty() );
-                    tasks = new LinkedList<>(unprocessedTasks);
+                    if ( isIncremental() && !fullReplan && System.currentTimeMillis() - lastFullReplan < fullReplanIntervalInMillis ) {
+                        tasks = getAffectedTasks();
+                        if ( tasks.isEmpty() ) {
+                            continue;
+                        }
+                    } else {
+                        events.clear();
+                        lastFullReplan = System.currentTimeMillis();
+                        tasks = new LinkedList<>(unprocessedTasks);
+                    }
                 }
                 unscheduled = function.apply( tasks );
             } catch (InterruptedException e){
@@ -48,4 +110,33 @@ public class TaskprocessingThread extends Thread {
             }
         }
     }
+
+    private boolean hasNewWork( int unscheduled ) {
+        return isIncremental() ? !events.isEmpty() : unscheduled != unprocessedTasks.size();
+    }
+
+    /**
+     * Drains all received events and returns the affected tasks that are still waiting, in queue order.
+     * Has to be called while holding the lock on unprocessedTasks.
+     */
+    private LinkedList<Task> getAffectedTasks() {
+        final List<SchedulingEvent> received = new ArrayList<>( events.size() );
+        SchedulingEvent event;
+        while ( (event = events.poll()) != null ) {
+            received.add( event );
+        }
+        final LinkedList<Task> tasks = new LinkedList<>();
+        if ( received.isEmpty() ) {
+            return tasks;
+        }
+        final Set<Task> affected = affectedTasks.apply( received );
+        for ( Task task : unprocessedTasks ) {
+            if ( affected.contains( task ) ) {
+                tasks.add( task );
+            }
+        }
+        log.debug( "Incremental scheduling: {} events affect {} of {} tasks", received.size(), tasks.size(), unprocessedTasks.size() );
+        return tasks;
+    }
+
 }
@@ -7,8 +7,8 @@ import cws.k8s.scheduler.model.taskinputs.TaskInputs;
 import cws.k8s.scheduler.scheduler.filealignment.InputAlignment;
 import cws.k8s.scheduler.scheduler.filealignment.costfunctions.NoAligmentPossibleException;
 import cws.k8s.scheduler.util.FileAlignment;
+import cws.k8s.scheduler.util.IndexedHeap;
 import cws.k8s.scheduler.util.NodeTaskFilesAlignment;
-import cws.k8s.scheduler.util.SortedList;
 import cws.k8s.scheduler.util.copying.CurrentlyCopying;
 import cws.k8s.scheduler.util.copying.CurrentlyCopyingOnNode;
 import lombok.RequiredArgsConstructor;
@@ -70,7 +70,7 @@ public abstract class CreateCopyTasks {
         }
     }
 
-    protected void removeTasksThatAreCopiedMoreThanXTimeCurrently( SortedList<TaskStat> taskStats, int maxParallelTasks ) {
+    protected void removeTasksThatAreCopiedMoreThanXTimeCurrently( IndexedHeap<TaskStat> taskStats, int maxParallelTasks ) {
         taskStats.removeIf( elem -> currentlyCopying.getNumberOfNodesForTask( elem.getTask() ) >= maxParallelTasks );
     }
 
@@ -6,8 +6,8 @@ import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.model.location.NodeLocation;
 import cws.k8s.scheduler.scheduler.filealignment.InputAlignment;
 import cws.k8s.scheduler.scheduler.la2.TaskStat;
+import cws.k8s.scheduler.util.IndexedHeap;
 import cws.k8s.scheduler.util.NodeTaskFilesAlignment;
-import cws.k8s.scheduler.util.SortedList;
 import cws.k8s.scheduler.util.TaskStats;
 import cws.k8s.scheduler.util.copying.CurrentlyCopying;
 import lombok.extern.slf4j.Slf4j;
@@ -43,11 +43,11 @@ public class SimpleCapacityAvailableToNode extends CapacityAvailableToNode {
         //Remove available resources if a copy task is already running: this logic may not be optimal for more than 2 parallel copy tasks (unclear which task starts first)
         removeAvailableResources( taskStats, availableByNodes, allNodes );
         //Sort tasks by missing data: prefer tasks where the least data is missing on the node
-        final SortedList<TaskStat> stats = new SortedList<>( taskStats.getTaskStats().stream().filter( TaskStat::missingDataOnAnyNode ).collect( Collectors.toList() ) );
+        final IndexedHeap<TaskStat> stats = new IndexedHeap<>( taskStats.getTaskStats().stream().filter( TaskStat::missingDataOnAnyNode ).collect( Collectors.toList() ) );
         removeTasksThatAreCopiedMoreThanXTimeCurrently( stats, copySameTaskInParallel );
 
         while( !stats.isEmpty() ) {
-            final TaskStat poll = stats.poll();
+            final TaskStat poll = stats.peek();
             final TaskStat.NodeAndStatWrapper bestStats = poll.getBestStats();
             final Task task = poll.getTask();
             final NodeWithAlloc node = bestStats.getNode();
@@ -67,10 +67,12 @@ public class SimpleCapacityAvailableToNode extends CapacityAvailableToNode {
             } else {
                 cannotAdd = true;
             }
-            //if not enough resources or too many tasks are running, mark next node as to compare and add again into the list
+            //if not enough resources or too many tasks are running, mark next node as to compare and move it down in the heap
             if ( cannotAdd && poll.increaseIndexToCompare() ) {
-                //Only re-add if still other opportunities exist
-                stats.add( poll );
+                //Only keep if still other opportunities exist
+                stats.update( poll );
+            } else {
+                stats.poll();
             }
         }
         return nodeTaskAlignments;
@@ -5,8 +5,8 @@ import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.model.location.NodeLocation;
 import cws.k8s.scheduler.scheduler.filealignment.InputAlignment;
 import cws.k8s.scheduler.scheduler.la2.TaskStat;
+import cws.k8s.scheduler.util.IndexedHeap;
 import cws.k8s.scheduler.util.NodeTaskFilesAlignment;
-import cws.k8s.scheduler.util.SortedList;
 import cws.k8s.scheduler.util.TaskStats;
 import cws.k8s.scheduler.util.copying.CurrentlyCopying;
 import lombok.extern.slf4j.Slf4j;
@@ -38,12 +38,13 @@ public class CopyInAdvanceNodeWithMostData extends CopyInAdvance {
             final Map<NodeLocation, Integer> currentlyCopyingTasksOnNode,
             int prio,
             Map<NodeWithAlloc, List<Task>> readyTasksPerNode ) {
-        final SortedList<TaskStat> stats = new SortedList<>( taskStats.getTaskStats() );
+        final IndexedHeap<TaskStat> stats = new IndexedHeap<>( taskStats.getTaskStats() );
         removeTasksThatAreCopiedMoreThanXTimeCurrently( stats, copySameTaskInParallel );
 
         while( !stats.isEmpty() ) {
-            final TaskStat poll = stats.poll();
+            final TaskStat poll = stats.peek();
             if ( !poll.missingDataOnAnyNode() || poll.isCopyToNodeWithAvailableResources() ) {
+                stats.poll();
                 continue;
             }
             long start = System.currentTimeMillis();
@@ -65,10 +66,12 @@ public class CopyInAdvanceNodeWithMostData extends CopyInAdvance {
             } else {
                 cannotAdd = true;
             }
-            //if not enough resources or too many tasks are running, mark next node as to compare and add again into the list
+            //if not enough resources or too many tasks are running, mark next node as to compare and move it down in the heap
             if ( cannotAdd && poll.increaseIndexToCompare() ) {
-                //Only re-add if still other opportunities exist
-                stats.add( poll );
+                //Only keep if still other opportunities exist
+                stats.update( poll );
+            } else {
+                stats.poll();
             }
             task.getTraceRecord().addSchedulerTimeDeltaPhaseThree( (int) (System.currentTimeMillis() - start) );
         }
@@ -7,8 +7,8 @@ import cws.k8s.scheduler.model.location.NodeLocation;
 import cws.k8s.scheduler.model.location.hierachy.HierarchyWrapper;
 import cws.k8s.scheduler.scheduler.filealignment.InputAlignment;
 import cws.k8s.scheduler.scheduler.la2.TaskStat;
+import cws.k8s.scheduler.util.IndexedHeap;
 import cws.k8s.scheduler.util.NodeTaskFilesAlignment;
-import cws.k8s.scheduler.util.SortedList;
 import cws.k8s.scheduler.util.TaskStats;
 import cws.k8s.scheduler.util.copying.CurrentlyCopying;
 import cws.k8s.scheduler.util.score.CalculateScore;
@@ -63,7 +63,7 @@ public class CopyInAdvanceNodeWithMostDataIntelligent extends CopyInAdvance {
     ) {
         Map<NodeWithAlloc,NodeCache> cache = new HashMap<>();
         long startMethod = System.currentTimeMillis();
-        final SortedList<TaskStat> stats = new SortedList<>( taskStats.getTaskStats().stream().filter( x -> x.missingDataOnAnyNode() && !x.isCopyToNodeWithAvailableResources() ).collect( Collectors.toList()) );
+        final IndexedHeap<TaskStat> stats = new IndexedHeap<>( taskStats.getTaskStats().stream().filter( x -> x.missingDataOnAnyNode() && !x.isCopyToNodeWithAvailableResources() ).collect( Collectors.toList()) );
         removeTasksThatAreCopiedMoreThanXTimeCurrently( stats, copySameTaskInParallel );
 
         int readyOnNodes = 0;
@@ -71,8 +71,9 @@ public class CopyInAdvanceNodeWithMostDataIntelligent extends CopyInAdvance {
         while( !stats.isEmpty() ) {
             LinkedList<TaskStat> tasksReadyOnMoreNodes = new LinkedList<>();
             while( !stats.isEmpty() ) {
-                final TaskStat poll = stats.poll();
+                final TaskStat poll = stats.peek();
                 if ( poll.dataOnNodes() > readyOnNodes + TASKS_READY_FACTOR ) {
+                    stats.poll();
                     tasksReadyOnMoreNodes.add( poll );
                     continue;
                 }
@@ -99,11 +100,14 @@ public class CopyInAdvanceNodeWithMostDataIntelligent extends CopyInAdvance {
                 {
                         log.info( "Start copy task with {} missing bytes", poll.getBestStats().getTaskNodeStats().getSizeRemaining() );
                         nodeCache.addPlaned( task );
+                        stats.poll();
                 } else {
-                    //if not enough resources or too many tasks are running, mark next node as to compare and add again into the list
+                    //if not enough resources or too many tasks are running, mark next node as to compare and move it down in the heap
                     if ( poll.increaseIndexToCompare() ) {
-                        //Only re-add if still other opportunities exist
-                        stats.add( poll );
+                        //Only keep if still other opportunities exist
+                        stats.update( poll );
+                    } else {
+                        stats.poll();
                     }
                 }
                 task.getTraceRecord().addSchedulerTimeDeltaPhaseThree( (int) (System.currentTimeMillis() - start) );
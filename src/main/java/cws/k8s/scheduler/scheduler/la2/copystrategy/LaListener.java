@@ -12,11 +12,19 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @RequiredArgsConstructor
 public class LaListener implements MyExecListner {
 
+    /**
+     * Prefix of the lines in the sync file for files that were copied completely
+     */
+    static final String FILE_FINISHED = "F-";
+
     @Setter
     private ExecWatch exec;
     private final CopyTask copyTask;
@@ -25,7 +33,7 @@ public class LaListener implements MyExecListner {
     private ByteArrayOutputStream out = new ByteArrayOutputStream();
     @Setter
     private ByteArrayOutputStream error = new ByteArrayOutputStream();
-    private boolean finished = false;
+    private volatile boolean finished = false;
 
     private final NodeTaskFilesAlignment nodeTaskFilesAlignment;
 
@@ -50,13 +58,41 @@ public class LaListener implements MyExecListner {
         }
     }
 
+    @Override
+    public OutputStream wrapOutput( ByteArrayOutputStream out ) {
+        return new LineForwardingOutputStream( out, this::onOutputLines );
+    }
+
+    /**
+     * Publishes the files as soon as they were copied, all files of one chunk of output together.
+     * The copy task is finished in {@link #onExit(int, Status)}.
+     */
+    void onOutputLines( List<String> lines ) {
+        if ( finished ) {
+            return;
+        }
+        final List<String> paths = new ArrayList<>( lines.size() );
+        for ( String line : lines ) {
+            if ( line.startsWith( FILE_FINISHED ) ) {
+                paths.add( line.substring( FILE_FINISHED.length() ) );
+            }
+        }
+        if ( paths.isEmpty() ) {
+            return;
+        }
+        try {
+            scheduler.copyTaskFilesFinished( copyTask, paths );
+        } catch ( Exception e ) {
+            log.error( name + " could not handle progress: " + paths, e );
+        }
+    }
+
     @Override
     public void onClose( int exitCode, String reason ) {
         if ( !finished ) {
             log.error( "Copy task was not finished, but closed. ExitCode: " + exitCode + " Reason: " + reason );
             scheduler.copyTaskFinished( copyTask, exitCode == 0 );
         }
-        scheduler.informResourceChange();
     }
 
     @Override
@@ -0,0 +1,68 @@
+package cws.k8s.scheduler.scheduler.la2.copystrategy;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes everything to the target and hands the lines completed by a write to the consumer at once,
+ * so a burst of output results in a single call.
+ */
+@RequiredArgsConstructor
+class LineForwardingOutputStream extends OutputStream {
+
+    private final OutputStream target;
+    private final Consumer<List<String>> linesConsumer;
+    private final ByteArrayOutputStream currentLine = new ByteArrayOutputStream();
+
+    @Override
+    public synchronized void write( int b ) throws IOException {
+        target.write( b );
+        final List<String> lines = new ArrayList<>( 1 );
+        append( b, lines );
+        forward( lines );
+    }
+
+    @Override
+    public synchronized void write( byte[] b, int off, int len ) throws IOException {
+        target.write( b, off, len );
+        final List<String> lines = new ArrayList<>();
+        for ( int i = off; i < off + len; i++ ) {
+            append( b[i], lines );
+        }
+        forward( lines );
+    }
+
+    private void append( int b, List<String> lines ) {
+        if ( b == '\n' ) {
+            final String line = currentLine.toString( StandardCharsets.UTF_8 );
+            currentLine.reset();
+            lines.add( line.endsWith( "\r" ) ? line.substring( 0, line.length() - 1 ) : line );
+        } else {
+            currentLine.write( b );
+        }
+    }
+
+    private void forward( List<String> lines ) {
+        if ( !lines.isEmpty() ) {
+            linesConsumer.accept( lines );
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+
+}
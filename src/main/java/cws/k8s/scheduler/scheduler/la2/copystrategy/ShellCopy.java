@@ -37,11 +37,22 @@ public class ShellCopy implements CopyRunner {
         } catch ( IOException e ) {
             throw new RuntimeException( e );
         }
-        command[2] += "/app/ftp.py false \"" + copyTaskIdentifier + "\" \"" + filename + "\"";
+        command[2] += copyCommand( copyTask.getInputs().syncDir + copyTask.getInputs().execution, copyTaskIdentifier, filename );
         String name = nodeTaskFilesAlignment.task.getConfig().getName() + "-copy-" + nodeTaskFilesAlignment.node.getName();
         log.info( "Starting {} to node {}", nodeTaskFilesAlignment.task.getConfig().getName(), nodeTaskFilesAlignment.node.getName() );
         logCopyTask.copy( nodeTaskFilesAlignment.task.getConfig().getName(), nodeTaskFilesAlignment.node.getName(), copyTask.getInputFiles().size(), "start" );
         client.execCommand( scheduler.getDaemonNameOnNode( copyTask.getNodeLocation().getIdentifier() ), scheduler.getNamespace(), command, new LaListener( copyTask, name, nodeTaskFilesAlignment, scheduler, logCopyTask ) );
     }
 
+    /**
+     * Runs the copy and streams the new lines of the sync file to stdout while it is running,
+     * so each file can be used as soon as it was copied.
+     * The exit code is the one of the copy.
+     */
+    static String copyCommand( String syncFile, String copyTaskIdentifier, String filename ) {
+        return "{ tail -n 0 -F \"" + syncFile + "\" 2>/dev/null & progress=$!; "
+                + "/app/ftp.py false \"" + copyTaskIdentifier + "\" \"" + filename + "\"; "
+                + "code=$?; kill $progress 2>/dev/null; exit $code; }";
+    }
+
 }
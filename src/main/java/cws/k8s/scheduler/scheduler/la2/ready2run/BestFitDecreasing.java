@@ -0,0 +1,94 @@
+package cws.k8s.scheduler.scheduler.la2.ready2run;
+
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Requirements;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Greedy plan for the task groups, runs in O(groups * nodes * log nodes).
+ * Groups with the highest score and the largest request come first.
+ * Each group fills the nodes with its highest score first,
+ * among equal scores the node where the fewest tasks of the group fit, i.e., the best fit.
+ */
+class BestFitDecreasing {
+
+    private static final Comparator<TaskGroup> DECREASING = Comparator
+            .comparingLong( BestFitDecreasing::maxScore )
+            .thenComparingLong( TaskGroup::getCpu )
+            .thenComparingLong( TaskGroup::getRam )
+            .reversed();
+
+    private BestFitDecreasing() {}
+
+    private static long maxScore( TaskGroup group ) {
+        return Collections.max( group.getScoreByNode().values() );
+    }
+
+    static Plan plan( Collection<TaskGroup> groups, Map<NodeWithAlloc, Requirements> availableByNode ) {
+        final Map<NodeWithAlloc, long[]> remaining = new HashMap<>();
+        for ( Map.Entry<NodeWithAlloc, Requirements> entry : availableByNode.entrySet() ) {
+            remaining.put( entry.getKey(), new long[]{ entry.getValue().getCpuInMilli(), entry.getValue().getRamInBytes() } );
+        }
+        final List<TaskGroup> sorted = new ArrayList<>( groups );
+        sorted.sort( DECREASING );
+        final Plan plan = new Plan();
+        for ( TaskGroup group : sorted ) {
+            final List<Map.Entry<NodeWithAlloc, Long>> nodes = new ArrayList<>( group.getScoreByNode().entrySet() );
+            nodes.sort( Map.Entry.<NodeWithAlloc, Long>comparingByValue().reversed()
+                    .thenComparingLong( entry -> fits( group, remaining.get( entry.getKey() ) ) ) );
+            long unassigned = group.size();
+            for ( Map.Entry<NodeWithAlloc, Long> node : nodes ) {
+                if ( unassigned == 0 ) {
+                    break;
+                }
+                final long[] available = remaining.get( node.getKey() );
+                final long count = Math.min( unassigned, fits( group, available ) );
+                if ( count > 0 ) {
+                    available[0] -= count * group.getCpu();
+                    available[1] -= count * group.getRam();
+                    unassigned -= count;
+                    plan.add( group, node.getKey(), count, node.getValue() );
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return the number of tasks of the group that fit into the available resources
+     */
+    private static long fits( TaskGroup group, long[] available ) {
+        long fits = group.size();
+        if ( group.getCpu() > 0 ) {
+            fits = Math.min( fits, available[0] / group.getCpu() );
+        }
+        if ( group.getRam() > 0 ) {
+            fits = Math.min( fits, available[1] / group.getRam() );
+        }
+        return Math.max( fits, 0 );
+    }
+
+    /**
+     * Number of tasks per group and node, the same representation as the solution of the CP-SAT model
+     */
+    @Getter
+    static class Plan {
+
+        private final Map<TaskGroup, Map<NodeWithAlloc, Long>> counts = new HashMap<>();
+        private double objective = 0;
+
+        private void add( TaskGroup group, NodeWithAlloc node, long count, long score ) {
+            counts.computeIfAbsent( group, g -> new HashMap<>() ).put( node, count );
+            objective += count * score;
+        }
+
+        long getCount( TaskGroup group, NodeWithAlloc node ) {
+            final Map<NodeWithAlloc, Long> countsOfGroup = counts.get( group );
+            return countsOfGroup == null ? 0 : countsOfGroup.getOrDefault( node, 0L );
+        }
+
+    }
+
+}
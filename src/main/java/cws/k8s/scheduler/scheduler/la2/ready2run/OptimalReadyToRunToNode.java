@@ -4,29 +4,68 @@ import com.google.ortools.Loader;
 import com.google.ortools.sat.*;
 import cws.k8s.scheduler.model.NodeWithAlloc;
 import cws.k8s.scheduler.model.Requirements;
+import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.scheduler.data.TaskInputsNodes;
 import cws.k8s.scheduler.util.LogCopyTask;
 import cws.k8s.scheduler.util.NodeTaskLocalFilesAlignment;
+import cws.k8s.scheduler.util.SchedulerMetrics;
 import cws.k8s.scheduler.util.score.CalculateScore;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongBiFunction;
 
 @Slf4j
-@RequiredArgsConstructor
 public class OptimalReadyToRunToNode implements ReadyToRunToNode {
 
-    private final BigDecimal MILLION = new BigDecimal(1_000_000);
+    public static final double DEFAULT_MAX_TIME_IN_SECONDS = 10;
+    public static final int DEFAULT_MAX_VARIABLES = 5_000;
+
+    private final double maxTimeInSeconds;
+    private final int workers;
+    private final int maxVariables;
+
     private CalculateScore calculateScore = null;
 
     @Setter
     private LogCopyTask logger;
 
+    @Setter
+    private SchedulerMetrics metrics = SchedulerMetrics.noop();
+
+    /**
+     * Assignment of the last round per node, used as hint for the next model.
+     * Contains tasks whose plan was not executed, e.g., because the node was not ready.
+     * Each call only replaces the entries of its nodes, so calls for disjoint nodes can run concurrently.
+     */
+    private final Map<NodeWithAlloc, Set<Task>> lastAssignment = new ConcurrentHashMap<>();
+
+    public OptimalReadyToRunToNode() {
+        this( DEFAULT_MAX_TIME_IN_SECONDS, 0, DEFAULT_MAX_VARIABLES );
+    }
+
+    /**
+     * @param maxTimeInSeconds time budget of the solver per scheduling round
+     * @param workers number of parallel search workers, 0 lets the solver use all cores
+     * @param maxVariables larger models are not solved, the greedy plan is used instead
+     */
+    public OptimalReadyToRunToNode( double maxTimeInSeconds, int workers, int maxVariables ) {
+        if ( maxTimeInSeconds <= 0 ) {
+            throw new IllegalArgumentException( "maxTimeInSeconds must be positive: " + maxTimeInSeconds );
+        }
+        if ( workers < 0 ) {
+            throw new IllegalArgumentException( "workers must not be negative: " + workers );
+        }
+        if ( maxVariables < 0 ) {
+            throw new IllegalArgumentException( "maxVariables must not be negative: " + maxVariables );
+        }
+        this.maxTimeInSeconds = maxTimeInSeconds;
+        this.workers = workers;
+        this.maxVariables = maxVariables;
+    }
+
     @Override
     public void init( CalculateScore calculateScore ) {
         Loader.loadNativeLibraries();
@@ -35,6 +74,10 @@ public class OptimalReadyToRunToNode implements ReadyToRunToNode {
 
     /**
      * Creates an optimal alignment for tasks with all data on node.
+     * Tasks with the same requirements and the same score on the same nodes are interchangeable,
+     * they are grouped and the model decides only how many tasks of a group run on a node.
+     * A greedy plan is the fallback if the model has more than maxVariables variables
+     * or if the solver does not find a better solution in time.
      */
     @Override
     public List<NodeTaskLocalFilesAlignment> createAlignmentForTasksWithAllDataOnNode(
@@ -44,11 +87,29 @@ public class OptimalReadyToRunToNode implements ReadyToRunToNode {
 
         if ( taskWithAllData.isEmpty() || availableByNode.isEmpty() ){
             log.info( "No tasks can be scheduled on any node. (No node has all data)" );
+            lastAssignment.keySet().removeAll( availableByNode.keySet() );
             return Collections.emptyList();
         }
 
         long start = System.currentTimeMillis();
-        final LinkedList<TaskNodeBoolVar> taskNodeBoolVars = new LinkedList<>();
+
+        final Collection<TaskGroup> groups = groupTasks( taskWithAllData, availableByNode );
+        if ( groups.isEmpty() ) {
+            log.info( "No tasks can be scheduled on any node. Not enough resources available." );
+            lastAssignment.keySet().removeAll( availableByNode.keySet() );
+            return Collections.emptyList();
+        }
+
+        final BestFitDecreasing.Plan greedyPlan = BestFitDecreasing.plan( groups, availableByNode );
+        final int vars = groups.stream().mapToInt( group -> group.getScoreByNode().size() ).sum();
+        if ( vars > maxVariables ) {
+            final String message = "Greedy plan in " + (System.currentTimeMillis() - start) + "ms ( " + vars
+                    + " vars exceed " + maxVariables + " ) value: " + greedyPlan.getObjective();
+            log.info( message );
+            logger.log( message );
+            metrics.recordGreedyFallback();
+            return createAlignment( groups, availableByNode.keySet(), greedyPlan::getCount );
+        }
 
         CpModel model = new CpModel();
 
@@ -61,76 +122,140 @@ public class OptimalReadyToRunToNode implements ReadyToRunToNode {
 
         LinearExprBuilder objective = LinearExpr.newBuilder();
 
+        final Map<TaskGroup, Map<NodeWithAlloc, IntVar>> varsByGroup = new HashMap<>();
         int index = 0;
-        for ( TaskInputsNodes taskInputsNodes : taskWithAllData ) {
-            List<Literal> onlyOnOneNode = new ArrayList<>();
-            final Requirements request = taskInputsNodes.getTask().getPlanedRequirements();
-            final long ram = request.getRam().longValue();
-            final long cpu = request.getCpu().multiply( MILLION ).longValue();
-            for ( NodeWithAlloc node : taskInputsNodes.getNodesWithAllData() ) {
+        for ( TaskGroup group : groups ) {
+            final LinearExprBuilder tasksOfGroup = LinearExpr.newBuilder();
+            final Map<NodeWithAlloc, IntVar> groupVars = new HashMap<>();
+            final long ram = group.getRam();
+            final long cpu = group.getCpu();
+            //Tasks of the group that were planned in the last round, otherwise the greedy plan is the hint
+            final boolean plannedLastRound = group.getScoreByNode().keySet().stream()
+                    .anyMatch( node -> group.assignedLastRound( lastAssignment.get( node ) ) > 0 );
+            for ( Map.Entry<NodeWithAlloc, Long> nodeScore : group.getScoreByNode().entrySet() ) {
+                final NodeWithAlloc node = nodeScore.getKey();
                 final Requirements availableOnNode = availableByNode.get( node );
-                //Can schedule task on node?
-                if ( availableOnNode != null && availableOnNode.higherOrEquals( request ) ) {
-                        final BoolVar boolVar = model.newBoolVar( "x_" + index + "_" + node );
-                        onlyOnOneNode.add( boolVar );
-                        memUsed.get(node).addTerm( boolVar, ram );
-                        cpuUsed.get(node).addTerm( boolVar, cpu );
-                        final long score = calculateScore.getScore( taskInputsNodes.getTask(), node, taskInputsNodes.getTaskSize() );
-                        objective.addTerm( boolVar, score );
-                        taskNodeBoolVars.add( new TaskNodeBoolVar( taskInputsNodes, node, boolVar ) );
+                //No more tasks of the group than fit on the node
+                long upperBound = group.size();
+                if ( ram > 0 ) {
+                    upperBound = Math.min( upperBound, availableOnNode.getRamInBytes() / ram );
+                }
+                if ( cpu > 0 ) {
+                    upperBound = Math.min( upperBound, availableOnNode.getCpuInMilli() / cpu );
                 }
+                final IntVar intVar = model.newIntVar( 0, upperBound, "x_" + index + "_" + node );
+                tasksOfGroup.addTerm( intVar, 1 );
+                memUsed.get(node).addTerm( intVar, ram );
+                cpuUsed.get(node).addTerm( intVar, cpu );
+                objective.addTerm( intVar, nodeScore.getValue() );
+                final long hint = plannedLastRound
+                        ? group.assignedLastRound( lastAssignment.get( node ) )
+                        : greedyPlan.getCount( group, node );
+                model.addHint( intVar, Math.min( upperBound, hint ) );
+                groupVars.put( node, intVar );
             }
-            if ( !onlyOnOneNode.isEmpty() ) {
-                model.addAtMostOne(onlyOnOneNode);
+            if ( groupVars.size() > 1 ) {
+                model.addLessOrEqual( tasksOfGroup, group.size() );
             }
+            varsByGroup.put( group, groupVars );
             index++;
         }
 
-        if ( taskNodeBoolVars.isEmpty() ) {
-            log.info( "No tasks can be scheduled on any node. Not enough resources available." );
-            return Collections.emptyList();
-        }
-
         for ( Map.Entry<NodeWithAlloc, LinearExprBuilder> entry : memUsed.entrySet() ) {
-            model.addLessOrEqual( entry.getValue(), availableByNode.get( entry.getKey() ).getRam().longValue() );
-            model.addLessOrEqual( cpuUsed.get( entry.getKey() ), availableByNode.get( entry.getKey() ).getCpu().multiply( MILLION ).longValue() );
+            final Requirements available = availableByNode.get( entry.getKey() );
+            model.addLessOrEqual( entry.getValue(), available.getRamInBytes() );
+            model.addLessOrEqual( cpuUsed.get( entry.getKey() ), available.getCpuInMilli() );
         }
 
-        log.info( "Model created in " + (System.currentTimeMillis() - start) + "ms ( " + taskNodeBoolVars.size() + " vars )" );
+        log.info( "Model created in " + (System.currentTimeMillis() - start) + "ms ( " + vars + " vars, "
+                + taskWithAllData.size() + " tasks in " + groups.size() + " groups )" );
         model.maximize( objective );
         CpSolver solver = new CpSolver();
-        solver.getParameters().setMaxTimeInSeconds( 10 );
+        solver.getParameters().setMaxTimeInSeconds( maxTimeInSeconds );
+        if ( workers > 0 ) {
+            solver.getParameters().setNumWorkers( workers );
+        }
         final CpSolverStatus solve = solver.solve( model );
-        final String message = "Solved in " + (System.currentTimeMillis() - start) + "ms ( " + taskNodeBoolVars.size() + " vars ) + solution is: " + solve;
+        metrics.recordSolve( System.currentTimeMillis() - start, vars );
+        final String message = "Solved in " + (System.currentTimeMillis() - start) + "ms ( " + vars + " vars ) + solution is: " + solve;
         log.info( message );
         logger.log( message );
         log.info("Total packed value: " + solver.objectiveValue());
-        if ( solve != CpSolverStatus.OPTIMAL && solve != CpSolverStatus.FEASIBLE ) {
-            return Collections.emptyList();
-        }
 
-        return taskNodeBoolVars.stream()
-                .filter( taskNodeBoolVar -> solver.booleanValue( taskNodeBoolVar.getBoolVar() ) )
-                .map( TaskNodeBoolVar::createAlignment )
-                .collect( Collectors.toList() );
+        final boolean solved = solve == CpSolverStatus.OPTIMAL || solve == CpSolverStatus.FEASIBLE;
+        if ( solved ) {
+            final double bound = solver.bestObjectiveBound();
+            final double gap = bound > 0 ? ( bound - greedyPlan.getObjective() ) / bound : 0;
+            log.info( "Greedy plan value: {} gap to the solver bound: {}%", greedyPlan.getObjective(), String.format( "%.3f", gap * 100 ) );
+            metrics.recordGreedyGap( gap );
+        }
+        if ( !solved || solver.objectiveValue() < greedyPlan.getObjective() ) {
+            log.info( "Use greedy plan, solver status: {}", solve );
+            metrics.recordGreedyFallback();
+            return createAlignment( groups, availableByNode.keySet(), greedyPlan::getCount );
+        }
+        return createAlignment( groups, availableByNode.keySet(), ( group, node ) -> solver.value( varsByGroup.get( group ).get( node ) ) );
     }
 
-    @Getter
-    @RequiredArgsConstructor
-    private class TaskNodeBoolVar {
-        private final TaskInputsNodes taskInputsNodes;
-        private final NodeWithAlloc node;
-        private final BoolVar boolVar;
-
-        NodeTaskLocalFilesAlignment createAlignment(){
-            return new NodeTaskLocalFilesAlignment(
-                    node,
-                    taskInputsNodes.getTask(),
-                    taskInputsNodes.getInputsOfTask().getSymlinks(),
-                    taskInputsNodes.getInputsOfTask().allLocationWrapperOnLocation( node.getNodeLocation() )
-            );
+    /**
+     * Groups the tasks by their requirements and the score on the nodes where they fit.
+     * Tasks that do not fit on any node are dropped.
+     */
+    private Collection<TaskGroup> groupTasks(
+            List<TaskInputsNodes> taskWithAllData,
+            Map<NodeWithAlloc, Requirements> availableByNode
+    ) {
+        final Map<TaskGroup.Key, TaskGroup> groups = new LinkedHashMap<>();
+        for ( TaskInputsNodes taskInputsNodes : taskWithAllData ) {
+            final Requirements request = taskInputsNodes.getTask().getPlanedRequirements();
+            final Map<NodeWithAlloc, Long> scoreByNode = new HashMap<>();
+            for ( NodeWithAlloc node : taskInputsNodes.getNodesWithAllData() ) {
+                final Requirements availableOnNode = availableByNode.get( node );
+                //Can schedule task on node?
+                if ( availableOnNode != null && availableOnNode.higherOrEquals( request ) ) {
+                    final long score = calculateScore.getScore( taskInputsNodes.getTask(), node, taskInputsNodes.getTaskSize() );
+                    scoreByNode.put( node, score );
+                }
+            }
+            if ( !scoreByNode.isEmpty() ) {
+                final TaskGroup.Key key = new TaskGroup.Key( request.getRamInBytes(), request.getCpuInMilli(), scoreByNode );
+                groups.computeIfAbsent( key, TaskGroup::new ).getTasks().add( taskInputsNodes );
+            }
         }
+        return groups.values();
+    }
 
+    /**
+     * Tasks are in the order of the prioritization, the first ones of a group are assigned
+     * @param nodes all nodes of this plan
+     * @param counts number of tasks of the group that run on the node
+     */
+    private List<NodeTaskLocalFilesAlignment> createAlignment(
+            Collection<TaskGroup> groups,
+            Set<NodeWithAlloc> nodes,
+            ToLongBiFunction<TaskGroup, NodeWithAlloc> counts
+    ) {
+        final List<NodeTaskLocalFilesAlignment> alignment = new ArrayList<>();
+        final Map<NodeWithAlloc, Set<Task>> assignment = new HashMap<>();
+        for ( TaskGroup group : groups ) {
+            final Iterator<TaskInputsNodes> tasks = group.getTasks().iterator();
+            for ( NodeWithAlloc node : group.getScoreByNode().keySet() ) {
+                final long count = counts.applyAsLong( group, node );
+                for ( long i = 0; i < count; i++ ) {
+                    final TaskInputsNodes taskInputsNodes = tasks.next();
+                    alignment.add( new NodeTaskLocalFilesAlignment(
+                            node,
+                            taskInputsNodes.getTask(),
+                            taskInputsNodes.getInputsOfTask().getSymlinks(),
+                            taskInputsNodes.getInputsOfTask().allLocationWrapperOnLocation( node.getNodeLocation() )
+                    ) );
+                    assignment.computeIfAbsent( node, n -> new HashSet<>() ).add( taskInputsNodes.getTask() );
+                }
+            }
+        }
+        lastAssignment.keySet().removeAll( nodes );
+        lastAssignment.putAll( assignment );
+        return alignment;
     }
 
 }
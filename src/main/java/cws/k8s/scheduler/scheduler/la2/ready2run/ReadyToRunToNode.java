@@ -5,6 +5,7 @@ import cws.k8s.scheduler.model.Requirements;
 import cws.k8s.scheduler.scheduler.data.TaskInputsNodes;
 import cws.k8s.scheduler.util.LogCopyTask;
 import cws.k8s.scheduler.util.NodeTaskLocalFilesAlignment;
+import cws.k8s.scheduler.util.SchedulerMetrics;
 import cws.k8s.scheduler.util.score.CalculateScore;
 
 import java.util.List;
@@ -16,6 +17,8 @@ public interface ReadyToRunToNode {
 
     void setLogger( LogCopyTask logger );
 
+    default void setMetrics( SchedulerMetrics metrics ) {}
+
     List<NodeTaskLocalFilesAlignment> createAlignmentForTasksWithAllDataOnNode(
             List<TaskInputsNodes> taskWithAllData,
             Map<NodeWithAlloc, Requirements> availableByNode
@@ -0,0 +1,64 @@
+package cws.k8s.scheduler.scheduler.la2.ready2run;
+
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.scheduler.data.TaskInputsNodes;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tasks with the same requirements and the same score on the same nodes.
+ * They are interchangeable, so a plan only decides how many of them run on a node.
+ */
+@Getter
+@RequiredArgsConstructor
+class TaskGroup {
+
+    private final Key key;
+    private final List<TaskInputsNodes> tasks = new ArrayList<>();
+
+    long getRam() {
+        return key.ram;
+    }
+
+    long getCpu() {
+        return key.cpu;
+    }
+
+    /**
+     * Only nodes where a task of the group fits
+     */
+    Map<NodeWithAlloc, Long> getScoreByNode() {
+        return key.scoreByNode;
+    }
+
+    int size() {
+        return tasks.size();
+    }
+
+    /**
+     * @param lastOnNode tasks that were assigned to a node in the last round
+     * @return how many tasks of this group were assigned to that node
+     */
+    long assignedLastRound( Set<Task> lastOnNode ) {
+        if ( lastOnNode == null || lastOnNode.isEmpty() ) {
+            return 0;
+        }
+        return tasks.stream().filter( task -> lastOnNode.contains( task.getTask() ) ).count();
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    static class Key {
+        private final long ram;
+        private final long cpu;
+        private final Map<NodeWithAlloc, Long> scoreByNode;
+    }
+
+}
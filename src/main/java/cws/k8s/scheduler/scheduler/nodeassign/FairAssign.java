@@ -7,7 +7,6 @@ import cws.k8s.scheduler.model.tracing.TraceRecord;
 import cws.k8s.scheduler.util.NodeTaskAlignment;
 import lombok.extern.slf4j.Slf4j;
 
-import java.math.BigDecimal;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -24,16 +23,16 @@ public class FairAssign extends NodeAssign {
             NodeWithAlloc bestNode = null;
             Double bestScore = null;
             final List<Double> costs = new LinkedList<>();
-            final BigDecimal podRequest = task.getPlanedRequirements().getCpu();
+            final long podRequest = task.getPlanedRequirements().getCpuInMilli();
             int triedOnNodes = 0;
             for ( Map.Entry<NodeWithAlloc, Requirements> e : availableByNode.entrySet() ) {
                 if ( scheduler.canScheduleTaskOnNode( e.getValue(), task, e.getKey() ) ) {
                     triedOnNodes++;
-                    final BigDecimal maxValue = e.getKey().getMaxResources().getCpu();
+                    final long maxValue = e.getKey().getMaxResources().getCpuInMilli();
                     //how much is available if we assign this pod
-                    final BigDecimal newValue = e.getValue().getCpu().subtract( podRequest );
+                    final long newValue = e.getValue().getCpuInMilli() - podRequest;
                     //larger values are better => more resources available
-                    final double score = newValue.doubleValue() /  maxValue.doubleValue();
+                    final double score = (double) newValue / maxValue;
                     if ( bestScore == null || score > bestScore ) {
                         bestScore = score;
                         bestNode = e.getKey();
@@ -0,0 +1,207 @@
+package cws.k8s.scheduler.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes files on a background thread, so the scheduling and finishing threads do not wait for a slow shared file system.
+ * Requests are buffered in a bounded ring buffer, the thread takes all buffered requests at once
+ * and flushes every file only once per batch (group commit).
+ * If the buffer is full, the caller waits until there is space again, which is reported in the {@link SchedulerMetrics}.
+ */
+@Slf4j
+public class AsyncFileWriter {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+    /**
+     * How long a caller waits for space before it checks again whether the writer was closed
+     */
+    private static final long ENQUEUE_RETRY_MILLIS = 100;
+
+    @RequiredArgsConstructor
+    private static class Request {
+        private final String path;
+        private final String content;
+        private final boolean append;
+    }
+
+    private static final Request STOP = new Request( null, null, false );
+
+    private final BlockingQueue<Request> queue;
+    private final SchedulerMetrics metrics;
+    private final Thread thread;
+
+    /**
+     * Files appended to stay open until the writer is closed, only accessed by the writer thread
+     */
+    private final Map<String, Writer> openFiles = new HashMap<>();
+    /**
+     * Files that could not be opened, they are not tried again, only accessed by the writer thread
+     */
+    private final Set<String> failedFiles = new HashSet<>();
+
+    private volatile boolean closed = false;
+
+    public AsyncFileWriter( String name, int capacity, SchedulerMetrics metrics ) {
+        this.queue = new ArrayBlockingQueue<>( capacity );
+        this.metrics = metrics;
+        metrics.registerWriteQueue( queue );
+        this.thread = new Thread( this::run, "file-writer-" + name );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    /**
+     * Replaces the content of the file
+     */
+    public void write( String path, String content ) {
+        enqueue( new Request( path, content, false ) );
+    }
+
+    /**
+     * Appends the line to the file. The file is truncated when this writer appends to it the first time.
+     */
+    public void append( String path, String line ) {
+        enqueue( new Request( path, line + '\n', true ) );
+    }
+
+    private void enqueue( Request request ) {
+        if ( closed ) {
+            log.debug( "Writer is closed, drop write to {}", request.path );
+            return;
+        }
+        if ( queue.offer( request ) ) {
+            return;
+        }
+        metrics.recordWriterBlocked();
+        try {
+            //The writer thread does not take requests anymore once it was closed
+            while ( !queue.offer( request, ENQUEUE_RETRY_MILLIS, TimeUnit.MILLISECONDS ) ) {
+                if ( closed ) {
+                    log.debug( "Writer was closed, drop write to {}", request.path );
+                    return;
+                }
+            }
+        } catch ( InterruptedException e ) {
+            log.warn( "Interrupted while waiting to write {}", request.path );
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        final List<Request> batch = new ArrayList<>();
+        try {
+            while ( true ) {
+                batch.add( queue.take() );
+                queue.drainTo( batch );
+                final long start = System.nanoTime();
+                final boolean stop = writeBatch( batch );
+                metrics.recordWriteBatch( stop ? batch.size() - 1 : batch.size(), System.nanoTime() - start );
+                batch.clear();
+                if ( stop ) {
+                    break;
+                }
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for ( Map.Entry<String, Writer> file : openFiles.entrySet() ) {
+                try {
+                    file.getValue().close();
+                } catch ( IOException e ) {
+                    log.warn( "Cannot close " + file.getKey(), e );
+                }
+            }
+            openFiles.clear();
+        }
+    }
+
+    /**
+     * @return true if the batch contained the request to stop
+     */
+    private boolean writeBatch( List<Request> batch ) {
+        //Only the last content of a replaced file has to be written
+        final Map<String, String> replaced = new LinkedHashMap<>();
+        final Set<Writer> appended = new HashSet<>();
+        boolean stop = false;
+        for ( Request request : batch ) {
+            if ( request == STOP ) {
+                stop = true;
+            } else if ( request.append ) {
+                if ( failedFiles.contains( request.path ) ) {
+                    continue;
+                }
+                try {
+                    final Writer writer = openFiles.computeIfAbsent( request.path, this::open );
+                    if ( writer != null ) {
+                        writer.write( request.content );
+                        appended.add( writer );
+                    }
+                } catch ( IOException e ) {
+                    log.warn( "Cannot write " + request.path, e );
+                }
+            } else {
+                replaced.put( request.path, request.content );
+            }
+        }
+        for ( Writer writer : appended ) {
+            try {
+                writer.flush();
+            } catch ( IOException e ) {
+                log.warn( "Cannot flush file", e );
+            }
+        }
+        for ( Map.Entry<String, String> file : replaced.entrySet() ) {
+            try {
+                Files.writeString( Path.of( file.getKey() ), file.getValue() );
+            } catch ( IOException e ) {
+                log.warn( "Cannot write " + file.getKey(), e );
+            }
+        }
+        return stop;
+    }
+
+    private Writer open( String path ) {
+        try {
+            final Path file = Path.of( path );
+            if ( file.getParent() != null ) {
+                Files.createDirectories( file.getParent() );
+            }
+            return Files.newBufferedWriter( file );
+        } catch ( IOException e ) {
+            log.warn( "Cannot open " + path + ", further lines are dropped", e );
+            failedFiles.add( path );
+            return null;
+        }
+    }
+
+    /**
+     * Writes all buffered requests and closes the files
+     */
+    public void close() {
+        if ( closed ) {
+            return;
+        }
+        closed = true;
+        try {
+            if ( !queue.offer( STOP, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS ) ) {
+                thread.interrupt();
+            }
+            thread.join( CLOSE_TIMEOUT_MILLIS );
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -11,8 +11,10 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Getter
@@ -33,4 +35,36 @@ public class CopyTask {
     @Setter
     private NodeLocation nodeLocation;
 
+    /**
+     * Input files that were not reported as finished yet, created on the first report
+     */
+    @Getter(AccessLevel.NONE)
+    private Map<String, TaskInputFileLocationWrapper> unfinishedFiles;
+
+    /**
+     * Marks a single file as copied while the copy task is still running.
+     * @return the input file, null if it is not part of this copy task or was already reported
+     */
+    public synchronized TaskInputFileLocationWrapper fileFinished( String path ) {
+        if ( unfinishedFiles == null ) {
+            unfinishedFiles = new HashMap<>();
+            for ( TaskInputFileLocationWrapper inputFile : inputFiles ) {
+                unfinishedFiles.put( inputFile.getPath(), inputFile );
+            }
+        }
+        return unfinishedFiles.remove( path );
+    }
+
+    /**
+     * Marks all files as finished, later reports are ignored.
+     * @return the input files that were not reported as finished before
+     */
+    public synchronized List<TaskInputFileLocationWrapper> finishRemainingFiles() {
+        final List<TaskInputFileLocationWrapper> remaining = unfinishedFiles == null
+                ? inputFiles
+                : new LinkedList<>( unfinishedFiles.values() );
+        unfinishedFiles = new HashMap<>();
+        return remaining;
+    }
+
 }
@@ -0,0 +1,232 @@
+package cws.k8s.scheduler.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTPClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps logged in FTP connections to the daemons, keyed by the daemon's IP.
+ * At most connectionsPerDaemon connections to one daemon are in use at once, further callers wait for one of them.
+ * Idle connections are checked with a NOOP before they are handed out again and closed after idleTimeoutMillis.
+ * Expired connections are closed when a connection to the daemon is borrowed and by a sweep every idleTimeoutMillis,
+ * so daemons that are not used anymore do not keep their connections open.
+ */
+@Slf4j
+public class FtpConnectionPool {
+
+    public static final int DEFAULT_CONNECTIONS_PER_DAEMON = 4;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+
+    /**
+     * Creates a new connection, which is logged in
+     */
+    public interface Connector {
+        FTPClient connect( String daemon ) throws IOException;
+    }
+
+    @RequiredArgsConstructor
+    private static class IdleConnection {
+        private final FTPClient client;
+        private final long since;
+    }
+
+    private static class Daemon {
+
+        private final Semaphore permits;
+        private final Set<FTPClient> borrowed = ConcurrentHashMap.newKeySet();
+        /**
+         * Most recently used first, guarded by itself
+         */
+        private final Deque<IdleConnection> idle = new ArrayDeque<>();
+
+        Daemon( int connections ) {
+            this.permits = new Semaphore( connections, true );
+        }
+
+    }
+
+    private final int connectionsPerDaemon;
+    private final long idleTimeoutMillis;
+    private final Connector connector;
+    private final Map<String, Daemon> daemons = new ConcurrentHashMap<>();
+    /**
+     * Null if connections expire immediately
+     */
+    private final ScheduledExecutorService sweeper;
+    private volatile boolean closed = false;
+
+    public FtpConnectionPool( int connectionsPerDaemon, long idleTimeoutMillis, Connector connector ) {
+        if ( connectionsPerDaemon < 1 ) {
+            throw new IllegalArgumentException( "At least one connection per daemon is required: " + connectionsPerDaemon );
+        }
+        this.connectionsPerDaemon = connectionsPerDaemon;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.connector = connector;
+        if ( idleTimeoutMillis > 0 ) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor( runnable -> {
+                final Thread thread = new Thread( runnable, "ftp-pool-sweeper" );
+                thread.setDaemon( true );
+                return thread;
+            } );
+            sweeper.scheduleWithFixedDelay( this::closeExpired, idleTimeoutMillis, idleTimeoutMillis, TimeUnit.MILLISECONDS );
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * The connection has to be given back with {@link #release(String, FTPClient)} or {@link #invalidate(String, FTPClient)}
+     */
+    public FTPClient borrow( String daemon ) throws IOException {
+        if ( closed ) {
+            throw new IllegalStateException( "Pool is closed" );
+        }
+        final Daemon pool = daemons.computeIfAbsent( daemon, d -> new Daemon( connectionsPerDaemon ) );
+        try {
+            pool.permits.acquire();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a connection to " + daemon );
+        }
+        try {
+            FTPClient client;
+            while ( ( client = takeIdle( pool ) ) != null && !isHealthy( client ) ) {
+                disconnect( client );
+            }
+            if ( client == null ) {
+                client = connector.connect( daemon );
+            }
+            pool.borrowed.add( client );
+            return client;
+        } catch ( IOException | RuntimeException e ) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Keeps the connection for the next caller, if it is still connected
+     */
+    public void release( String daemon, FTPClient client ) {
+        giveBack( daemon, client, client.isConnected() );
+    }
+
+    /**
+     * Closes the connection, e.g. after a failed transfer
+     */
+    public void invalidate( String daemon, FTPClient client ) {
+        giveBack( daemon, client, false );
+    }
+
+    private void giveBack( String daemon, FTPClient client, boolean keep ) {
+        final Daemon pool = daemons.get( daemon );
+        if ( pool == null || !pool.borrowed.remove( client ) ) {
+            //The daemon was removed in the meantime
+            disconnect( client );
+            return;
+        }
+        if ( keep && !closed ) {
+            synchronized ( pool.idle ) {
+                pool.idle.addFirst( new IdleConnection( client, System.currentTimeMillis() ) );
+            }
+        } else {
+            disconnect( client );
+        }
+        pool.permits.release();
+    }
+
+    /**
+     * Closes the idle connections to a daemon that does not exist anymore
+     */
+    public void removeDaemon( String daemon ) {
+        final Daemon pool = daemons.remove( daemon );
+        if ( pool != null ) {
+            closeIdle( pool );
+        }
+    }
+
+    public void close() {
+        closed = true;
+        if ( sweeper != null ) {
+            sweeper.shutdownNow();
+        }
+        for ( Daemon pool : daemons.values() ) {
+            closeIdle( pool );
+        }
+        daemons.clear();
+    }
+
+    /**
+     * @return the most recently used idle connection, after closing the ones idle for too long
+     */
+    private FTPClient takeIdle( Daemon pool ) {
+        final List<FTPClient> expired = new LinkedList<>();
+        final IdleConnection connection;
+        synchronized ( pool.idle ) {
+            pollExpired( pool, expired );
+            connection = pool.idle.pollFirst();
+        }
+        expired.forEach( FtpConnectionPool::disconnect );
+        return connection == null ? null : connection.client;
+    }
+
+    /**
+     * Closes the connections of all daemons that are idle for too long
+     */
+    void closeExpired() {
+        final List<FTPClient> expired = new LinkedList<>();
+        for ( Daemon pool : daemons.values() ) {
+            synchronized ( pool.idle ) {
+                pollExpired( pool, expired );
+            }
+        }
+        expired.forEach( FtpConnectionPool::disconnect );
+    }
+
+    /**
+     * The oldest connections are at the end, the caller has to hold the lock of the idle connections
+     */
+    private void pollExpired( Daemon pool, List<FTPClient> expired ) {
+        final long now = System.currentTimeMillis();
+        while ( !pool.idle.isEmpty() && now - pool.idle.peekLast().since >= idleTimeoutMillis ) {
+            expired.add( pool.idle.pollLast().client );
+        }
+    }
+
+    private static void closeIdle( Daemon pool ) {
+        final List<IdleConnection> idle;
+        synchronized ( pool.idle ) {
+            idle = new ArrayList<>( pool.idle );
+            pool.idle.clear();
+        }
+        idle.forEach( connection -> disconnect( connection.client ) );
+    }
+
+    private static boolean isHealthy( FTPClient client ) {
+        try {
+            return client.isConnected() && client.sendNoOp();
+        } catch ( IOException e ) {
+            return false;
+        }
+    }
+
+    private static void disconnect( FTPClient client ) {
+        try {
+            if ( client.isConnected() ) {
+                client.disconnect();
+            }
+        } catch ( IOException e ) {
+            log.debug( "Cannot disconnect FTP client", e );
+        }
+    }
+
+}
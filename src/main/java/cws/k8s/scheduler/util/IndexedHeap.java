@@ -0,0 +1,187 @@
+package cws.k8s.scheduler.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Binary min-heap that knows the position of each element.
+ * If the key of an element changes, {@link #update(Comparable)} restores the order in O(log n),
+ * without removing and adding the element again.
+ * Elements are identified by identity, each element can only be contained once.
+ * Not thread safe.
+ */
+public class IndexedHeap<T extends Comparable<T>> {
+
+    private final List<T> heap;
+    private final Map<T, Integer> positions;
+
+    public IndexedHeap( Collection<T> collection ) {
+        heap = new ArrayList<>( collection.size() );
+        positions = new IdentityHashMap<>( collection.size() );
+        for ( T t : collection ) {
+            if ( !positions.containsKey( t ) ) {
+                positions.put( t, heap.size() );
+                heap.add( t );
+            }
+        }
+        heapify();
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    public boolean contains( T elem ) {
+        return positions.containsKey( elem );
+    }
+
+    /**
+     * @return false if the element is already contained
+     */
+    public boolean add( T elem ) {
+        if ( positions.containsKey( elem ) ) {
+            return false;
+        }
+        heap.add( elem );
+        positions.put( elem, heap.size() - 1 );
+        siftUp( heap.size() - 1 );
+        return true;
+    }
+
+    public void addAll( Collection<T> elements ) {
+        for ( T elem : elements ) {
+            add( elem );
+        }
+    }
+
+    /**
+     * @return the smallest element or null if the heap is empty
+     */
+    public T peek() {
+        return heap.isEmpty() ? null : heap.get( 0 );
+    }
+
+    /**
+     * Removes the smallest element
+     * @return the smallest element or null if the heap is empty
+     */
+    public T poll() {
+        if ( heap.isEmpty() ) {
+            return null;
+        }
+        return removeAt( 0 );
+    }
+
+    public boolean remove( T elem ) {
+        final Integer index = positions.get( elem );
+        if ( index == null ) {
+            return false;
+        }
+        removeAt( index );
+        return true;
+    }
+
+    /**
+     * Restores the heap order after the key of the element has changed, in both directions.
+     * @throws NoSuchElementException if the element is not contained
+     */
+    public void update( T elem ) {
+        final Integer index = positions.get( elem );
+        if ( index == null ) {
+            throw new NoSuchElementException( "Element is not in the heap: " + elem );
+        }
+        if ( siftUp( index ) == index ) {
+            siftDown( index );
+        }
+    }
+
+    public boolean removeIf( Predicate<T> filter ) {
+        final int before = heap.size();
+        heap.removeIf( elem -> {
+            if ( filter.test( elem ) ) {
+                positions.remove( elem );
+                return true;
+            }
+            return false;
+        } );
+        if ( heap.size() == before ) {
+            return false;
+        }
+        for ( int i = 0; i < heap.size(); i++ ) {
+            positions.put( heap.get( i ), i );
+        }
+        heapify();
+        return true;
+    }
+
+    private T removeAt( int index ) {
+        final T removed = heap.get( index );
+        positions.remove( removed );
+        final int lastIndex = heap.size() - 1;
+        final T last = heap.remove( lastIndex );
+        if ( index != lastIndex ) {
+            set( index, last );
+            if ( siftUp( index ) == index ) {
+                siftDown( index );
+            }
+        }
+        return removed;
+    }
+
+    private void heapify() {
+        for ( int i = heap.size() / 2 - 1; i >= 0; i-- ) {
+            siftDown( i );
+        }
+    }
+
+    /**
+     * @return the new index of the element
+     */
+    private int siftUp( int index ) {
+        final T elem = heap.get( index );
+        while ( index > 0 ) {
+            final int parent = ( index - 1 ) >>> 1;
+            final T parentElem = heap.get( parent );
+            if ( elem.compareTo( parentElem ) >= 0 ) {
+                break;
+            }
+            set( index, parentElem );
+            index = parent;
+        }
+        set( index, elem );
+        return index;
+    }
+
+    private void siftDown( int index ) {
+        final int size = heap.size();
+        final T elem = heap.get( index );
+        int child;
+        while ( ( child = 2 * index + 1 ) < size ) {
+            if ( child + 1 < size && heap.get( child + 1 ).compareTo( heap.get( child ) ) < 0 ) {
+                child++;
+            }
+            final T childElem = heap.get( child );
+            if ( elem.compareTo( childElem ) <= 0 ) {
+                break;
+            }
+            set( index, childElem );
+            index = child;
+        }
+        set( index, elem );
+    }
+
+    private void set( int index, T elem ) {
+        heap.set( index, elem );
+        positions.put( elem, index );
+    }
+
+}
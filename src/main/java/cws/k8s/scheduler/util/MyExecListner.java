@@ -4,6 +4,7 @@ import io.fabric8.kubernetes.client.dsl.ExecListener;
 import io.fabric8.kubernetes.client.dsl.ExecWatch;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 
 public interface MyExecListner extends ExecListener {
 
@@ -11,5 +12,13 @@ public interface MyExecListner extends ExecListener {
     void setError( ByteArrayOutputStream error );
     void setOut( ByteArrayOutputStream out );
 
+    /**
+     * @param out collects the output of the command
+     * @return the stream the output of the command is written to, override to process the output while it is written
+     */
+    default OutputStream wrapOutput( ByteArrayOutputStream out ) {
+        return out;
+    }
+
 
 }
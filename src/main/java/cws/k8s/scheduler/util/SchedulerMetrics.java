@@ -0,0 +1,274 @@
+package cws.k8s.scheduler.util;
+
+import cws.k8s.scheduler.model.location.NodeLocation;
+import cws.k8s.scheduler.util.copying.CurrentlyCopying;
+import io.fabric8.kubernetes.api.model.ContainerState;
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Meters of one execution, all tagged with the execution name.
+ * The scheduler registers them in {@link Metrics#globalRegistry}, Spring Boot adds the Prometheus registry to it,
+ * so they are exposed on /actuator/prometheus while the workflow is running.
+ */
+@Slf4j
+public class SchedulerMetrics {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final List<Meter> meters = new CopyOnWriteArrayList<>();
+    private final Set<NodeLocation> nodesWithCopyGauge = ConcurrentHashMap.newKeySet();
+
+    private final Timer schedulingRound;
+    private final Timer solveTime;
+    private final DistributionSummary solveVariables;
+    private final Counter greedyFallback;
+    private final DistributionSummary greedyGap;
+    private final Counter copyBytesPlanned;
+    private final Counter copyBytesCopied;
+    private final DistributionSummary memoryOverPredicted;
+    private final DistributionSummary memoryUnderPredicted;
+    private final Timer podEventLag;
+    private final Counter writerBlocked;
+    private final Timer writeBatchTime;
+    private final DistributionSummary writeBatchSize;
+
+    public SchedulerMetrics( MeterRegistry registry, String execution ) {
+        this.registry = registry;
+        this.tags = Tags.of( "execution", execution );
+        schedulingRound = add( Timer.builder( "cws.scheduler.round" )
+                .description( "Duration of one scheduling round" )
+                .tags( tags )
+                .publishPercentileHistogram()
+                .register( registry ) );
+        solveTime = add( Timer.builder( "cws.scheduler.solver.time" )
+                .description( "Time to create and solve the CP-SAT model for tasks with all data on a node" )
+                .tags( tags )
+                .publishPercentileHistogram()
+                .register( registry ) );
+        solveVariables = add( DistributionSummary.builder( "cws.scheduler.solver.variables" )
+                .description( "Number of task-node variables of the CP-SAT model" )
+                .tags( tags )
+                .register( registry ) );
+        greedyFallback = add( Counter.builder( "cws.scheduler.solver.fallback" )
+                .description( "Rounds that used the greedy plan instead of the CP-SAT solution" )
+                .tags( tags )
+                .register( registry ) );
+        greedyGap = add( DistributionSummary.builder( "cws.scheduler.solver.greedy.gap" )
+                .description( "Relative gap between the greedy plan and the bound of the CP-SAT solver" )
+                .tags( tags )
+                .register( registry ) );
+        copyBytesPlanned = add( Counter.builder( "cws.copy.bytes.planned" )
+                .description( "Bytes of started copy tasks" )
+                .baseUnit( "bytes" )
+                .tags( tags )
+                .register( registry ) );
+        copyBytesCopied = add( Counter.builder( "cws.copy.bytes.copied" )
+                .description( "Bytes of successfully finished copy tasks" )
+                .baseUnit( "bytes" )
+                .tags( tags )
+                .register( registry ) );
+        memoryOverPredicted = add( predictionError( "over" ) );
+        memoryUnderPredicted = add( predictionError( "under" ) );
+        podEventLag = add( Timer.builder( "cws.scheduler.pod.event.lag" )
+                .description( "Time between the last change of a pod and the handling of its event" )
+                .tags( tags )
+                .publishPercentileHistogram()
+                .register( registry ) );
+        writerBlocked = add( Counter.builder( "cws.writer.blocked" )
+                .description( "Writes that had to wait because the buffer of the file writer was full" )
+                .tags( tags )
+                .register( registry ) );
+        writeBatchTime = add( Timer.builder( "cws.writer.batch.time" )
+                .description( "Time to write one batch of buffered files" )
+                .tags( tags )
+                .register( registry ) );
+        writeBatchSize = add( DistributionSummary.builder( "cws.writer.batch.size" )
+                .description( "Number of writes handled in one batch" )
+                .tags( tags )
+                .register( registry ) );
+    }
+
+    /**
+     * Meters are not exported anywhere
+     */
+    public static SchedulerMetrics noop() {
+        return new SchedulerMetrics( new CompositeMeterRegistry(), "none" );
+    }
+
+    private DistributionSummary predictionError( String direction ) {
+        return DistributionSummary.builder( "cws.prediction.memory.error" )
+                .description( "Difference between the predicted memory request and the peak RSS of finished tasks" )
+                .baseUnit( "bytes" )
+                .tags( tags )
+                .tag( "direction", direction )
+                .register( registry );
+    }
+
+    private <T extends Meter> T add( T meter ) {
+        meters.add( meter );
+        return meter;
+    }
+
+    public void registerQueue( String queue, Collection<?> tasks ) {
+        add( Gauge.builder( "cws.scheduler.queue.size", tasks, Collection::size )
+                .description( "Number of tasks in the queue" )
+                .tags( tags )
+                .tag( "queue", queue )
+                .register( registry ) );
+    }
+
+    public void registerWriteQueue( Collection<?> queue ) {
+        add( Gauge.builder( "cws.writer.queue.size", queue, Collection::size )
+                .description( "Number of writes buffered by the file writer" )
+                .tags( tags )
+                .register( registry ) );
+    }
+
+    public int recordSchedulingRound( IntSupplier round ) {
+        final long start = System.nanoTime();
+        try {
+            return round.getAsInt();
+        } finally {
+            schedulingRound.record( System.nanoTime() - start, TimeUnit.NANOSECONDS );
+        }
+    }
+
+    public void recordSolve( long millis, int variables ) {
+        solveTime.record( millis, TimeUnit.MILLISECONDS );
+        solveVariables.record( variables );
+    }
+
+    public void recordGreedyFallback() {
+        greedyFallback.increment();
+    }
+
+    /**
+     * @param gap relative to the bound, 0 means the greedy plan is optimal
+     */
+    public void recordGreedyGap( double gap ) {
+        greedyGap.record( gap );
+    }
+
+    /**
+     * Registers a gauge for the copy tasks in flight to the node, if it does not exist yet
+     */
+    public void registerCopyTasksOnNode( NodeLocation node, CurrentlyCopying currentlyCopying ) {
+        if ( nodesWithCopyGauge.add( node ) ) {
+            add( Gauge.builder( "cws.copy.tasks.in.flight", currentlyCopying, c -> c.getNumberOfCopyTasksOnNode( node ) )
+                    .description( "Copy tasks currently running to the node" )
+                    .tags( tags )
+                    .tag( "node", node.getIdentifier() )
+                    .register( registry ) );
+        }
+    }
+
+    public void copyPlanned( long bytes ) {
+        copyBytesPlanned.increment( bytes );
+    }
+
+    public void copyFinished( long bytes ) {
+        copyBytesCopied.increment( bytes );
+    }
+
+    public void recordMemoryPrediction( long predictedBytes, long observedBytes ) {
+        if ( predictedBytes >= observedBytes ) {
+            memoryOverPredicted.record( predictedBytes - observedBytes );
+        } else {
+            memoryUnderPredicted.record( observedBytes - predictedBytes );
+        }
+    }
+
+    public void recordWriterBlocked() {
+        writerBlocked.increment();
+    }
+
+    public void recordWriteBatch( int writes, long nanos ) {
+        writeBatchSize.record( writes );
+        writeBatchTime.record( nanos, TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * The last change is the latest timestamp of the pod's metadata, conditions and container states.
+     * Kubernetes stores them with a precision of seconds.
+     */
+    public void recordPodEvent( Pod pod ) {
+        final Instant lastChange = lastChange( pod );
+        if ( lastChange != null ) {
+            final Duration lag = Duration.between( lastChange, Instant.now() );
+            if ( !lag.isNegative() ) {
+                podEventLag.record( lag );
+            }
+        }
+    }
+
+    static Instant lastChange( Pod pod ) {
+        Instant last = null;
+        if ( pod.getMetadata() != null ) {
+            last = later( last, pod.getMetadata().getCreationTimestamp() );
+            last = later( last, pod.getMetadata().getDeletionTimestamp() );
+        }
+        if ( pod.getStatus() != null ) {
+            if ( pod.getStatus().getConditions() != null ) {
+                for ( PodCondition condition : pod.getStatus().getConditions() ) {
+                    last = later( last, condition.getLastTransitionTime() );
+                }
+            }
+            if ( pod.getStatus().getContainerStatuses() != null ) {
+                for ( ContainerStatus status : pod.getStatus().getContainerStatuses() ) {
+                    final ContainerState state = status.getState();
+                    if ( state == null ) {
+                        continue;
+                    }
+                    if ( state.getRunning() != null ) {
+                        last = later( last, state.getRunning().getStartedAt() );
+                    }
+                    if ( state.getTerminated() != null ) {
+                        last = later( last, state.getTerminated().getFinishedAt() );
+                    }
+                }
+            }
+        }
+        return last;
+    }
+
+    private static Instant later( Instant current, String timestamp ) {
+        if ( timestamp == null ) {
+            return current;
+        }
+        try {
+            final Instant instant = Instant.parse( timestamp );
+            return current == null || instant.isAfter( current ) ? instant : current;
+        } catch ( DateTimeParseException e ) {
+            log.debug( "Cannot parse timestamp {}", timestamp );
+            return current;
+        }
+    }
+
+    /**
+     * Removes all meters of this execution from the registry
+     */
+    public void close() {
+        for ( Meter meter : meters ) {
+            registry.remove( meter );
+        }
+        meters.clear();
+        nodesWithCopyGauge.clear();
+    }
+
+}
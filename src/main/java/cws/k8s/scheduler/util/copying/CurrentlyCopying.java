@@ -8,8 +8,9 @@ import cws.k8s.scheduler.util.AlignmentWrapper;
 import cws.k8s.scheduler.util.FilePath;
 import lombok.ToString;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -17,86 +18,110 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Keeps track of what is currently being copied to all node and which copy tasks are running.
  * This is used to avoid copying the same data to a node multiple times and to overload a single node with copy tasks.
+ * The copy tasks per node and the nodes per task are replaced on every change, so reads never block and always see a consistent list.
  */
 @ToString
 public class CurrentlyCopying {
 
     private final Map<NodeLocation, CurrentlyCopyingOnNode> copyingToNode = new ConcurrentHashMap<>();
-    private final Map<NodeLocation, List<Task>> taskOnNodes = new HashMap<>();
-    private final Map<Task, List<NodeLocation>> nodesForTask = new HashMap<>();
+    private final Map<NodeLocation, List<Task>> taskOnNodes = new ConcurrentHashMap<>();
+    private final Map<Task, List<NodeLocation>> nodesForTask = new ConcurrentHashMap<>();
 
     public void add( Task task, NodeLocation nodeLocation, CurrentlyCopyingOnNode currentlyCopyingOnNode ) {
         if ( currentlyCopyingOnNode == null || currentlyCopyingOnNode.isEmpty() ) {
             return;
         }
-        copyingToNode.compute( nodeLocation, ( node, currentlyCopying ) -> {
-            if ( currentlyCopying == null ) {
-                return currentlyCopyingOnNode;
-            } else {
-                currentlyCopying.add( currentlyCopyingOnNode );
-                return currentlyCopying;
-            }
-        } );
+        get( nodeLocation ).add( currentlyCopyingOnNode );
         copyToNode( task, nodeLocation );
     }
 
     public CurrentlyCopyingOnNode get( NodeLocation nodeLocation ) {
-        return copyingToNode.computeIfAbsent( nodeLocation, node -> new CurrentlyCopyingOnNode() );
+        final CurrentlyCopyingOnNode currentlyCopying = copyingToNode.get( nodeLocation );
+        return currentlyCopying == null
+                ? copyingToNode.computeIfAbsent( nodeLocation, node -> new CurrentlyCopyingOnNode() )
+                : currentlyCopying;
     }
 
     public void remove( Task task, NodeLocation nodeLocation, CurrentlyCopyingOnNode currentlyCopyingOnNode ) {
         if ( currentlyCopyingOnNode == null || currentlyCopyingOnNode.isEmpty() ) {
             return;
         }
-        copyingToNode.compute( nodeLocation, ( node, currentlyCopying ) -> {
-            if ( currentlyCopying == null ) {
-                return null;
-            } else {
-                currentlyCopying.remove( currentlyCopyingOnNode );
-                return currentlyCopying;
-            }
-        } );
+        final CurrentlyCopyingOnNode currentlyCopying = copyingToNode.get( nodeLocation );
+        if ( currentlyCopying != null ) {
+            currentlyCopying.remove( currentlyCopyingOnNode );
+        }
         finishedCopyToNode( task, nodeLocation );
     }
 
-    private void copyToNode( Task task, NodeLocation node ){
-        synchronized ( this ) {
-            List<Task> tasks = taskOnNodes.computeIfAbsent( node, x -> new LinkedList<>() );
-            tasks.add( task );
-
-            List<NodeLocation> nodes = nodesForTask.computeIfAbsent( task, x -> new LinkedList<>() );
-            nodes.add( node );
+    /**
+     * Removes a single file that arrived on the node while its copy task is still running.
+     */
+    public void remove( NodeLocation nodeLocation, String path, CopySource source ) {
+        final CurrentlyCopyingOnNode currentlyCopying = copyingToNode.get( nodeLocation );
+        if ( currentlyCopying != null ) {
+            currentlyCopying.remove( path, source );
         }
     }
 
-    private void finishedCopyToNode( Task task, NodeLocation node ){
-        synchronized ( this ) {
-            List<Task> tasks = taskOnNodes.get( node );
-            if ( tasks != null ) {
-                tasks.remove( task );
+    /**
+     * @return what is copied to each node, later changes are not reflected
+     */
+    public Map<NodeLocation, CurrentlyCopyingOnNode> snapshot() {
+        final Map<NodeLocation, CurrentlyCopyingOnNode> result = new HashMap<>();
+        for ( Map.Entry<NodeLocation, CurrentlyCopyingOnNode> entry : copyingToNode.entrySet() ) {
+            final CurrentlyCopyingOnNode snapshot = entry.getValue().snapshot();
+            if ( !snapshot.isEmpty() ) {
+                result.put( entry.getKey(), snapshot );
             }
+        }
+        return result;
+    }
 
-            List<NodeLocation> nodes = nodesForTask.get( task );
-            if ( nodes != null ) {
-                nodes.remove( node );
-            }
+    private static <T> List<T> with( List<T> list, T element ) {
+        final List<T> result = new ArrayList<>( list == null ? 1 : list.size() + 1 );
+        if ( list != null ) {
+            result.addAll( list );
         }
+        result.add( element );
+        return Collections.unmodifiableList( result );
     }
-    
+
+    /**
+     * @return null if the list would be empty
+     */
+    private static <T> List<T> without( List<T> list, T element ) {
+        final List<T> result = new ArrayList<>( list );
+        result.remove( element );
+        return result.isEmpty() ? null : Collections.unmodifiableList( result );
+    }
+
+    private void copyToNode( Task task, NodeLocation node ){
+        taskOnNodes.compute( node, ( key, tasks ) -> with( tasks, task ) );
+        nodesForTask.compute( task, ( key, nodes ) -> with( nodes, node ) );
+    }
+
+    private void finishedCopyToNode( Task task, NodeLocation node ){
+        taskOnNodes.computeIfPresent( node, ( key, tasks ) -> without( tasks, task ) );
+        nodesForTask.computeIfPresent( task, ( key, nodes ) -> without( nodes, node ) );
+    }
+
+    /**
+     * @return the copy tasks running when called, cannot be modified
+     */
     public List<Task> getTasksOnNode( NodeLocation nodeLocation ) {
-        synchronized ( this ) {
-            return taskOnNodes.getOrDefault( nodeLocation, new LinkedList<>() );
-        }
+        return taskOnNodes.getOrDefault( nodeLocation, Collections.emptyList() );
     }
 
     public int getNumberOfNodesForTask( Task task ) {
-        final List<NodeLocation> nodeLocations;
-        synchronized ( this ) {
-            nodeLocations = nodesForTask.get( task );
-        }
+        final List<NodeLocation> nodeLocations = nodesForTask.get( task );
         return nodeLocations == null ? 0 : nodeLocations.size();
     }
 
+    public int getNumberOfCopyTasksOnNode( NodeLocation nodeLocation ) {
+        final List<Task> tasks = taskOnNodes.get( nodeLocation );
+        return tasks == null ? 0 : tasks.size();
+    }
+
     public Map<NodeLocation, Integer> getCurrentlyCopyingTasksOnNode() {
         Map<NodeLocation, Integer> result = new HashMap<>();
         for ( Map.Entry<NodeLocation, List<Task>> entry : taskOnNodes.entrySet() ) {
@@ -116,6 +141,4 @@ public class CurrentlyCopying {
         }
     }
 
-
-
 }
@@ -3,68 +3,87 @@ package cws.k8s.scheduler.util.copying;
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.model.location.Location;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Keeps track of what is currently being copied to a node.
  * This is used to avoid copying the same data to a node multiple times.
+ * Reads do not block, they are called concurrently for many tasks while planning.
  */
 public class CurrentlyCopyingOnNode {
 
-    private final Map< String, CopySource> currentlyCopying = new HashMap<>();
+    /**
+     * Nothing is copied, cannot be modified
+     */
+    public static final CurrentlyCopyingOnNode EMPTY = new CurrentlyCopyingOnNode( Map.of() );
+
+    private final Map< String, CopySource> currentlyCopying;
+
+    public CurrentlyCopyingOnNode() {
+        this.currentlyCopying = new ConcurrentHashMap<>();
+    }
+
+    private CurrentlyCopyingOnNode( Map< String, CopySource> currentlyCopying ) {
+        this.currentlyCopying = currentlyCopying;
+    }
 
     public void add( String path, Task task, Location location ) {
-        synchronized ( this.currentlyCopying ) {
-            if ( !this.currentlyCopying.containsKey( path ) ) {
-                this.currentlyCopying.put( path, new CopySource( task, location ) );
-            } else {
-                throw new IllegalStateException( "Already copying " + path );
-            }
+        if ( this.currentlyCopying.putIfAbsent( path, new CopySource( task, location ) ) != null ) {
+            throw new IllegalStateException( "Already copying " + path );
         }
     }
 
     public boolean isCurrentlyCopying( String path ) {
-        synchronized ( this.currentlyCopying ) {
-            return this.currentlyCopying.containsKey( path );
-        }
+        return this.currentlyCopying.containsKey( path );
     }
 
     public CopySource getCopySource( String path ) {
-        synchronized ( this.currentlyCopying ) {
-            return this.currentlyCopying.get( path );
-        }
+        return this.currentlyCopying.get( path );
     }
 
     void add ( CurrentlyCopyingOnNode currentlyCopying ) {
-        synchronized ( this.currentlyCopying ) {
-            this.currentlyCopying.putAll( currentlyCopying.currentlyCopying );
-        }
+        this.currentlyCopying.putAll( currentlyCopying.currentlyCopying );
     }
 
+    /**
+     * Only removes the files if they are still copied from the same source
+     */
     void remove ( CurrentlyCopyingOnNode currentlyCopying ) {
-        synchronized ( this.currentlyCopying ) {
-            this.currentlyCopying.keySet().removeAll( currentlyCopying.currentlyCopying.keySet() );
+        for ( Map.Entry<String, CopySource> entry : currentlyCopying.currentlyCopying.entrySet() ) {
+            remove( entry.getKey(), entry.getValue() );
         }
     }
 
+    /**
+     * Only removes the file if it is still copied from the given source
+     */
+    void remove( String path, CopySource source ) {
+        this.currentlyCopying.remove( path, source );
+    }
+
+    /**
+     * @return a read-only view, which reflects later changes
+     */
     public Set<String> getAllFilesCurrentlyCopying() {
-        synchronized ( this.currentlyCopying ) {
-            return this.currentlyCopying.keySet();
-        }
+        return Collections.unmodifiableSet( this.currentlyCopying.keySet() );
     }
 
     public boolean isEmpty() {
-        synchronized ( this.currentlyCopying ) {
-            return this.currentlyCopying.isEmpty();
-        }
+        return this.currentlyCopying.isEmpty();
+    }
+
+    /**
+     * @return a copy that does not change anymore and cannot be modified
+     */
+    public CurrentlyCopyingOnNode snapshot() {
+        return currentlyCopying.isEmpty() ? EMPTY : new CurrentlyCopyingOnNode( Map.copyOf( currentlyCopying ) );
     }
 
     @Override
     public String toString() {
-        synchronized ( this.currentlyCopying ) {
-            return this.currentlyCopying.keySet().toString();
-        }
+        return this.currentlyCopying.keySet().toString();
     }
 }
@@ -164,6 +164,97 @@ class DAGTest {
         }
     }
 
+    @Test
+    void testRelationsBulk() {
+        for (int q = 0; q < 100 ; q++) {
+            final DAG dag = new DAG();
+            List<Vertex> vertexList = genVertexList();
+            List<InputEdge> inputEdges = genEdgeList();
+            for (int i = 0; i < 100; i++) {
+                int index = new Random().nextInt( inputEdges.size() );
+                final InputEdge remove = inputEdges.remove(index);
+                final Vertex operator = new Operator("Operator", vertexList.size() + 1 );
+                vertexList.add( operator );
+                inputEdges.add( new InputEdge( 100 + i * 2, remove.getFrom(), operator.getUid() ) );
+                inputEdges.add( new InputEdge( 100 + i * 2 + 1, operator.getUid(), remove.getTo() ) );
+            }
+            dag.registerBulk( vertexList, inputEdges );
+            expectedResult ( vertexList );
+            // rank counts the processes on the longest path below a vertex
+            Assertions.assertEquals( 6, dag.getByUid( 13 ).getRank() );
+            Assertions.assertEquals( 5, dag.getByUid( 1 ).getRank() );
+            Assertions.assertEquals( 4, dag.getByUid( 4 ).getRank() );
+            Assertions.assertEquals( 0, dag.getByUid( 12 ).getRank() );
+        }
+    }
+
+    @Test
+    void bulkIsSameAsIncremental() {
+        final DAG incremental = new DAG();
+        final List<Vertex> incrementalVertices = genVertexList();
+        final List<InputEdge> edges = genEdgeList();
+        incremental.registerVertices( incrementalVertices );
+        incremental.registerEdges( edges );
+
+        final DAG bulk = new DAG();
+        final List<Vertex> bulkVertices = genVertexList();
+        bulk.registerBulk( bulkVertices, edges );
+
+        for (Vertex vertex : incrementalVertices) {
+            final Vertex other = bulk.getByUid( vertex.getUid() );
+            if ( vertex.getType() == Type.PROCESS ) {
+                Assertions.assertEquals( vertex.getRank(), other.getRank(), "Rank of " + vertex.getUid() );
+            }
+            Assertions.assertArrayEquals( setToArrayEdges( vertex.getIn() ), setToArrayEdges( other.getIn() ) );
+            Assertions.assertArrayEquals( setToArrayEdges( vertex.getOut() ), setToArrayEdges( other.getOut() ) );
+        }
+        expectedResult( bulkVertices );
+
+        // the DAG can still be changed incrementally afterwards
+        bulk.removeEdges( 14 );
+        incremental.removeEdges( 14 );
+        for (Vertex vertex : incrementalVertices) {
+            final Vertex other = bulk.getByUid( vertex.getUid() );
+            if ( vertex.getType() == Type.PROCESS ) {
+                Assertions.assertEquals( vertex.getRank(), other.getRank(), "Rank of " + vertex.getUid() );
+            }
+            Assertions.assertArrayEquals( setToArrayProcesses( vertex.getAncestors() ), setToArrayProcesses( other.getAncestors() ) );
+            Assertions.assertArrayEquals( setToArrayProcesses( vertex.getDescendants() ), setToArrayProcesses( other.getDescendants() ) );
+        }
+    }
+
+    @Test
+    void bulkRejectsCycles() {
+        final DAG dag = new DAG();
+        final List<Vertex> vertexList = Arrays.asList( new Process("a", 1), new Process("b", 2) );
+        final List<InputEdge> inputEdges = Arrays.asList( new InputEdge(1, 1, 2), new InputEdge(2, 2, 1) );
+        assertThrows( IllegalStateException.class, () -> dag.registerBulk( vertexList, inputEdges ) );
+        // nothing was registered
+        assertThrows( IllegalStateException.class, () -> dag.getByUid( 1 ) );
+        assertThrows( IllegalStateException.class, () -> dag.getByProcess( "a" ) );
+    }
+
+    @Test
+    void bulkCycleWithRegisteredVerticesLeavesDagUnchanged() {
+        final DAG dag = new DAG();
+        final Process a = new Process("a", 1);
+        final Process b = new Process("b", 2);
+        dag.registerBulk( Arrays.asList( a, b ), List.of( new InputEdge(1, 1, 2) ) );
+
+        final Process c = new Process("c", 3);
+        final List<InputEdge> cycle = Arrays.asList( new InputEdge(2, 2, 3), new InputEdge(3, 3, 1) );
+        assertThrows( IllegalStateException.class, () -> dag.registerBulk( List.of( c ), cycle ) );
+        assertThrows( IllegalStateException.class, () -> dag.getByUid( 3 ) );
+        Assertions.assertEquals( 1, a.getOut().size() );
+        Assertions.assertEquals( 0, a.getIn().size() );
+        Assertions.assertEquals( 0, b.getOut().size() );
+        Assertions.assertEquals( Set.of( b ), a.getDescendants() );
+
+        // the DAG can still be extended
+        dag.registerBulk( List.of( c ), List.of( new InputEdge(2, 2, 3) ) );
+        Assertions.assertEquals( Set.of( b, c ), a.getDescendants() );
+    }
+
     @Test
     void smallTest(){
 
@@ -212,6 +303,53 @@ class DAGTest {
 
     }
 
+    @Test
+    void isAncestorTest() {
+        final DAG dag = new DAG();
+        List<Vertex> vertexList = genVertexList();
+        dag.registerVertices( vertexList );
+        dag.registerEdges( genEdgeList() );
+        for ( Vertex v : vertexList ) {
+            if ( v.getType() != Type.PROCESS ) {
+                continue;
+            }
+            final Process p = (Process) v;
+            for ( Vertex w : vertexList ) {
+                if ( w.getType() != Type.PROCESS ) {
+                    continue;
+                }
+                final Process q = (Process) w;
+                Assertions.assertEquals( q.getAncestors().contains( p ), dag.isAncestor( p, q ), p.getLabel() + " -> " + q.getLabel() );
+                Assertions.assertEquals( p.getDescendants().contains( q ), p.hasDescendant( q ), p.getLabel() + " -> " + q.getLabel() );
+            }
+        }
+        final Process b = dag.getByProcess( "b" );
+        final Process g = dag.getByProcess( "g" );
+        final Process l = dag.getByProcess( "l" );
+        Assertions.assertTrue( dag.isAncestor( b, g ) );
+        Assertions.assertTrue( dag.isAncestor( b, l ) );
+        Assertions.assertFalse( dag.isAncestor( g, b ) );
+
+        //g is only reachable via c -> g (edge 6)
+        dag.removeEdges( 6 );
+        Assertions.assertFalse( dag.isAncestor( b, g ) );
+        Assertions.assertFalse( b.hasDescendant( g ) );
+        Assertions.assertTrue( dag.isAncestor( b, l ) );
+    }
+
+    @Test
+    void isAncestorForProcessOfOtherDag() {
+        final DAG dag1 = new DAG();
+        final DAG dag2 = new DAG();
+        final Process a = new Process( "a", 1 );
+        final Process b = new Process( "b", 1 );
+        dag1.registerVertices( List.of( a ) );
+        dag2.registerVertices( List.of( b ) );
+        Assertions.assertFalse( dag1.isAncestor( b, a ) );
+        Assertions.assertFalse( a.hasDescendant( b ) );
+        Assertions.assertThrows( IllegalStateException.class, () -> dag2.registerVertices( List.of( a ) ) );
+    }
+
     /**
      *
      *               o
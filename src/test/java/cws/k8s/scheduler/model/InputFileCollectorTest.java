@@ -230,4 +230,148 @@ class InputFileCollectorTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void cachedInputsAreDroppedWhenAFileChanges() throws NoAlignmentFoundException {
+
+        final String root = "/workdir/00/db62d739d658b839f07a1a77d877df/";
+        final String root2 = "/workdir/01/db62d739d658b839f07a1a77d877d1/";
+
+        final HierarchyWrapper hierarchyWrapper = new HierarchyWrapper("/workdir/");
+        final Path path1 = Paths.get(root + "a.txt");
+        final Path path2 = Paths.get(root2 + "b.txt");
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path1, location11) );
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path2, location21) );
+
+        final InputFileCollector inputFileCollector = new InputFileCollector( hierarchyWrapper, true );
+        DAG dag = new DAG();
+        dag.registerVertices( List.of( new Process("processA", 1) ) );
+
+        final TaskConfig taskConfigA = new TaskConfig("processA");
+        taskConfigA.getInputs().fileInputs.add( new InputParam<>("a", new FileHolder(null, path1.toString(), null)) );
+        final Task taskA = new Task(taskConfigA, dag);
+        final TaskConfig taskConfigB = new TaskConfig("processA");
+        taskConfigB.getInputs().fileInputs.add( new InputParam<>("b", new FileHolder(null, path2.toString(), null)) );
+        final Task taskB = new Task(taskConfigB, dag);
+
+        final TaskInputs inputsA = inputFileCollector.getInputsOfTask(taskA, Integer.MAX_VALUE);
+        final TaskInputs inputsB = inputFileCollector.getInputsOfTask(taskB, Integer.MAX_VALUE);
+        Assertions.assertSame( inputsA, inputFileCollector.getInputsOfTask(taskA, Integer.MAX_VALUE) );
+
+        //Other files do not matter
+        Assertions.assertNotNull( hierarchyWrapper.addFile(Paths.get(root2 + "c.txt"), location23) );
+        inputFileCollector.newRound();
+        Assertions.assertSame( inputsA, inputFileCollector.getInputsOfTask(taskA, Integer.MAX_VALUE) );
+        Assertions.assertSame( inputsB, inputFileCollector.getInputsOfTask(taskB, Integer.MAX_VALUE) );
+
+        //Only the task using the file is resolved again
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path1, location12) );
+        inputFileCollector.newRound();
+        final TaskInputs newInputsA = inputFileCollector.getInputsOfTask(taskA, Integer.MAX_VALUE);
+        Assertions.assertNotSame( inputsA, newInputsA );
+        Assertions.assertEquals( Set.of( location11, location12 ), new HashSet<>( newInputsA.getFiles().get( 0 ).locations ) );
+        Assertions.assertSame( inputsB, inputFileCollector.getInputsOfTask(taskB, Integer.MAX_VALUE) );
+
+        //Deactivated locations
+        ((RealHierarchyFile) hierarchyWrapper.getFile(path2)).removeLocation( location21 );
+        inputFileCollector.newRound();
+        Assertions.assertThrows( NoAlignmentFoundException.class, () -> inputFileCollector.getInputsOfTask(taskB, Integer.MAX_VALUE) );
+
+        inputFileCollector.forget( taskA );
+        Assertions.assertNotSame( newInputsA, inputFileCollector.getInputsOfTask(taskA, Integer.MAX_VALUE) );
+    }
+
+    @Test
+    void cachedInputsOfFoldersAreDroppedWhenFilesAreAdded() throws NoAlignmentFoundException {
+
+        final String root = "/workdir/00/db62d739d658b839f07a1a77d877df/";
+
+        final HierarchyWrapper hierarchyWrapper = new HierarchyWrapper("/workdir/");
+        Assertions.assertNotNull( hierarchyWrapper.addFile(Paths.get(root + "a/b.txt"), location11) );
+
+        final InputFileCollector inputFileCollector = new InputFileCollector( hierarchyWrapper, true );
+        DAG dag = new DAG();
+        dag.registerVertices( List.of( new Process("processA", 1) ) );
+        final TaskConfig taskConfig = new TaskConfig("processA");
+        taskConfig.getInputs().fileInputs.add( new InputParam<>("a", new FileHolder(null, root + "a", null)) );
+        final Task task = new Task(taskConfig, dag);
+
+        final TaskInputs inputs = inputFileCollector.getInputsOfTask(task, Integer.MAX_VALUE);
+        Assertions.assertEquals( 1, inputs.getFiles().size() );
+        inputFileCollector.newRound();
+        Assertions.assertSame( inputs, inputFileCollector.getInputsOfTask(task, Integer.MAX_VALUE) );
+
+        Assertions.assertNotNull( hierarchyWrapper.addFile(Paths.get(root + "a/c.txt"), location12) );
+        inputFileCollector.newRound();
+        Assertions.assertEquals( 2, inputFileCollector.getInputsOfTask(task, Integer.MAX_VALUE).getFiles().size() );
+    }
+
+    @Test
+    void cachedInputsAreDroppedWhenTheUsageChanges() throws NoAlignmentFoundException {
+
+        final String root = "/workdir/00/db62d739d658b839f07a1a77d877df/";
+
+        final HierarchyWrapper hierarchyWrapper = new HierarchyWrapper("/workdir/");
+        final Path path1 = Paths.get(root + "a.txt");
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path1, location11) );
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path1, location12) );
+        //outdated version on Node1
+        location11.deactivate();
+
+        final InputFileCollector inputFileCollector = new InputFileCollector( hierarchyWrapper, true );
+        DAG dag = new DAG();
+        dag.registerVertices( List.of( new Process("processA", 1) ) );
+        final TaskConfig taskConfig = new TaskConfig("processA");
+        taskConfig.getInputs().fileInputs.add( new InputParam<>("a", new FileHolder(null, path1.toString(), null)) );
+        final Task task = new Task(taskConfig, dag);
+
+        final TaskInputs inputs = inputFileCollector.getInputsOfTask(task, Integer.MAX_VALUE);
+        Assertions.assertTrue( inputs.canRunOnLoc( NodeLocation.getLocation( "Node1" ) ) );
+
+        //a task still reads the outdated version
+        location11.use();
+        inputFileCollector.newRound();
+        final TaskInputs used = inputFileCollector.getInputsOfTask(task, Integer.MAX_VALUE);
+        Assertions.assertNotSame( inputs, used );
+        Assertions.assertFalse( used.canRunOnLoc( NodeLocation.getLocation( "Node1" ) ) );
+
+        location11.free();
+        inputFileCollector.newRound();
+        Assertions.assertTrue( inputFileCollector.getInputsOfTask(task, Integer.MAX_VALUE).canRunOnLoc( NodeLocation.getLocation( "Node1" ) ) );
+    }
+
+    @Test
+    void cachedInputsSeeLocationsUsedInTheSameRound() throws NoAlignmentFoundException {
+
+        final String root = "/workdir/00/db62d739d658b839f07a1a77d877df/";
+
+        final HierarchyWrapper hierarchyWrapper = new HierarchyWrapper("/workdir/");
+        final Path path1 = Paths.get(root + "a.txt");
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path1, location11) );
+        Assertions.assertNotNull( hierarchyWrapper.addFile(path1, location12) );
+        //outdated version on Node1
+        location11.deactivate();
+
+        final InputFileCollector inputFileCollector = new InputFileCollector( hierarchyWrapper, true );
+        DAG dag = new DAG();
+        dag.registerVertices( List.of( new Process("processA", 1) ) );
+        final TaskConfig taskConfigA = new TaskConfig("processA");
+        taskConfigA.getInputs().fileInputs.add( new InputParam<>("a", new FileHolder(null, path1.toString(), null)) );
+        final Task taskA = new Task(taskConfigA, dag);
+        final TaskConfig taskConfigB = new TaskConfig("processA");
+        taskConfigB.getInputs().fileInputs.add( new InputParam<>("a", new FileHolder(null, path1.toString(), null)) );
+        final Task taskB = new Task(taskConfigB, dag);
+
+        //planning of the round
+        inputFileCollector.newRound();
+        Assertions.assertTrue( inputFileCollector.getInputsOfTask(taskA, Integer.MAX_VALUE).canRunOnLoc( NodeLocation.getLocation( "Node1" ) ) );
+        Assertions.assertTrue( inputFileCollector.getInputsOfTask(taskB, Integer.MAX_VALUE).canRunOnLoc( NodeLocation.getLocation( "Node1" ) ) );
+
+        //taskA is submitted and still reads the outdated version
+        location11.use();
+        inputFileCollector.forget( taskA );
+
+        //postScheduling of the same round must not place taskB on Node1
+        Assertions.assertFalse( inputFileCollector.getInputsOfTask(taskB, Integer.MAX_VALUE).canRunOnLoc( NodeLocation.getLocation( "Node1" ) ) );
+    }
+
+}
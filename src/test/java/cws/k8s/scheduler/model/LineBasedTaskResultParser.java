@@ -0,0 +1,171 @@
+package cws.k8s.scheduler.model;
+
+import cws.k8s.scheduler.model.location.Location;
+import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
+import cws.k8s.scheduler.model.outfiles.OutputFile;
+import cws.k8s.scheduler.model.outfiles.PathLocationWrapperPair;
+import cws.k8s.scheduler.model.outfiles.SymlinkOutput;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The former String based implementation of {@link TaskResultParser#getNewAndUpdatedFiles(Path, Location, boolean, Task)},
+ * used as a reference for the byte level parser.
+ */
+@Slf4j
+class LineBasedTaskResultParser {
+
+    private String getIndex( File file, int index ){
+        try ( Scanner sc  = new Scanner( file ) ) {
+            int i = 0;
+            while( sc.hasNext() && i++ < index ) {
+                sc.nextLine();
+            }
+            if ( sc.hasNext() ) {
+                return sc.nextLine();
+            }
+        } catch (FileNotFoundException e) {
+            log.error( "Cannot read " + file, e);
+        }
+        return null;
+    }
+
+    private void processInput( Stream<String> in, final Set<String> inputdata ){
+        in.skip( 2 )
+                .forEach( line -> {
+                    String[] data = line.split(";");
+                    if( data[ TaskResultParser.FILE_EXISTS ].equals("0") ) {
+                        return;
+                    }
+                    if ( data[ TaskResultParser.FILE_TYPE_INPUT ].equals("directory") ) {
+                       return;
+                    }
+                    String path = data[ TaskResultParser.REAL_PATH ].equals("") ? data[ TaskResultParser.VIRTUAL_PATH ]  : data[ TaskResultParser.REAL_PATH ];
+                    inputdata.add( path );
+                });
+    }
+
+    private String getRootDir( File file, int index ){
+        String data = getIndex( file, index );
+        if ( data == null ) {
+            return null;
+        }
+        return data.split(";")[0];
+    }
+
+    private Long getDateDir(File file ){
+        String data = getIndex( file, 0 );
+        if ( data == null ) {
+            return null;
+        }
+        return Long.parseLong( data );
+    }
+
+    private Set<OutputFile> processOutput(
+            final Stream<String> out,
+            final Set<String> inputdata,
+            final Location location,
+            final boolean onlyUpdated,
+            final Task finishedTask,
+            final String outputRootDir,
+            final long initailDate
+            ){
+        final Set<OutputFile> newOrUpdated = new HashSet<>();
+        out.skip( 1 )
+                .forEach( line -> {
+                    String[] data = line.split(";");
+                    if( data[ TaskResultParser.FILE_EXISTS ].equals("0") && data.length != 8 ) {
+                        return;
+                    }
+                    boolean isSymlink = !data[ TaskResultParser.REAL_PATH ].equals("");
+                    String path = isSymlink ? data[ TaskResultParser.REAL_PATH ] : data[ TaskResultParser.VIRTUAL_PATH ];
+                    String modificationDate = data[ TaskResultParser.MODIFICATION_DATE ];
+                    if ( "directory".equals( data[ TaskResultParser.FILE_TYPE ] ) ) {
+                        return;
+                    }
+                    String lockupPath = isSymlink ? path : path.substring( outputRootDir.length() );
+                    long modificationDateNano = Long.parseLong( modificationDate );
+                    if ( ( !inputdata.contains(lockupPath) && !onlyUpdated )
+                            ||
+                            modificationDateNano > initailDate )
+                    {
+                        final LocationWrapper locationWrapper = new LocationWrapper(
+                                location,
+                                modificationDateNano / (int) 1.0E6,
+                                Long.parseLong(data[ TaskResultParser.SIZE ]),
+                                finishedTask
+                        );
+                        newOrUpdated.add( new PathLocationWrapperPair( Paths.get(path), locationWrapper ) );
+                    }
+                    if( isSymlink ){
+                        newOrUpdated.add( new SymlinkOutput( data[ TaskResultParser.VIRTUAL_PATH ], path ));
+                    }
+                });
+        return newOrUpdated;
+    }
+
+    /**
+     * @param workdir
+     * @param location
+     * @param onlyUpdated
+     * @param finishedTask
+     * @return A list of all new or updated files
+     */
+    public Set<OutputFile> getNewAndUpdatedFiles(
+            final Path workdir,
+            final Location location,
+            final boolean onlyUpdated,
+            Task finishedTask
+    ){
+
+        final Path infile = workdir.resolve(".command.infiles");
+        final Path outfile = workdir.resolve(".command.outfiles");
+        if ( !outfile.toFile().exists() ) {
+            log.error( "Cannot find outfile " + infile );
+            return new HashSet<>();
+        }
+
+        final String taskRootDir = getRootDir( infile.toFile(), 1 );
+        if( taskRootDir == null
+                && (finishedTask.getInputFiles() == null || finishedTask.getInputFiles().isEmpty()) ) {
+            throw new IllegalStateException("taskRootDir is null");
+        }
+
+
+        final String outputRootDir = getRootDir( outfile.toFile(), 0 );
+        //No outputs defined / found
+        if( outputRootDir == null ) {
+            return new HashSet<>();
+        }
+
+        final Set<String> inputdata = new HashSet<>();
+
+
+        try (
+                Stream<String> in = Files.lines(infile);
+                Stream<String> out = Files.lines(outfile)
+        ) {
+
+            processInput( in, inputdata );
+            log.trace( "{}", inputdata );
+            final Long initialDate = getDateDir( infile.toFile() );
+            return processOutput( out, inputdata, location, onlyUpdated, finishedTask, outputRootDir, initialDate );
+
+        } catch (IOException e) {
+            log.error( "Cannot read in/outfile in workdir: " + workdir, e);
+        }
+        return new HashSet<>();
+
+    }
+
+}
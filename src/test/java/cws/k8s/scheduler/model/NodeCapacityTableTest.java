@@ -0,0 +1,108 @@
+package cws.k8s.scheduler.model;
+
+import io.fabric8.kubernetes.api.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeCapacityTableTest {
+
+    private NodeWithAlloc createNode( String name ) {
+        final Node node = new NodeBuilder()
+                .withApiVersion( "v1" )
+                .withKind( "Node" )
+                .withNewMetadata().withName( name ).endMetadata()
+                .withNewSpec().endSpec()
+                .withNewStatus()
+                .addToAllocatable( "cpu", new Quantity( "4" ) )
+                .addToAllocatable( "memory", new Quantity( "8Gi" ) )
+                .addNewCondition().withType( "Ready" ).withStatus( "True" ).endCondition()
+                .endStatus()
+                .build();
+        return new NodeWithAlloc( node, null );
+    }
+
+    private PodWithAge createPod( String name, String cpu, String memory ) {
+        final Pod pod = new PodBuilder()
+                .withNewMetadata().withName( name ).withNamespace( "default" ).endMetadata()
+                .withNewSpec()
+                .addNewContainer()
+                .withNewResources()
+                .addToRequests( "cpu", new Quantity( cpu ) )
+                .addToRequests( "memory", new Quantity( memory ) )
+                .endResources()
+                .endContainer()
+                .endSpec()
+                .build();
+        return new PodWithAge( pod );
+    }
+
+    @Test
+    void snapshotIsReusedUntilCapacityChanges() {
+        final NodeCapacityTable table = new NodeCapacityTable();
+        final NodeWithAlloc node = createNode( "a" );
+        table.addNode( node );
+
+        final NodeCapacitySnapshot first = table.getSnapshot();
+        assertSame( first, table.getSnapshot() );
+        assertEquals( Requirements.of( 4000, 8L * 1024 * 1024 * 1024 ), first.getAvailable( node ) );
+
+        final PodWithAge pod = createPod( "p1", "500m", "1Gi" );
+        node.addPod( pod );
+        final NodeCapacitySnapshot second = table.getSnapshot();
+        assertNotSame( first, second );
+        assertTrue( second.getVersion() > first.getVersion() );
+        assertEquals( Requirements.of( 3500, 7L * 1024 * 1024 * 1024 ), second.getAvailable( node ) );
+        // the old snapshot is not changed
+        assertEquals( Requirements.of( 4000, 8L * 1024 * 1024 * 1024 ), first.getAvailable( node ) );
+
+        assertTrue( node.removePod( pod ) );
+        assertFalse( node.removePod( pod ) );
+        assertEquals( Requirements.of( 4000, 8L * 1024 * 1024 * 1024 ), table.getSnapshot().getAvailable( node ) );
+    }
+
+    @Test
+    void snapshotIsImmutable() {
+        final NodeCapacityTable table = new NodeCapacityTable();
+        final NodeWithAlloc node = createNode( "a" );
+        table.addNode( node );
+        final NodeCapacitySnapshot snapshot = table.getSnapshot();
+        assertThrows( IllegalStateException.class, () -> snapshot.getAvailable( node ).subFromThis( Requirements.of( 1, 1 ) ) );
+        assertThrows( UnsupportedOperationException.class, () -> snapshot.getAvailableByNode().remove( node ) );
+
+        final var mutable = snapshot.toMutableMap();
+        mutable.get( node ).subFromThis( Requirements.of( 1000, 0 ) );
+        assertEquals( new BigDecimal( 3 ), mutable.get( node ).getCpu() );
+        assertEquals( new BigDecimal( 4 ), snapshot.getAvailable( node ).getCpu() );
+    }
+
+    @Test
+    void addAndRemoveNodes() {
+        final NodeCapacityTable table = new NodeCapacityTable();
+        final NodeWithAlloc a = createNode( "a" );
+        final NodeWithAlloc b = createNode( "b" );
+        table.addNode( a );
+        table.addNode( b );
+        assertEquals( 2, table.getSnapshot().size() );
+        table.removeNode( a );
+        final NodeCapacitySnapshot snapshot = table.getSnapshot();
+        assertEquals( 1, snapshot.size() );
+        assertNull( snapshot.getAvailable( a ) );
+
+        // removed nodes do not invalidate the snapshot anymore
+        a.addPod( createPod( "p1", "1", "1Gi" ) );
+        assertSame( snapshot, table.getSnapshot() );
+    }
+
+    @Test
+    void replacedPodIsNotCountedTwice() {
+        final NodeWithAlloc node = createNode( "a" );
+        node.addPod( createPod( "p1", "1", "1Gi" ) );
+        node.addPod( createPod( "p1", "2", "1Gi" ) );
+        assertEquals( Requirements.of( 2000, 1024L * 1024 * 1024 ), node.getRequestedResources() );
+        assertEquals( Requirements.of( 2000, 7L * 1024 * 1024 * 1024 ), node.getAvailableResources() );
+    }
+
+}
@@ -217,4 +217,40 @@ class RequirementsTest {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    void fractionalCpu() {
+        Requirements a = new Requirements( new BigDecimal( "1.5" ), BigDecimal.valueOf( 6 ) );
+        assertEquals( 1500, a.getCpuInMilli() );
+        assertEquals( 6, a.getRamInBytes() );
+        assertEquals( new BigDecimal( "1.5" ), a.getCpu() );
+        Requirements b = new Requirements( new BigDecimal( "0.25" ), BigDecimal.valueOf( 6 ) );
+        assertEquals( 1750, a.add( b ).getCpuInMilli() );
+        assertEquals( new BigDecimal( "1.75" ), a.add( b ).getCpu() );
+        assertEquals( BigDecimal.valueOf( 2 ), a.add( b ).add( b ).getCpu() );
+    }
+
+    @Test
+    void roundUpToMilliCpu() {
+        Requirements a = new Requirements( new BigDecimal( "0.0001" ), new BigDecimal( "0.5" ) );
+        assertEquals( 1, a.getCpuInMilli() );
+        assertEquals( 1, a.getRamInBytes() );
+    }
+
+    @Test
+    void of() {
+        Requirements a = Requirements.of( 2500, 1024 );
+        assertEquals( new Requirements( new BigDecimal( "2.5" ), BigDecimal.valueOf( 1024 ) ), a );
+        assertTrue( a.higherOrEquals( Requirements.of( 2500, 1024 ) ) );
+        assertFalse( a.higherOrEquals( Requirements.of( 2501, 1024 ) ) );
+    }
+
+    @Test
+    void immutableCopy() {
+        Requirements a = Requirements.of( 2500, 1024 );
+        Requirements b = new ImmutableRequirements( a );
+        assertEquals( a, b );
+        assertThrows( IllegalStateException.class, () -> b.subFromThis( a ) );
+        assertEquals( a, b.clone().subFromThis( ImmutableRequirements.ZERO ) );
+    }
+
+}
@@ -0,0 +1,64 @@
+package cws.k8s.scheduler.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultFileReaderTest {
+
+    private ResultFileReader reader( String content, boolean direct ) {
+        final byte[] bytes = content.getBytes( StandardCharsets.UTF_8 );
+        if ( !direct ) {
+            return new ResultFileReader( ByteBuffer.wrap( bytes ) );
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect( bytes.length );
+        buffer.put( bytes ).flip();
+        return new ResultFileReader( buffer );
+    }
+
+    @Test
+    void splitsLikeStringSplit() {
+        for ( boolean direct : new boolean[]{ false, true } ) {
+            final ResultFileReader reader = reader( "a;1;;4096;directory\r\nb;0;;;\n\nc;;ü", direct );
+            for ( String line : new String[]{ "a;1;;4096;directory", "b;0;;;", "", "c;;ü" } ) {
+                assertTrue( reader.nextLine() );
+                final String[] expected = line.split( ";" );
+                final int expectedLength = line.isEmpty() ? 0 : expected.length;
+                assertEquals( expectedLength, reader.fieldCount(), line );
+                for ( int i = 0; i < expectedLength; i++ ) {
+                    assertEquals( expected[i], reader.getString( i ) );
+                }
+            }
+            assertFalse( reader.nextLine() );
+        }
+    }
+
+    @Test
+    void parseLong() {
+        final ResultFileReader reader = reader( "1658328555702440734;-12;x1", false );
+        assertTrue( reader.nextLine() );
+        assertEquals( 1658328555702440734L, reader.parseLong( 0 ) );
+        assertEquals( -12, reader.parseLong( 1 ) );
+        assertThrows( NumberFormatException.class, () -> reader.parseLong( 2 ) );
+    }
+
+    @Test
+    void regionSetComparesBytesOfOtherFiles() {
+        final ResultFileReader inputs = reader( "a/b.txt\nc.txt\na/b.txt\n", true );
+        final ResultFileReader.RegionSet set = new ResultFileReader.RegionSet( inputs );
+        for ( int i = 0; i < 3; i++ ) {
+            assertTrue( inputs.nextLine() );
+            set.add( inputs.start( 0 ), inputs.end( 0 ) );
+        }
+        assertEquals( 2, set.size() );
+
+        final ResultFileReader outputs = reader( "/root/a/b.txt;/root/d.txt", false );
+        assertTrue( outputs.nextLine() );
+        assertTrue( set.contains( outputs, outputs.start( 0 ) + 6, outputs.end( 0 ) ) );
+        assertFalse( set.contains( outputs, outputs.start( 1 ) + 6, outputs.end( 1 ) ) );
+    }
+
+}
@@ -3,6 +3,7 @@ package cws.k8s.scheduler.model;
 import cws.k8s.scheduler.dag.DAG;
 import cws.k8s.scheduler.dag.Process;
 import cws.k8s.scheduler.dag.Vertex;
+import cws.k8s.scheduler.model.location.Location;
 import cws.k8s.scheduler.model.location.NodeLocation;
 import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
 import cws.k8s.scheduler.model.outfiles.OutputFile;
@@ -49,6 +50,19 @@ class TaskResultParserTest {
         return tmpDir;
     }
 
+    /**
+     * Reads the inputs like {@link TaskResultParser#getNewAndUpdatedFiles(Path, Location, boolean, Task)}
+     */
+    private Set<String> readInputs( String[] infiles ) throws IOException {
+        final ResultFileReader in = ResultFileReader.open( storeData( infiles, new String[0] ).resolve( ".command.infiles" ) );
+        //start date and task root dir
+        in.nextLine();
+        in.nextLine();
+        final Set<String> inputData = new HashSet<>();
+        new TaskResultParser().readInputs( in, ( start, end ) -> inputData.add( in.getString( start, end ) ) );
+        return inputData;
+    }
+
     private DAG dag;
 
     @BeforeEach
@@ -181,7 +195,7 @@ class TaskResultParserTest {
     }
 
     @Test
-    void test4(){
+    void test4() throws IOException {
 
         String[] infiles = {
                 "---",
@@ -190,9 +204,7 @@ class TaskResultParserTest {
                 "wvdb/WVP_2020-12-16.txt;1;;420379;regular file",
         };
 
-        final TaskResultParser taskResultParser = new TaskResultParser();
-        Set<String> inputData = new HashSet();
-        taskResultParser.processInput(Arrays.stream(infiles),inputData);
+        Set<String> inputData = readInputs( infiles );
         final HashSet<String> expected = new HashSet<>();
         log.info("{}", inputData);
     }
@@ -239,7 +251,7 @@ class TaskResultParserTest {
     }
 
     @Test
-    void test6(){
+    void test6() throws IOException {
 
         final TaskResultParser taskResultParser = new TaskResultParser();
 
@@ -260,8 +272,7 @@ class TaskResultParserTest {
                 "/localdata/localwork/30/adb97e8cffa8a086608565fb4c4ea9/c;1;;265581;regular file;1658328570391616989;1658328559231585386;1658328569707615053",
         };
 
-        Set<String> inputData = new HashSet();
-        taskResultParser.processInput(Arrays.stream(infiles),inputData);
+        Set<String> inputData = readInputs( infiles );
         log.info("{}", inputData);
 
         final Path path = storeData(infiles, outfiles);
@@ -280,6 +291,50 @@ class TaskResultParserTest {
 
     }
 
+    @Test
+    void sameResultAsLineBasedParser() {
+        final Random random = new Random( 42 );
+        final long initialDate = 1658328555702440734L;
+        final String root = "/localdata/localwork/30/adb97e8cffa8a086608565fb4c4ea9/";
+        for ( int q = 0; q < 20; q++ ) {
+            final List<String> infiles = new ArrayList<>();
+            infiles.add( String.valueOf( initialDate ) );
+            infiles.add( "/localdata/localwork/scratch/nxf.QqsTpl7jcy/;1;;4096;directory" );
+            final List<String> outfiles = new ArrayList<>();
+            outfiles.add( root );
+            for ( int i = 0; i < 200; i++ ) {
+                final String virtualPath = "in/" + i + "/file-" + i + ".txt";
+                final String realPath = random.nextBoolean() ? "" : "/pvcdata/work/stage/" + i + ".txt";
+                final String type = random.nextInt( 10 ) == 0 ? "directory" : "regular file";
+                final String exists = random.nextInt( 10 ) == 0 ? "0" : "1";
+                infiles.add( virtualPath + ";" + exists + ";" + realPath + ";" + random.nextInt( 1000 ) + ";" + type );
+                final long modified = initialDate + random.nextInt( 2000 ) - 1000;
+                if ( random.nextBoolean() ) {
+                    outfiles.add( root + virtualPath + ";1;" + realPath + ";" + random.nextInt( 1000 ) + ";" + type + ";-;" + modified + ";" + modified );
+                }
+                outfiles.add( root + "out/" + i + ";1;;" + random.nextInt( 1000 ) + ";regular file;-;" + modified + ";" + modified );
+            }
+            final Path path = storeData( infiles.toArray( new String[0] ), outfiles.toArray( new String[0] ) );
+            final NodeLocation node1 = NodeLocation.getLocation( "Node1" );
+            final Task task = new Task( new TaskConfig( "P1" ), dag );
+            for ( boolean onlyUpdated : new boolean[]{ false, true } ) {
+                final Set<OutputFile> expected = new LineBasedTaskResultParser().getNewAndUpdatedFiles( path, node1, onlyUpdated, task );
+                final Set<OutputFile> result = new TaskResultParser().getNewAndUpdatedFiles( path, node1, onlyUpdated, task );
+                Assertions.assertFalse( expected.isEmpty() );
+                Assertions.assertEquals( expected, result );
+            }
+        }
+    }
+
+    @Test
+    void missingInfile() throws IOException {
+        final Path path = storeData( new String[]{ "1636549091222254911", "/tmp/nxf.3iuGDWr6Id;1;;4096;directory" }, new String[]{ "/localdata/localwork/1e/2496/" } );
+        Files.delete( path.resolve( ".command.infiles" ) );
+        final Task task = new Task( new TaskConfig( "P1" ), dag );
+        Assertions.assertThrows( IllegalStateException.class,
+                () -> new TaskResultParser().getNewAndUpdatedFiles( path, NodeLocation.getLocation( "Node1" ), false, task ) );
+    }
+
     @Test
     void test7(){
         long a = System.currentTimeMillis();
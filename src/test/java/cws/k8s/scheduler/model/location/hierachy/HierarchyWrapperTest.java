@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Test;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -252,4 +253,125 @@ class HierarchyWrapperTest {
         Assertions.assertNotNull( hw.getFile( Paths.get(temporaryDir + "d" )) );
         Assertions.assertNull( hw.getFile( Paths.get(temporaryDir + "d/e/file.txt" )) );
     }
+
+    @Test
+    void testGetFileByString() {
+        final String normalized = Paths.get( temporaryDir + "d/e/file.txt" ).toString();
+        Assertions.assertSame( hw.getFile( Paths.get( normalized ) ), hw.getFile( normalized ) );
+        Assertions.assertNotNull( hw.getFile( normalized ) );
+        Assertions.assertSame( hw.getFile( normalized ), hw.getFile( temporaryDir + "d/x/../e//file.txt" ) );
+        Assertions.assertNull( hw.getFile( temporaryDir + "d/x/file.txt" ) );
+        Assertions.assertNull( hw.getFile( "/folder/localworkdirx/ab/abcdasdasd/file.txt" ) );
+        Assertions.assertNull( hw.getFile( "relative/file.txt" ) );
+    }
+
+    @Test
+    void testAddFileByString() {
+        final LocationWrapper location = getLocationWrapper( "nodeXY" );
+        Assertions.assertNotNull( hw.addFile( temporaryDir + "new/file.txt", false, location ) );
+        Assertions.assertTrue( hw.getFile( Paths.get( temporaryDir + "new/file.txt" ) ) instanceof RealHierarchyFile );
+        Assertions.assertNull( hw.addFile( workdir + "ab/file.txt", false, location ) );
+        Assertions.assertNull( hw.addFile( "/somewhere/file.txt", false, location ) );
+    }
+
+    @Test
+    void testIsNormalized() {
+        Assertions.assertTrue( HierarchyWrapper.isNormalized( "/" ) );
+        Assertions.assertTrue( HierarchyWrapper.isNormalized( "/a/b.txt" ) );
+        Assertions.assertTrue( HierarchyWrapper.isNormalized( "/a/.b/..c" ) );
+        Assertions.assertFalse( HierarchyWrapper.isNormalized( "a/b" ) );
+        Assertions.assertFalse( HierarchyWrapper.isNormalized( "/a//b" ) );
+        Assertions.assertFalse( HierarchyWrapper.isNormalized( "/a/b/" ) );
+        Assertions.assertFalse( HierarchyWrapper.isNormalized( "/a/./b" ) );
+        Assertions.assertFalse( HierarchyWrapper.isNormalized( "/a/../b" ) );
+        Assertions.assertFalse( HierarchyWrapper.isNormalized( "/a/.." ) );
+    }
+
+    @Test
+    void testManyFilesInOneFolder() {
+        final Map<Path, HierarchyFile> added = new HashMap<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            final Path path = Paths.get( temporaryDir + "many/file-" + i );
+            Assertions.assertNotNull( hw.addFile( path, node1 ) );
+            added.put( path.normalize(), hw.getFile( path ) );
+        }
+        final Map<Path, AbstractHierarchyFile> allFiles = hw.getAllFilesInDir( Paths.get( temporaryDir + "many" ) );
+        Assertions.assertEquals( added, allFiles );
+    }
+
+    @Test
+    void testAddFiles() {
+        final LocationWrapper location = getLocationWrapper( "nodeXY" );
+        final List<String> paths = List.of(
+                temporaryDir + "batch/b/file.txt",
+                temporaryDir + "batch/a.txt",
+                "/somewhere/file.txt",
+                temporaryDir + "batch/b/other.txt",
+                temporaryDir + "batch/c.txt",
+                workdir + "ab/file.txt",
+                temporaryDir + "batch/b/skipped.txt"
+        );
+        final List<LocationWrapper> locations = Arrays.asList( location, location, location, location, location, location, null );
+        final List<LocationWrapper> added = hw.addFiles( paths, false, locations );
+
+        Assertions.assertEquals( paths.size(), added.size() );
+        Assertions.assertNotNull( added.get( 0 ) );
+        Assertions.assertNotNull( added.get( 1 ) );
+        Assertions.assertNull( added.get( 2 ) );
+        Assertions.assertNotNull( added.get( 3 ) );
+        Assertions.assertNotNull( added.get( 4 ) );
+        Assertions.assertNull( added.get( 5 ) );
+        Assertions.assertNull( added.get( 6 ) );
+
+        final Set<Path> inBatch = hw.getAllFilesInDir( Paths.get( temporaryDir + "batch" ) ).keySet();
+        compare( List.of(
+                Paths.get( temporaryDir + "batch/b/file.txt" ),
+                Paths.get( temporaryDir + "batch/a.txt" ),
+                Paths.get( temporaryDir + "batch/b/other.txt" ),
+                Paths.get( temporaryDir + "batch/c.txt" )
+        ), inBatch );
+    }
+
+    @Test
+    void testOnlyTaskFileNamesAreInterned() {
+        final String path = "/a/.command.out";
+        Assertions.assertSame( ".command.out", Folder.name( path, 3, path.length() ) );
+        final String unique = "/a/sample_4711.bam";
+        Assertions.assertEquals( "sample_4711.bam", Folder.name( unique, 3, unique.length() ) );
+        Assertions.assertNotSame( "sample_4711.bam", Folder.name( unique, 3, unique.length() ) );
+    }
+
+    @Test
+    void testReadWhileAdding() throws InterruptedException {
+        final String dir = temporaryDir + "concurrent/";
+        final Thread writer = new Thread( () -> {
+            for ( int i = 0; i < 2000; i++ ) {
+                hw.addFile( Paths.get( dir + "file" + i ), node1 );
+            }
+        } );
+        writer.start();
+        Assertions.assertTimeoutPreemptively( Duration.ofSeconds( 30 ), () -> {
+            int found = 0;
+            while ( found < 2000 ) {
+                //files are added in order, so all files before the last found one have to exist
+                if ( hw.getFile( Paths.get( dir + "file" + found ) ) != null ) {
+                    for ( int i = 0; i <= found; i++ ) {
+                        Assertions.assertNotNull( hw.getFile( Paths.get( dir + "file" + i ) ) );
+                    }
+                    found += 100;
+                }
+            }
+        } );
+        writer.join();
+        Assertions.assertEquals( 2000, hw.getAllFilesInDir( Paths.get( dir ) ).size() );
+    }
+
+    @Test
+    void testAddFilesWithoutPath() {
+        final LocationWrapper location = getLocationWrapper( "nodeXY" );
+        final List<LocationWrapper> added = hw.addFiles( Arrays.asList( null, temporaryDir + "nopath/a.txt" ), false, List.of( location, location ) );
+        Assertions.assertNull( added.get( 0 ) );
+        Assertions.assertNotNull( added.get( 1 ) );
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package cws.k8s.scheduler.model.location.hierachy;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.InputEdge;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskConfig;
+import cws.k8s.scheduler.model.location.NodeLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingLocationsMemoTest {
+
+    private DAG dag;
+
+    @BeforeEach
+    void before() {
+        dag = new DAG();
+        dag.registerVertices( List.of( new Process( "processA", 1 ), new Process( "processB", 2 ) ) );
+        dag.registerEdges( List.of( new InputEdge( 1, 1, 2 ) ) );
+    }
+
+    private LocationWrapper getLocationWrapper( String location, Task task ) {
+        return new LocationWrapper( NodeLocation.getLocation( location ), 0, 100, task );
+    }
+
+    @Test
+    void tasksOfTheSameProcessShareTheResult() throws NoAlignmentFoundException {
+        final Task producer = new Task( new TaskConfig( "processA" ), dag );
+        final Task first = new Task( new TaskConfig( "processB" ), dag );
+        final Task second = new Task( new TaskConfig( "processB" ), dag );
+        final Task other = new Task( new TaskConfig( "processA" ), dag );
+        final RealHierarchyFile file = new RealHierarchyFile( getLocationWrapper( "Node1", producer ) );
+        final MatchingLocationsMemo memo = new MatchingLocationsMemo();
+
+        final RealHierarchyFile.MatchingLocationsPair result = memo.getFilesForTask( file, first );
+        assertSame( result, memo.getFilesForTask( file, second ) );
+        assertNotSame( result, memo.getFilesForTask( file, other ) );
+        assertEquals( file.getFilesForTask( first ).getMatchingLocations(), result.getMatchingLocations() );
+    }
+
+    @Test
+    void changedFileIsEvaluatedAgain() throws NoAlignmentFoundException {
+        final Task producer = new Task( new TaskConfig( "processA" ), dag );
+        final Task task = new Task( new TaskConfig( "processB" ), dag );
+        final LocationWrapper node1 = getLocationWrapper( "Node1", producer );
+        final RealHierarchyFile file = new RealHierarchyFile( node1 );
+        final MatchingLocationsMemo memo = new MatchingLocationsMemo();
+
+        assertEquals( List.of( node1 ), memo.getFilesForTask( file, task ).getMatchingLocations() );
+
+        final long version = file.getVersion();
+        final LocationWrapper node2 = getLocationWrapper( "Node2", producer );
+        file.addOrUpdateLocation( false, node2 );
+        assertTrue( file.getVersion() > version );
+        assertEquals( List.of( node1, node2 ), memo.getFilesForTask( file, task ).getMatchingLocations() );
+
+        file.removeLocation( node1 );
+        assertEquals( List.of( node2 ), memo.getFilesForTask( file, task ).getMatchingLocations() );
+    }
+
+    @Test
+    void usageChangeIsEvaluatedWithinTheRound() throws NoAlignmentFoundException {
+        final Task producer = new Task( new TaskConfig( "processA" ), dag );
+        final Task task = new Task( new TaskConfig( "processB" ), dag );
+        final LocationWrapper node1 = getLocationWrapper( "Node1", producer );
+        final RealHierarchyFile file = new RealHierarchyFile( node1 );
+        file.addOrUpdateLocation( false, getLocationWrapper( "Node2", producer ) );
+        //outdated version that is still read by a task
+        node1.deactivate();
+        final MatchingLocationsMemo memo = new MatchingLocationsMemo();
+
+        final RealHierarchyFile.MatchingLocationsPair unused = memo.getFilesForTask( file, task );
+        assertNull( unused.getExcludedNodes() );
+        assertSame( unused, memo.getFilesForTask( file, task ) );
+
+        node1.use();
+        assertEquals( Set.of( NodeLocation.getLocation( "Node1" ) ), memo.getFilesForTask( file, task ).getExcludedNodes() );
+        //a second reader does not change the result
+        node1.use();
+        assertEquals( Set.of( NodeLocation.getLocation( "Node1" ) ), memo.getFilesForTask( file, task ).getExcludedNodes() );
+
+        node1.free();
+        node1.free();
+        assertNull( memo.getFilesForTask( file, task ).getExcludedNodes() );
+    }
+
+}
@@ -0,0 +1,92 @@
+package cws.k8s.scheduler.model.taskinputs;
+
+import cws.k8s.scheduler.model.location.NodeLocation;
+import cws.k8s.scheduler.model.location.hierachy.LocationWrapper;
+import cws.k8s.scheduler.util.TaskNodeStats;
+import cws.k8s.scheduler.util.Tuple;
+import cws.k8s.scheduler.util.copying.CurrentlyCopyingOnNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskInputsTest {
+
+    private final NodeLocation node1 = NodeLocation.getLocation( "TaskInputsTest-1" );
+    private final NodeLocation node2 = NodeLocation.getLocation( "TaskInputsTest-2" );
+    private final NodeLocation node3 = NodeLocation.getLocation( "TaskInputsTest-3" );
+
+    private PathFileLocationTriple file( String path, long size, NodeLocation... nodes ) {
+        final List<LocationWrapper> locations = new LinkedList<>();
+        for ( NodeLocation node : nodes ) {
+            locations.add( new LocationWrapper( node, 0, size ) );
+        }
+        return new PathFileLocationTriple( Path.of( path ), null, locations );
+    }
+
+    private TaskInputs inputs( PathFileLocationTriple... files ) {
+        return new TaskInputs( new LinkedList<>(), List.of( files ), new HashSet<>() );
+    }
+
+    private void assertStats( long remaining, long copying, long onNode, TaskNodeStats stats ) {
+        assertEquals( remaining, stats.getSizeRemaining() );
+        assertEquals( copying, stats.getSizeCurrentlyCopying() );
+        assertEquals( onNode, stats.getSizeOnNode() );
+    }
+
+    @Test
+    void nodesWithAllFiles() {
+        final TaskInputs inputs = inputs(
+                file( "/work/a", 10, node1, node2 ),
+                file( "/work/b", 20, node2 )
+        );
+        assertFalse( inputs.allFilesAreOnLocationAndNotOverwritten( node1, null ) );
+        assertTrue( inputs.allFilesAreOnLocationAndNotOverwritten( node2, null ) );
+        assertTrue( inputs.allFilesAreOnLocationAndNotOverwritten( node2, Set.of( "/work/c" ) ) );
+        assertFalse( inputs.allFilesAreOnLocationAndNotOverwritten( node2, Set.of( "/work/b" ) ) );
+        assertFalse( inputs.allFilesAreOnLocationAndNotOverwritten( node3, Set.of() ) );
+
+        assertTrue( inputs().allFilesAreOnLocationAndNotOverwritten( node3, null ) );
+    }
+
+    @Test
+    void dataOnNode() {
+        final TaskInputs inputs = inputs(
+                file( "/work/a", 10, node1, node2 ),
+                file( "/work/b", 20, node2 )
+        );
+        final Tuple<Boolean, Long> onNode1 = inputs.calculateDataOnNodeAdditionalInfo( node1 );
+        assertFalse( onNode1.getA() );
+        assertEquals( 10, onNode1.getB() );
+        final Tuple<Boolean, Long> onNode2 = inputs.calculateDataOnNodeAdditionalInfo( node2 );
+        assertTrue( onNode2.getA() );
+        assertEquals( 30, onNode2.getB() );
+        assertEquals( 0, inputs.calculateDataOnNode( node3 ) );
+    }
+
+    @Test
+    void missingData() {
+        final PathFileLocationTriple a = file( "/work/a", 10, node1, node2 );
+        final PathFileLocationTriple b = file( "/work/b", 20, node2 );
+        final PathFileLocationTriple c = file( "/work/c", 40, node3 );
+        final TaskInputs inputs = inputs( a, b, c );
+
+        final CurrentlyCopyingOnNode nothingCopying = new CurrentlyCopyingOnNode();
+        assertStats( 60, 0, 10, inputs.calculateMissingData( node1, nothingCopying ) );
+        assertStats( 40, 0, 30, inputs.calculateMissingData( node2, nothingCopying ) );
+
+        final CurrentlyCopyingOnNode copying = new CurrentlyCopyingOnNode();
+        copying.add( "/work/b", null, node2 );
+        assertStats( 40, 20, 10, inputs.calculateMissingData( node1, copying ) );
+
+        final CurrentlyCopyingOnNode incompatible = new CurrentlyCopyingOnNode();
+        incompatible.add( "/work/c", null, node1 );
+        assertNull( inputs.calculateMissingData( node1, incompatible ) );
+    }
+
+}
@@ -0,0 +1,136 @@
+package cws.k8s.scheduler.prediction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.PodWithAge;
+import cws.k8s.scheduler.model.SchedulerConfig;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskConfig;
+import cws.k8s.scheduler.model.TaskMetrics;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpuScalerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private DAG dag;
+
+    @BeforeEach
+    void before() {
+        dag = new DAG();
+        dag.registerVertices( List.of( new Process( "a", 1 ) ) );
+    }
+
+    private SchedulerConfig getSchedulerConfig( Double minCpu, Double maxCpu, String cpuPredictor ) {
+        final Map<String, Object> config = new HashMap<>();
+        config.put( "minCpu", minCpu );
+        config.put( "maxCpu", maxCpu );
+        config.put( "cpuPredictor", cpuPredictor );
+        return MAPPER.convertValue( config, SchedulerConfig.class );
+    }
+
+    private Task getTask( double cpus, double pcpu ) {
+        final Map<String, Object> config = new HashMap<>();
+        config.put( "task", "a" );
+        config.put( "name", "a" );
+        config.put( "cpus", cpus );
+        config.put( "memoryInBytes", 1024L * 1024 * 1024 );
+        final Task task = new Task( MAPPER.convertValue( config, TaskConfig.class ), dag );
+        if ( pcpu >= 0 ) {
+            final Map<String, Object> metrics = new HashMap<>();
+            metrics.put( "realtime", 1000 );
+            metrics.put( "peakRss", 1024 );
+            metrics.put( "pcpu", pcpu );
+            task.setTaskMetrics( MAPPER.convertValue( metrics, TaskMetrics.class ) );
+        }
+        return task;
+    }
+
+    @Test
+    void unknownPredictor() {
+        assertThrowsExactly( IllegalArgumentException.class, () -> new CpuScaler( getSchedulerConfig( null, null, "linear2" ) ) );
+        assertDoesNotThrow( () -> new CpuScaler( getSchedulerConfig( null, null, "mean-offset=none" ) ) );
+    }
+
+    @Test
+    void lowerRequestToUsage() {
+        final CpuScaler cpuScaler = new CpuScaler( getSchedulerConfig( null, null, "mean-offset=none" ) );
+        cpuScaler.afterTaskFinished( getTask( 8, 150 ) );
+        cpuScaler.afterTaskFinished( getTask( 8, 250 ) );
+        // no usage reported
+        cpuScaler.afterTaskFinished( getTask( 8, 0 ) );
+
+        final Task task = getTask( 8, -1 );
+        cpuScaler.beforeTasksScheduled( List.of( task ) );
+        assertEquals( BigDecimal.valueOf( 2 ), task.getPlanedRequirements().getCpu() );
+        assertEquals( task.getOriginalMemoryRequest(), task.getPlanedRequirements().getRam() );
+        assertTrue( task.requirementsChanged() );
+        assertTrue( task.getCpuPredictionVersion() > 0 );
+        assertEquals( -1, task.getMemoryPredictionVersion() );
+    }
+
+    @Test
+    void clampRequest() {
+        final CpuScaler cpuScaler = new CpuScaler( getSchedulerConfig( 1.5, 3.0, "mean-offset=none" ) );
+        cpuScaler.afterTaskFinished( getTask( 8, 50 ) );
+        final Task small = getTask( 8, -1 );
+        final Task originalIsLower = getTask( 1, -1 );
+        cpuScaler.beforeTasksScheduled( List.of( small, originalIsLower ) );
+        assertEquals( new BigDecimal( "1.5" ), small.getPlanedRequirements().getCpu() );
+        assertEquals( BigDecimal.ONE, originalIsLower.getPlanedRequirements().getCpu() );
+
+        cpuScaler.afterTaskFinished( getTask( 8, 1950 ) );
+        final Task large = getTask( 8, -1 );
+        cpuScaler.beforeTasksScheduled( List.of( large ) );
+        assertEquals( BigDecimal.valueOf( 3 ), large.getPlanedRequirements().getCpu() );
+    }
+
+    @Test
+    void roundUpToMilliCores() {
+        assertEquals( 0.001, CpuScaler.roundUpToMilliCores( 0.0001 ) );
+        assertEquals( 1.235, CpuScaler.roundUpToMilliCores( 1.2341 ) );
+        assertEquals( 2, CpuScaler.roundUpToMilliCores( 2 ) );
+    }
+
+    private PodWithAge getPod( String request, String limit ) {
+        return new PodWithAge( new PodBuilder()
+                .withNewMetadata().withName( "a" ).endMetadata()
+                .withNewSpec()
+                .addNewContainer()
+                .withNewResources()
+                .addToRequests( "cpu", new Quantity( request ) )
+                .addToLimits( "cpu", new Quantity( limit ) )
+                .endResources()
+                .endContainer()
+                .endSpec()
+                .build() );
+    }
+
+    @Test
+    void keepRequestIfLimitEqualsRequest() {
+        final CpuScaler cpuScaler = new CpuScaler( getSchedulerConfig( null, null, "mean-offset=none" ) );
+        cpuScaler.afterTaskFinished( getTask( 8, 200 ) );
+
+        final Task guaranteed = getTask( 8, -1 );
+        guaranteed.setPod( getPod( "8", "8000m" ) );
+        final Task burstable = getTask( 8, -1 );
+        burstable.setPod( getPod( "8", "16" ) );
+        cpuScaler.beforeTasksScheduled( List.of( guaranteed, burstable ) );
+
+        assertEquals( BigDecimal.valueOf( 8 ), guaranteed.getPlanedRequirements().getCpu() );
+        assertFalse( guaranteed.requirementsChanged() );
+        assertEquals( BigDecimal.valueOf( 2 ), burstable.getPlanedRequirements().getCpu() );
+    }
+
+}
@@ -2,12 +2,14 @@ package cws.k8s.scheduler.prediction.offset;
 
 import cws.k8s.scheduler.model.Task;
 import cws.k8s.scheduler.prediction.predictor.ConstantNumberPredictor;
+import cws.k8s.scheduler.prediction.predictor.LinearPredictorSquaredLoss;
 import cws.k8s.scheduler.prediction.predictor.TestTask;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MaxOffsetTest {
 
@@ -25,4 +27,31 @@ class MaxOffsetTest {
         assertEquals( 3, maxOffset.getOffset( List.of( tasks ) ) );
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void residualsAreEvaluatedAgainWithTheCurrentModel() {
+
+        final LinearPredictorSquaredLoss predictor = new LinearPredictorSquaredLoss( t -> ((TestTask) t).x, t -> ((TestTask) t).y );
+        final MaxOffset maxOffset = new MaxOffset( predictor );
+        final TestTask query = new TestTask( 5d, 0d );
+        final List<Task> tasks = List.of(
+                new TestTask( 1d, 4d ),
+                new TestTask( 2d, 1d ),
+                new TestTask( 10d, 20d ),
+                new TestTask( 11d, 22d )
+        );
+
+        maxOffset.addTask( tasks.get( 0 ) );
+        maxOffset.addTask( tasks.get( 1 ) );
+        // the model of the first two tasks predicts -23 for the third one
+        maxOffset.addTask( tasks.get( 2 ) );
+        assertEquals( 43, maxOffset.queryPrediction( query ) - predictor.queryPrediction( query ), 1e-9 );
+
+        // the number of tasks doubled, all residuals are taken from the current model
+        maxOffset.addTask( tasks.get( 3 ) );
+        final double offset = maxOffset.queryPrediction( query ) - predictor.queryPrediction( query );
+        assertEquals( maxOffset.getOffset( tasks ), offset, 1e-9 );
+        assertTrue( offset < 43 );
+
+    }
+}
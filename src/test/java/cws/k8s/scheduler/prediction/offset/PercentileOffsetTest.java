@@ -77,4 +77,17 @@ class PercentileOffsetTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void offsetOfAddedTasks() {
+
+        final PercentileOffset percentileOffset = new PercentileOffset( new ConstantNumberPredictor( t -> ((TestTask) t).y , 0 ), 75);
+        final TestTask task = new TestTask( 1d, 0d );
+        assertEquals( 0, percentileOffset.queryPrediction( task ) );
+        for ( double y : new double[]{ 1, 2, 4, 3 } ) {
+            percentileOffset.addTask( new TestTask( 1d, y ) );
+        }
+        assertEquals( 3.75, percentileOffset.queryPrediction( task ) );
+
+    }
+
+}
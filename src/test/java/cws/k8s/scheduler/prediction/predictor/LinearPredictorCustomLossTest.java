@@ -0,0 +1,64 @@
+package cws.k8s.scheduler.prediction.predictor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinearPredictorCustomLossTest {
+
+    private static final double GB = 1024d * 1024 * 1024;
+
+    private LinearPredictorCustomLoss getPredictor( int refitInterval ) {
+        return new LinearPredictorCustomLoss( t -> ((TestTask) t).x, t -> ((TestTask) t).y, LinearPredictorCustomLoss.DEFAULT_WEIGHT_OVERPREDICTION, refitInterval );
+    }
+
+    @Test
+    void notEnoughData() {
+        final LinearPredictorCustomLoss predictor = getPredictor( 1 );
+        assertNull( predictor.queryPrediction( new TestTask( GB, 0d ) ) );
+        predictor.addTask( new TestTask( GB, GB ) );
+        predictor.addTask( new TestTask( GB, 2 * GB ) );
+        assertNull( predictor.queryPrediction( new TestTask( GB, 0d ) ) );
+        predictor.addTask( new TestTask( 2 * GB, 3 * GB ) );
+        assertNotNull( predictor.queryPrediction( new TestTask( GB, 0d ) ) );
+    }
+
+    @Test
+    void warmStartedFitsFollowTheData() {
+        final Random random = new Random( 5 );
+        final LinearPredictorCustomLoss incremental = getPredictor( 1 );
+        final LinearPredictorCustomLoss once = getPredictor( 1 );
+        for ( int i = 0; i < 300; i++ ) {
+            final double x = ( 1 + random.nextDouble() * 9 ) * GB;
+            final TestTask task = new TestTask( x, 0.5 * GB + 2 * x + random.nextGaussian() * 0.1 * GB );
+            incremental.addTask( task );
+            incremental.queryPrediction( task );
+            once.addTask( task );
+        }
+        for ( double x = GB; x <= 10 * GB; x += GB ) {
+            final TestTask task = new TestTask( x, 0d );
+            assertEquals( once.queryPrediction( task ), incremental.queryPrediction( task ), 0.01 * GB );
+        }
+        // underpredictions are penalized more, so most tasks are above the least squares line
+        assertTrue( incremental.queryPrediction( new TestTask( 5 * GB, 0d ) ) > 10.5 * GB );
+    }
+
+    @Test
+    void refitAfterInterval() {
+        final LinearPredictorCustomLoss predictor = getPredictor( 3 );
+        predictor.addTask( new TestTask( GB, GB ) );
+        predictor.addTask( new TestTask( 2 * GB, 2 * GB ) );
+        final TestTask query = new TestTask( 4 * GB, 0d );
+        final double first = predictor.queryPrediction( query );
+        assertEquals( 4 * GB, first, 0.01 * GB );
+
+        predictor.addTask( new TestTask( 3 * GB, 6 * GB ) );
+        predictor.addTask( new TestTask( 4 * GB, 8 * GB ) );
+        assertEquals( first, predictor.queryPrediction( query ) );
+        predictor.addTask( new TestTask( 5 * GB, 10 * GB ) );
+        assertTrue( predictor.queryPrediction( query ) > first + GB );
+    }
+
+}
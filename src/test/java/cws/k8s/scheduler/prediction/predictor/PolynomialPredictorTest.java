@@ -2,10 +2,13 @@ package cws.k8s.scheduler.prediction.predictor;
 
 import cws.k8s.scheduler.prediction.Predictor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+
 @Slf4j
 class PolynomialPredictorTest {
 
@@ -109,6 +112,42 @@ class PolynomialPredictorTest {
         }
     }
 
+    @Test
+    void sameAsFittingAllTasks() {
+        final Random random = new Random( 3 );
+        final Predictor lp = getPolyPredictor( 3 );
+        final OLSMultipleLinearRegression ols = new OLSMultipleLinearRegression();
+        final int iterations = 500;
+        final double[][] xs = new double[iterations][];
+        final double[] ys = new double[iterations];
+        for ( int i = 0; i < iterations; i++ ) {
+            // byte sized inputs
+            final double x = 1e9 + random.nextDouble() * 4e9;
+            final double y = 2e8 + 0.3 * x + 2e-11 * x * x + random.nextGaussian() * 1e7;
+            lp.addTask( new TestTask( x, y ) );
+            xs[i] = new double[]{ x, x * x, x * x * x };
+            ys[i] = y;
+        }
+        ols.newSampleData( ys, xs );
+        final double[] coefficients = ols.estimateRegressionParameters();
+        for ( double x = 1e9; x <= 5e9; x += 5e8 ) {
+            final double expected = coefficients[0] + coefficients[1] * x + coefficients[2] * x * x + coefficients[3] * x * x * x;
+            Assertions.assertEquals( expected, lp.queryPrediction( new TestTask( x, 0d ) ), Math.abs( expected ) * 1e-6 );
+        }
+    }
+
+    @Test
+    void waitForDifferentInputs() {
+        Predictor lp = getPolyPredictor( 1 );
+        lp.addTask( new TestTask( 1d, 1d ) );
+        lp.addTask( new TestTask( 1d, 2d ) );
+        Assertions.assertNull( lp.queryPrediction( new TestTask( 4d, 4d ) ) );
+        Assertions.assertEquals( 0, lp.getVersion() );
+        lp.addTask( new TestTask( 3d, 3.5d ) );
+        Assertions.assertEquals( 1, lp.getVersion() );
+        Assertions.assertEquals( 5.5d, lp.queryPrediction( new TestTask( 5d, 0d ) ), 0.0001 );
+    }
+
     private double getY( double x ){
         return 5 + 1.5 * x + 2 * x * x;
     }
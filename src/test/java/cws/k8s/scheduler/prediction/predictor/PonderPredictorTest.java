@@ -0,0 +1,46 @@
+package cws.k8s.scheduler.prediction.predictor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PonderPredictorTest {
+
+    private static final double GB = 1024d * 1024 * 1024;
+
+    private LinearPredictorCustomLoss getLinearPredictor() {
+        return new LinearPredictorCustomLoss( t -> ((TestTask) t).x, t -> ((TestTask) t).y );
+    }
+
+    @Test
+    void learningDoesNotFit() {
+        final LinearPredictorCustomLoss linearPredictor = spy( getLinearPredictor() );
+        final PonderPredictor predictor = new PonderPredictor( linearPredictor );
+        for ( int i = 1; i <= 20; i++ ) {
+            predictor.addTask( new TestTask( i * GB, 2 * i * GB ) );
+        }
+        verify( linearPredictor, never() ).queryPrediction( any() );
+        assertNotNull( predictor.queryPrediction( new TestTask( 10 * GB, 0d ) ) );
+    }
+
+    @Test
+    void residualsOfEarlyModelsAreDropped() {
+        final PonderPredictor predictor = new PonderPredictor( getLinearPredictor() );
+        // the first tasks suggest a negative slope
+        predictor.addTask( new TestTask( GB, 2 * GB ) );
+        predictor.addTask( new TestTask( 1.1 * GB, 0.5 * GB ) );
+        predictor.addTask( new TestTask( 1.2 * GB, 0.4 * GB ) );
+        for ( int i = 0; i <= 100; i++ ) {
+            final double x = ( 2 + i * 0.08 ) * GB;
+            predictor.addTask( new TestTask( x, 2 * x ) );
+            // the model is queried while it learns
+            predictor.queryPrediction( new TestTask( x, 0d ) );
+        }
+        final double prediction = predictor.queryPrediction( new TestTask( 9 * GB, 0d ) );
+        assertTrue( prediction >= 18 * GB );
+        assertTrue( prediction < 18.5 * GB );
+    }
+
+}
@@ -0,0 +1,84 @@
+package cws.k8s.scheduler.prediction.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceWeightedVarianceTest {
+
+    /**
+     * Weights every residual for the value, like WeightedVarianceOffset
+     */
+    private double bruteForce( double[] xs, double[] rs, int n, double value ) {
+        if ( n <= 1 ) {
+            return 0;
+        }
+        double maxDiff = 0;
+        for ( int i = 0; i < n; i++ ) {
+            maxDiff = Math.max( maxDiff, Math.abs( xs[i] - value ) );
+        }
+        final double extraTerm = Math.max( 1 - ( n / 10.0 ), 0 ) / 100;
+        double v1 = 0;
+        double v2 = 0;
+        double mean = 0;
+        final double[] weights = new double[n];
+        for ( int i = 0; i < n; i++ ) {
+            weights[i] = maxDiff == 0 ? 1 : 1 - Math.abs( xs[i] - value ) / maxDiff + extraTerm;
+            v1 += weights[i];
+            v2 += weights[i] * weights[i];
+            mean += weights[i] * rs[i];
+        }
+        mean /= v1;
+        double variance = 0;
+        for ( int i = 0; i < n; i++ ) {
+            variance += weights[i] * ( rs[i] - mean ) * ( rs[i] - mean );
+        }
+        return variance / ( v1 - v2 / v1 );
+    }
+
+    @Test
+    void sameAsWeightingAllResiduals() {
+        final Random random = new Random( 7 );
+        final int size = 200;
+        final double[] xs = new double[size];
+        final double[] rs = new double[size];
+        final DistanceWeightedVariance variance = new DistanceWeightedVariance();
+        for ( int i = 0; i < size; i++ ) {
+            xs[i] = 1e9 + random.nextInt( 1000 ) * 1e6;
+            rs[i] = random.nextGaussian() * 1e8 + 5e8;
+            variance.add( xs[i], rs[i] );
+            // query after some additions, so new residuals are merged into sorted ones
+            if ( i % 17 == 0 || i < 12 ) {
+                for ( double value : new double[]{ xs[0], 1.5e9, 3e9, xs[i] } ) {
+                    final double expected = bruteForce( xs, rs, i + 1, value );
+                    assertEquals( expected, variance.getVariance( value ), Math.abs( expected ) * 1e-6 + 1e-6 );
+                }
+            }
+        }
+        assertEquals( size, variance.getCount() );
+    }
+
+    @Test
+    void sameIndependentValues() {
+        final DistanceWeightedVariance variance = new DistanceWeightedVariance();
+        assertEquals( 0, variance.getVariance( 5 ) );
+        variance.add( 5, 1 );
+        assertEquals( 0, variance.getVariance( 5 ) );
+        variance.add( 5, 1 );
+        variance.add( 5, 3 );
+        variance.add( 5, 2 );
+        assertEquals( 0.91666667, variance.getVariance( 5 ), 0.00001 );
+    }
+
+    @Test
+    void allWeightsZero() {
+        final DistanceWeightedVariance variance = new DistanceWeightedVariance();
+        for ( int i = 0; i < 10; i++ ) {
+            variance.add( 5, i );
+        }
+        assertThrows( IllegalArgumentException.class, () -> variance.getVariance( 10 ) );
+    }
+
+}
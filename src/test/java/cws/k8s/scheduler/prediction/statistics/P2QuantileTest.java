@@ -0,0 +1,47 @@
+package cws.k8s.scheduler.prediction.statistics;
+
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class P2QuantileTest {
+
+    @Test
+    void fewValuesAreExact() {
+        final P2Quantile median = new P2Quantile( 50 );
+        final P2Quantile upper = new P2Quantile( 75 );
+        assertTrue( Double.isNaN( median.getValue() ) );
+        for ( double value : new double[]{ 3, 1, 4, 2 } ) {
+            median.add( value );
+            upper.add( value );
+        }
+        assertEquals( 2.5, median.getValue() );
+        assertEquals( 3.75, upper.getValue() );
+    }
+
+    @Test
+    void manyValuesAreEstimated() {
+        final Random random = new Random( 42 );
+        final double[] values = new double[100_000];
+        final P2Quantile median = new P2Quantile( 50 );
+        final P2Quantile p95 = new P2Quantile( 95 );
+        for ( int i = 0; i < values.length; i++ ) {
+            values[i] = random.nextGaussian() * 100 + 1000;
+            median.add( values[i] );
+            p95.add( values[i] );
+        }
+        assertEquals( values.length, median.getCount() );
+        assertEquals( new Percentile().evaluate( values, 50 ), median.getValue(), 2 );
+        assertEquals( new Percentile().evaluate( values, 95 ), p95.getValue(), 2 );
+    }
+
+    @Test
+    void invalidPercentile() {
+        assertThrows( IllegalArgumentException.class, () -> new P2Quantile( -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> new P2Quantile( 101 ) );
+    }
+
+}
@@ -0,0 +1,56 @@
+package cws.k8s.scheduler.prediction.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeightedVarianceTest {
+
+    @Test
+    void unweighted() {
+        final WeightedVariance variance = new WeightedVariance();
+        assertEquals( 0, variance.getVariance() );
+        variance.add( 1 );
+        assertEquals( 0, variance.getVariance() );
+        variance.add( 1 );
+        variance.add( 3 );
+        variance.add( 2 );
+        assertEquals( 4, variance.getCount() );
+        assertEquals( 1.75, variance.getMean(), 0.00001 );
+        assertEquals( 0.91666667, variance.getVariance(), 0.00001 );
+    }
+
+    @Test
+    void weighted() {
+        final double[] values = { 4, 7, 13, 16 };
+        final double[] weights = { 1, 0.5, 0.25, 2 };
+        final WeightedVariance variance = new WeightedVariance();
+        double v1 = 0;
+        double v2 = 0;
+        double mean = 0;
+        for ( int i = 0; i < values.length; i++ ) {
+            variance.add( values[i], weights[i] );
+            v1 += weights[i];
+            v2 += weights[i] * weights[i];
+            mean += weights[i] * values[i];
+        }
+        mean /= v1;
+        double expected = 0;
+        for ( int i = 0; i < values.length; i++ ) {
+            expected += weights[i] * ( values[i] - mean ) * ( values[i] - mean );
+        }
+        expected /= v1 - v2 / v1;
+        assertEquals( mean, variance.getMean(), 0.00001 );
+        assertEquals( expected, variance.getVariance(), 0.00001 );
+    }
+
+    @Test
+    void largeValuesAreStable() {
+        final WeightedVariance variance = new WeightedVariance();
+        for ( int i = 0; i < 100_000; i++ ) {
+            variance.add( 1e12 + ( i % 2 ) );
+        }
+        assertEquals( 0.25, variance.getVariance(), 0.0001 );
+    }
+
+}
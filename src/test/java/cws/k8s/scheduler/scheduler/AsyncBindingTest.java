@@ -0,0 +1,198 @@
+package cws.k8s.scheduler.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cws.k8s.scheduler.client.CWSKubernetesClient;
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.*;
+import cws.k8s.scheduler.scheduler.filealignment.InputAlignment;
+import cws.k8s.scheduler.scheduler.la2.ready2run.ReadyToRunToNode;
+import cws.k8s.scheduler.util.NodeTaskAlignment;
+import cws.k8s.scheduler.util.NodeTaskLocalFilesAlignment;
+import io.fabric8.kubernetes.api.model.*;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.PodResource;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncBindingTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path workDir;
+
+    @SuppressWarnings( "unchecked" )
+    private CWSKubernetesClient createClient( NodeCapacityTable capacityTable ) {
+        final CWSKubernetesClient client = mock( CWSKubernetesClient.class );
+        final MixedOperation<Pod, PodList, PodResource> pods = mock( MixedOperation.class );
+        final NonNamespaceOperation<Pod, PodList, PodResource> podsInNamespace = mock( NonNamespaceOperation.class );
+        when( client.pods() ).thenReturn( pods );
+        when( pods.inNamespace( anyString() ) ).thenReturn( podsInNamespace );
+        when( podsInNamespace.inform( any() ) ).thenReturn( mock( SharedIndexInformer.class ) );
+        when( client.getCapacityTable() ).thenReturn( capacityTable );
+        return client;
+    }
+
+    private NodeWithAlloc createNode() {
+        final Node node = new NodeBuilder()
+                .withApiVersion( "v1" )
+                .withKind( "Node" )
+                .withNewMetadata().withName( "node-a" ).endMetadata()
+                .withNewSpec().endSpec()
+                .withNewStatus()
+                .addToAllocatable( "cpu", new Quantity( "4" ) )
+                .addToAllocatable( "memory", new Quantity( "8Gi" ) )
+                .addNewCondition().withType( "Ready" ).withStatus( "True" ).endCondition()
+                .endStatus()
+                .build();
+        return new NodeWithAlloc( node, null );
+    }
+
+    private Task createTask( DAG dag, String name ) throws Exception {
+        return createTask( dag, name, null );
+    }
+
+    private Task createTask( DAG dag, String name, String outLabel ) throws Exception {
+        final Path dir = Files.createDirectories( workDir.resolve( name ) );
+        final Map<String, Object> config = new HashMap<>();
+        if ( outLabel != null ) {
+            config.put( "outLabel", List.of( outLabel ) );
+        }
+        config.put( "task", "P1" );
+        config.put( "name", name );
+        config.put( "runName", name );
+        config.put( "workDir", dir.toString() );
+        config.put( "cpus", 1 );
+        config.put( "memoryInBytes", 1024L * 1024 * 1024 );
+        final Task task = new Task( MAPPER.convertValue( config, TaskConfig.class ), dag );
+        final Pod pod = new PodBuilder()
+                .withNewMetadata().withName( name ).withNamespace( "default" ).withUid( name ).endMetadata()
+                .withNewSpec()
+                .addNewContainer()
+                .withNewResources()
+                .addToRequests( "cpu", new Quantity( "1" ) )
+                .addToRequests( "memory", new Quantity( "1Gi" ) )
+                .endResources()
+                .endContainer()
+                .endSpec()
+                .build();
+        task.setPod( new PodWithAge( pod ) );
+        return task;
+    }
+
+    @Test
+    void failedBindingIsUndoneAndScheduledAgain() throws Exception {
+        final NodeCapacityTable capacityTable = new NodeCapacityTable();
+        final NodeWithAlloc node = createNode();
+        capacityTable.addNode( node );
+        final CWSKubernetesClient client = createClient( capacityTable );
+        doThrow( new IllegalStateException( "binding failed" ) ).doNothing()
+                .when( client ).assignPodToNode( argThat( pod -> pod != null && "fails".equals( pod.getName() ) ), anyString() );
+
+        final Map<String, Object> config = new HashMap<>();
+        config.put( "dns", "http://localhost:8080/" );
+        config.put( "bindingThreads", 2 );
+        final List<Task> undone = new CopyOnWriteArrayList<>();
+        final Scheduler scheduler = new Scheduler( "exec", client, "default", MAPPER.convertValue( config, SchedulerConfig.class ) ) {
+            @Override
+            ScheduleObject getTaskNodeAlignment( List<Task> unscheduledTasks, Map<NodeWithAlloc, Requirements> availableByNode ) {
+                return new ScheduleObject( unscheduledTasks.stream().map( task -> new NodeTaskAlignment( node, task ) ).toList() );
+            }
+
+            @Override
+            void undoTaskScheduling( Task task ) {
+                undone.add( task );
+            }
+        };
+        try {
+            scheduler.getDag().registerVertices( List.of( new Process( "P1", 1 ) ) );
+            final Task works = createTask( scheduler.getDag(), "works" );
+            final Task fails = createTask( scheduler.getDag(), "fails" );
+
+            assertEquals( 0, scheduler.schedule( List.of( works, fails ) ) );
+            verify( client, timeout( 5000 ) ).assignPodToNode( eq( works.getPod() ), eq( "node-a" ) );
+            // the first binding fails, the task is put back into the queue and scheduled again
+            verify( client, timeout( 5000 ).times( 2 ) ).assignPodToNode( eq( fails.getPod() ), eq( "node-a" ) );
+            final long deadline = System.currentTimeMillis() + 5000;
+            while ( fails.getPod().getSpec().getNodeName() == null && System.currentTimeMillis() < deadline ) {
+                Thread.sleep( 10 );
+            }
+
+            assertEquals( List.of( fails ), undone );
+            assertEquals( "node-a", fails.getPod().getSpec().getNodeName() );
+            assertEquals( "node-a", Files.readString( workDir.resolve( "works/.command.node" ) ).trim() );
+            // the reservation of the failed binding was released
+            assertEquals( Requirements.of( 2000, 6L * 1024 * 1024 * 1024 ), capacityTable.getSnapshot().getAvailable( node ) );
+        } finally {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    void failedBindingIsUndoneInTheGroupCluster() throws Exception {
+        final NodeCapacityTable capacityTable = new NodeCapacityTable();
+        final NodeWithAlloc node = createNode();
+        capacityTable.addNode( node );
+        final CWSKubernetesClient client = createClient( capacityTable );
+        doThrow( new IllegalStateException( "binding failed" ) ).doNothing()
+                .when( client ).assignPodToNode( any(), anyString() );
+
+        final Map<String, Object> config = new HashMap<>();
+        config.put( "dns", "http://localhost:8080/" );
+        config.put( "bindingThreads", 1 );
+        config.put( "workDir", workDir.toString() );
+        config.put( "copyStrategy", "ftp" );
+        config.put( "locationAware", true );
+        final LocationAwareSchedulerGroups scheduler = new LocationAwareSchedulerGroups( "exec", client, "default",
+                MAPPER.convertValue( config, SchedulerConfig.class ), mock( InputAlignment.class ), mock( ReadyToRunToNode.class ) ) {
+            @Override
+            public ScheduleObject getTaskNodeAlignment( List<Task> unscheduledTasks, Map<NodeWithAlloc, Requirements> availableByNode ) {
+                return new ScheduleObject( unscheduledTasks.stream()
+                        .map( task -> (NodeTaskAlignment) new NodeTaskLocalFilesAlignment( node, task, List.of(), List.of() ) )
+                        .toList() );
+            }
+
+            @Override
+            void postScheduling( List<Task> unscheduledTasks, Map<NodeWithAlloc, Requirements> availableByNode ) {}
+        };
+        scheduler.groupCluster = spy( scheduler.groupCluster );
+        try {
+            scheduler.getDag().registerVertices( List.of( new Process( "P1", 1 ) ) );
+            final Task task = createTask( scheduler.getDag(), "labeled", "a" );
+            scheduler.tasksWhereAddedToQueue( List.of( task ) );
+
+            assertEquals( 0, scheduler.schedule( List.of( task ) ) );
+            verify( client, timeout( 5000 ).times( 2 ) ).assignPodToNode( eq( task.getPod() ), eq( "node-a" ) );
+            final long deadline = System.currentTimeMillis() + 5000;
+            while ( task.getPod().getSpec().getNodeName() == null && System.currentTimeMillis() < deadline ) {
+                Thread.sleep( 10 );
+            }
+
+            assertEquals( "node-a", task.getPod().getSpec().getNodeName() );
+            final InOrder inOrder = inOrder( scheduler.groupCluster );
+            inOrder.verify( scheduler.groupCluster ).taskWasAssignedToNode( task );
+            inOrder.verify( scheduler.groupCluster ).taskSchedulingFailed( task );
+            inOrder.verify( scheduler.groupCluster ).tasksBecameAvailable( List.of( task ) );
+            // the task was waiting again, otherwise the second assignment fails
+            inOrder.verify( scheduler.groupCluster ).taskWasAssignedToNode( task );
+        } finally {
+            scheduler.close();
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package cws.k8s.scheduler.scheduler;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Requirements;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskConfig;
+import io.fabric8.kubernetes.api.model.Node;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeShardingTest {
+
+    private static final Function<Task, Collection<NodeWithAlloc>> NO_DATA = task -> List.of();
+
+    private NodeWithAlloc createNode( String name, String cpu, Map<String, String> labels ) {
+        final Node node = new NodeBuilder()
+                .withApiVersion( "v1" )
+                .withKind( "Node" )
+                .withNewMetadata().withName( name ).withLabels( labels ).endMetadata()
+                .withNewSpec().endSpec()
+                .withNewStatus()
+                .addToAllocatable( "cpu", new Quantity( cpu ) )
+                .addToAllocatable( "memory", new Quantity( "8Gi" ) )
+                .addNewCondition().withType( "Ready" ).withStatus( "True" ).endCondition()
+                .endStatus()
+                .build();
+        return new NodeWithAlloc( node, null );
+    }
+
+    private Map<NodeWithAlloc, Requirements> available( Collection<NodeWithAlloc> nodes ) {
+        final Map<NodeWithAlloc, Requirements> availableByNode = new HashMap<>();
+        for ( NodeWithAlloc node : nodes ) {
+            availableByNode.put( node, node.getAvailableResources() );
+        }
+        return availableByNode;
+    }
+
+    private List<Task> createTasks( int count, double cpu ) {
+        final DAG dag = new DAG();
+        dag.registerVertices( List.of( new Process( "P1", 1 ) ) );
+        final List<Task> tasks = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            final Task task = new Task( new TaskConfig( "P1" ), dag );
+            task.setPlanedCpuInCores( cpu, 0 );
+            tasks.add( task );
+        }
+        return tasks;
+    }
+
+    @Test
+    void consistentHash() {
+        final NodeSharding sharding = new NodeSharding( 4, null );
+        final List<NodeWithAlloc> nodes = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ ) {
+            nodes.add( createNode( "node-" + i, "4", null ) );
+        }
+        final List<Map<NodeWithAlloc, Requirements>> shards = sharding.splitNodes( available( nodes ) );
+        assertEquals( 4, shards.size() );
+        assertEquals( 100, shards.stream().mapToInt( Map::size ).sum() );
+        assertTrue( shards.stream().allMatch( shard -> shard.size() >= 10 ) );
+
+        final Map<NodeWithAlloc, String> before = new HashMap<>();
+        nodes.forEach( node -> before.put( node, sharding.shardOf( node ) ) );
+        // a new node does not move the existing ones
+        final NodeSharding sameSharding = new NodeSharding( 4, null );
+        sameSharding.splitNodes( available( List.of( createNode( "node-new", "4", null ) ) ) );
+        nodes.forEach( node -> assertEquals( before.get( node ), sameSharding.shardOf( node ) ) );
+    }
+
+    @Test
+    void byLabel() {
+        final NodeSharding sharding = new NodeSharding( 2, "pool" );
+        final NodeWithAlloc a = createNode( "a", "4", Map.of( "pool", "gpu" ) );
+        final NodeWithAlloc b = createNode( "b", "4", Map.of( "pool", "cpu" ) );
+        final NodeWithAlloc c = createNode( "c", "4", Map.of( "pool", "gpu" ) );
+        final NodeWithAlloc d = createNode( "d", "4", null );
+        assertEquals( "gpu", sharding.shardOf( a ) );
+        assertEquals( NodeSharding.NO_LABEL, sharding.shardOf( d ) );
+        final List<Map<NodeWithAlloc, Requirements>> shards = sharding.splitNodes( available( List.of( a, b, c, d ) ) );
+        assertEquals( List.of( Set.of( d ), Set.of( b ), Set.of( a, c ) ),
+                shards.stream().map( Map::keySet ).toList() );
+    }
+
+    @Test
+    void everyTaskIsPlannedInOneShard() {
+        final NodeSharding sharding = new NodeSharding( 3, null );
+        final List<NodeWithAlloc> nodes = new ArrayList<>();
+        for ( int i = 0; i < 30; i++ ) {
+            nodes.add( createNode( "node-" + i, "4", null ) );
+        }
+        final List<Map<NodeWithAlloc, Requirements>> shards = sharding.splitNodes( available( nodes ) );
+        final List<Task> tasks = createTasks( 50, 1 );
+        final List<List<Task>> round0 = sharding.splitTasks( tasks, shards, 0, NO_DATA );
+        final List<List<Task>> round1 = sharding.splitTasks( tasks, shards, 1, NO_DATA );
+        for ( List<List<Task>> split : List.of( round0, round1 ) ) {
+            assertEquals( shards.size(), split.size() );
+            final List<Task> all = split.stream().flatMap( List::stream ).toList();
+            assertEquals( new HashSet<>( tasks ), new HashSet<>( all ) );
+            assertEquals( tasks.size(), all.size() );
+            // queue order is kept
+            for ( List<Task> shard : split ) {
+                assertEquals( tasks.stream().filter( shard::contains ).toList(), shard );
+            }
+        }
+        assertNotEquals( round0, round1 );
+    }
+
+    @Test
+    void tasksGoToShardsWhereTheyFit() {
+        final NodeSharding sharding = new NodeSharding( 2, "pool" );
+        final NodeWithAlloc small = createNode( "small", "2", Map.of( "pool", "a" ) );
+        final NodeWithAlloc large = createNode( "large", "16", Map.of( "pool", "b" ) );
+        final List<Map<NodeWithAlloc, Requirements>> shards = sharding.splitNodes( available( List.of( small, large ) ) );
+        final List<Task> tasks = createTasks( 20, 8 );
+        for ( int round = 0; round < 3; round++ ) {
+            final List<List<Task>> split = sharding.splitTasks( tasks, shards, round, NO_DATA );
+            assertTrue( split.get( 0 ).isEmpty() );
+            assertEquals( tasks, split.get( 1 ) );
+        }
+        assertTrue( sharding.splitTasks( tasks, List.of(), 0, NO_DATA ).isEmpty() );
+    }
+
+    @Test
+    void tasksStayInTheShardWithTheirData() {
+        final NodeSharding sharding = new NodeSharding( 3, "pool" );
+        final NodeWithAlloc a = createNode( "a", "4", Map.of( "pool", "a" ) );
+        final NodeWithAlloc b = createNode( "b", "4", Map.of( "pool", "b" ) );
+        final NodeWithAlloc c = createNode( "c", "4", Map.of( "pool", "c" ) );
+        final List<Map<NodeWithAlloc, Requirements>> shards = sharding.splitNodes( available( List.of( a, b, c ) ) );
+        final List<Task> tasks = createTasks( 20, 1 );
+        final Task located = tasks.get( 0 );
+        final Function<Task, Collection<NodeWithAlloc>> nodesWithData = task -> task == located ? List.of( b ) : List.of();
+        final Set<Integer> shardsOfOthers = new HashSet<>();
+        for ( int round = 0; round < 5; round++ ) {
+            final List<List<Task>> split = sharding.splitTasks( tasks, shards, round, nodesWithData );
+            assertTrue( split.get( 1 ).contains( located ) );
+            assertFalse( split.get( 0 ).contains( located ) );
+            assertFalse( split.get( 2 ).contains( located ) );
+            for ( int i = 0; i < split.size(); i++ ) {
+                if ( !split.get( i ).isEmpty() ) {
+                    shardsOfOthers.add( i );
+                }
+            }
+        }
+        // tasks without located inputs still rotate over all shards
+        assertEquals( Set.of( 0, 1, 2 ), shardsOfOthers );
+    }
+
+}
@@ -0,0 +1,123 @@
+package cws.k8s.scheduler.scheduler;
+
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.scheduler.prioritize.TestTask;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskprocessingThreadTest {
+
+    private static Set<Task> addedTasks( Collection<SchedulingEvent> events ) {
+        final Set<Task> tasks = new HashSet<>();
+        for ( SchedulingEvent event : events ) {
+            if ( event.getType() == SchedulingEvent.Type.TASK_ADDED ) {
+                tasks.add( event.getTask() );
+            } else if ( event.getType() == SchedulingEvent.Type.TASK_REMOVED ) {
+                tasks.remove( event.getTask() );
+            }
+        }
+        return tasks;
+    }
+
+    @Test
+    void incrementalOnlyProcessesAffectedTasks() throws InterruptedException {
+        final List<Task> queue = new ArrayList<>();
+        final BlockingQueue<List<Task>> calls = new LinkedBlockingQueue<>();
+        final TaskprocessingThread thread = new TaskprocessingThread( queue, tasks -> {
+            calls.add( new ArrayList<>( tasks ) );
+            return tasks.size();
+        }, TaskprocessingThreadTest::addedTasks, TimeUnit.HOURS.toMillis( 1 ) );
+        assertTrue( thread.isIncremental() );
+        thread.start();
+        try {
+            final Task a = new TestTask();
+            final Task b = new TestTask();
+            synchronized ( queue ) {
+                queue.add( a );
+                thread.informEvent( SchedulingEvent.taskAdded( a ) );
+            }
+            // the first round is always a full re-plan
+            assertEquals( List.of( a ), calls.poll( 5, TimeUnit.SECONDS ) );
+
+            synchronized ( queue ) {
+                queue.add( b );
+                thread.informEvent( SchedulingEvent.taskAdded( b ) );
+            }
+            assertEquals( List.of( b ), calls.poll( 5, TimeUnit.SECONDS ) );
+
+            // an unspecific change forces a full re-plan
+            thread.informEvent( SchedulingEvent.nodeCapacityChanged( null ) );
+            assertEquals( List.of( a, b ), calls.poll( 5, TimeUnit.SECONDS ) );
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+    @Test
+    void removedTasksAreNotProcessed() throws InterruptedException {
+        final List<Task> queue = new ArrayList<>();
+        final BlockingQueue<List<Task>> calls = new LinkedBlockingQueue<>();
+        final TaskprocessingThread thread = new TaskprocessingThread( queue, tasks -> {
+            calls.add( new ArrayList<>( tasks ) );
+            return tasks.size();
+        }, TaskprocessingThreadTest::addedTasks, TimeUnit.HOURS.toMillis( 1 ) );
+        final Task a = new TestTask();
+        final Task b = new TestTask();
+        synchronized ( queue ) {
+            queue.add( a );
+            queue.add( b );
+            thread.informEvent( SchedulingEvent.taskAdded( a ) );
+            thread.informEvent( SchedulingEvent.taskAdded( b ) );
+        }
+        thread.start();
+        try {
+            assertEquals( List.of( a, b ), calls.poll( 5, TimeUnit.SECONDS ) );
+            final Task c = new TestTask();
+            synchronized ( queue ) {
+                queue.add( c );
+                thread.informEvent( SchedulingEvent.taskAdded( c ) );
+                thread.informEvent( SchedulingEvent.taskAdded( a ) );
+                thread.informEvent( SchedulingEvent.taskRemoved( a ) );
+            }
+            assertEquals( List.of( c ), calls.poll( 5, TimeUnit.SECONDS ) );
+            assertNull( calls.poll( 200, TimeUnit.MILLISECONDS ) );
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+    @Test
+    void defaultModeProcessesAllTasks() throws InterruptedException {
+        final List<Task> queue = new ArrayList<>();
+        final BlockingQueue<List<Task>> calls = new LinkedBlockingQueue<>();
+        final TaskprocessingThread thread = new TaskprocessingThread( queue, tasks -> {
+            calls.add( new ArrayList<>( tasks ) );
+            return tasks.size();
+        } );
+        assertFalse( thread.isIncremental() );
+        thread.start();
+        try {
+            final Task a = new TestTask();
+            final Task b = new TestTask();
+            synchronized ( queue ) {
+                queue.add( a );
+                thread.informEvent( SchedulingEvent.taskAdded( a ) );
+            }
+            assertEquals( List.of( a ), calls.poll( 5, TimeUnit.SECONDS ) );
+            synchronized ( queue ) {
+                queue.add( b );
+                thread.informEvent( SchedulingEvent.taskAdded( b ) );
+            }
+            assertEquals( List.of( a, b ), calls.poll( 5, TimeUnit.SECONDS ) );
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+}
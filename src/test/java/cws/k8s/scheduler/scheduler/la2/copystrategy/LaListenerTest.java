@@ -0,0 +1,48 @@
+package cws.k8s.scheduler.scheduler.la2.copystrategy;
+
+import cws.k8s.scheduler.scheduler.LocationAwareSchedulerV2;
+import cws.k8s.scheduler.util.CopyTask;
+import cws.k8s.scheduler.util.LogCopyTask;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LaListenerTest {
+
+    @Test
+    void finishedFilesArePublishedWhileCopying() throws IOException {
+        final LocationAwareSchedulerV2 scheduler = mock( LocationAwareSchedulerV2.class );
+        final CopyTask copyTask = new CopyTask( null, new LinkedList<>(), null, null );
+        final LaListener listener = new LaListener( copyTask, "copy", null, scheduler, mock( LogCopyTask.class ) );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final OutputStream stream = listener.wrapOutput( out );
+
+        stream.write( "S-/work/a\nF-/wo".getBytes( StandardCharsets.UTF_8 ) );
+        verify( scheduler, never() ).copyTaskFilesFinished( any(), anyList() );
+        stream.write( "rk/a\r\nS-/work/b\nF-/work/b\n".getBytes( StandardCharsets.UTF_8 ) );
+
+        //both files of one chunk are published at once
+        verify( scheduler ).copyTaskFilesFinished( copyTask, List.of( "/work/a", "/work/b" ) );
+        verifyNoMoreInteractions( scheduler );
+        assertEquals( "S-/work/a\nF-/work/a\r\nS-/work/b\nF-/work/b\n", out.toString( StandardCharsets.UTF_8 ) );
+    }
+
+    @Test
+    void copyCommandKeepsTheExitCodeOfTheCopy() {
+        final String command = ShellCopy.copyCommand( "/sync/exec", "node-1", ".command.init.node-1.json" );
+        assertTrue( command.startsWith( "{ tail -n 0 -F \"/sync/exec\"" ) );
+        assertTrue( command.contains( "/app/ftp.py false \"node-1\" \".command.init.node-1.json\"; code=$?;" ) );
+        assertTrue( command.endsWith( "exit $code; }" ) );
+    }
+
+}
@@ -0,0 +1,156 @@
+package cws.k8s.scheduler.scheduler.la2.ready2run;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.NodeWithAlloc;
+import cws.k8s.scheduler.model.Requirements;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskConfig;
+import cws.k8s.scheduler.model.taskinputs.TaskInputs;
+import cws.k8s.scheduler.scheduler.data.TaskInputsNodes;
+import cws.k8s.scheduler.util.LogCopyTask;
+import cws.k8s.scheduler.util.NodeTaskLocalFilesAlignment;
+import io.fabric8.kubernetes.api.model.Node;
+import io.fabric8.kubernetes.api.model.NodeBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimalReadyToRunToNodeTest {
+
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private DAG dag;
+    private final Map<Task, Long> scores = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        dag = new DAG();
+        dag.registerVertices( List.of( new Process( "P1", 1 ) ) );
+        scores.clear();
+    }
+
+    private OptimalReadyToRunToNode createReadyToRunToNode() {
+        return createReadyToRunToNode( OptimalReadyToRunToNode.DEFAULT_MAX_VARIABLES );
+    }
+
+    private OptimalReadyToRunToNode createReadyToRunToNode( int maxVariables ) {
+        final OptimalReadyToRunToNode readyToRunToNode = new OptimalReadyToRunToNode( 5, 1, maxVariables );
+        readyToRunToNode.init( ( task, node, size ) -> scores.get( task ) );
+        readyToRunToNode.setLogger( Mockito.mock( LogCopyTask.class ) );
+        return readyToRunToNode;
+    }
+
+    private NodeWithAlloc createNode( String name, String cpu ) {
+        final Node node = new NodeBuilder()
+                .withApiVersion( "v1" )
+                .withKind( "Node" )
+                .withNewMetadata().withName( name ).endMetadata()
+                .withNewSpec().endSpec()
+                .withNewStatus()
+                .addToAllocatable( "cpu", new Quantity( cpu ) )
+                .addToAllocatable( "memory", new Quantity( "64Gi" ) )
+                .addNewCondition().withType( "Ready" ).withStatus( "True" ).endCondition()
+                .endStatus()
+                .build();
+        return new NodeWithAlloc( node, null );
+    }
+
+    private TaskInputsNodes createTask( double cpu, long score, NodeWithAlloc... nodes ) {
+        final Task task = new Task( new TaskConfig( "P1" ), dag );
+        task.setPlanedCpuInCores( cpu, 0 );
+        task.setPlannedMemoryInBytes( GB, 0 );
+        scores.put( task, score );
+        final TaskInputs inputs = new TaskInputs( new LinkedList<>(), new LinkedList<>(), new HashSet<>() );
+        return new TaskInputsNodes( task, List.of( nodes ), inputs );
+    }
+
+    private Map<NodeWithAlloc, Requirements> available( NodeWithAlloc... nodes ) {
+        final Map<NodeWithAlloc, Requirements> availableByNode = new HashMap<>();
+        for ( NodeWithAlloc node : nodes ) {
+            availableByNode.put( node, node.getAvailableResources() );
+        }
+        return availableByNode;
+    }
+
+    @Test
+    void identicalTasksAreAssignedInOrder() {
+        final NodeWithAlloc a = createNode( "a", "4" );
+        final NodeWithAlloc b = createNode( "b", "4" );
+        final List<TaskInputsNodes> tasks = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ ) {
+            tasks.add( createTask( 2, 10, a, b ) );
+        }
+        final List<NodeTaskLocalFilesAlignment> alignment = createReadyToRunToNode()
+                .createAlignmentForTasksWithAllDataOnNode( tasks, available( a, b ) );
+
+        assertEquals( 4, alignment.size() );
+        final Set<Task> assigned = alignment.stream().map( x -> x.task ).collect( Collectors.toSet() );
+        final Set<Task> firstTasks = tasks.subList( 0, 4 ).stream().map( TaskInputsNodes::getTask ).collect( Collectors.toSet() );
+        assertEquals( firstTasks, assigned );
+        final Map<NodeWithAlloc, Long> perNode = alignment.stream()
+                .collect( Collectors.groupingBy( x -> x.node, Collectors.counting() ) );
+        assertEquals( Map.of( a, 2L, b, 2L ), perNode );
+    }
+
+    @Test
+    void optimalPackingOfDifferentTasks() {
+        final NodeWithAlloc a = createNode( "a", "4" );
+        final TaskInputsNodes large = createTask( 3, 10, a );
+        final TaskInputsNodes small1 = createTask( 2, 6, a );
+        final TaskInputsNodes small2 = createTask( 2, 6, a );
+        final List<NodeTaskLocalFilesAlignment> alignment = createReadyToRunToNode()
+                .createAlignmentForTasksWithAllDataOnNode( List.of( large, small1, small2 ), available( a ) );
+
+        final Set<Task> assigned = alignment.stream().map( x -> x.task ).collect( Collectors.toSet() );
+        assertEquals( Set.of( small1.getTask(), small2.getTask() ), assigned );
+    }
+
+    @Test
+    void tasksThatDoNotFitAreIgnored() {
+        final NodeWithAlloc a = createNode( "a", "1" );
+        final List<NodeTaskLocalFilesAlignment> alignment = createReadyToRunToNode()
+                .createAlignmentForTasksWithAllDataOnNode( List.of( createTask( 2, 10, a ) ), available( a ) );
+        assertTrue( alignment.isEmpty() );
+    }
+
+    @Test
+    void greedyPlanAboveVariableLimit() {
+        final NodeWithAlloc a = createNode( "a", "4" );
+        final NodeWithAlloc b = createNode( "b", "2" );
+        final List<TaskInputsNodes> tasks = new ArrayList<>();
+        for ( int i = 0; i < 5; i++ ) {
+            tasks.add( createTask( 1, 10, a, b ) );
+        }
+        final TaskInputsNodes large = createTask( 2, 30, a, b );
+        tasks.add( large );
+        final List<NodeTaskLocalFilesAlignment> alignment = createReadyToRunToNode( 0 )
+                .createAlignmentForTasksWithAllDataOnNode( tasks, available( a, b ) );
+
+        // the large task first, then four of the small ones
+        assertEquals( 5, alignment.size() );
+        assertTrue( alignment.stream().anyMatch( x -> x.task == large.getTask() ) );
+        assertFalse( alignment.stream().anyMatch( x -> x.task == tasks.get( 4 ).getTask() ) );
+        for ( NodeWithAlloc node : List.of( a, b ) ) {
+            final double cpu = alignment.stream()
+                    .filter( x -> x.node == node )
+                    .mapToDouble( x -> x.task.getPlanedRequirements().getCpu().doubleValue() )
+                    .sum();
+            assertTrue( cpu <= node.getMaxResources().getCpu().doubleValue() );
+        }
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThrows( IllegalArgumentException.class, () -> new OptimalReadyToRunToNode( 0, 1, 1 ) );
+        assertThrows( IllegalArgumentException.class, () -> new OptimalReadyToRunToNode( 1, -1, 1 ) );
+        assertThrows( IllegalArgumentException.class, () -> new OptimalReadyToRunToNode( 1, 1, -1 ) );
+    }
+
+}
@@ -0,0 +1,97 @@
+package cws.k8s.scheduler.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFileWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndAppend() throws IOException {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final AsyncFileWriter writer = new AsyncFileWriter( "test", 16, new SchedulerMetrics( registry, "exec" ) );
+        final Path log = dir.resolve( "scheduler/log.csv" );
+        Files.createDirectories( log.getParent() );
+        Files.writeString( log, "old\n" );
+        final Path trace = dir.resolve( "trace" );
+
+        writer.append( log.toString(), "a" );
+        writer.write( trace.toString(), "first" );
+        writer.append( log.toString(), "b" );
+        writer.write( trace.toString(), "second" );
+        writer.append( log.toString(), "c" );
+        writer.close();
+
+        assertEquals( List.of( "a", "b", "c" ), Files.readAllLines( log ) );
+        assertEquals( "second", Files.readString( trace ) );
+        assertEquals( 5, registry.get( "cws.writer.batch.size" ).summary().totalAmount() );
+        assertEquals( 0, registry.get( "cws.writer.queue.size" ).gauge().value() );
+        assertEquals( 0, registry.get( "cws.writer.blocked" ).counter().count() );
+    }
+
+    @Test
+    void missingFoldersAreCreated() throws IOException {
+        final AsyncFileWriter writer = new AsyncFileWriter( "test", 16, SchedulerMetrics.noop() );
+        final Path log = dir.resolve( "a/b/log.csv" );
+        writer.append( log.toString(), "line" );
+        writer.close();
+        assertEquals( List.of( "line" ), Files.readAllLines( log ) );
+    }
+
+    @Test
+    void writesAfterCloseAreDropped() {
+        final AsyncFileWriter writer = new AsyncFileWriter( "test", 1, SchedulerMetrics.noop() );
+        writer.close();
+        final Path trace = dir.resolve( "trace" );
+        writer.write( trace.toString(), "content" );
+        writer.close();
+        assertFalse( Files.exists( trace ) );
+    }
+
+    @Test
+    void moreWritesThanCapacity() throws IOException {
+        final AsyncFileWriter writer = new AsyncFileWriter( "test", 2, SchedulerMetrics.noop() );
+        final Path log = dir.resolve( "log.csv" );
+        for ( int i = 0; i < 100; i++ ) {
+            writer.append( log.toString(), String.valueOf( i ) );
+        }
+        writer.close();
+        final List<String> lines = Files.readAllLines( log );
+        assertEquals( 100, lines.size() );
+        assertEquals( "99", lines.get( 99 ) );
+    }
+
+    @Test
+    void fileIsNotOpenedAgainAfterAFailure() throws Exception {
+        final AsyncFileWriter writer = new AsyncFileWriter( "test", 16, SchedulerMetrics.noop() );
+        final Path parent = dir.resolve( "blocked" );
+        Files.writeString( parent, "not a folder" );
+        final Path log = parent.resolve( "log.csv" );
+        final Path marker = dir.resolve( "marker" );
+
+        writer.append( log.toString(), "a" );
+        writer.write( marker.toString(), "written" );
+        final long deadline = System.currentTimeMillis() + 5000;
+        while ( !Files.exists( marker ) && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 10 );
+        }
+        assertTrue( Files.exists( marker ) );
+
+        //the file could be opened now, but lines to a failed file are dropped
+        Files.delete( parent );
+        writer.append( log.toString(), "b" );
+        writer.close();
+        assertFalse( Files.exists( log ) );
+    }
+
+}
@@ -0,0 +1,27 @@
+package cws.k8s.scheduler.util;
+
+import cws.k8s.scheduler.model.TaskInputFileLocationWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyTaskTest {
+
+    @Test
+    void filesAreOnlyFinishedOnce() {
+        final TaskInputFileLocationWrapper a = new TaskInputFileLocationWrapper( "/work/a", null, null );
+        final TaskInputFileLocationWrapper b = new TaskInputFileLocationWrapper( "/work/b", null, null );
+        final CopyTask copyTask = new CopyTask( null, new LinkedList<>( List.of( a, b ) ), null, null );
+
+        assertSame( a, copyTask.fileFinished( "/work/a" ) );
+        assertNull( copyTask.fileFinished( "/work/a" ) );
+        assertNull( copyTask.fileFinished( "/work/c" ) );
+        assertEquals( List.of( b ), copyTask.finishRemainingFiles() );
+        assertNull( copyTask.fileFinished( "/work/b" ) );
+        assertTrue( copyTask.finishRemainingFiles().isEmpty() );
+    }
+
+}
@@ -0,0 +1,129 @@
+package cws.k8s.scheduler.util;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FtpConnectionPoolTest {
+
+    private final List<String> connects = new CopyOnWriteArrayList<>();
+
+    private FTPClient connect( String daemon ) throws IOException {
+        connects.add( daemon );
+        final FTPClient client = mock( FTPClient.class );
+        when( client.isConnected() ).thenReturn( true );
+        when( client.sendNoOp() ).thenReturn( true );
+        return client;
+    }
+
+    @Test
+    void healthyConnectionIsReused() throws IOException {
+        final FtpConnectionPool pool = new FtpConnectionPool( 2, 60_000, this::connect );
+        final FTPClient first = pool.borrow( "10.0.0.1" );
+        pool.release( "10.0.0.1", first );
+        assertSame( first, pool.borrow( "10.0.0.1" ) );
+        verify( first ).sendNoOp();
+
+        final FTPClient other = pool.borrow( "10.0.0.2" );
+        assertNotSame( first, other );
+        assertEquals( List.of( "10.0.0.1", "10.0.0.2" ), connects );
+    }
+
+    @Test
+    void brokenConnectionIsReplaced() throws IOException {
+        final FtpConnectionPool pool = new FtpConnectionPool( 2, 60_000, this::connect );
+        final FTPClient first = pool.borrow( "10.0.0.1" );
+        pool.release( "10.0.0.1", first );
+        when( first.sendNoOp() ).thenThrow( new IOException( "connection reset" ) );
+
+        final FTPClient second = pool.borrow( "10.0.0.1" );
+        assertNotSame( first, second );
+        verify( first ).disconnect();
+
+        pool.invalidate( "10.0.0.1", second );
+        verify( second ).disconnect();
+        assertNotSame( second, pool.borrow( "10.0.0.1" ) );
+        assertEquals( 3, connects.size() );
+    }
+
+    @Test
+    void idleConnectionIsEvicted() throws IOException {
+        final FtpConnectionPool pool = new FtpConnectionPool( 2, 0, this::connect );
+        final FTPClient first = pool.borrow( "10.0.0.1" );
+        pool.release( "10.0.0.1", first );
+        assertNotSame( first, pool.borrow( "10.0.0.1" ) );
+        verify( first, never() ).sendNoOp();
+        verify( first ).disconnect();
+    }
+
+    @Test
+    void idleConnectionIsClosedWithoutBorrowing() throws IOException {
+        final FtpConnectionPool pool = new FtpConnectionPool( 2, 20, this::connect );
+        final FTPClient first = pool.borrow( "10.0.0.1" );
+        pool.release( "10.0.0.1", first );
+        verify( first, timeout( 5000 ) ).disconnect();
+        assertNotSame( first, pool.borrow( "10.0.0.1" ) );
+        verify( first, never() ).sendNoOp();
+        pool.close();
+    }
+
+    @Test
+    void connectionsPerDaemonAreBounded() throws Exception {
+        final FtpConnectionPool pool = new FtpConnectionPool( 1, 60_000, this::connect );
+        final FTPClient first = pool.borrow( "10.0.0.1" );
+        final CompletableFuture<FTPClient> waiting = CompletableFuture.supplyAsync( () -> {
+            try {
+                return pool.borrow( "10.0.0.1" );
+            } catch ( IOException e ) {
+                throw new IllegalStateException( e );
+            }
+        } );
+        assertThrows( TimeoutException.class, () -> waiting.get( 100, TimeUnit.MILLISECONDS ) );
+        assertNotNull( pool.borrow( "10.0.0.2" ) );
+
+        pool.release( "10.0.0.1", first );
+        assertSame( first, waiting.get( 5, TimeUnit.SECONDS ) );
+        assertEquals( 2, connects.size() );
+    }
+
+    @Test
+    void failedConnectDoesNotTakeAConnection() throws IOException {
+        final boolean[] fail = { true };
+        final FtpConnectionPool pool = new FtpConnectionPool( 1, 60_000, daemon -> {
+            if ( fail[0] ) {
+                fail[0] = false;
+                throw new IOException( "refused" );
+            }
+            return connect( daemon );
+        } );
+        assertThrows( IOException.class, () -> pool.borrow( "10.0.0.1" ) );
+        assertNotNull( pool.borrow( "10.0.0.1" ) );
+    }
+
+    @Test
+    void removedDaemon() throws IOException {
+        final FtpConnectionPool pool = new FtpConnectionPool( 2, 60_000, this::connect );
+        final FTPClient idle = pool.borrow( "10.0.0.1" );
+        final FTPClient inUse = pool.borrow( "10.0.0.1" );
+        pool.release( "10.0.0.1", idle );
+
+        pool.removeDaemon( "10.0.0.1" );
+        verify( idle ).disconnect();
+        pool.release( "10.0.0.1", inUse );
+        verify( inUse ).disconnect();
+        assertNotSame( idle, pool.borrow( "10.0.0.1" ) );
+
+        pool.close();
+        assertThrows( IllegalStateException.class, () -> pool.borrow( "10.0.0.1" ) );
+    }
+
+}
@@ -0,0 +1,127 @@
+package cws.k8s.scheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedHeapTest {
+
+    /**
+     * Mutable key, the same as the index to compare of a TaskStat
+     */
+    private static class Item implements Comparable<Item> {
+
+        private int key;
+
+        Item( int key ) {
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo( Item o ) {
+            return Integer.compare( key, o.key );
+        }
+
+    }
+
+    private List<Integer> drain( IndexedHeap<Item> heap ) {
+        final List<Integer> keys = new ArrayList<>();
+        while ( !heap.isEmpty() ) {
+            keys.add( heap.poll().key );
+        }
+        return keys;
+    }
+
+    @Test
+    void pollInOrder() {
+        final IndexedHeap<Item> heap = new IndexedHeap<>( List.of( new Item( 8 ), new Item( 4 ), new Item( 1 ), new Item( 5 ) ) );
+        heap.add( new Item( 3 ) );
+        assertEquals( 5, heap.size() );
+        assertEquals( 1, heap.peek().key );
+        assertEquals( List.of( 1, 3, 4, 5, 8 ), drain( heap ) );
+        assertNull( heap.poll() );
+        assertNull( heap.peek() );
+    }
+
+    @Test
+    void elementsAreOnlyContainedOnce() {
+        final Item item = new Item( 1 );
+        final IndexedHeap<Item> heap = new IndexedHeap<>( List.of( item, item ) );
+        assertEquals( 1, heap.size() );
+        assertFalse( heap.add( item ) );
+        assertTrue( heap.add( new Item( 1 ) ) );
+        assertEquals( 2, heap.size() );
+    }
+
+    @Test
+    void update() {
+        final Item a = new Item( 1 );
+        final Item b = new Item( 5 );
+        final Item c = new Item( 9 );
+        final IndexedHeap<Item> heap = new IndexedHeap<>( List.of( a, b, c ) );
+        a.key = 7;
+        heap.update( a );
+        assertSame( b, heap.peek() );
+        c.key = 0;
+        heap.update( c );
+        assertSame( c, heap.peek() );
+        assertEquals( List.of( 0, 5, 7 ), drain( heap ) );
+        assertThrows( NoSuchElementException.class, () -> heap.update( a ) );
+    }
+
+    @Test
+    void removeAndRemoveIf() {
+        final Item a = new Item( 3 );
+        final IndexedHeap<Item> heap = new IndexedHeap<>( List.of( new Item( 1 ), new Item( 2 ), a, new Item( 4 ), new Item( 5 ) ) );
+        assertTrue( heap.remove( a ) );
+        assertFalse( heap.remove( a ) );
+        assertFalse( heap.contains( a ) );
+        assertFalse( heap.removeIf( item -> item.key > 10 ) );
+        assertTrue( heap.removeIf( item -> item.key % 2 == 0 ) );
+        assertEquals( List.of( 1, 5 ), drain( heap ) );
+    }
+
+    @Test
+    void sameOrderAsPriorityQueue() {
+        final Random random = new Random( 42 );
+        final List<Item> items = new ArrayList<>();
+        for ( int i = 0; i < 200; i++ ) {
+            items.add( new Item( random.nextInt( 100 ) ) );
+        }
+        final IndexedHeap<Item> heap = new IndexedHeap<>( items );
+        final PriorityQueue<Item> expected = new PriorityQueue<>( items );
+        for ( int i = 0; i < 2000 && !heap.isEmpty(); i++ ) {
+            final Item top = heap.peek();
+            assertEquals( expected.peek().key, top.key );
+            switch ( random.nextInt( 3 ) ) {
+                case 0 -> {
+                    //increase the key like increaseIndexToCompare does
+                    expected.remove( top );
+                    top.key += random.nextInt( 20 );
+                    heap.update( top );
+                    expected.add( top );
+                }
+                case 1 -> {
+                    assertSame( top, heap.poll() );
+                    expected.remove( top );
+                }
+                default -> {
+                    final Item item = new Item( random.nextInt( 100 ) );
+                    heap.add( item );
+                    expected.add( item );
+                }
+            }
+            assertEquals( expected.size(), heap.size() );
+        }
+        final int[] expectedKeys = expected.stream().mapToInt( item -> item.key ).sorted().toArray();
+        assertEquals( Arrays.stream( expectedKeys ).boxed().toList(), drain( heap ) );
+    }
+
+}
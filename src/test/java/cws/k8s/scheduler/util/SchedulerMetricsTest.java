@@ -0,0 +1,105 @@
+package cws.k8s.scheduler.util;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskConfig;
+import cws.k8s.scheduler.model.location.NodeLocation;
+import cws.k8s.scheduler.util.copying.CurrentlyCopying;
+import cws.k8s.scheduler.util.copying.CurrentlyCopyingOnNode;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerMetricsTest {
+
+    @Test
+    void queueAndRound() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SchedulerMetrics metrics = new SchedulerMetrics( registry, "exec" );
+        final List<String> queue = new ArrayList<>( List.of( "a", "b" ) );
+        metrics.registerQueue( "unscheduled", queue );
+        assertEquals( 2, registry.get( "cws.scheduler.queue.size" ).tag( "queue", "unscheduled" ).gauge().value() );
+        queue.add( "c" );
+        assertEquals( 3, registry.get( "cws.scheduler.queue.size" ).tag( "execution", "exec" ).gauge().value() );
+
+        assertEquals( 5, metrics.recordSchedulingRound( () -> 5 ) );
+        assertEquals( 1, registry.get( "cws.scheduler.round" ).timer().count() );
+    }
+
+    @Test
+    void copyTasksAndBytes() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SchedulerMetrics metrics = new SchedulerMetrics( registry, "exec" );
+        final CurrentlyCopying currentlyCopying = new CurrentlyCopying();
+        final NodeLocation node = NodeLocation.getLocation( "node-a" );
+        final CurrentlyCopyingOnNode files = new CurrentlyCopyingOnNode();
+        final DAG dag = new DAG();
+        dag.registerVertices( List.of( new Process( "P1", 1 ) ) );
+        final Task task = new Task( new TaskConfig( "P1" ), dag );
+        files.add( "/work/a.txt", task, NodeLocation.getLocation( "node-b" ) );
+        currentlyCopying.add( task, node, files );
+
+        metrics.registerCopyTasksOnNode( node, currentlyCopying );
+        metrics.registerCopyTasksOnNode( node, currentlyCopying );
+        assertEquals( 1, registry.get( "cws.copy.tasks.in.flight" ).gauges().size() );
+        assertEquals( 1, registry.get( "cws.copy.tasks.in.flight" ).tag( "node", "node-a" ).gauge().value() );
+        currentlyCopying.remove( task, node, files );
+        assertEquals( 0, registry.get( "cws.copy.tasks.in.flight" ).gauge().value() );
+
+        metrics.copyPlanned( 100 );
+        metrics.copyPlanned( 50 );
+        metrics.copyFinished( 100 );
+        assertEquals( 150, registry.get( "cws.copy.bytes.planned" ).counter().count() );
+        assertEquals( 100, registry.get( "cws.copy.bytes.copied" ).counter().count() );
+    }
+
+    @Test
+    void memoryPrediction() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SchedulerMetrics metrics = new SchedulerMetrics( registry, "exec" );
+        metrics.recordMemoryPrediction( 300, 100 );
+        metrics.recordMemoryPrediction( 100, 150 );
+        assertEquals( 200, registry.get( "cws.prediction.memory.error" ).tag( "direction", "over" ).summary().totalAmount() );
+        assertEquals( 50, registry.get( "cws.prediction.memory.error" ).tag( "direction", "under" ).summary().totalAmount() );
+    }
+
+    @Test
+    void lastChangeOfPod() {
+        final Pod pod = new PodBuilder()
+                .withNewMetadata().withName( "a" ).withCreationTimestamp( "2024-01-01T10:00:00Z" ).endMetadata()
+                .withNewStatus()
+                .addNewCondition().withType( "Ready" ).withLastTransitionTime( "2024-01-01T10:00:05Z" ).endCondition()
+                .addNewContainerStatus().withNewState().withNewTerminated().withFinishedAt( "2024-01-01T10:01:00Z" ).endTerminated().endState().endContainerStatus()
+                .endStatus()
+                .build();
+        assertEquals( Instant.parse( "2024-01-01T10:01:00Z" ), SchedulerMetrics.lastChange( pod ) );
+        assertNull( SchedulerMetrics.lastChange( new PodBuilder().withNewMetadata().withCreationTimestamp( "invalid" ).endMetadata().build() ) );
+
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new SchedulerMetrics( registry, "exec" ).recordPodEvent( pod );
+        assertEquals( 1, registry.get( "cws.scheduler.pod.event.lag" ).timer().count() );
+    }
+
+    @Test
+    void closeRemovesMeters() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final SchedulerMetrics metrics = new SchedulerMetrics( registry, "exec" );
+        final SchedulerMetrics other = new SchedulerMetrics( registry, "other" );
+        metrics.registerQueue( "unscheduled", new ArrayList<>() );
+        metrics.registerCopyTasksOnNode( NodeLocation.getLocation( "node-a" ), new CurrentlyCopying() );
+        metrics.close();
+        assertTrue( registry.getMeters().stream().allMatch( meter -> "other".equals( meter.getId().getTag( "execution" ) ) ) );
+        assertFalse( registry.getMeters().isEmpty() );
+        other.close();
+        assertTrue( registry.getMeters().isEmpty() );
+    }
+
+}
@@ -0,0 +1,106 @@
+package cws.k8s.scheduler.util.copying;
+
+import cws.k8s.scheduler.dag.DAG;
+import cws.k8s.scheduler.dag.Process;
+import cws.k8s.scheduler.model.Task;
+import cws.k8s.scheduler.model.TaskConfig;
+import cws.k8s.scheduler.model.location.NodeLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrentlyCopyingTest {
+
+    private final NodeLocation node1 = NodeLocation.getLocation( "CurrentlyCopyingTest-1" );
+    private final NodeLocation node2 = NodeLocation.getLocation( "CurrentlyCopyingTest-2" );
+
+    private DAG dag;
+
+    @BeforeEach
+    void before() {
+        dag = new DAG();
+        dag.registerVertices( List.of( new Process( "processA", 1 ) ) );
+    }
+
+    private CurrentlyCopyingOnNode copying( Task task, NodeLocation from, String... paths ) {
+        final CurrentlyCopyingOnNode result = new CurrentlyCopyingOnNode();
+        for ( String path : paths ) {
+            result.add( path, task, from );
+        }
+        return result;
+    }
+
+    @Test
+    void addAndRemove() {
+        final Task first = new Task( new TaskConfig( "processA" ), dag );
+        final Task second = new Task( new TaskConfig( "processA" ), dag );
+        final CurrentlyCopying currentlyCopying = new CurrentlyCopying();
+        final CurrentlyCopyingOnNode firstFiles = copying( first, node2, "/work/a", "/work/b" );
+        final CurrentlyCopyingOnNode secondFiles = copying( second, node2, "/work/c" );
+
+        currentlyCopying.add( first, node1, firstFiles );
+        currentlyCopying.add( second, node1, secondFiles );
+        currentlyCopying.add( second, node2, new CurrentlyCopyingOnNode() );
+        assertEquals( 2, currentlyCopying.getNumberOfCopyTasksOnNode( node1 ) );
+        assertEquals( 0, currentlyCopying.getNumberOfCopyTasksOnNode( node2 ) );
+        assertEquals( 1, currentlyCopying.getNumberOfNodesForTask( first ) );
+        assertEquals( Set.of( "/work/a", "/work/b", "/work/c" ), currentlyCopying.get( node1 ).getAllFilesCurrentlyCopying() );
+
+        currentlyCopying.remove( first, node1, firstFiles );
+        assertEquals( List.of( second ), currentlyCopying.getTasksOnNode( node1 ) );
+        assertEquals( 0, currentlyCopying.getNumberOfNodesForTask( first ) );
+        assertEquals( Set.of( "/work/c" ), currentlyCopying.get( node1 ).getAllFilesCurrentlyCopying() );
+        assertTrue( firstFiles.isCurrentlyCopying( "/work/a" ) );
+
+        currentlyCopying.remove( second, node1, secondFiles );
+        assertTrue( currentlyCopying.getTasksOnNode( node1 ).isEmpty() );
+        assertTrue( currentlyCopying.get( node1 ).isEmpty() );
+    }
+
+    @Test
+    void onlyRemoveFilesCopiedFromTheSameSource() {
+        final Task first = new Task( new TaskConfig( "processA" ), dag );
+        final Task second = new Task( new TaskConfig( "processA" ), dag );
+        final CurrentlyCopyingOnNode firstFiles = copying( first, node2, "/work/a" );
+        final CurrentlyCopyingOnNode secondFiles = copying( second, node2, "/work/a" );
+        final CurrentlyCopyingOnNode onNode = new CurrentlyCopyingOnNode();
+
+        onNode.add( firstFiles );
+        onNode.add( secondFiles );
+        onNode.remove( firstFiles );
+        assertSame( second, onNode.getCopySource( "/work/a" ).getTask() );
+        onNode.remove( secondFiles );
+        assertFalse( onNode.isCurrentlyCopying( "/work/a" ) );
+    }
+
+    @Test
+    void fileCannotBeCopiedTwice() {
+        final Task task = new Task( new TaskConfig( "processA" ), dag );
+        final CurrentlyCopyingOnNode onNode = copying( task, node2, "/work/a" );
+        assertThrows( IllegalStateException.class, () -> onNode.add( "/work/a", task, node2 ) );
+    }
+
+    @Test
+    void snapshotIsNotChanged() {
+        final Task first = new Task( new TaskConfig( "processA" ), dag );
+        final Task second = new Task( new TaskConfig( "processA" ), dag );
+        final CurrentlyCopying currentlyCopying = new CurrentlyCopying();
+        currentlyCopying.add( first, node1, copying( first, node2, "/work/a" ) );
+        final List<Task> tasksOnNode = currentlyCopying.getTasksOnNode( node1 );
+
+        final Map<NodeLocation, CurrentlyCopyingOnNode> snapshot = currentlyCopying.snapshot();
+        currentlyCopying.add( second, node1, copying( second, node2, "/work/b" ) );
+        currentlyCopying.add( second, node2, copying( second, node1, "/work/c" ) );
+
+        assertEquals( Set.of( node1 ), snapshot.keySet() );
+        assertEquals( Set.of( "/work/a" ), snapshot.get( node1 ).getAllFilesCurrentlyCopying() );
+        assertEquals( List.of( first ), tasksOnNode );
+        assertThrows( UnsupportedOperationException.class, () -> tasksOnNode.add( second ) );
+    }
+
+}